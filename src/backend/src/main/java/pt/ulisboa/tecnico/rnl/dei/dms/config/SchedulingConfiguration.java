@@ -0,0 +1,9 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
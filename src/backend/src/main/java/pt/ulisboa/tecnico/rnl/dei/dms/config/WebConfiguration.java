@@ -15,6 +15,7 @@ public class WebConfiguration implements WebMvcConfigurer {
         .allowCredentials(true)
         .allowedMethods("HEAD", "OPTIONS", "GET", "POST", "PUT", "PATCH",
                         "DELETE")
+        .exposedHeaders("ETag", "X-Next-Cursor", "Content-Range", "Accept-Ranges", "Content-Disposition")
         .maxAge(MAX_AGE_SECS);
   }
 }
@@ -1,15 +1,25 @@
 package pt.ulisboa.tecnico.rnl.dei.dms.dashboard;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto.DashboardDTO;
 import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto.StudentDetailDTO;
 import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto.StudentWorkflowDTO;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto.TeacherDashboardDTO;
 import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.service.DashboardService;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.service.WorkflowChangeStream;
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.pagination.CursorPage;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent.WorkflowType;
+import pt.ulisboa.tecnico.rnl.dei.dms.versioning.DataVersions;
+import pt.ulisboa.tecnico.rnl.dei.dms.versioning.DataVersions.DataTable;
 
 import java.util.List;
 
@@ -20,20 +30,75 @@ public class DashboardController {
     @Autowired
     private DashboardService dashboardService;
 
+    @Autowired
+    private WorkflowChangeStream workflowChangeStream;
+
+    @Autowired
+    private DataVersions dataVersions;
+
     /**
-     * Get dashboard data based on user role
+     * Get dashboard data based on user role (answers 304 if If-None-Match is still current)
      */
     @GetMapping
-    public ResponseEntity<DashboardDTO> getDashboard(@RequestParam String role) {
+    public ResponseEntity<DashboardDTO> getDashboard(
+            @RequestParam String role,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Person.PersonType personType = Person.PersonType.fromString(role);
+            String etag = dataVersions.etag("dashboard-" + personType.name(),
+                    DataTable.PEOPLE, DataTable.THESIS, DataTable.DEFENSE);
+            if (dataVersions.isNotModified(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+
             DashboardDTO dashboard = dashboardService.getDashboardForRole(personType);
-            return ResponseEntity.ok(dashboard);
+            return ResponseEntity.ok().eTag(etag).body(dashboard);
         } catch (IllegalArgumentException e) {
             throw new DEIException(ErrorMessage.INVALID_PERSON_TYPE, role);
         }
     }
 
+    /**
+     * Stream of workflow status changes (Server-Sent Events), so dashboards can stay current
+     * without polling. Browsers resend the Last-Event-ID header on reconnect to resume the stream;
+     * a "reset" event means too much was missed and the dashboard must be reloaded.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamWorkflowChanges(
+            @RequestParam Person.PersonType role,
+            @RequestParam(required = false) Long studentId,
+            @RequestParam(required = false) String workflowType,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+
+        if (role == Person.PersonType.STUDENT && studentId == null) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR, "studentId is required for students");
+        }
+
+        WorkflowType type = null;
+        if (workflowType != null) {
+            try {
+                type = WorkflowType.valueOf(workflowType.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new DEIException(ErrorMessage.INVALID_WORKFLOW_TYPE);
+            }
+        }
+
+        return workflowChangeStream.subscribe(role, studentId, type, lastEventId);
+    }
+
+    /**
+     * Check the dashboard against the database and rebuild it if it diverged (Coordinator/Staff action).
+     * Returns true if it was already consistent.
+     */
+    @PostMapping("/reconcile")
+    public ResponseEntity<Boolean> reconcileDashboard(@RequestParam Person.PersonType role) {
+        if (role != Person.PersonType.COORDINATOR && role != Person.PersonType.STAFF) {
+            throw new DEIException(ErrorMessage.UNAUTHORIZED);
+        }
+
+        return ResponseEntity.ok(dashboardService.reconcileDashboard());
+    }
+
     /**
      * Get detailed information for a specific student
      */
@@ -44,20 +109,53 @@ public class DashboardController {
     }
 
     /**
-     * Filter students by workflow status
+     * Get the juries a teacher is on whose defense is not graded yet ("my juries")
+     */
+    @GetMapping("/teacher/{teacherId}")
+    public ResponseEntity<TeacherDashboardDTO> getTeacherDashboard(@PathVariable Long teacherId) {
+        return ResponseEntity.ok(dashboardService.getTeacherDashboard(teacherId));
+    }
+
+    /**
+     * Filter students by workflow status.
+     * Either workflowType + status (one or more comma-separated statuses), or thesisStatus and/or
+     * defenseStatus lists, which are combined with AND. Results are ordered by student id; with a
+     * cursor or limit one page is returned, and the token for the next page is in X-Next-Cursor.
      */
     @GetMapping("/filter")
     public ResponseEntity<List<StudentWorkflowDTO>> filterStudentsByWorkflowStatus(
-            @RequestParam String workflowType,
-            @RequestParam String status) {
+            @RequestParam(required = false) String workflowType,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) List<String> thesisStatus,
+            @RequestParam(required = false) List<String> defenseStatus,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         
-        if (!workflowType.equalsIgnoreCase("thesis") && !workflowType.equalsIgnoreCase("defense")) {
-            throw new DEIException(ErrorMessage.INVALID_WORKFLOW_TYPE);
+        List<String> thesisStatuses = thesisStatus;
+        List<String> defenseStatuses = defenseStatus;
+
+        if (workflowType != null) {
+            if (status == null) {
+                throw new DEIException(ErrorMessage.VALIDATION_ERROR, "status is required with workflowType");
+            }
+            if (workflowType.equalsIgnoreCase("thesis")) {
+                thesisStatuses = status;
+            } else if (workflowType.equalsIgnoreCase("defense")) {
+                defenseStatuses = status;
+            } else {
+                throw new DEIException(ErrorMessage.INVALID_WORKFLOW_TYPE);
+            }
         }
         
-        List<StudentWorkflowDTO> students = dashboardService.filterStudentsByWorkflowStatus(
-                workflowType, status);
-        
-        return ResponseEntity.ok(students);
+        CursorPage<StudentWorkflowDTO> page = dashboardService.filterStudentsByWorkflowStatus(
+                thesisStatuses != null ? dashboardService.parseThesisStatuses(thesisStatuses) : null,
+                defenseStatuses != null ? dashboardService.parseDefenseStatuses(defenseStatuses) : null,
+                cursor, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
     }
-}
\ No newline at end of file
+}
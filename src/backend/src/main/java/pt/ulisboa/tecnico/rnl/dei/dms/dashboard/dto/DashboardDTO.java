@@ -5,7 +5,7 @@ import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
 
-import java.util.List;
+import java.util.Collection;
 
 /**
  * DTO for dashboard data based on user role
@@ -13,13 +13,13 @@ import java.util.List;
 @Data
 public class DashboardDTO {
     // List of all students with their workflow statuses
-    private List<StudentWorkflowDTO> students;
+    private Collection<StudentWorkflowDTO> students;
     
     // List of thesis IDs needing action based on role
-    private List<Long> thesesNeedingAction;
+    private Collection<Long> thesesNeedingAction;
     
     // List of defense IDs needing action based on role
-    private List<Long> defensesNeedingAction;
+    private Collection<Long> defensesNeedingAction;
 }
 
 
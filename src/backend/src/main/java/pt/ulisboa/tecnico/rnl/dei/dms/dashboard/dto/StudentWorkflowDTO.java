@@ -1,6 +1,7 @@
 package pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
@@ -11,11 +12,42 @@ import java.util.List;
  * DTO for student with workflow status information
  */
 @Data
+@NoArgsConstructor
 public class StudentWorkflowDTO {
     private Long studentId;
     private String name;
     private String istId;
     private String email;
+    private Long thesisId;
     private String thesisStatus;
+    private Long defenseId;
     private String defenseStatus;
+
+    // Constructor used by the JPQL projection in StudentWorkflowRepository.
+    // DefenseStatusConverter maps a NULL column to UNSCHEDULED, so the defense id
+    // is needed to tell a missing defense apart from an unscheduled one.
+    public StudentWorkflowDTO(Long studentId, String name, String istId, String email,
+                              Long thesisId, ThesisWorkflow.ThesisStatus thesisStatus,
+                              Long defenseId, DefenseWorkflow.DefenseStatus defenseStatus) {
+        this.studentId = studentId;
+        this.name = name;
+        this.istId = istId;
+        this.email = email;
+        this.thesisId = thesisId;
+        this.thesisStatus = thesisStatus != null ? thesisStatus.name() : null;
+        this.defenseId = defenseId;
+        this.defenseStatus = defenseId != null && defenseStatus != null ? defenseStatus.name() : null;
+    }
+
+    // Copy constructor, used by the dashboard read model to update entries without sharing them
+    public StudentWorkflowDTO(StudentWorkflowDTO other) {
+        this.studentId = other.studentId;
+        this.name = other.name;
+        this.istId = other.istId;
+        this.email = other.email;
+        this.thesisId = other.thesisId;
+        this.thesisStatus = other.thesisStatus;
+        this.defenseId = other.defenseId;
+        this.defenseStatus = other.defenseStatus;
+    }
 }
@@ -0,0 +1,17 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto;
+
+import lombok.Data;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.ThesisWorkflowDto;
+
+import java.util.List;
+
+/**
+ * DTO for a teacher's "my juries" dashboard: the theses they are a jury member of whose defense is not graded yet
+ */
+@Data
+public class TeacherDashboardDTO {
+    private Long teacherId;
+    private String name;
+    private int activeJuries;
+    private List<ThesisWorkflowDto> theses;
+}
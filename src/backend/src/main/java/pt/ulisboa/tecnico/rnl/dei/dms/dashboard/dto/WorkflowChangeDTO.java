@@ -0,0 +1,20 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact delta pushed to dashboard clients when a workflow changes status
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowChangeDTO {
+    private long eventId;
+    private String workflowType;
+    private Long workflowId;
+    private Long studentId;
+    private String oldStatus;
+    private String newStatus;
+}
@@ -0,0 +1,62 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.dashboard.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto.StudentWorkflowDTO;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only projections used by the dashboard.
+ * Each method builds the whole result in a single query instead of
+ * loading the workflows of every student one by one.
+ */
+@org.springframework.stereotype.Repository
+public interface StudentWorkflowRepository extends Repository<Person, Long> {
+
+    String SELECT_STUDENT_WORKFLOW =
+           "SELECT new pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto.StudentWorkflowDTO(" +
+           "p.id, p.name, p.istId, p.email, t.id, t.status, d.id, d.status) " +
+           "FROM Person p " +
+           "LEFT JOIN ThesisWorkflow t ON t.student = p " +
+           "LEFT JOIN DefenseWorkflow d ON d.student = p ";
+
+    // All people of the given type with the status of their thesis and defense workflows
+    @Query(SELECT_STUDENT_WORKFLOW + "WHERE p.type = :type ORDER BY p.id")
+    List<StudentWorkflowDTO> findAllWithWorkflowStatus(@Param("type") Person.PersonType type);
+
+    // A single person of the given type with the status of their workflows
+    @Query(SELECT_STUDENT_WORKFLOW + "WHERE p.id = :id AND p.type = :type")
+    Optional<StudentWorkflowDTO> findWithWorkflowStatus(@Param("id") Long id, @Param("type") Person.PersonType type);
+
+    // Status filters, keyset-paginated by student id ("after" is the last id of the previous page).
+    // They are backed by the (status, student_id) indexes on both workflow tables.
+    @Query(SELECT_STUDENT_WORKFLOW +
+           "WHERE p.type = :type AND p.id > :after AND t.status IN :thesisStatuses ORDER BY p.id")
+    List<StudentWorkflowDTO> findByThesisStatusIn(@Param("type") Person.PersonType type,
+                                                  @Param("thesisStatuses") List<ThesisStatus> thesisStatuses,
+                                                  @Param("after") Long after,
+                                                  Pageable pageable);
+
+    @Query(SELECT_STUDENT_WORKFLOW +
+           "WHERE p.type = :type AND p.id > :after AND d.status IN :defenseStatuses ORDER BY p.id")
+    List<StudentWorkflowDTO> findByDefenseStatusIn(@Param("type") Person.PersonType type,
+                                                   @Param("defenseStatuses") List<DefenseStatus> defenseStatuses,
+                                                   @Param("after") Long after,
+                                                   Pageable pageable);
+
+    @Query(SELECT_STUDENT_WORKFLOW +
+           "WHERE p.type = :type AND p.id > :after " +
+           "AND t.status IN :thesisStatuses AND d.status IN :defenseStatuses ORDER BY p.id")
+    List<StudentWorkflowDTO> findByThesisStatusInAndDefenseStatusIn(@Param("type") Person.PersonType type,
+                                                                    @Param("thesisStatuses") List<ThesisStatus> thesisStatuses,
+                                                                    @Param("defenseStatuses") List<DefenseStatus> defenseStatuses,
+                                                                    @Param("after") Long after,
+                                                                    Pageable pageable);
+}
@@ -0,0 +1,226 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.dashboard.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto.DashboardDTO;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto.StudentWorkflowDTO;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.repository.StudentWorkflowRepository;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.readmodel.InMemoryIndex;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory read model behind GET /api/dashboard, so serving a dashboard does not touch
+ * the database. Each role has a ready-made dashboard whose lists are unmodifiable views of
+ * the model, which transitions update in place. Concurrent collections let a response be
+ * written while a transition is applied; it then shows the state before or after it.
+ */
+@Component
+public class DashboardReadModel extends InMemoryIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardReadModel.class);
+
+    // Which thesis/defense status each role has to act upon
+    private static final Map<Person.PersonType, ThesisStatus> THESIS_ACTION = new EnumMap<>(Map.of(
+            Person.PersonType.COORDINATOR, ThesisStatus.APPROVED_BY_SC,
+            Person.PersonType.SC, ThesisStatus.PROPOSAL_SUBMITTED,
+            Person.PersonType.STAFF, ThesisStatus.DOCUMENT_SIGNED));
+
+    private static final Map<Person.PersonType, DefenseStatus> DEFENSE_ACTION = new EnumMap<>(Map.of(
+            Person.PersonType.COORDINATOR, DefenseStatus.UNDER_REVIEW));
+
+    @Autowired
+    private StudentWorkflowRepository studentWorkflowRepository;
+
+    private Snapshot snapshot = new Snapshot();
+
+    private volatile Map<Person.PersonType, DashboardDTO> dashboards = dashboards(snapshot);
+
+    public DashboardDTO getDashboard(Person.PersonType role) {
+        return dashboards.get(role);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public synchronized void reload() {
+        replace(load());
+        logger.debug("Dashboard read model built with {} students", snapshot.students.size());
+    }
+
+    /**
+     * Compare the read model with the database and rebuild it if they diverged.
+     * Returns true if the read model was consistent.
+     */
+    @Transactional(readOnly = true)
+    public synchronized boolean reconcile() {
+        Snapshot fresh = load();
+        if (fresh.equals(snapshot)) {
+            return true;
+        }
+
+        logger.warn("Dashboard read model diverged from the database, rebuilding");
+        replace(fresh);
+        return false;
+    }
+
+    @TransactionalEventListener
+    public synchronized void onWorkflowTransition(WorkflowTransitionEvent event) {
+        StudentWorkflowDTO current = snapshot.students.get(event.studentId());
+        StudentWorkflowDTO updated = current != null ? new StudentWorkflowDTO(current) : null;
+
+        if (event.workflowType() == WorkflowTransitionEvent.WorkflowType.THESIS) {
+            snapshot.moveThesis(event.workflowId(), status(ThesisStatus.class, event.oldStatus()),
+                    status(ThesisStatus.class, event.newStatus()));
+            if (updated != null) {
+                updated.setThesisId(event.newStatus() != null ? event.workflowId() : null);
+                updated.setThesisStatus(event.newStatus());
+            }
+        } else {
+            snapshot.moveDefense(event.workflowId(), status(DefenseStatus.class, event.oldStatus()),
+                    status(DefenseStatus.class, event.newStatus()));
+            if (updated != null) {
+                updated.setDefenseId(event.newStatus() != null ? event.workflowId() : null);
+                updated.setDefenseStatus(event.newStatus());
+            }
+        }
+
+        if (updated != null) {
+            snapshot.students.put(updated.getStudentId(), updated);
+        }
+    }
+
+    @Override
+    protected synchronized void personDeleted(long personId) {
+        removeStudent(personId);
+    }
+
+    // Re-read, in case the person became a student or stopped being one
+    @Override
+    protected synchronized void personChanged(long personId) {
+        removeStudent(personId);
+        studentWorkflowRepository.findWithWorkflowStatus(personId, Person.PersonType.STUDENT)
+                .ifPresent(snapshot::add);
+    }
+
+    private void removeStudent(long studentId) {
+        StudentWorkflowDTO removed = snapshot.students.remove(studentId);
+        if (removed != null) {
+            snapshot.moveThesis(removed.getThesisId(), status(ThesisStatus.class, removed.getThesisStatus()), null);
+            snapshot.moveDefense(removed.getDefenseId(), status(DefenseStatus.class, removed.getDefenseStatus()), null);
+        }
+    }
+
+    private Snapshot load() {
+        Snapshot loaded = new Snapshot();
+        studentWorkflowRepository.findAllWithWorkflowStatus(Person.PersonType.STUDENT)
+                .forEach(loaded::add);
+        return loaded;
+    }
+
+    private void replace(Snapshot loaded) {
+        snapshot = loaded;
+        dashboards = dashboards(loaded);
+    }
+
+    private static Map<Person.PersonType, DashboardDTO> dashboards(Snapshot snapshot) {
+        Map<Person.PersonType, DashboardDTO> dashboards = new EnumMap<>(Person.PersonType.class);
+        for (Person.PersonType role : Person.PersonType.values()) {
+            DashboardDTO dashboard = new DashboardDTO();
+            dashboard.setStudents(Collections.unmodifiableCollection(snapshot.students.values()));
+
+            ThesisStatus thesisStatus = THESIS_ACTION.get(role);
+            if (thesisStatus != null) {
+                dashboard.setThesesNeedingAction(Collections.unmodifiableSet(snapshot.thesesByStatus.get(thesisStatus)));
+            }
+
+            DefenseStatus defenseStatus = DEFENSE_ACTION.get(role);
+            if (defenseStatus != null) {
+                dashboard.setDefensesNeedingAction(
+                        Collections.unmodifiableSet(snapshot.defensesByStatus.get(defenseStatus)));
+            }
+            dashboards.put(role, dashboard);
+        }
+        return dashboards;
+    }
+
+    private static <E extends Enum<E>> E status(Class<E> type, String name) {
+        return name != null ? Enum.valueOf(type, name) : null;
+    }
+
+    /**
+     * Students by id plus thesis and defense ids grouped by status, in id order
+     */
+    private static final class Snapshot {
+        private final Map<Long, StudentWorkflowDTO> students = new ConcurrentSkipListMap<>();
+        private final Map<ThesisStatus, Set<Long>> thesesByStatus = new EnumMap<>(ThesisStatus.class);
+        private final Map<DefenseStatus, Set<Long>> defensesByStatus = new EnumMap<>(DefenseStatus.class);
+
+        Snapshot() {
+            for (ThesisStatus status : ThesisStatus.values()) {
+                thesesByStatus.put(status, new ConcurrentSkipListSet<>());
+            }
+            for (DefenseStatus status : DefenseStatus.values()) {
+                defensesByStatus.put(status, new ConcurrentSkipListSet<>());
+            }
+        }
+
+        void add(StudentWorkflowDTO student) {
+            students.put(student.getStudentId(), student);
+            moveThesis(student.getThesisId(), null, status(ThesisStatus.class, student.getThesisStatus()));
+            moveDefense(student.getDefenseId(), null, status(DefenseStatus.class, student.getDefenseStatus()));
+        }
+
+        void moveThesis(Long id, ThesisStatus from, ThesisStatus to) {
+            if (id == null) {
+                return;
+            }
+            if (from != null) {
+                thesesByStatus.get(from).remove(id);
+            }
+            if (to != null) {
+                thesesByStatus.get(to).add(id);
+            }
+        }
+
+        void moveDefense(Long id, DefenseStatus from, DefenseStatus to) {
+            if (id == null) {
+                return;
+            }
+            if (from != null) {
+                defensesByStatus.get(from).remove(id);
+            }
+            if (to != null) {
+                defensesByStatus.get(to).add(id);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Snapshot other)) {
+                return false;
+            }
+            return students.equals(other.students)
+                    && thesesByStatus.equals(other.thesesByStatus)
+                    && defensesByStatus.equals(other.defensesByStatus);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(students, thesesByStatus, defensesByStatus);
+        }
+    }
+}
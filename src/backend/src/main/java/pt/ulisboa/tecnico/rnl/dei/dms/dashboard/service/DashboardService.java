@@ -1,29 +1,40 @@
 package pt.ulisboa.tecnico.rnl.dei.dms.dashboard.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.pagination.Cursor;
+import pt.ulisboa.tecnico.rnl.dei.dms.pagination.CursorPage;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.repository.PersonRepository;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseWorkflowDto;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.ThesisWorkflowDto;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.DefenseWorkflowRepository;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.ThesisWorkflowRepository;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.JuryWorkloadIndex;
 import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto.DashboardDTO;
 import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto.StudentWorkflowDTO;
 import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto.StudentDetailDTO;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto.TeacherDashboardDTO;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.repository.StudentWorkflowRepository;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class DashboardService {
 
+    private static final String FILTER_SORT = "studentId";
+
     @Autowired
     private PersonRepository personRepository;
 
@@ -33,55 +44,27 @@ public class DashboardService {
     @Autowired
     private DefenseWorkflowRepository defenseRepository;
 
+    @Autowired
+    private StudentWorkflowRepository studentWorkflowRepository;
+
+    @Autowired
+    private DashboardReadModel dashboardReadModel;
+
+    @Autowired
+    private JuryWorkloadIndex juryWorkloadIndex;
+
     /**
-     * Get dashboard data based on user role
+     * Get dashboard data based on user role (served from the in-memory read model)
      */
     public DashboardDTO getDashboardForRole(Person.PersonType role) {
-        DashboardDTO dashboard = new DashboardDTO();
-
-        // Get all students and their workflows
-        List<StudentWorkflowDTO> students = getAllStudentsWithWorkflows();
-        dashboard.setStudents(students);
-
-        // Role-specific filtering
-        switch (role) {
-            case COORDINATOR:
-                dashboard.setThesesNeedingAction(
-                    thesisRepository.findByStatus(ThesisWorkflow.ThesisStatus.APPROVED_BY_SC)
-                        .stream()
-                        .map(ThesisWorkflow::getId)
-                        .collect(Collectors.toList())
-                );
-                dashboard.setDefensesNeedingAction(
-                    defenseRepository.findByStatus(DefenseWorkflow.DefenseStatus.UNDER_REVIEW)
-                        .stream()
-                        .map(DefenseWorkflow::getId)
-                        .collect(Collectors.toList())
-                );
-                break;
-            case SC:
-                dashboard.setThesesNeedingAction(
-                    thesisRepository.findByStatus(ThesisWorkflow.ThesisStatus.PROPOSAL_SUBMITTED)
-                        .stream()
-                        .map(ThesisWorkflow::getId)
-                        .collect(Collectors.toList())
-                );
-                break;
-            case STAFF:
-                dashboard.setThesesNeedingAction(
-                    thesisRepository.findByStatus(ThesisWorkflow.ThesisStatus.DOCUMENT_SIGNED)
-                        .stream()
-                        .map(ThesisWorkflow::getId)
-                        .collect(Collectors.toList())
-                );
-                break;
-            case STUDENT:
-            case TEACHER:
-                // No extra data needed
-                break;
-        }
+        return dashboardReadModel.getDashboard(role);
+    }
 
-        return dashboard;
+    /**
+     * Check the dashboard read model against the database, rebuilding it if needed
+     */
+    public boolean reconcileDashboard() {
+        return dashboardReadModel.reconcile();
     }
 
     /**
@@ -115,61 +98,99 @@ public class DashboardService {
     }
 
     /**
-     * Filter students by thesis or defense status
+     * Get the active juries of a teacher (ids come from the jury workload index, theses are loaded in one query)
+     */
+    @Transactional(readOnly = true)
+    public TeacherDashboardDTO getTeacherDashboard(Long teacherId) {
+        Person teacher = personRepository.findById(teacherId)
+                .orElseThrow(() -> new DEIException(ErrorMessage.PERSON_NOT_FOUND, teacherId.toString()));
+
+        if (teacher.getType() != Person.PersonType.TEACHER) {
+            throw new DEIException(ErrorMessage.INVALID_PERSON_TYPE, "Not a teacher");
+        }
+
+        long[] thesisIds = juryWorkloadIndex.getActiveTheses(teacherId);
+        List<ThesisWorkflow> theses = thesisIds.length > 0
+                ? thesisRepository.findDetailedByIdIn(Arrays.stream(thesisIds).boxed().toList())
+                : List.of();
+
+        TeacherDashboardDTO dashboard = new TeacherDashboardDTO();
+        dashboard.setTeacherId(teacher.getId());
+        dashboard.setName(teacher.getName());
+        dashboard.setActiveJuries(thesisIds.length);
+        dashboard.setTheses(theses.stream().map(ThesisWorkflowDto::new).toList());
+        return dashboard;
+    }
+
+    /**
+     * Filter students by thesis or defense status ("thesis" or "defense", case insensitive)
      */
     public List<StudentWorkflowDTO> filterStudentsByWorkflowStatus(String workflowType, String status) {
-        List<Person> students = personRepository.findByType(Person.PersonType.STUDENT);
-        List<StudentWorkflowDTO> result = new ArrayList<>();
-
-        for (Person student : students) {
-            Optional<ThesisWorkflow> thesis = thesisRepository.findByStudent(student);
-            Optional<DefenseWorkflow> defense = defenseRepository.findByStudent(student);
-
-            boolean matchesFilter = false;
-
-            if ("thesis".equalsIgnoreCase(workflowType) && thesis.isPresent()) {
-                matchesFilter = thesis.get().getStatus().name().equalsIgnoreCase(status);
-            } else if ("defense".equalsIgnoreCase(workflowType) && defense.isPresent()) {
-                matchesFilter = defense.get().getStatus().name().equalsIgnoreCase(status);
-            }
-
-            if (matchesFilter) {
-                StudentWorkflowDTO dto = new StudentWorkflowDTO();
-                dto.setStudentId(student.getId());
-                dto.setName(student.getName());
-                dto.setIstId(student.getIstId());
-                dto.setEmail(student.getEmail());
-                dto.setThesisStatus(thesis.map(t -> t.getStatus().name()).orElse(null));
-                dto.setDefenseStatus(defense.map(d -> d.getStatus().name()).orElse(null));
-                result.add(dto);
-            }
+        if ("thesis".equalsIgnoreCase(workflowType)) {
+            return filterStudentsByWorkflowStatus(parseThesisStatuses(List.of(status)), null, null, null).items();
+        }
+        if ("defense".equalsIgnoreCase(workflowType)) {
+            return filterStudentsByWorkflowStatus(null, parseDefenseStatuses(List.of(status)), null, null).items();
+        }
+        throw new DEIException(ErrorMessage.INVALID_WORKFLOW_TYPE);
+    }
+
+    /**
+     * Filter students whose thesis status is in thesisStatuses and/or whose defense status is in
+     * defenseStatuses (a null list means no restriction on that workflow), ordered by student id.
+     * Without cursor or limit all of them are returned in one page.
+     */
+    public CursorPage<StudentWorkflowDTO> filterStudentsByWorkflowStatus(List<ThesisStatus> thesisStatuses,
+                                                                         List<DefenseStatus> defenseStatuses,
+                                                                         String cursorToken, Integer limit) {
+        if (thesisStatuses == null && defenseStatuses == null) {
+            throw new DEIException(ErrorMessage.INVALID_WORKFLOW_TYPE);
         }
+        if (cursorToken == null && limit == null) {
+            return new CursorPage<>(findByStatuses(thesisStatuses, defenseStatuses, 0L, Pageable.unpaged()), null);
+        }
+
+        int size = Cursor.pageSize(limit);
+        Cursor cursor = cursorToken != null ? Cursor.decode(cursorToken, FILTER_SORT) : null;
+        List<StudentWorkflowDTO> rows = findByStatuses(thesisStatuses, defenseStatuses,
+                cursor != null ? cursor.id() : 0L, PageRequest.of(0, size + 1));
+        return CursorPage.of(rows, size, s -> new Cursor(FILTER_SORT, null, s.getStudentId()));
+    }
 
-        return result;
+    private List<StudentWorkflowDTO> findByStatuses(List<ThesisStatus> thesisStatuses,
+                                                    List<DefenseStatus> defenseStatuses,
+                                                    long afterStudentId, Pageable page) {
+        if (defenseStatuses == null) {
+            return studentWorkflowRepository.findByThesisStatusIn(
+                    Person.PersonType.STUDENT, thesisStatuses, afterStudentId, page);
+        }
+        if (thesisStatuses == null) {
+            return studentWorkflowRepository.findByDefenseStatusIn(
+                    Person.PersonType.STUDENT, defenseStatuses, afterStudentId, page);
+        }
+        return studentWorkflowRepository.findByThesisStatusInAndDefenseStatusIn(
+                Person.PersonType.STUDENT, thesisStatuses, defenseStatuses, afterStudentId, page);
     }
 
     /**
-     * Helper method to get all students with their workflow statuses
+     * Parse thesis status names (case insensitive)
      */
-    private List<StudentWorkflowDTO> getAllStudentsWithWorkflows() {
-        List<Person> students = personRepository.findByType(Person.PersonType.STUDENT);
-        List<StudentWorkflowDTO> result = new ArrayList<>();
-
-        for (Person student : students) {
-            Optional<ThesisWorkflow> thesis = thesisRepository.findByStudent(student);
-            Optional<DefenseWorkflow> defense = defenseRepository.findByStudent(student);
-
-            StudentWorkflowDTO dto = new StudentWorkflowDTO();
-            dto.setStudentId(student.getId());
-            dto.setName(student.getName());
-            dto.setIstId(student.getIstId());
-            dto.setEmail(student.getEmail());
-            dto.setThesisStatus(thesis.map(t -> t.getStatus().name()).orElse(null));
-            dto.setDefenseStatus(defense.map(d -> d.getStatus().name()).orElse(null));
-
-            result.add(dto);
+    public List<ThesisStatus> parseThesisStatuses(List<String> statuses) {
+        try {
+            return statuses.stream().map(s -> ThesisStatus.valueOf(s.trim().toUpperCase())).toList();
+        } catch (IllegalArgumentException e) {
+            throw new DEIException(ErrorMessage.INVALID_WORKFLOW_STATE, statuses.toString());
         }
+    }
 
-        return result;
+    /**
+     * Parse defense status names (case insensitive)
+     */
+    public List<DefenseStatus> parseDefenseStatuses(List<String> statuses) {
+        try {
+            return statuses.stream().map(s -> DefenseStatus.valueOf(s.trim().toUpperCase())).toList();
+        } catch (IllegalArgumentException e) {
+            throw new DEIException(ErrorMessage.INVALID_DEFENSE_STATE, statuses.toString());
+        }
     }
 }
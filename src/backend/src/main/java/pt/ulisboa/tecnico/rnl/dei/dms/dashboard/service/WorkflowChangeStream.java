@@ -0,0 +1,215 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.dashboard.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto.WorkflowChangeDTO;
+import pt.ulisboa.tecnico.rnl.dei.dms.imports.event.DataImportedEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent.WorkflowType;
+import pt.ulisboa.tecnico.rnl.dei.dms.versioning.DataVersions.DataTable;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pushes committed workflow transitions to dashboard clients over Server-Sent Events.
+ *
+ * Emitters are asynchronous, so an idle connection does not hold a request thread.
+ * All writes go through a single sender thread, which keeps events in order and keeps
+ * slow clients from blocking the transaction that produced the event.
+ * The last BUFFER_SIZE events are kept so a client can resume from its Last-Event-ID.
+ * Event ids restart with the application, so the SSE ids are prefixed with a boot id:
+ * an id from another boot cannot be resumed and gets a reset.
+ */
+@Component
+public class WorkflowChangeStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowChangeStream.class);
+
+    private static final int BUFFER_SIZE = 1024;
+
+    // Clients reconnect (with Last-Event-ID) when the stream times out
+    private static final long EMITTER_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final Deque<WorkflowChangeDTO> recentChanges = new ArrayDeque<>(BUFFER_SIZE);
+
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "workflow-change-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String bootId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    private long lastEventId = 0;
+
+    // Clients that last saw an event before this one must reload their dashboard
+    private long lastResetId = 0;
+
+    /**
+     * Open a stream for a role. Students must give their own id and only receive their changes;
+     * the scientific committee only receives thesis changes. workflowType narrows the stream further.
+     */
+    public SseEmitter subscribe(Person.PersonType role, Long studentId, WorkflowType workflowType, String lastSeenEventId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        Subscriber subscriber = new Subscriber(emitter, role, studentId, workflowType);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        synchronized (this) {
+            List<WorkflowChangeDTO> replay = new ArrayList<>();
+            boolean missedEvents = false;
+
+            if (lastSeenEventId != null) {
+                long lastSeen = eventNumber(lastSeenEventId);
+                WorkflowChangeDTO oldest = recentChanges.peekFirst();
+                // An id of another boot (or one this boot has not reached) cannot be resumed
+                missedEvents = lastSeen < 0 || lastSeen > lastEventId
+                        || (oldest != null && oldest.getEventId() > lastSeen + 1)
+                        || lastSeen < lastResetId;
+                for (WorkflowChangeDTO change : recentChanges) {
+                    if (lastSeen >= 0 && change.getEventId() > lastSeen && subscriber.accepts(change)) {
+                        replay.add(change);
+                    }
+                }
+            }
+
+            subscribers.add(subscriber);
+
+            boolean reset = missedEvents;
+            String resetId = sseId(lastEventId);
+            sender.execute(() -> {
+                // The client was away longer than the buffer covers and must reload its dashboard
+                if (reset) {
+                    send(subscriber, SseEmitter.event().name("reset").id(resetId).data(""));
+                }
+                replay.forEach(change -> send(subscriber, toSseEvent(change)));
+            });
+        }
+
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onWorkflowTransition(WorkflowTransitionEvent event) {
+        synchronized (this) {
+            WorkflowChangeDTO change = new WorkflowChangeDTO(++lastEventId, event.workflowType().name(),
+                    event.workflowId(), event.studentId(), event.oldStatus(), event.newStatus());
+
+            if (recentChanges.size() == BUFFER_SIZE) {
+                recentChanges.removeFirst();
+            }
+            recentChanges.addLast(change);
+
+            // Subscribers that arrive while this is queued get the change in their replay instead
+            List<Subscriber> recipients = subscribers.stream().filter(s -> s.accepts(change)).toList();
+            sender.execute(() -> recipients.forEach(s -> send(s, toSseEvent(change))));
+        }
+    }
+
+    /**
+     * Imports are not streamed change by change; every client is told to reload instead
+     */
+    @TransactionalEventListener
+    public void onDataImported(DataImportedEvent event) {
+        if (event.table() == DataTable.PEOPLE) {
+            return;
+        }
+        synchronized (this) {
+            lastResetId = ++lastEventId;
+            recentChanges.clear();
+            String resetId = sseId(lastResetId);
+            List<Subscriber> recipients = List.copyOf(subscribers);
+            sender.execute(() -> recipients.forEach(
+                    s -> send(s, SseEmitter.event().name("reset").id(resetId).data(""))));
+        }
+    }
+
+    /**
+     * Comment lines keep proxies from closing idle streams and let us detect dead clients
+     */
+    @Scheduled(fixedRate = 30000)
+    public void sendHeartbeat() {
+        sender.execute(() -> subscribers.forEach(s -> send(s, SseEmitter.event().comment("heartbeat"))));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        subscribers.forEach(s -> s.emitter.complete());
+    }
+
+    private String sseId(long eventId) {
+        return bootId + "-" + eventId;
+    }
+
+    /**
+     * The event id in a Last-Event-ID of this boot, or -1 for any other value
+     */
+    private long eventNumber(String sseId) {
+        int separator = sseId.lastIndexOf('-');
+        if (separator < 0 || !sseId.substring(0, separator).equals(bootId)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(sseId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSseEvent(WorkflowChangeDTO change) {
+        return SseEmitter.event()
+                .id(sseId(change.getEventId()))
+                .name("workflow-change")
+                .data(change, MediaType.APPLICATION_JSON);
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Dropping dashboard stream subscriber: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    private record Subscriber(SseEmitter emitter, Person.PersonType role, Long studentId, WorkflowType workflowType) {
+
+        boolean accepts(WorkflowChangeDTO change) {
+            if (workflowType != null && !workflowType.name().equals(change.getWorkflowType())) {
+                return false;
+            }
+            if (role == Person.PersonType.STUDENT) {
+                return studentId != null && studentId.equals(change.getStudentId());
+            }
+            if (role == Person.PersonType.SC) {
+                return WorkflowType.THESIS.name().equals(change.getWorkflowType());
+            }
+            return true;
+        }
+    }
+}
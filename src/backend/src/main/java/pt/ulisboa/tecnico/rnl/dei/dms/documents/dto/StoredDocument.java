@@ -0,0 +1,13 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.documents.dto;
+
+/**
+ * A document in the DocumentStore. key ("sha256:" and the hex digest of the content) is what
+ * ThesisWorkflow.documentPath holds; deduplicated is true when the same content was already stored.
+ */
+public record StoredDocument(
+    String key,
+    String sha256,
+    long size,
+    boolean deduplicated
+) {
+}
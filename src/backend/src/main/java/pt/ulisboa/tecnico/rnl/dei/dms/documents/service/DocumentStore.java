@@ -0,0 +1,223 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.documents.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import pt.ulisboa.tecnico.rnl.dei.dms.documents.dto.StoredDocument;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed storage for signed thesis documents, on the local disk under
+ * documents.storage-path.
+ *
+ * A document is streamed to a temporary file through a direct buffer (never held on the heap)
+ * and hashed as it is written; it is then moved to objects/&lt;first two hex digits&gt;/&lt;sha256&gt;.
+ * An uploaded part the container already wrote to disk is moved in instead, and hashed in place.
+ * Uploading content that is already stored keeps the existing object, so re-uploads cost no space.
+ * Objects are never modified once stored. An object no thesis refers to (e.g. the transition
+ * failed after the upload) is harmless and is reused if the same file is uploaded again.
+ */
+@Component
+public class DocumentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentStore.class);
+
+    public static final String KEY_PREFIX = "sha256:";
+
+    // Scanned PDFs reach a few tens of MB
+    public static final long MAX_DOCUMENT_SIZE = 100L * 1024 * 1024;
+
+    private static final byte[] PDF_MAGIC = {'%', 'P', 'D', 'F', '-'};
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Pattern KEY = Pattern.compile("^sha256:[0-9a-f]{64}$");
+
+    // One direct buffer per request thread instead of one per upload
+    private static final ThreadLocal<ByteBuffer> BUFFERS =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    @Value("${documents.storage-path:documents}")
+    private Path root;
+
+    private Path objects;
+
+    private Path incoming;
+
+    @PostConstruct
+    void createDirectories() throws IOException {
+        objects = Files.createDirectories(root.resolve("objects"));
+        incoming = Files.createDirectories(root.resolve("incoming"));
+    }
+
+    /**
+     * Store an uploaded PDF. The container has already written the part to a file, which is
+     * moved into the store (a rename on the same file system) rather than copied again.
+     */
+    public StoredDocument store(MultipartFile upload) {
+        if (upload.getSize() > MAX_DOCUMENT_SIZE) {
+            throw tooLarge();
+        }
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(incoming, "upload-", ".part");
+            // An absolute path, or the container would resolve it against its own directory
+            upload.transferTo(temporary.toAbsolutePath().toFile());
+
+            MessageDigest digest = sha256();
+            long size;
+            ByteBuffer buffer = BUFFERS.get();
+            try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.READ)) {
+                size = file.size();
+                if (size > MAX_DOCUMENT_SIZE) {
+                    throw tooLarge();
+                }
+                // A regular file fills the buffer unless it is shorter than the header
+                ByteBuffer header = ByteBuffer.allocate(PDF_MAGIC.length);
+                file.read(header, 0);
+                checkHeader(header.array());
+
+                buffer.clear();
+                while (file.read(buffer) != -1) {
+                    buffer.flip();
+                    digest.update(buffer);
+                    buffer.clear();
+                }
+                file.force(false);
+            }
+            return keep(temporary, HexFormat.of().formatHex(digest.digest()), size);
+        } catch (IOException e) {
+            logger.error("Could not store document", e);
+            throw new DEIException(ErrorMessage.DOCUMENT_STORAGE_FAILED);
+        } finally {
+            deleteQuietly(temporary);
+        }
+    }
+
+    /**
+     * Store a PDF read from content, and close it
+     */
+    public StoredDocument store(InputStream content) {
+        Path temporary = null;
+        try {
+            byte[] header = content.readNBytes(PDF_MAGIC.length);
+            checkHeader(header);
+
+            temporary = Files.createTempFile(incoming, "upload-", ".part");
+            MessageDigest digest = sha256();
+            digest.update(header);
+            long size = header.length;
+
+            ByteBuffer buffer = BUFFERS.get();
+            buffer.clear();
+            try (ReadableByteChannel in = Channels.newChannel(content);
+                 FileChannel out = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                out.write(ByteBuffer.wrap(header));
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    size += buffer.remaining();
+                    if (size > MAX_DOCUMENT_SIZE) {
+                        throw tooLarge();
+                    }
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                out.force(false);
+            }
+
+            return keep(temporary, HexFormat.of().formatHex(digest.digest()), size);
+        } catch (IOException e) {
+            logger.error("Could not store document", e);
+            throw new DEIException(ErrorMessage.DOCUMENT_STORAGE_FAILED);
+        } finally {
+            deleteQuietly(temporary);
+        }
+    }
+
+    /**
+     * The file of a stored document, if documentPath is a key of this store and the object exists
+     */
+    public Optional<Path> find(String documentPath) {
+        if (documentPath == null || !KEY.matcher(documentPath).matches()) {
+            return Optional.empty();
+        }
+        Path path = objectPath(documentPath.substring(KEY_PREFIX.length()));
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Move a complete, synced temporary file to its object, unless the object already exists
+     */
+    private StoredDocument keep(Path temporary, String sha256, long size) throws IOException {
+        Path target = objectPath(sha256);
+        boolean deduplicated = Files.exists(target);
+        if (!deduplicated) {
+            Files.createDirectories(target.getParent());
+            try {
+                // A rename (same file system), which fails rather than replace an existing object
+                Files.move(temporary, target);
+            } catch (FileAlreadyExistsException e) {
+                // Someone stored the same content in the meantime
+                deduplicated = true;
+            }
+        }
+        logger.info("Stored document {} ({} bytes{})", sha256, size, deduplicated ? ", already stored" : "");
+        return new StoredDocument(KEY_PREFIX + sha256, sha256, size, deduplicated);
+    }
+
+    private static void checkHeader(byte[] header) {
+        if (!Arrays.equals(header, PDF_MAGIC)) {
+            throw new DEIException(ErrorMessage.INVALID_DOCUMENT, "not a PDF file");
+        }
+    }
+
+    private static DEIException tooLarge() {
+        return new DEIException(ErrorMessage.INVALID_DOCUMENT, "larger than " + MAX_DOCUMENT_SIZE / (1024 * 1024) + " MB");
+    }
+
+    private Path objectPath(String sha256) {
+        return objects.resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path != null) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.warn("Could not delete {}", path, e);
+            }
+        }
+    }
+}
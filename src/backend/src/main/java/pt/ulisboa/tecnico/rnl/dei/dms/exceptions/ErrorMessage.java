@@ -15,6 +15,7 @@ public enum ErrorMessage {
     //Workflow
 
     INVALID_WORKFLOW_TYPE("Workflow só pode ser de tese ou de defesa", 5001),
+    CONCURRENT_MODIFICATION("O workflow foi alterado por outro utilizador, tente novamente", 5002),
     // Thesis related errors
     THESIS_NOT_FOUND("Tese com ID %s não encontrada", 2001),
     THESIS_ALREADY_EXISTS("Já existe uma tese para este estudante", 2002),
@@ -25,10 +26,20 @@ public enum ErrorMessage {
     DEFENSE_NOT_FOUND("Defesa com ID %s não encontrada", 3001),
     DEFENSE_ALREADY_EXISTS("Já existe uma defesa para esta tese", 3002),
     INVALID_DEFENSE_STATE("Estado do workflow de defesa inválido: %s", 3003),
+    DEFENSE_SCHEDULE_CONFLICT("Conflito de horário da defesa: %s", 3004),
     
     // Validation errors
     VALIDATION_ERROR("Erro de validação: %s", 4001),
     UNAUTHORIZED("Não autorizado: %s", 4002),
+
+    // Fenix outbox errors
+    FENIX_MESSAGE_NOT_FOUND("Mensagem para o Fenix com ID %s não encontrada", 6001),
+    FENIX_MESSAGE_NOT_DEAD("A mensagem para o Fenix com ID %s não falhou definitivamente", 6002),
+
+    // Document errors
+    INVALID_DOCUMENT("Documento inválido: %s", 7001),
+    DOCUMENT_NOT_FOUND("Documento não encontrado: %s", 7002),
+    DOCUMENT_STORAGE_FAILED("Não foi possível guardar o documento", 7003),
     
     // Generic errors
     INTERNAL_ERROR("Algo correu mal", 9999);
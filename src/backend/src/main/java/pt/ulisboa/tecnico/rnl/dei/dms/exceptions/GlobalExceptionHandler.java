@@ -7,6 +7,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -48,4 +49,15 @@ public class GlobalExceptionHandler {
         response.put("code", ex.getCode());
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.CONFLICT.value());
+        response.put("message", ErrorMessage.CONCURRENT_MODIFICATION.getLabel());
+        response.put("debugMessage", ex.getMessage());
+        response.put("code", ErrorMessage.CONCURRENT_MODIFICATION.getCode());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
 }
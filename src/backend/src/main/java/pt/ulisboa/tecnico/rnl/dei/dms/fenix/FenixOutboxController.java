@@ -0,0 +1,56 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.fenix;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.dto.FenixOutboxMessageDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.dto.FenixOutboxMetricsDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.service.FenixOutboxService;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/fenix/outbox")
+public class FenixOutboxController {
+
+    @Autowired
+    private FenixOutboxService outboxService;
+
+    /**
+     * Queue depth, dead letters and delivery latency (Coordinator/Staff action)
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<FenixOutboxMetricsDto> getMetrics(@RequestParam Person.PersonType role) {
+        checkCoordinatorOrStaff(role);
+        return ResponseEntity.ok(outboxService.getMetrics());
+    }
+
+    /**
+     * Messages that could not be delivered after every retry (Coordinator/Staff action)
+     */
+    @GetMapping("/dead")
+    public ResponseEntity<List<FenixOutboxMessageDto>> getDeadLetters(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam Person.PersonType role) {
+        checkCoordinatorOrStaff(role);
+        return ResponseEntity.ok(outboxService.getDeadLetters(limit));
+    }
+
+    /**
+     * Retry a dead message (Coordinator/Staff action)
+     */
+    @PostMapping("/{id}/requeue")
+    public ResponseEntity<FenixOutboxMessageDto> requeue(@PathVariable Long id, @RequestParam Person.PersonType role) {
+        checkCoordinatorOrStaff(role);
+        return ResponseEntity.ok(outboxService.requeue(id));
+    }
+
+    private static void checkCoordinatorOrStaff(Person.PersonType role) {
+        if (role != Person.PersonType.COORDINATOR && role != Person.PersonType.STAFF) {
+            throw new DEIException(ErrorMessage.UNAUTHORIZED);
+        }
+    }
+}
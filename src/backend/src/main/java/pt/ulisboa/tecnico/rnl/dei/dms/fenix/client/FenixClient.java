@@ -0,0 +1,18 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.fenix.client;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delivers outbox messages to Fenix. Called by FenixDispatcher outside any transaction.
+ */
+public interface FenixClient {
+
+    /**
+     * Deliver a batch. Returns the messages Fenix refused (by messageId, with the reason);
+     * every other message in the batch counts as delivered. Throws when the batch as a whole
+     * could not be delivered (Fenix unreachable, timeout...). Refused and undelivered messages
+     * are retried later.
+     */
+    Map<Long, String> submit(List<FenixSubmission> submissions);
+}
@@ -0,0 +1,18 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.fenix.client;
+
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent.WorkflowType;
+
+/**
+ * One outbox message as handed to Fenix. messageId identifies it in the client's answer and stays
+ * the same across retries, so Fenix can use it to ignore a delivery it already got.
+ * payload is a JSON object (e.g. {"grade": 17.5} for a defense).
+ */
+public record FenixSubmission(
+    long messageId,
+    WorkflowType workflowType,
+    long workflowId,
+    String studentIstId,
+    String payload,
+    int attempt
+) {
+}
@@ -0,0 +1,87 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.fenix.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local FenixClient (fenix.client=stub, the default): accepts everything and keeps the last
+ * submissions it got. Tests can make it fail whole batches or refuse single workflows.
+ */
+@Component
+@ConditionalOnProperty(name = "fenix.client", havingValue = "stub", matchIfMissing = true)
+public class StubFenixClient implements FenixClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(StubFenixClient.class);
+
+    private static final int MAX_KEPT = 10_000;
+
+    private final ArrayDeque<FenixSubmission> delivered = new ArrayDeque<>();
+
+    private final AtomicInteger failingBatches = new AtomicInteger();
+
+    private final Set<Long> refusedWorkflows = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public Map<Long, String> submit(List<FenixSubmission> submissions) {
+        if (failingBatches.getAndUpdate(n -> Math.max(n - 1, 0)) > 0) {
+            throw new IllegalStateException("Fenix stub: batch failed");
+        }
+        Map<Long, String> refused = new HashMap<>();
+        synchronized (delivered) {
+            for (FenixSubmission submission : submissions) {
+                if (refusedWorkflows.contains(submission.workflowId())) {
+                    refused.put(submission.messageId(), "Fenix stub: workflow " + submission.workflowId() + " refused");
+                } else {
+                    if (delivered.size() == MAX_KEPT) {
+                        delivered.removeFirst();
+                    }
+                    delivered.addLast(submission);
+                }
+            }
+        }
+        logger.debug("Fenix stub got {} submissions ({} refused)", submissions.size(), refused.size());
+        return refused;
+    }
+
+    /**
+     * Fail the next batches as if Fenix were unreachable
+     */
+    public void failNextBatches(int batches) {
+        failingBatches.set(batches);
+    }
+
+    /**
+     * Refuse (or stop refusing) every submission for a workflow
+     */
+    public void setRefused(long workflowId, boolean refused) {
+        if (refused) {
+            refusedWorkflows.add(workflowId);
+        } else {
+            refusedWorkflows.remove(workflowId);
+        }
+    }
+
+    public List<FenixSubmission> getDelivered() {
+        synchronized (delivered) {
+            return List.copyOf(delivered);
+        }
+    }
+
+    public void reset() {
+        synchronized (delivered) {
+            delivered.clear();
+        }
+        failingBatches.set(0);
+        refusedWorkflows.clear();
+    }
+}
@@ -0,0 +1,65 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.fenix.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent.WorkflowType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A hand-off to Fenix (a thesis or a defense grade), written by FenixOutbox in the same transaction
+ * as the SUBMITTED_TO_FENIX status change and delivered afterwards by FenixDispatcher.
+ *
+ * PENDING messages are due at nextAttemptAt (also pushed forward while a delivery is in flight).
+ * attempts counts the deliveries tried so far; after too many the message becomes DEAD until
+ * someone requeues it. payload is the JSON object the transition set (e.g. the grade).
+ */
+@Data
+@Entity
+@Table(name = "fenix_outbox", indexes = {
+    @Index(name = "idx_fenix_outbox_due", columnList = "status, next_attempt_at, id"),
+    @Index(name = "idx_fenix_outbox_workflow", columnList = "workflow_type, workflow_id")
+})
+public class FenixOutboxMessage {
+
+    public enum Status {
+        PENDING, DELIVERED, DEAD, CANCELLED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fenix_outbox_seq")
+    @SequenceGenerator(name = "fenix_outbox_seq", sequenceName = "fenix_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "workflow_type", nullable = false, length = 20)
+    private WorkflowType workflowType;
+
+    @Column(name = "workflow_id", nullable = false)
+    private Long workflowId;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "payload", nullable = false, length = 4000)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+}
@@ -0,0 +1,42 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.fenix.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.domain.FenixOutboxMessage;
+
+import java.time.LocalDateTime;
+
+/**
+ * A Fenix outbox message. payload is sent as the JSON object that was stored.
+ */
+@Data
+@NoArgsConstructor
+public class FenixOutboxMessageDto {
+    private Long id;
+    private String workflowType;
+    private Long workflowId;
+    private Long studentId;
+    @JsonRawValue
+    private String payload;
+    private String status;
+    private int attempts;
+    private LocalDateTime createdAt;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime deliveredAt;
+    private String lastError;
+
+    public FenixOutboxMessageDto(FenixOutboxMessage message) {
+        this.id = message.getId();
+        this.workflowType = message.getWorkflowType().name();
+        this.workflowId = message.getWorkflowId();
+        this.studentId = message.getStudentId();
+        this.payload = message.getPayload();
+        this.status = message.getStatus().name();
+        this.attempts = message.getAttempts();
+        this.createdAt = message.getCreatedAt();
+        this.nextAttemptAt = message.getNextAttemptAt();
+        this.deliveredAt = message.getDeliveredAt();
+        this.lastError = message.getLastError();
+    }
+}
@@ -0,0 +1,26 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.fenix.dto;
+
+import lombok.Data;
+
+/**
+ * State of the Fenix outbox. Queue figures come from the table; the counters and the delivery
+ * latency (status change to delivery, in ms; percentiles are bucket upper bounds) are since startup.
+ */
+@Data
+public class FenixOutboxMetricsDto {
+    private long pending;
+    private long dead;
+    // Age of the oldest pending message, 0 when the queue is empty
+    private long oldestPendingSeconds;
+
+    private long delivered;
+    private long failedAttempts;
+    private long deadLettered;
+
+    private long latencyCount;
+    private double latencyMeanMillis;
+    private long latencyP50Millis;
+    private long latencyP95Millis;
+    private long latencyP99Millis;
+    private long latencyMaxMillis;
+}
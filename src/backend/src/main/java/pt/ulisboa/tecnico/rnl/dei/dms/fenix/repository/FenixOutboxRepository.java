@@ -0,0 +1,21 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.fenix.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.domain.FenixOutboxMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.domain.FenixOutboxMessage.Status;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FenixOutboxRepository extends JpaRepository<FenixOutboxMessage, Long> {
+
+    long countByStatus(Status status);
+
+    // Oldest message still waiting for delivery (queue lag)
+    Optional<FenixOutboxMessage> findFirstByStatusOrderByCreatedAtAsc(Status status);
+
+    List<FenixOutboxMessage> findByStatusOrderByIdDesc(Status status, Pageable pageable);
+}
@@ -0,0 +1,255 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.fenix.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.client.FenixClient;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.client.FenixSubmission;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.repository.PersonRepository;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent.WorkflowType;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains fenix_outbox into the FenixClient.
+ *
+ * Each round claims a batch of due messages in a short transaction (FOR UPDATE SKIP LOCKED, so
+ * several instances can run side by side) and leases them by pushing nextAttemptAt forward, then
+ * calls the client outside any transaction and records the outcome in another short transaction.
+ * A message that fails is retried with exponential backoff and jitter; after MAX_ATTEMPTS it is
+ * dead-lettered. If the process dies mid-delivery the lease expires and the batch is retried, so
+ * Fenix may see a message twice (it gets the same messageId both times).
+ */
+@Component
+public class FenixDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(FenixDispatcher.class);
+
+    static final int BATCH_SIZE = 100;
+
+    static final int MAX_ATTEMPTS = 8;
+
+    private static final Duration BASE_BACKOFF = Duration.ofSeconds(10);
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    // How long a claimed batch is left alone before it is considered lost
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    // Keep one scheduled run from holding the dispatcher forever when the backlog is large
+    private static final int MAX_BATCHES_PER_RUN = 50;
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String CLAIM_SQL =
+            "SELECT id, workflow_type, workflow_id, student_id, payload, attempts, created_at FROM fenix_outbox " +
+            "WHERE status = 'PENDING' AND next_attempt_at <= ? ORDER BY next_attempt_at, id LIMIT ? " +
+            "FOR UPDATE SKIP LOCKED";
+
+    private static final String LEASE_SQL =
+            "UPDATE fenix_outbox SET attempts = attempts + 1, next_attempt_at = ? WHERE id = ?";
+
+    private static final String DELIVERED_SQL =
+            "UPDATE fenix_outbox SET status = 'DELIVERED', delivered_at = ?, last_error = NULL WHERE id = ?";
+
+    private static final String RETRY_SQL =
+            "UPDATE fenix_outbox SET next_attempt_at = ?, last_error = ? WHERE id = ? AND status = 'PENDING'";
+
+    private static final String DEAD_SQL =
+            "UPDATE fenix_outbox SET status = 'DEAD', last_error = ? WHERE id = ? AND status = 'PENDING'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private FenixClient fenixClient;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Time from the status change to the delivery
+    private final LatencyHistogram deliveryLatency = new LatencyHistogram();
+
+    private final AtomicLong delivered = new AtomicLong();
+
+    private final AtomicLong failedAttempts = new AtomicLong();
+
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    @Scheduled(fixedDelay = 5000, initialDelay = 5000)
+    public void dispatchDue() {
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            logger.error("Fenix dispatch failed", e);
+        }
+    }
+
+    /**
+     * Deliver the messages that are due now. Returns how many were delivered.
+     */
+    public synchronized int dispatch() {
+        int deliveredNow = 0;
+        for (int round = 0; round < MAX_BATCHES_PER_RUN; round++) {
+            List<Claimed> batch = claim();
+            if (batch.isEmpty()) {
+                break;
+            }
+            deliveredNow += deliver(batch);
+            if (batch.size() < BATCH_SIZE) {
+                break;
+            }
+        }
+        return deliveredNow;
+    }
+
+    private List<Claimed> claim() {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Claimed> batch = jdbcTemplate.query(CLAIM_SQL, (rs, n) -> new Claimed(rs.getLong(1),
+                    WorkflowType.valueOf(rs.getString(2)), rs.getLong(3), rs.getLong(4), rs.getString(5),
+                    rs.getInt(6) + 1, rs.getTimestamp(7).toLocalDateTime()), Timestamp.valueOf(now), BATCH_SIZE);
+            if (!batch.isEmpty()) {
+                Timestamp leaseEnd = Timestamp.valueOf(now.plus(LEASE));
+                jdbcTemplate.batchUpdate(LEASE_SQL, batch, batch.size(), (ps, message) -> {
+                    ps.setTimestamp(1, leaseEnd);
+                    ps.setLong(2, message.id());
+                });
+            }
+            return batch;
+        });
+    }
+
+    private int deliver(List<Claimed> batch) {
+        Map<Long, String> istIds = findIstIds(batch);
+        List<FenixSubmission> submissions = new ArrayList<>(batch.size());
+        for (Claimed message : batch) {
+            submissions.add(new FenixSubmission(message.id(), message.workflowType(), message.workflowId(),
+                    istIds.get(message.studentId()), message.payload(), message.attempt()));
+        }
+
+        Map<Long, String> refused;
+        try {
+            refused = fenixClient.submit(submissions);
+        } catch (RuntimeException e) {
+            logger.warn("Delivery of {} messages to Fenix failed: {}", batch.size(), e.getMessage());
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            refused = new HashMap<>();
+            for (Claimed message : batch) {
+                refused.put(message.id(), error);
+            }
+        }
+        return record(batch, refused);
+    }
+
+    private Map<Long, String> findIstIds(List<Claimed> batch) {
+        Set<Long> studentIds = new HashSet<>();
+        batch.forEach(message -> studentIds.add(message.studentId()));
+        Map<Long, String> istIds = new HashMap<>();
+        for (Person student : personRepository.findAllById(studentIds)) {
+            istIds.put(student.getId(), student.getIstId());
+        }
+        return istIds;
+    }
+
+    /**
+     * Store the outcome of a delivery and return how many messages were delivered
+     */
+    private int record(List<Claimed> batch, Map<Long, String> refused) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Claimed> ok = new ArrayList<>();
+        List<Claimed> retry = new ArrayList<>();
+        List<Claimed> dead = new ArrayList<>();
+        for (Claimed message : batch) {
+            if (!refused.containsKey(message.id())) {
+                ok.add(message);
+            } else if (message.attempt() >= MAX_ATTEMPTS) {
+                dead.add(message);
+            } else {
+                retry.add(message);
+            }
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Timestamp deliveredAt = Timestamp.valueOf(now);
+            jdbcTemplate.batchUpdate(DELIVERED_SQL, ok, BATCH_SIZE, (ps, message) -> {
+                ps.setTimestamp(1, deliveredAt);
+                ps.setLong(2, message.id());
+            });
+            jdbcTemplate.batchUpdate(RETRY_SQL, retry, BATCH_SIZE, (ps, message) -> {
+                ps.setTimestamp(1, Timestamp.valueOf(now.plus(backoff(message.attempt()))));
+                ps.setString(2, truncate(refused.get(message.id())));
+                ps.setLong(3, message.id());
+            });
+            jdbcTemplate.batchUpdate(DEAD_SQL, dead, BATCH_SIZE, (ps, message) -> {
+                ps.setString(1, truncate(refused.get(message.id())));
+                ps.setLong(2, message.id());
+            });
+        });
+
+        ok.forEach(message -> deliveryLatency.record(Duration.between(message.createdAt(), now).toMillis()));
+        delivered.addAndGet(ok.size());
+        failedAttempts.addAndGet(retry.size() + dead.size());
+        deadLettered.addAndGet(dead.size());
+        if (!dead.isEmpty()) {
+            logger.error("{} Fenix messages dead-lettered after {} attempts", dead.size(), MAX_ATTEMPTS);
+        }
+        return ok.size();
+    }
+
+    /**
+     * BASE_BACKOFF doubled for every attempt already made, capped at MAX_BACKOFF, plus up to 20% jitter
+     * so messages that failed together do not all come back at once
+     */
+    static Duration backoff(int attempt) {
+        long base = BASE_BACKOFF.toMillis() << Math.min(attempt - 1, 20);
+        long capped = Math.min(base, MAX_BACKOFF.toMillis());
+        return Duration.ofMillis(capped + ThreadLocalRandom.current().nextLong(capped / 5 + 1));
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    LatencyHistogram getDeliveryLatency() {
+        return deliveryLatency;
+    }
+
+    long getDelivered() {
+        return delivered.get();
+    }
+
+    long getFailedAttempts() {
+        return failedAttempts.get();
+    }
+
+    long getDeadLettered() {
+        return deadLettered.get();
+    }
+
+    /**
+     * A claimed message; attempt is the number of this delivery (1 for the first)
+     */
+    private record Claimed(long id, WorkflowType workflowType, long workflowId, long studentId,
+                           String payload, int attempt, LocalDateTime createdAt) {
+    }
+}
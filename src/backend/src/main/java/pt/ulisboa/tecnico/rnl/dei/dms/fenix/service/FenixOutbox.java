@@ -0,0 +1,132 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.fenix.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.domain.FenixOutboxMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.ids.EntityIds;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent.WorkflowType;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow.Transition;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queues the hand-offs to Fenix in the fenix_outbox table, in the transaction that moves a thesis
+ * or a defense to SUBMITTED_TO_FENIX, so a hand-off is stored if and only if the status change is.
+ * Reverting out of SUBMITTED_TO_FENIX cancels what was not delivered yet.
+ *
+ * Like WorkflowEventLog, new messages are buffered and written with one batched insert just
+ * before commit, which keeps bulk submissions to a handful of statements.
+ */
+@Component
+public class FenixOutbox {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO fenix_outbox (id, workflow_type, workflow_id, student_id, payload, status, attempts, " +
+            "created_at, next_attempt_at) VALUES (?, ?, ?, ?, ?, 'PENDING', 0, ?, ?)";
+
+    private static final String CANCEL_SQL =
+            "UPDATE fenix_outbox SET status = 'CANCELLED' " +
+            "WHERE workflow_type = ? AND workflow_id = ? AND status = 'PENDING'";
+
+    private static final int BATCH_SIZE = 100;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityIds entityIds;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Called by WorkflowStateMachine for every applied transition; only the ones into or out of
+     * SUBMITTED_TO_FENIX matter here
+     */
+    public void onTransition(Transition<?, ?> transition, Long workflowId, Long studentId, Map<String, ?> payload) {
+        if (isSubmitted(transition.to())) {
+            enqueue(transition.workflowType(), workflowId, studentId, payload);
+        } else if (isSubmitted(transition.from())) {
+            cancel(transition.workflowType(), workflowId);
+        }
+    }
+
+    private void enqueue(WorkflowType workflowType, Long workflowId, Long studentId, Map<String, ?> payload) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Fenix hand-offs must be queued in the transaction that submits them");
+        }
+        currentBuffer().messages().add(new PendingMessage(entityIds.next(FenixOutboxMessage.class),
+                workflowType, workflowId, studentId, toJson(payload), LocalDateTime.now()));
+    }
+
+    private void cancel(WorkflowType workflowType, Long workflowId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            currentBuffer().messages().removeIf(m -> m.workflowType() == workflowType && m.workflowId().equals(workflowId));
+        }
+        jdbcTemplate.update(CANCEL_SQL, workflowType.name(), workflowId);
+    }
+
+    private static boolean isSubmitted(Enum<?> status) {
+        return status == ThesisStatus.SUBMITTED_TO_FENIX || status == DefenseStatus.SUBMITTED_TO_FENIX;
+    }
+
+    /**
+     * The buffer of the current transaction (see WorkflowEventLog.currentBuffer)
+     */
+    private Buffer currentBuffer() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Buffer buffer && buffer.owner() == this) {
+                return buffer;
+            }
+        }
+        Buffer buffer = new Buffer(this, new ArrayList<>());
+        TransactionSynchronizationManager.registerSynchronization(buffer);
+        return buffer;
+    }
+
+    private void write(List<PendingMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages, BATCH_SIZE, (ps, message) -> {
+            Timestamp createdAt = Timestamp.valueOf(message.createdAt());
+            ps.setLong(1, message.id());
+            ps.setString(2, message.workflowType().name());
+            ps.setLong(3, message.workflowId());
+            ps.setLong(4, message.studentId());
+            ps.setString(5, message.payload());
+            ps.setTimestamp(6, createdAt);
+            ps.setTimestamp(7, createdAt);
+        });
+    }
+
+    private String toJson(Map<String, ?> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Fenix payload is not serializable", e);
+        }
+    }
+
+    private record PendingMessage(long id, WorkflowType workflowType, Long workflowId, Long studentId,
+                                  String payload, LocalDateTime createdAt) {
+    }
+
+    private record Buffer(FenixOutbox owner, List<PendingMessage> messages) implements TransactionSynchronization {
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!messages.isEmpty()) {
+                owner.write(messages);
+            }
+        }
+    }
+}
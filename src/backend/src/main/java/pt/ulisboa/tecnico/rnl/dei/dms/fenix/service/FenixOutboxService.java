@@ -0,0 +1,82 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.fenix.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.domain.FenixOutboxMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.domain.FenixOutboxMessage.Status;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.dto.FenixOutboxMessageDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.dto.FenixOutboxMetricsDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.repository.FenixOutboxRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Monitoring of the Fenix outbox and handling of its dead letters
+ */
+@Service
+public class FenixOutboxService {
+
+    private static final int MAX_DEAD_LETTERS = 200;
+
+    @Autowired
+    private FenixOutboxRepository outboxRepository;
+
+    @Autowired
+    private FenixDispatcher dispatcher;
+
+    @Transactional(readOnly = true)
+    public FenixOutboxMetricsDto getMetrics() {
+        FenixOutboxMetricsDto metrics = new FenixOutboxMetricsDto();
+        metrics.setPending(outboxRepository.countByStatus(Status.PENDING));
+        metrics.setDead(outboxRepository.countByStatus(Status.DEAD));
+        metrics.setOldestPendingSeconds(outboxRepository.findFirstByStatusOrderByCreatedAtAsc(Status.PENDING)
+                .map(m -> Math.max(Duration.between(m.getCreatedAt(), LocalDateTime.now()).toSeconds(), 0))
+                .orElse(0L));
+
+        metrics.setDelivered(dispatcher.getDelivered());
+        metrics.setFailedAttempts(dispatcher.getFailedAttempts());
+        metrics.setDeadLettered(dispatcher.getDeadLettered());
+
+        LatencyHistogram latency = dispatcher.getDeliveryLatency();
+        metrics.setLatencyCount(latency.getCount());
+        metrics.setLatencyMeanMillis(latency.getMeanMillis());
+        metrics.setLatencyP50Millis(latency.percentileMillis(50));
+        metrics.setLatencyP95Millis(latency.percentileMillis(95));
+        metrics.setLatencyP99Millis(latency.percentileMillis(99));
+        metrics.setLatencyMaxMillis(latency.getMaxMillis());
+        return metrics;
+    }
+
+    /**
+     * The most recent messages that gave up, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<FenixOutboxMessageDto> getDeadLetters(Integer limit) {
+        int size = limit == null ? 50 : Math.max(1, Math.min(limit, MAX_DEAD_LETTERS));
+        return outboxRepository.findByStatusOrderByIdDesc(Status.DEAD, PageRequest.of(0, size)).stream()
+                .map(FenixOutboxMessageDto::new)
+                .toList();
+    }
+
+    /**
+     * Put a dead message back in the queue, due now and with a fresh set of attempts
+     */
+    @Transactional
+    public FenixOutboxMessageDto requeue(Long id) {
+        FenixOutboxMessage message = outboxRepository.findById(id)
+                .orElseThrow(() -> new DEIException(ErrorMessage.FENIX_MESSAGE_NOT_FOUND, String.valueOf(id)));
+        if (message.getStatus() != Status.DEAD) {
+            throw new DEIException(ErrorMessage.FENIX_MESSAGE_NOT_DEAD, String.valueOf(id));
+        }
+        message.setStatus(Status.PENDING);
+        message.setAttempts(0);
+        message.setNextAttemptAt(LocalDateTime.now());
+        return new FenixOutboxMessageDto(outboxRepository.save(message));
+    }
+}
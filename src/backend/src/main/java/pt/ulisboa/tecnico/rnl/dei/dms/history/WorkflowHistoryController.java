@@ -0,0 +1,59 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.history;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.history.dto.WorkflowSnapshotDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.history.dto.WorkflowStateDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.history.service.WorkflowHistoryService;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/history")
+public class WorkflowHistoryController {
+
+    @Autowired
+    private WorkflowHistoryService historyService;
+
+    /**
+     * State of a thesis and of its defense at a point in time (now if "at" is omitted)
+     */
+    @GetMapping("/thesis/{id}")
+    public ResponseEntity<List<WorkflowStateDto>> replayThesis(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(historyService.replayThesis(id, at != null ? at : LocalDateTime.now()));
+    }
+
+    /**
+     * State of every workflow at a point in time (Coordinator/Staff action)
+     */
+    @GetMapping("/replay")
+    public ResponseEntity<List<WorkflowStateDto>> replayAll(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            @RequestParam Person.PersonType role) {
+        checkCoordinatorOrStaff(role);
+        return ResponseEntity.ok(historyService.replayAll(at));
+    }
+
+    /**
+     * Take a snapshot now instead of waiting for the periodic one (Coordinator/Staff action)
+     */
+    @PostMapping("/snapshots")
+    public ResponseEntity<WorkflowSnapshotDto> takeSnapshot(@RequestParam Person.PersonType role) {
+        checkCoordinatorOrStaff(role);
+        return ResponseEntity.ok(new WorkflowSnapshotDto(historyService.takeSnapshot()));
+    }
+
+    private static void checkCoordinatorOrStaff(Person.PersonType role) {
+        if (role != Person.PersonType.COORDINATOR && role != Person.PersonType.STAFF) {
+            throw new DEIException(ErrorMessage.UNAUTHORIZED);
+        }
+    }
+}
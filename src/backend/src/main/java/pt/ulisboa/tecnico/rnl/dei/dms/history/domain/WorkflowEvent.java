@@ -0,0 +1,58 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.history.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent.WorkflowType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One applied thesis or defense transition. Rows are only ever inserted (by WorkflowEventLog).
+ *
+ * Statuses are enum names. fromStatus is null when the workflow was created and toStatus is null
+ * when it was deleted. actorRole is null for transitions made by the application itself.
+ * payload is a JSON object with the data the transition set (title, grade, defense date...).
+ */
+@Data
+@Entity
+@Table(name = "workflow_events", indexes = {
+    @Index(name = "idx_event_workflow", columnList = "workflow_type, workflow_id, id"),
+    @Index(name = "idx_event_student", columnList = "student_id, id"),
+    @Index(name = "idx_event_occurred_at", columnList = "occurred_at, id")
+})
+public class WorkflowEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "workflow_type", nullable = false, length = 20)
+    private WorkflowType workflowType;
+
+    @Column(name = "workflow_id", nullable = false)
+    private Long workflowId;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "action", nullable = false, length = 50)
+    private String action;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "actor_role", length = 50)
+    private Person.PersonType actorRole;
+
+    @Column(name = "from_status", length = 50)
+    private String fromStatus;
+
+    @Column(name = "to_status", length = 50)
+    private String toStatus;
+
+    @Column(name = "payload", nullable = false, length = 4000)
+    private String payload;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+}
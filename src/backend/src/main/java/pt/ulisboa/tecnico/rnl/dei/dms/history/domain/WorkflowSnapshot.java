@@ -0,0 +1,58 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.history.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The state of every workflow once all events up to lastEventId are applied, taken at asOf.
+ * Replays start from the latest snapshot before the requested time instead of the first event.
+ */
+@Data
+@Entity
+@Table(name = "workflow_snapshots", indexes = {
+    @Index(name = "idx_snapshot_as_of", columnList = "as_of")
+})
+public class WorkflowSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+
+    @Column(name = "last_event_id", nullable = false)
+    private long lastEventId;
+
+    @Column(name = "entry_count", nullable = false)
+    private int entryCount;
+
+    // Written and read with JDBC; mapped so the table is part of the schema
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "workflow_snapshot_entries",
+            joinColumns = @JoinColumn(name = "snapshot_id"),
+            indexes = @Index(name = "idx_snapshot_entry_workflow",
+                    columnList = "snapshot_id, workflow_type, workflow_id"))
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<WorkflowSnapshotEntry> entries = new ArrayList<>();
+
+    public WorkflowSnapshot() {
+    }
+
+    public WorkflowSnapshot(LocalDateTime asOf, LocalDateTime takenAt, long lastEventId, int entryCount) {
+        this.asOf = asOf;
+        this.takenAt = takenAt;
+        this.lastEventId = lastEventId;
+        this.entryCount = entryCount;
+    }
+}
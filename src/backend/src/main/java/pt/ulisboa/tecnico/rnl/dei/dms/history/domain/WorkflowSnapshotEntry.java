@@ -0,0 +1,32 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.history.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.Data;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent.WorkflowType;
+
+/**
+ * State of one workflow in a snapshot. data holds the merged payloads of its events as JSON.
+ */
+@Data
+@Embeddable
+public class WorkflowSnapshotEntry {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "workflow_type", nullable = false, length = 20)
+    private WorkflowType workflowType;
+
+    @Column(name = "workflow_id", nullable = false)
+    private Long workflowId;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "status", nullable = false, length = 50)
+    private String status;
+
+    @Column(name = "data", nullable = false, length = 4000)
+    private String data;
+}
@@ -0,0 +1,28 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.history.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a workflow history. payload is sent as the JSON object that was stored.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowEventDto {
+    private Long id;
+    private String workflowType;
+    private Long workflowId;
+    private Long studentId;
+    private String action;
+    private String actorRole;
+    private String fromStatus;
+    private String toStatus;
+    @JsonRawValue
+    private String payload;
+    private LocalDateTime occurredAt;
+}
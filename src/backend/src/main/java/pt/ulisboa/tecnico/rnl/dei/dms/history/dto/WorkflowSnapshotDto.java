@@ -0,0 +1,25 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.history.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pt.ulisboa.tecnico.rnl.dei.dms.history.domain.WorkflowSnapshot;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class WorkflowSnapshotDto {
+    private Long id;
+    private LocalDateTime asOf;
+    private LocalDateTime takenAt;
+    private long lastEventId;
+    private int entryCount;
+
+    public WorkflowSnapshotDto(WorkflowSnapshot snapshot) {
+        this.id = snapshot.getId();
+        this.asOf = snapshot.getAsOf();
+        this.takenAt = snapshot.getTakenAt();
+        this.lastEventId = snapshot.getLastEventId();
+        this.entryCount = snapshot.getEntryCount();
+    }
+}
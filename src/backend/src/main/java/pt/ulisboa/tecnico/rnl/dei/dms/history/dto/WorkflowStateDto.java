@@ -0,0 +1,26 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.history.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A workflow as rebuilt from its events: its status plus the data its transitions set
+ */
+@Data
+@NoArgsConstructor
+public class WorkflowStateDto {
+    private String workflowType;
+    private Long workflowId;
+    private Long studentId;
+    private String status;
+    private Map<String, Object> data = new LinkedHashMap<>();
+
+    public WorkflowStateDto(String workflowType, Long workflowId, Long studentId) {
+        this.workflowType = workflowType;
+        this.workflowId = workflowId;
+        this.studentId = studentId;
+    }
+}
@@ -0,0 +1,12 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.history.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import pt.ulisboa.tecnico.rnl.dei.dms.history.domain.WorkflowEvent;
+
+@Repository
+public interface WorkflowEventRepository extends JpaRepository<WorkflowEvent, Long> {
+
+    // Events a replay from a snapshot covering up to that id would have to apply
+    long countByIdGreaterThan(long id);
+}
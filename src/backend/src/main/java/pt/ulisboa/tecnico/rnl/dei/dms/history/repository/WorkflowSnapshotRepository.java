@@ -0,0 +1,17 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.history.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import pt.ulisboa.tecnico.rnl.dei.dms.history.domain.WorkflowSnapshot;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface WorkflowSnapshotRepository extends JpaRepository<WorkflowSnapshot, Long> {
+
+    Optional<WorkflowSnapshot> findFirstByOrderByAsOfDesc();
+
+    // Latest snapshot a replay to a point in time can start from
+    Optional<WorkflowSnapshot> findFirstByAsOfLessThanEqualOrderByAsOfDesc(LocalDateTime time);
+}
@@ -0,0 +1,174 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.history.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow.Transition;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Appends applied transitions to the workflow_events table.
+ *
+ * Inside a transaction the events are buffered and written with one batched insert just
+ * before commit, so they are only stored if the transitions themselves are. Outside a
+ * transaction they are written right away.
+ *
+ * Ids are taken when the events are written, not when they commit, so an event can commit after
+ * one with a higher id. settledEventId() tells how far the ids can be trusted to be final.
+ */
+@Component
+public class WorkflowEventLog {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO workflow_events (workflow_type, workflow_id, student_id, action, actor_role, " +
+            "from_status, to_status, payload, occurred_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String MAX_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM workflow_events";
+
+    private static final int BATCH_SIZE = 100;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Writers that have not finished yet, with the highest id known before their first write
+    private final Map<Object, Long> openWriters = new ConcurrentHashMap<>();
+
+    public void append(Transition<?, ?> transition, Long workflowId, Long studentId, Map<String, ?> payload) {
+        PendingEvent event = new PendingEvent(transition, workflowId, studentId, toJson(payload), LocalDateTime.now());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Object writer = new Object();
+            openWriters.put(writer, maxEventId());
+            try {
+                write(List.of(event));
+            } finally {
+                openWriters.remove(writer);
+            }
+            return;
+        }
+        currentBuffer().events().add(event);
+    }
+
+    /**
+     * The highest event id up to which every event is either committed or rolled back for good:
+     * it stops below the ids any writer that is still open may have taken.
+     */
+    public long settledEventId() {
+        // Read before the open writers: one that registers afterwards only takes higher ids
+        long settled = maxEventId();
+        for (long floor : openWriters.values()) {
+            settled = Math.min(settled, floor);
+        }
+        return settled;
+    }
+
+    /**
+     * Write the events buffered so far in the current transaction, still inside it.
+     * Long imports call this once per chunk so the buffer does not grow with the file.
+     */
+    public void flush() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        writeBuffered(currentBuffer());
+    }
+
+    /**
+     * The buffer of the current transaction. Looked up among the registered synchronizations
+     * (rather than bound as a resource) so a suspended outer transaction keeps its own buffer.
+     */
+    private Buffer currentBuffer() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Buffer buffer && buffer.owner() == this) {
+                return buffer;
+            }
+        }
+        Buffer buffer = new Buffer(this);
+        TransactionSynchronizationManager.registerSynchronization(buffer);
+        return buffer;
+    }
+
+    private void writeBuffered(Buffer buffer) {
+        if (buffer.events().isEmpty()) {
+            return;
+        }
+        openWriters.computeIfAbsent(buffer, key -> maxEventId());
+        write(buffer.events());
+        buffer.events().clear();
+    }
+
+    private long maxEventId() {
+        Long max = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class);
+        return max != null ? max : 0L;
+    }
+
+    private void write(List<PendingEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, BATCH_SIZE, (ps, event) -> {
+            Transition<?, ?> transition = event.transition();
+            Person.PersonType role = transition.role();
+            ps.setString(1, transition.workflowType().name());
+            ps.setLong(2, event.workflowId());
+            ps.setLong(3, event.studentId());
+            ps.setString(4, transition.action().name());
+            ps.setString(5, role != null ? role.name() : null);
+            ps.setString(6, transition.from() != null ? transition.from().name() : null);
+            ps.setString(7, transition.to() != null ? transition.to().name() : null);
+            ps.setString(8, event.payload());
+            ps.setTimestamp(9, Timestamp.valueOf(event.occurredAt()));
+        });
+    }
+
+    private String toJson(Map<String, ?> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Workflow event payload is not serializable", e);
+        }
+    }
+
+    private record PendingEvent(Transition<?, ?> transition, Long workflowId, Long studentId,
+                                String payload, LocalDateTime occurredAt) {
+    }
+
+    // Compared by identity, as a key of openWriters
+    private record Buffer(WorkflowEventLog owner, List<PendingEvent> events) implements TransactionSynchronization {
+
+        Buffer(WorkflowEventLog owner) {
+            this(owner, new ArrayList<>());
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            owner.writeBuffered(this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            owner.openWriters.remove(this);
+        }
+    }
+}
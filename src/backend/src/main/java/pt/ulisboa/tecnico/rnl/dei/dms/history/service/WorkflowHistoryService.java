@@ -0,0 +1,395 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.history.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.history.domain.WorkflowSnapshot;
+import pt.ulisboa.tecnico.rnl.dei.dms.history.dto.WorkflowEventDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.history.dto.WorkflowStateDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.history.repository.WorkflowEventRepository;
+import pt.ulisboa.tecnico.rnl.dei.dms.history.repository.WorkflowSnapshotRepository;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent.WorkflowType;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.DefenseWorkflowRepository;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.ThesisWorkflowRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * History and replay of the workflows, from the event log.
+ *
+ * A snapshot holds the state of every workflow once the events up to some id are applied.
+ * Replaying to a time T starts from the latest snapshot taken at or before T and applies the
+ * later events that occurred up to T, so the cost is bounded by the snapshot size plus the events
+ * between two snapshots. Snapshots go by event id rather than time because an event is only
+ * committed with its transaction, possibly long after the time it records. A snapshot is taken
+ * once SNAPSHOT_EVERY_EVENTS events have accumulated, or when the latest one gets older than
+ * SNAPSHOT_MAX_AGE. The first snapshot is a baseline read from the workflow tables.
+ */
+@Service
+public class WorkflowHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowHistoryService.class);
+
+    private static final int SNAPSHOT_EVERY_EVENTS = 10_000;
+
+    private static final Duration SNAPSHOT_MAX_AGE = Duration.ofDays(1);
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String EVENT_COLUMNS = "SELECT id, workflow_type, workflow_id, student_id, action, " +
+            "actor_role, from_status, to_status, payload, occurred_at FROM workflow_events ";
+
+    private static final String THESIS_EVENT_FILTER =
+            "((workflow_type = 'THESIS' AND workflow_id = ?) OR (workflow_type = 'DEFENSE' AND workflow_id = ?)) ";
+
+    private static final String THESIS_HISTORY_SQL = EVENT_COLUMNS + "WHERE " + THESIS_EVENT_FILTER + "ORDER BY id";
+
+    private static final String EVENTS_UNTIL_SQL = EVENT_COLUMNS + "WHERE id > ? AND occurred_at <= ? ORDER BY id";
+
+    private static final String THESIS_EVENTS_UNTIL_SQL = EVENT_COLUMNS + "WHERE " + THESIS_EVENT_FILTER +
+            "AND id > ? AND occurred_at <= ? ORDER BY id";
+
+    private static final String EVENTS_BETWEEN_IDS_SQL = EVENT_COLUMNS + "WHERE id > ? AND id <= ? ORDER BY id";
+
+    private static final String ENTRY_COLUMNS =
+            "SELECT workflow_type, workflow_id, student_id, status, data FROM workflow_snapshot_entries ";
+
+    private static final String ENTRIES_SQL = ENTRY_COLUMNS + "WHERE snapshot_id = ?";
+
+    private static final String THESIS_ENTRIES_SQL = ENTRY_COLUMNS + "WHERE snapshot_id = ? AND " + THESIS_EVENT_FILTER;
+
+    private static final String INSERT_ENTRY_SQL = "INSERT INTO workflow_snapshot_entries " +
+            "(snapshot_id, workflow_type, workflow_id, student_id, status, data) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String THESIS_EVENT_EXISTS_SQL =
+            "SELECT COUNT(*) FROM workflow_events WHERE workflow_type = 'THESIS' AND workflow_id = ?";
+
+    private static final String DEFENSE_OF_THESIS_SQL = "SELECT id FROM defense_workflows WHERE thesis_id = ?";
+
+    private static final TypeReference<Map<String, Object>> DATA_TYPE = new TypeReference<>() {
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private WorkflowEventLog eventLog;
+
+    @Autowired
+    private WorkflowEventRepository eventRepository;
+
+    @Autowired
+    private WorkflowSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private ThesisWorkflowRepository thesisRepository;
+
+    @Autowired
+    private DefenseWorkflowRepository defenseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (snapshotRepository.findFirstByOrderByAsOfDesc().isEmpty()) {
+            transaction(false).executeWithoutResult(status -> takeBaseline());
+        }
+    }
+
+    /**
+     * Snapshot the current workflow tables, for workflows that existed before the event log
+     */
+    @Transactional
+    public WorkflowSnapshot takeBaseline() {
+        // Read first: the tables reflect every event up to it (and maybe a few after, applied again on replay)
+        long lastEventId = eventLog.settledEventId();
+        Map<Key, WorkflowStateDto> states = newStateMap();
+        for (ThesisWorkflow thesis : thesisRepository.findAll()) {
+            WorkflowStateDto state = state(states, WorkflowType.THESIS, thesis.getId(), thesis.getStudent().getId());
+            state.setStatus(thesis.getStatus().name());
+            state.getData().put("title", thesis.getTitle());
+            state.getData().put("juryMemberIds", thesis.getJuryMemberIdsList());
+            putIfPresent(state, "presidentId", thesis.getJuryPresident() != null ? thesis.getJuryPresident().getId() : null);
+            putIfPresent(state, "documentPath", thesis.getDocumentPath());
+        }
+        for (DefenseWorkflow defense : defenseRepository.findAll()) {
+            WorkflowStateDto state = state(states, WorkflowType.DEFENSE, defense.getId(), defense.getStudent().getId());
+            state.setStatus(defense.getStatus().name());
+            state.getData().put("thesisId", defense.getThesis().getId());
+            putIfPresent(state, "defenseDate", defense.getDefenseDate() != null ? defense.getDefenseDate().toString() : null);
+            putIfPresent(state, "grade", defense.getGrade());
+        }
+        return saveSnapshot(lastEventId, states);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void snapshotIfDue() {
+        snapshotRepository.findFirstByOrderByAsOfDesc().ifPresent(latest -> {
+            long pending = eventRepository.countByIdGreaterThan(latest.getLastEventId());
+            boolean stale = latest.getAsOf().isBefore(LocalDateTime.now().minus(SNAPSHOT_MAX_AGE));
+            if (pending >= SNAPSHOT_EVERY_EVENTS || (pending > 0 && stale)) {
+                transaction(false).executeWithoutResult(status -> takeSnapshot());
+            }
+        });
+    }
+
+    /**
+     * Snapshot every workflow: the latest snapshot plus the events settled since, leaving out
+     * the events of transactions that are still open
+     */
+    @Transactional
+    public WorkflowSnapshot takeSnapshot() {
+        long lastEventId = eventLog.settledEventId();
+        WorkflowSnapshot latest = snapshotRepository.findFirstByOrderByAsOfDesc().orElse(null);
+        Map<Key, WorkflowStateDto> states = load(latest);
+        applyEvents(states, EVENTS_BETWEEN_IDS_SQL, latest != null ? latest.getLastEventId() : 0L, lastEventId);
+        return saveSnapshot(lastEventId, states);
+    }
+
+    /**
+     * The state of every workflow at a point in time, ordered by workflow type and id
+     */
+    @Transactional(readOnly = true)
+    public List<WorkflowStateDto> replayAll(LocalDateTime at) {
+        return new ArrayList<>(replay(at).values());
+    }
+
+    /**
+     * The state of a thesis and of its defense at a point in time (empty if neither existed then)
+     */
+    @Transactional(readOnly = true)
+    public List<WorkflowStateDto> replayThesis(Long thesisId, LocalDateTime at) {
+        long defenseId = checkThesisAndFindDefense(thesisId);
+        Map<Key, WorkflowStateDto> states = newStateMap();
+
+        WorkflowSnapshot snapshot = snapshotRepository.findFirstByAsOfLessThanEqualOrderByAsOfDesc(at).orElse(null);
+        if (snapshot != null) {
+            jdbcTemplate.query(THESIS_ENTRIES_SQL, rs -> {
+                loadEntry(states, rs);
+            }, snapshot.getId(), thesisId, defenseId);
+        }
+        long after = snapshot != null ? snapshot.getLastEventId() : 0L;
+        jdbcTemplate.query(THESIS_EVENTS_UNTIL_SQL, rs -> {
+            apply(states, rs);
+        }, thesisId, defenseId, after, Timestamp.valueOf(at));
+
+        return new ArrayList<>(states.values());
+    }
+
+    /**
+     * The events of a thesis and of its defense in order, streamed as newline-delimited JSON
+     * while they are read from the database
+     */
+    public StreamingResponseBody streamThesisHistory(Long thesisId) {
+        long defenseId = checkThesisAndFindDefense(thesisId);
+        TransactionTemplate transaction = transaction(true);
+
+        return out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+
+            // Some drivers only fetch a result set in chunks inside a transaction
+            transaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                var statement = con.prepareStatement(THESIS_HISTORY_SQL);
+                statement.setFetchSize(FETCH_SIZE);
+                statement.setLong(1, thesisId);
+                statement.setLong(2, defenseId);
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    generator.writeObject(toEventDto(rs));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+
+            generator.writeRaw('\n');
+            generator.flush();
+        };
+    }
+
+    /**
+     * Fail with THESIS_NOT_FOUND for a thesis that never existed, and find the id of its
+     * defense (0, which matches no defense, if it has none)
+     */
+    private long checkThesisAndFindDefense(Long thesisId) {
+        if (!thesisRepository.existsById(thesisId)) {
+            Long events = jdbcTemplate.queryForObject(THESIS_EVENT_EXISTS_SQL, Long.class, thesisId);
+            if (events == null || events == 0) {
+                throw new DEIException(ErrorMessage.THESIS_NOT_FOUND, thesisId.toString());
+            }
+        }
+        List<Long> defenseIds = jdbcTemplate.queryForList(DEFENSE_OF_THESIS_SQL, Long.class, thesisId);
+        return defenseIds.isEmpty() ? 0L : defenseIds.get(0);
+    }
+
+    // Calls from within this class do not go through the @Transactional proxy
+    private TransactionTemplate transaction(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template;
+    }
+
+    private Map<Key, WorkflowStateDto> replay(LocalDateTime at) {
+        WorkflowSnapshot snapshot = snapshotRepository.findFirstByAsOfLessThanEqualOrderByAsOfDesc(at).orElse(null);
+        Map<Key, WorkflowStateDto> states = load(snapshot);
+        applyEvents(states, EVENTS_UNTIL_SQL, snapshot != null ? snapshot.getLastEventId() : 0L, Timestamp.valueOf(at));
+        return states;
+    }
+
+    /**
+     * The states of a snapshot (none without one)
+     */
+    private Map<Key, WorkflowStateDto> load(WorkflowSnapshot snapshot) {
+        Map<Key, WorkflowStateDto> states = newStateMap();
+        if (snapshot != null) {
+            jdbcTemplate.query(con -> {
+                var statement = con.prepareStatement(ENTRIES_SQL);
+                statement.setFetchSize(FETCH_SIZE);
+                statement.setLong(1, snapshot.getId());
+                return statement;
+            }, (RowCallbackHandler) rs -> loadEntry(states, rs));
+        }
+        return states;
+    }
+
+    private void applyEvents(Map<Key, WorkflowStateDto> states, String sql, Object... parameters) {
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(sql);
+            statement.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> apply(states, rs));
+    }
+
+    private WorkflowSnapshot saveSnapshot(long lastEventId, Map<Key, WorkflowStateDto> states) {
+        // Taken once the events it covers are committed, so none of them occurred after asOf
+        LocalDateTime asOf = LocalDateTime.now();
+        WorkflowSnapshot snapshot = snapshotRepository.save(new WorkflowSnapshot(asOf, asOf, lastEventId, states.size()));
+
+        jdbcTemplate.batchUpdate(INSERT_ENTRY_SQL, states.values(), BATCH_SIZE, (ps, state) -> {
+            ps.setLong(1, snapshot.getId());
+            ps.setString(2, state.getWorkflowType());
+            ps.setLong(3, state.getWorkflowId());
+            ps.setLong(4, state.getStudentId());
+            ps.setString(5, state.getStatus());
+            ps.setString(6, toJson(state.getData()));
+        });
+
+        logger.info("Workflow snapshot {} taken up to event {} with {} workflows", snapshot.getId(), lastEventId,
+                states.size());
+        return snapshot;
+    }
+
+    private void loadEntry(Map<Key, WorkflowStateDto> states, ResultSet rs) throws SQLException {
+        WorkflowStateDto state = state(states, WorkflowType.valueOf(rs.getString("workflow_type")),
+                rs.getLong("workflow_id"), rs.getLong("student_id"));
+        state.setStatus(rs.getString("status"));
+        state.getData().putAll(fromJson(rs.getString("data")));
+    }
+
+    /**
+     * Apply one event row to the states: creates, moves or removes its workflow
+     */
+    private void apply(Map<Key, WorkflowStateDto> states, ResultSet rs) throws SQLException {
+        WorkflowType type = WorkflowType.valueOf(rs.getString("workflow_type"));
+        long workflowId = rs.getLong("workflow_id");
+        String toStatus = rs.getString("to_status");
+
+        if (toStatus == null) {
+            states.remove(new Key(type, workflowId));
+            return;
+        }
+        WorkflowStateDto state = state(states, type, workflowId, rs.getLong("student_id"));
+        state.setStatus(toStatus);
+        state.getData().putAll(fromJson(rs.getString("payload")));
+    }
+
+    private WorkflowEventDto toEventDto(ResultSet rs) throws SQLException {
+        return new WorkflowEventDto(
+                rs.getLong("id"),
+                rs.getString("workflow_type"),
+                rs.getLong("workflow_id"),
+                rs.getLong("student_id"),
+                rs.getString("action"),
+                rs.getString("actor_role"),
+                rs.getString("from_status"),
+                rs.getString("to_status"),
+                rs.getString("payload"),
+                rs.getTimestamp("occurred_at").toLocalDateTime());
+    }
+
+    private static Map<Key, WorkflowStateDto> newStateMap() {
+        return new TreeMap<>(Comparator.comparing(Key::type).thenComparingLong(Key::workflowId));
+    }
+
+    private static WorkflowStateDto state(Map<Key, WorkflowStateDto> states, WorkflowType type,
+                                          long workflowId, long studentId) {
+        return states.computeIfAbsent(new Key(type, workflowId),
+                key -> new WorkflowStateDto(type.name(), workflowId, studentId));
+    }
+
+    private static void putIfPresent(WorkflowStateDto state, String key, Object value) {
+        if (value != null) {
+            state.getData().put(key, value);
+        }
+    }
+
+    private String toJson(Map<String, Object> data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Workflow state is not serializable", e);
+        }
+    }
+
+    private Map<String, Object> fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, DATA_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupted workflow event payload: " + json, e);
+        }
+    }
+
+    private record Key(WorkflowType type, long workflowId) {
+    }
+}
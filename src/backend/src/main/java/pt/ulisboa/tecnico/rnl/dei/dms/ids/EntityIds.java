@@ -0,0 +1,38 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.ids;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out ids for rows inserted with plain JDBC (bulk imports and bulk transitions).
+ *
+ * Ids come from the entity's own Hibernate generator, so they share its pooled sequence
+ * and its cached block with the rows Hibernate inserts: one sequence call per
+ * allocationSize ids, and no risk of the two handing out the same id.
+ * Must be called inside a transaction.
+ */
+@Component
+public class EntityIds {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public long next(Class<?> entityClass) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory()
+                .getMappingMetamodel().getEntityDescriptor(entityClass).getGenerator();
+        return ((Number) generator.generate(session, null, null, EventType.INSERT)).longValue();
+    }
+
+    public long[] next(Class<?> entityClass, int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = next(entityClass);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,138 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.imports;
+
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads CSV (RFC 4180) one record at a time, so files of any size are parsed in constant memory.
+ *
+ * Fields are separated by commas; quoted fields may contain commas, line breaks and doubled quotes.
+ * Blank lines are skipped.
+ */
+public class CsvReader {
+
+    private final BufferedReader reader;
+
+    private long line = 1;
+
+    private long recordLine;
+
+    private boolean endOfInput;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader, 64 * 1024);
+    }
+
+    /**
+     * The fields of the next record, or null at the end of the input
+     */
+    public List<String> next() {
+        try {
+            List<String> fields = read();
+            while (fields != null && fields.size() == 1 && fields.get(0).isEmpty()) {
+                fields = read();
+            }
+            return fields;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Read the header record and return the position of each of the given columns (matched ignoring case)
+     */
+    public int[] readHeader(String... columns) {
+        List<String> header = next();
+        if (header == null) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR, "CSV file is empty");
+        }
+        int[] positions = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            positions[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (header.get(j).replace("\uFEFF", "").trim().equalsIgnoreCase(columns[i])) {
+                    positions[i] = j;
+                    break;
+                }
+            }
+            if (positions[i] < 0) {
+                throw new DEIException(ErrorMessage.VALIDATION_ERROR, "CSV header is missing column " + columns[i]);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Line where the record last returned by next() starts (1-based)
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    private List<String> read() throws IOException {
+        if (endOfInput) {
+            return null;
+        }
+        recordLine = line;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean atFieldStart = true;
+
+        while (true) {
+            int c = reader.read();
+            if (c == -1) {
+                endOfInput = true;
+                if (fields.isEmpty() && field.isEmpty() && atFieldStart) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && atFieldStart) {
+                quoted = true;
+                atFieldStart = false;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                atFieldStart = true;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+                atFieldStart = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.imports;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.imports.dto.ImportReportDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.imports.service.PersonImportService;
+import pt.ulisboa.tecnico.rnl.dei.dms.imports.service.ThesisImportService;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+
+import java.io.InputStream;
+
+/**
+ * Bulk imports. The CSV file is the raw request body (not a multipart upload),
+ * so it is parsed while it arrives instead of being buffered first.
+ */
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+
+    @Autowired
+    private PersonImportService personImportService;
+
+    @Autowired
+    private ThesisImportService thesisImportService;
+
+    /**
+     * Import people from CSV with columns name, istId, email, type (Coordinator/Staff action)
+     */
+    @PostMapping(value = "/people", consumes = {"text/csv", "text/plain", "application/octet-stream"})
+    public ResponseEntity<ImportReportDto> importPeople(@RequestParam Person.PersonType role, InputStream csv) {
+        checkCoordinatorOrStaff(role);
+        return ResponseEntity.ok(personImportService.importPeople(csv));
+    }
+
+    /**
+     * Import jury proposals from CSV with columns studentIstId, title, juryIstIds
+     * (jury members separated by ";") (Coordinator/Staff action)
+     */
+    @PostMapping(value = "/jury-proposals", consumes = {"text/csv", "text/plain", "application/octet-stream"})
+    public ResponseEntity<ImportReportDto> importJuryProposals(@RequestParam Person.PersonType role, InputStream csv) {
+        checkCoordinatorOrStaff(role);
+        return ResponseEntity.ok(thesisImportService.importJuryProposals(csv));
+    }
+
+    private static void checkCoordinatorOrStaff(Person.PersonType role) {
+        if (role != Person.PersonType.COORDINATOR && role != Person.PersonType.STAFF) {
+            throw new DEIException(ErrorMessage.UNAUTHORIZED);
+        }
+    }
+}
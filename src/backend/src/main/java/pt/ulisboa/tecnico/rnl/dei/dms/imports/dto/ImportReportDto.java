@@ -0,0 +1,28 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.imports.dto;
+
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.SimilarThesisDto;
+
+import java.util.List;
+
+/**
+ * Outcome of a CSV import: how many records were imported and why the others were not.
+ * Only the first errors are listed; errorsTruncated tells whether there were more.
+ * similarTitles flags the imported jury proposals whose title is nearly the same as a stored one.
+ */
+public record ImportReportDto(int imported, int failed, List<LineError> errors, boolean errorsTruncated,
+                              List<SimilarTitles> similarTitles) {
+
+    /**
+     * line is where the record starts in the file (the header is line 1)
+     */
+    public record LineError(long line, int code, String message) {
+
+        public static LineError of(long line, ErrorMessage error, String value) {
+            return new LineError(line, error.getCode(), String.format(error.getLabel(), value));
+        }
+    }
+
+    public record SimilarTitles(long line, long thesisId, List<SimilarThesisDto> similarTheses) {
+    }
+}
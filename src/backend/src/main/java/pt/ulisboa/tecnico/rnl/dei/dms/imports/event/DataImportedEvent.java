@@ -0,0 +1,10 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.imports.event;
+
+import pt.ulisboa.tecnico.rnl.dei.dms.versioning.DataVersions.DataTable;
+
+/**
+ * Published once by a bulk import instead of an event per imported row.
+ * Listeners that keep derived state should reload it when the import commits.
+ */
+public record DataImportedEvent(DataTable table, int rows) {
+}
@@ -0,0 +1,52 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.imports.service;
+
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.imports.dto.ImportReportDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.imports.dto.ImportReportDto.LineError;
+import pt.ulisboa.tecnico.rnl.dei.dms.imports.dto.ImportReportDto.SimilarTitles;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.SimilarThesisDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the outcome of an import while it runs. Keeps at most MAX_ERRORS errors
+ * so a file full of bad lines does not grow the report without bound.
+ */
+class ImportReport {
+
+    static final int MAX_ERRORS = 1000;
+
+    private final List<LineError> errors = new ArrayList<>();
+
+    private final List<SimilarTitles> similarTitles = new ArrayList<>();
+
+    private int imported;
+
+    private int failed;
+
+    void imported(int count) {
+        imported += count;
+    }
+
+    void failed(long line, ErrorMessage error, String value) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(LineError.of(line, error, value));
+        }
+    }
+
+    void similar(long line, long thesisId, List<SimilarThesisDto> similarTheses) {
+        if (!similarTheses.isEmpty() && similarTitles.size() < MAX_ERRORS) {
+            similarTitles.add(new SimilarTitles(line, thesisId, similarTheses));
+        }
+    }
+
+    int getImported() {
+        return imported;
+    }
+
+    ImportReportDto toDto() {
+        return new ImportReportDto(imported, failed, errors, failed > errors.size(), similarTitles);
+    }
+}
@@ -0,0 +1,135 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.imports.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.ids.EntityIds;
+import pt.ulisboa.tecnico.rnl.dei.dms.imports.CsvReader;
+import pt.ulisboa.tecnico.rnl.dei.dms.imports.dto.ImportReportDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.imports.event.DataImportedEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.versioning.DataVersions.DataTable;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Imports people from CSV (columns name, istId, email, type, in any order).
+ *
+ * The file is parsed as it is read. IST ids and emails already taken are loaded once, so
+ * duplicates (in the database or earlier in the file) are found without a query per line.
+ * Valid lines are written with batched inserts; invalid ones are reported by line number.
+ * Everything is imported in one transaction.
+ */
+@Service
+public class PersonImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersonImportService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO people (id, name, ist_id, email, type) VALUES (?, ?, ?, ?, ?)";
+
+    static final int BATCH_SIZE = 500;
+
+    // Same rules as PersonDto
+    private static final Pattern IST_ID = Pattern.compile("^ist1[0-9]+$");
+
+    private static final Pattern EMAIL = Pattern.compile("^[a-zA-Z0-9._%+-]+@tecnico\\.ulisboa\\.pt$");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityIds entityIds;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public ImportReportDto importPeople(InputStream csv) {
+        long start = System.nanoTime();
+        CsvReader reader = new CsvReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        int[] columns = reader.readHeader("name", "istId", "email", "type");
+
+        Set<String> istIds = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        jdbcTemplate.query("SELECT ist_id, email FROM people", rs -> {
+            istIds.add(rs.getString(1));
+            emails.add(rs.getString(2));
+        });
+
+        ImportReport report = new ImportReport();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+
+        for (List<String> record = reader.next(); record != null; record = reader.next()) {
+            long line = reader.getRecordLine();
+            String name = field(record, columns[0]);
+            String istId = field(record, columns[1]);
+            String email = field(record, columns[2]);
+            String type = field(record, columns[3]);
+            Person.PersonType personType = personType(type);
+
+            if (name.isEmpty()) {
+                report.failed(line, ErrorMessage.PERSON_NAME_NOT_VALID, name);
+            } else if (!IST_ID.matcher(istId).matches()) {
+                report.failed(line, ErrorMessage.VALIDATION_ERROR, "IST ID inválido: " + istId);
+            } else if (!EMAIL.matcher(email).matches()) {
+                report.failed(line, ErrorMessage.VALIDATION_ERROR, "Email inválido: " + email);
+            } else if (personType == null) {
+                report.failed(line, ErrorMessage.INVALID_PERSON_TYPE, type);
+            } else if (istIds.contains(istId)) {
+                report.failed(line, ErrorMessage.DUPLICATE_IST_ID, istId);
+            } else if (emails.contains(email)) {
+                report.failed(line, ErrorMessage.DUPLICATE_EMAIL, email);
+            } else {
+                istIds.add(istId);
+                emails.add(email);
+                batch.add(new Object[] {entityIds.next(Person.class), name, istId, email, personType.name()});
+                if (batch.size() == BATCH_SIZE) {
+                    flush(batch, report);
+                }
+            }
+        }
+        flush(batch, report);
+
+        if (report.getImported() > 0) {
+            eventPublisher.publishEvent(new DataImportedEvent(DataTable.PEOPLE, report.getImported()));
+        }
+        ImportReportDto result = report.toDto();
+        logger.info("Imported {} people ({} lines rejected) in {} ms",
+                result.imported(), result.failed(), (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private void flush(List<Object[]> batch, ImportReport report) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+            report.imported(batch.size());
+            batch.clear();
+        }
+    }
+
+    // Like PersonType.fromString, without throwing (DEIException logs every failure)
+    private static Person.PersonType personType(String type) {
+        for (Person.PersonType personType : Person.PersonType.values()) {
+            if (personType.name().equalsIgnoreCase(type)) {
+                return personType;
+            }
+        }
+        return null;
+    }
+
+    static String field(List<String> record, int column) {
+        return column < record.size() ? record.get(column).trim() : "";
+    }
+}
@@ -0,0 +1,203 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.imports.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.ids.EntityIds;
+import pt.ulisboa.tecnico.rnl.dei.dms.history.service.WorkflowEventLog;
+import pt.ulisboa.tecnico.rnl.dei.dms.imports.CsvReader;
+import pt.ulisboa.tecnico.rnl.dei.dms.imports.dto.ImportReportDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.imports.event.DataImportedEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.ThesisWorkflowService;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow.ThesisAction;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow.Transition;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow.WorkflowStateMachine;
+import pt.ulisboa.tecnico.rnl.dei.dms.versioning.DataVersions.DataTable;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Imports jury proposals from CSV (columns studentIstId, title, juryIstIds, in any order;
+ * juryIstIds separated by ";"). Each valid line submits a thesis on behalf of the student,
+ * with the same checks as ThesisWorkflowService.submitJuryProposal, and titles nearly the same
+ * as a stored one are flagged in the report as they would be on submission.
+ *
+ * People and the students that already have a thesis are loaded once. Theses, their jury
+ * members and their SUBMIT events are written in batches; invalid lines are reported by line
+ * number. Everything is imported in one transaction.
+ */
+@Service
+public class ThesisImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThesisImportService.class);
+
+    private static final String INSERT_THESIS_SQL =
+            "INSERT INTO thesis_workflows (id, student_id, title, status, submission_date, version) " +
+            "VALUES (?, ?, ?, ?, ?, 0)";
+
+    private static final String INSERT_JURY_MEMBER_SQL =
+            "INSERT INTO thesis_jury_members (thesis_id, person_id) VALUES (?, ?)";
+
+    private static final Transition<ThesisStatus, ThesisAction> SUBMIT =
+            WorkflowStateMachine.THESIS.check(null, ThesisAction.SUBMIT, Person.PersonType.STUDENT);
+
+    private static final Pattern JURY_SEPARATOR = Pattern.compile("\\s*;\\s*");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityIds entityIds;
+
+    @Autowired
+    private WorkflowStateMachine stateMachine;
+
+    @Autowired
+    private WorkflowEventLog eventLog;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ThesisWorkflowService thesisService;
+
+    @Transactional
+    public ImportReportDto importJuryProposals(InputStream csv) {
+        long start = System.nanoTime();
+        CsvReader reader = new CsvReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        int[] columns = reader.readHeader("studentIstId", "title", "juryIstIds");
+
+        Map<String, PersonRef> people = new HashMap<>();
+        jdbcTemplate.query("SELECT id, ist_id, type FROM people", rs -> {
+            people.put(rs.getString(2), new PersonRef(rs.getLong(1), Person.PersonType.valueOf(rs.getString(3))));
+        });
+        Set<Long> studentsWithThesis = new HashSet<>();
+        jdbcTemplate.query("SELECT student_id FROM thesis_workflows", rs -> {
+            studentsWithThesis.add(rs.getLong(1));
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        ImportReport report = new ImportReport();
+        List<Proposal> batch = new ArrayList<>(PersonImportService.BATCH_SIZE);
+
+        for (List<String> record = reader.next(); record != null; record = reader.next()) {
+            long line = reader.getRecordLine();
+            String studentIstId = PersonImportService.field(record, columns[0]);
+            String title = PersonImportService.field(record, columns[1]);
+            String juryColumn = PersonImportService.field(record, columns[2]);
+
+            PersonRef student = people.get(studentIstId);
+            String[] juryIstIds = juryColumn.isEmpty() ? new String[0] : JURY_SEPARATOR.split(juryColumn);
+
+            if (title.length() < 3 || title.length() > 255) {
+                report.failed(line, ErrorMessage.VALIDATION_ERROR, "Thesis title must be between 3 and 255 characters long");
+            } else if (student == null) {
+                report.failed(line, ErrorMessage.NO_SUCH_PERSON, studentIstId);
+            } else if (student.type() != Person.PersonType.STUDENT) {
+                report.failed(line, ErrorMessage.INVALID_PERSON_TYPE, "Not a student: " + studentIstId);
+            } else if (studentsWithThesis.contains(student.id())) {
+                report.failed(line, ErrorMessage.THESIS_ALREADY_EXISTS, studentIstId);
+            } else if (juryIstIds.length == 0 || juryIstIds.length > 5) {
+                report.failed(line, ErrorMessage.VALIDATION_ERROR, "Jury must have between 1 and 5 members");
+            } else {
+                List<Long> jury = findJury(juryIstIds, people, line, report);
+                if (jury != null) {
+                    studentsWithThesis.add(student.id());
+                    long thesisId = entityIds.next(ThesisWorkflow.class);
+                    batch.add(new Proposal(thesisId, student.id(), title, jury));
+                    report.similar(line, thesisId, thesisService.findSimilarTheses(thesisId, title));
+                    if (batch.size() == PersonImportService.BATCH_SIZE) {
+                        flush(batch, now, report);
+                    }
+                }
+            }
+        }
+        flush(batch, now, report);
+
+        if (report.getImported() > 0) {
+            eventPublisher.publishEvent(new DataImportedEvent(DataTable.THESIS, report.getImported()));
+        }
+        ImportReportDto result = report.toDto();
+        logger.info("Imported {} jury proposals ({} lines rejected) in {} ms",
+                result.imported(), result.failed(), (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Ids of the jury members, or null (and the line reported) if one is unknown, repeated or not a teacher
+     */
+    private List<Long> findJury(String[] istIds, Map<String, PersonRef> people, long line, ImportReport report) {
+        List<Long> jury = new ArrayList<>(istIds.length);
+        for (String istId : istIds) {
+            PersonRef member = people.get(istId);
+            if (member == null) {
+                report.failed(line, ErrorMessage.NO_SUCH_PERSON, istId);
+                return null;
+            }
+            if (member.type() != Person.PersonType.TEACHER) {
+                report.failed(line, ErrorMessage.VALIDATION_ERROR, "All jury members must be teachers");
+                return null;
+            }
+            if (jury.contains(member.id())) {
+                report.failed(line, ErrorMessage.VALIDATION_ERROR, "Duplicate jury member " + istId);
+                return null;
+            }
+            jury.add(member.id());
+        }
+        return jury;
+    }
+
+    private void flush(List<Proposal> batch, LocalDateTime now, ImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_THESIS_SQL, batch, batch.size(), (ps, proposal) -> {
+            ps.setLong(1, proposal.thesisId());
+            ps.setLong(2, proposal.studentId());
+            ps.setString(3, proposal.title());
+            ps.setString(4, SUBMIT.to().getDatabaseValue());
+            ps.setTimestamp(5, Timestamp.valueOf(now));
+        });
+
+        List<long[]> juryMembers = new ArrayList<>(batch.size() * 3);
+        for (Proposal proposal : batch) {
+            proposal.jury().forEach(memberId -> juryMembers.add(new long[] {proposal.thesisId(), memberId}));
+            stateMachine.imported(SUBMIT, proposal.thesisId(), proposal.studentId(),
+                    Map.of("title", proposal.title(), "juryMemberIds", proposal.jury().stream().sorted().toList()));
+        }
+        jdbcTemplate.batchUpdate(INSERT_JURY_MEMBER_SQL, juryMembers, juryMembers.size(), (ps, member) -> {
+            ps.setLong(1, member[0]);
+            ps.setLong(2, member[1]);
+        });
+        eventLog.flush();
+
+        report.imported(batch.size());
+        batch.clear();
+    }
+
+    private record PersonRef(long id, Person.PersonType type) {
+    }
+
+    private record Proposal(long thesisId, long studentId, String title, List<Long> jury) {
+    }
+}
@@ -0,0 +1,54 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.pagination;
+
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page: the sort key it was listed by, the value of that key
+ * (null if the row has no value for it) and the row id, which breaks ties.
+ * Clients only see it as an opaque URL-safe token.
+ */
+public record Cursor(String sort, String value, long id) {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final String SEPARATOR = "\n";
+
+    public String encode() {
+        String raw = sort + SEPARATOR + id + SEPARATOR + (value != null ? value : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token given by a client, checking it was issued for the same sort key
+     */
+    public static Cursor decode(String token, String expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 3);
+            if (parts.length != 3 || !parts[0].equals(expectedSort)) {
+                throw new DEIException(ErrorMessage.VALIDATION_ERROR, "cursor does not match sort " + expectedSort);
+            }
+            return new Cursor(parts[0], parts[2].isEmpty() ? null : parts[2], Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR, "invalid cursor");
+        }
+    }
+
+    /**
+     * Validate a requested page size, falling back to the default
+     */
+    public static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR, "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+}
@@ -7,6 +7,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import jakarta.validation.Valid;
@@ -17,6 +18,9 @@ import pt.ulisboa.tecnico.rnl.dei.dms.person.service.PersonService;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person; 
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.pagination.CursorPage;
+import pt.ulisboa.tecnico.rnl.dei.dms.versioning.DataVersions;
+import pt.ulisboa.tecnico.rnl.dei.dms.versioning.DataVersions.DataTable;
 
 @RestController
 @CrossOrigin(origins = "http://localhost:5173")  // Adjust as needed
@@ -27,12 +31,37 @@ public class PersonController {
     @Autowired
     private PersonService personService;
 
+    @Autowired
+    private DataVersions dataVersions;
+
+    // Without sort, cursor or limit everyone is returned; otherwise one page sorted by "id" or "name",
+    // with the token for the next page in X-Next-Cursor
     @GetMapping("/people")
-    public List<PersonDto> getPeople() {
+    public ResponseEntity<List<PersonDto>> getPeople(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         logger.debug("Received request to get all people.");
+        String etag = dataVersions.etag("people", DataTable.PEOPLE);
+        if (dataVersions.isNotModified(ifNoneMatch, etag)) {
+            logger.debug("People unchanged since {}", etag);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        if (sort != null || cursor != null || limit != null) {
+            CursorPage<PersonDto> page = personService.getPeoplePage(sort, cursor, limit);
+            logger.debug("Returning page of {} people.", page.items().size());
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+            if (page.nextCursor() != null) {
+                response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.items());
+        }
+
         List<PersonDto> people = personService.getPeople();
         logger.debug("Returning {} people.", people.size());
-        return people;
+        return ResponseEntity.ok().eTag(etag).body(people);
     }
 
     @PostMapping("/people")
@@ -13,7 +13,9 @@ import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.*;
 
 @Data
 @Entity
-@Table(name = "people")
+@Table(name = "people", indexes = {
+	@Index(name = "idx_people_name", columnList = "name, id")
+})
 public class Person {
 
 	public enum PersonType {
@@ -38,8 +40,10 @@ public class Person {
 		}
 	}
 
+	// Pooled sequence: Hibernate reserves ids in blocks of 50, so inserts can be batched
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "people_seq")
+	@SequenceGenerator(name = "people_seq", sequenceName = "people_seq", allocationSize = 50)
 	private Long id;
 
 	@Column(name = "name", nullable = false)
@@ -0,0 +1,7 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.person.event;
+
+/**
+ * Published by PersonService when a person is created, updated or deleted.
+ */
+public record PersonChangedEvent(Long personId, boolean deleted) {
+}
@@ -1,7 +1,10 @@
 package pt.ulisboa.tecnico.rnl.dei.dms.person.repository;
 
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,5 +18,15 @@ public interface PersonRepository extends JpaRepository<Person, Long> {
     Optional<Person> findByEmail(String email);
     Optional<Person> findByIstIdAndType(String istId, Person.PersonType type);
     List<Person> findByType(Person.PersonType type);
-    
+
+    // Keyset pagination by id
+    @Query("SELECT p FROM Person p WHERE p.id > :afterId ORDER BY p.id")
+    List<Person> findPageById(@Param("afterId") long afterId, Pageable pageable);
+
+    // Keyset pagination by name (ties broken by id), backed by idx_people_name
+    @Query("SELECT p FROM Person p ORDER BY p.name, p.id")
+    List<Person> findFirstPageByName(Pageable pageable);
+
+    @Query("SELECT p FROM Person p WHERE (p.name, p.id) > (:after, :afterId) ORDER BY p.name, p.id")
+    List<Person> findPageByName(@Param("after") String after, @Param("afterId") long afterId, Pageable pageable);
 }
@@ -3,6 +3,8 @@ package pt.ulisboa.tecnico.rnl.dei.dms.person.service;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
@@ -10,9 +12,12 @@ import org.slf4j.LoggerFactory;
 
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.pagination.Cursor;
+import pt.ulisboa.tecnico.rnl.dei.dms.pagination.CursorPage;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person.PersonType;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.dto.PersonDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.event.PersonChangedEvent;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.repository.PersonRepository;
 import java.util.stream.Collectors;
 
@@ -25,6 +30,9 @@ public class PersonService {
     @Autowired
     private PersonRepository personRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     private Person fetchPersonOrThrow(long id) {
         logger.debug("Fetching person with ID: {}", id);
         return personRepository.findById(id)
@@ -45,6 +53,32 @@ public class PersonService {
         return people;
     }
 
+    @Transactional
+    public CursorPage<PersonDto> getPeoplePage(String sort, String cursorToken, Integer limit) {
+        String sortKey = sort != null ? sort : "id";
+        int size = Cursor.pageSize(limit);
+        Cursor cursor = cursorToken != null ? Cursor.decode(cursorToken, sortKey) : null;
+        PageRequest page = PageRequest.of(0, size + 1);
+        logger.debug("Fetching page of people sorted by {} after {}", sortKey, cursor);
+
+        List<Person> rows;
+        switch (sortKey) {
+            case "id":
+                rows = personRepository.findPageById(cursor != null ? cursor.id() : 0L, page);
+                break;
+            case "name":
+                rows = cursor == null
+                        ? personRepository.findFirstPageByName(page)
+                        : personRepository.findPageByName(cursor.value(), cursor.id(), page);
+                break;
+            default:
+                throw new DEIException(ErrorMessage.VALIDATION_ERROR, "Unsupported sort: " + sortKey);
+        }
+
+        return CursorPage.of(rows, size, p -> new Cursor(sortKey, sortKey.equals("name") ? p.getName() : null, p.getId()))
+                .map(PersonDto::new);
+    }
+
     @Transactional
     public PersonDto createPerson(PersonDto personDto) {
         logger.debug("Attempting to create person: {}", personDto);
@@ -73,6 +107,7 @@ public class PersonService {
 
         PersonDto savedPersonDto = new PersonDto(personRepository.save(person));
         logger.debug("Created new person with ID: {}", savedPersonDto.id());
+        eventPublisher.publishEvent(new PersonChangedEvent(savedPersonDto.id(), false));
 
         return savedPersonDto;
     }
@@ -103,6 +138,7 @@ public class PersonService {
     
         // Save and return updated person
         existingPerson = personRepository.save(existingPerson);
+        eventPublisher.publishEvent(new PersonChangedEvent(existingPerson.getId(), false));
         return new PersonDto(existingPerson);
     }
 
@@ -116,6 +152,7 @@ public class PersonService {
         try {
             personRepository.deleteById(id);
             logger.debug("Deleted person with ID: {}", id);
+            eventPublisher.publishEvent(new PersonChangedEvent(id, true));
         } catch (Exception e) {
             logger.error("Unexpected error while deleting person with ID {}: {}", id, e.getMessage());
             throw new DEIException(ErrorMessage.INTERNAL_ERROR, "Erro interno ao eliminar a pessoa.");
@@ -0,0 +1,69 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.readmodel;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pt.ulisboa.tecnico.rnl.dei.dms.imports.event.DataImportedEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.event.PersonChangedEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.versioning.DataVersions.DataTable;
+
+/**
+ * Base of the in-memory indexes and read models that serve reads without querying the database.
+ *
+ * They are loaded at startup, and loaded again when an import commits, since imports are not
+ * published row by row. In between, subclasses follow the committed workflow transitions they
+ * need, and the person changes through personDeleted and personChanged.
+ *
+ * The listeners run after the commit, so the ones that query do it in a transaction of their own.
+ */
+public abstract class InMemoryIndex {
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Load the whole index from the database, replacing what it held
+     */
+    public abstract void reload();
+
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onDataImported(DataImportedEvent event) {
+        if (reloadsAfterImport(event.table())) {
+            reload();
+        }
+    }
+
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onPersonChanged(PersonChangedEvent event) {
+        if (event.deleted()) {
+            personDeleted(event.personId());
+        } else {
+            personChanged(event.personId());
+        }
+    }
+
+    /**
+     * Whether an import of that table can change the index (any import by default)
+     */
+    protected boolean reloadsAfterImport(DataTable table) {
+        return true;
+    }
+
+    /**
+     * A person was deleted. The database deletes the workflows of a student and the jury
+     * memberships of a teacher with them, without a workflow transition.
+     */
+    protected abstract void personDeleted(long personId);
+
+    /**
+     * A person was created or updated (nothing to do by default)
+     */
+    protected void personChanged(long personId) {
+    }
+}
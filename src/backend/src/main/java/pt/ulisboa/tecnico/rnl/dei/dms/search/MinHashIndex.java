@@ -0,0 +1,170 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.search;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.IntConsumer;
+
+/**
+ * Locality-sensitive index of texts by the character trigrams of their terms, to find the texts
+ * similar to a given one without comparing it to all of them.
+ *
+ * Each text gets a MinHash signature of SIGNATURE_SIZE hashes, cut into BANDS bands of ROWS hashes.
+ * Two texts whose trigram sets have Jaccard similarity s share at least one band with probability
+ * 1 - (1 - s^ROWS)^BANDS: about 96% at s = 0.7 and under 2% at s = 0.2, so a lookup only meets the
+ * few texts sharing a band, and the caller checks the real similarity of those.
+ *
+ * Band hashes are kept in one open-addressing table of (band hash, document) entries, about
+ * 200 bytes per text; the signatures themselves are not kept. Documents are dense ints chosen by
+ * the caller; there is no removal (callers skip documents they deleted and rebuild from time to time).
+ * Not thread-safe.
+ */
+public final class MinHashIndex {
+
+    private static final int BANDS = 12;
+    private static final int ROWS = 4;
+    private static final int SIGNATURE_SIZE = BANDS * ROWS;
+
+    private static final long[] SEEDS = new SplittableRandom(0x5eed).longs(SIGNATURE_SIZE).toArray();
+
+    private static final long FREE = -1L;
+
+    private long[] entries = new long[1024];
+
+    private int size;
+
+    public MinHashIndex() {
+        Arrays.fill(entries, FREE);
+    }
+
+    /**
+     * The distinct trigrams of the terms of text (see TextAnalyzer), sorted
+     */
+    public static long[] shingles(String text) {
+        String normalized = " " + String.join(" ", TextAnalyzer.terms(text)) + " ";
+        if (normalized.length() < 3) {
+            return new long[0];
+        }
+        long[] shingles = new long[normalized.length() - 2];
+        for (int i = 0; i < shingles.length; i++) {
+            shingles[i] = (long) normalized.charAt(i) << 32 | (long) normalized.charAt(i + 1) << 16 | normalized.charAt(i + 2);
+        }
+        Arrays.sort(shingles);
+        int distinct = 0;
+        for (int i = 0; i < shingles.length; i++) {
+            if (i == 0 || shingles[i] != shingles[i - 1]) {
+                shingles[distinct++] = shingles[i];
+            }
+        }
+        return Arrays.copyOf(shingles, distinct);
+    }
+
+    /**
+     * Jaccard similarity of two sets of shingles
+     */
+    public static double jaccard(long[] a, long[] b) {
+        if (a.length == 0 && b.length == 0) {
+            return 1;
+        }
+        int common = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                common++;
+                i++;
+                j++;
+            }
+        }
+        return (double) common / (a.length + b.length - common);
+    }
+
+    public void add(int document, long[] shingles) {
+        if (shingles.length == 0) {
+            return;
+        }
+        if ((size + BANDS) * 2 > entries.length) {
+            grow();
+        }
+        for (int band : bands(shingles)) {
+            insert((long) band << 32 | document);
+        }
+    }
+
+    /**
+     * Every document sharing a band with shingles; a document may be given more than once
+     */
+    public void candidates(long[] shingles, IntConsumer consumer) {
+        if (shingles.length == 0) {
+            return;
+        }
+        int mask = entries.length - 1;
+        for (int band : bands(shingles)) {
+            for (int slot = slot(band, mask); entries[slot] != FREE; slot = (slot + 1) & mask) {
+                if ((int) (entries[slot] >>> 32) == band) {
+                    consumer.accept((int) entries[slot]);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(entries, FREE);
+        size = 0;
+    }
+
+    private static int[] bands(long[] shingles) {
+        long[] signature = new long[SIGNATURE_SIZE];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long shingle : shingles) {
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                signature[i] = Math.min(signature[i], mix(shingle ^ SEEDS[i]));
+            }
+        }
+        int[] bands = new int[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long hash = band;
+            for (int row = 0; row < ROWS; row++) {
+                hash = mix(hash * 31 + signature[band * ROWS + row]);
+            }
+            bands[band] = (int) (hash >>> 32);
+        }
+        return bands;
+    }
+
+    private void insert(long entry) {
+        int mask = entries.length - 1;
+        int slot = slot((int) (entry >>> 32), mask);
+        while (entries[slot] != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        entries[slot] = entry;
+        size++;
+    }
+
+    private void grow() {
+        long[] old = entries;
+        entries = new long[old.length * 2];
+        Arrays.fill(entries, FREE);
+        size = 0;
+        for (long entry : old) {
+            if (entry != FREE) {
+                insert(entry);
+            }
+        }
+    }
+
+    private static int slot(int band, int mask) {
+        return (int) mix(band) & mask;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+}
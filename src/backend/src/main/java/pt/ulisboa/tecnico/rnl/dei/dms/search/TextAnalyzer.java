@@ -0,0 +1,112 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns free text (thesis titles, search queries) into index terms.
+ *
+ * Words are lowercased and accent-folded ("Gestão" and "gestao" are the same word), split on
+ * anything that is not a letter or digit, stripped of Portuguese and English stopwords and reduced
+ * to their singular with a few Portuguese plural rules ("sistemas" and "sistema", "redes" and "rede",
+ * "aplicações" and "aplicação"). Titles here mix both languages, so this is deliberately light:
+ * it never merges words that only share a root.
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "ao", "aos", "as", "com", "da", "das", "de", "do", "dos", "e", "em", "entre", "na", "nas",
+            "no", "nos", "o", "os", "ou", "para", "pela", "pelas", "pelo", "pelos", "por", "sem", "sob",
+            "sobre", "um", "uma", "umas", "uns",
+            "an", "and", "at", "by", "for", "from", "in", "into", "of", "on", "or", "the", "to", "with");
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Lowercased text without diacritics
+     */
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                folded.append(c);
+            }
+        }
+        return folded.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The folded words of text, in order, stopwords included
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * The index terms of text: its words without stopwords, stemmed
+     */
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String word : words(text)) {
+            if (!isStopword(word)) {
+                terms.add(stem(word));
+            }
+        }
+        return terms;
+    }
+
+    public static boolean isStopword(String word) {
+        return STOPWORDS.contains(word);
+    }
+
+    /**
+     * Singular of a folded word
+     */
+    public static String stem(String word) {
+        int length = word.length();
+        if (length <= 3 || word.charAt(length - 1) != 's') {
+            return word;
+        }
+        if (word.endsWith("oes") || word.endsWith("aes")) {
+            return word.substring(0, length - 3) + "ao";
+        }
+        if (word.endsWith("ais")) {
+            return word.substring(0, length - 2) + "l";
+        }
+        if (word.endsWith("eis")) {
+            return word.substring(0, length - 3) + "el";
+        }
+        if (word.endsWith("ns")) {
+            return word.substring(0, length - 2) + "m";
+        }
+        if (word.endsWith("res") || word.endsWith("zes")) {
+            return word.substring(0, length - 2);
+        }
+        if (word.endsWith("ss") || word.endsWith("us") || word.endsWith("is")) {
+            // "access", "campus", "analysis" are not plurals
+            return word;
+        }
+        return word.substring(0, length - 1);
+    }
+}
@@ -2,6 +2,8 @@ package pt.ulisboa.tecnico.rnl.dei.dms.thesis.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
@@ -10,11 +12,26 @@ import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.repository.PersonRepository;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.BulkTransitionResultDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefensePlanDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefensePlanRequestDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseScheduleDto;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseWorkflowDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.GradeAssignmentDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.GradeStatisticsDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.TeacherAvailabilityDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.DefensePlanner;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.DefenseWorkflowService;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.GradeStatistics;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.TeacherAvailabilityService;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.TransitionRetry;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.*;
+import pt.ulisboa.tecnico.rnl.dei.dms.pagination.CursorPage;
+import pt.ulisboa.tecnico.rnl.dei.dms.versioning.DataVersions;
+import pt.ulisboa.tecnico.rnl.dei.dms.versioning.DataVersions.DataTable;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -30,13 +47,49 @@ public class DefenseWorkflowController {
 
     @Autowired
     private DefenseWorkflowRepository defenseRepository; 
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private TransitionRetry transitionRetry;
+
+    @Autowired
+    private DefensePlanner defensePlanner;
+
+    @Autowired
+    private TeacherAvailabilityService availabilityService;
+
+    @Autowired
+    private GradeStatistics gradeStatistics;
+
     /**
-     * Get all defense workflows
+     * Get defense workflows (answers 304 if If-None-Match is still current).
+     * Without sort, cursor or limit the whole table is returned. Otherwise one page is returned,
+     * sorted by "id" or "defenseDate", and the token for the next page is in X-Next-Cursor.
      */
     @GetMapping
-    public ResponseEntity<List<DefenseWorkflowDto>> getAllDefenses() {
+    public ResponseEntity<List<DefenseWorkflowDto>> getAllDefenses(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        String etag = dataVersions.etag("defenses", DataTable.DEFENSE);
+        if (dataVersions.isNotModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        if (sort != null || cursor != null || limit != null) {
+            CursorPage<DefenseWorkflow> page = defenseService.findPage(sort, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+            if (page.nextCursor() != null) {
+                response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(defenseService.toDtoList(page.items()));
+        }
+
         List<DefenseWorkflow> defenses = defenseService.findAll();
-        return ResponseEntity.ok(defenseService.toDtoList(defenses));
+        return ResponseEntity.ok().eTag(etag).body(defenseService.toDtoList(defenses));
     }
 
     /**
@@ -63,22 +116,93 @@ public class DefenseWorkflowController {
     }
 
     /**
-     * Schedule defense (Coordinator action)
+     * Schedule defense (Coordinator action).
+     * Without durationMinutes the defense takes 90 minutes; room is optional.
      */
     @PostMapping("/schedule")
     public ResponseEntity<DefenseWorkflowDto> scheduleDefense(
             @RequestParam Long thesisId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime defenseDate,
+            @RequestParam(required = false) Integer durationMinutes,
+            @RequestParam(required = false) String room,
             @RequestParam Person.PersonType role) {
         
-        if (role != Person.PersonType.COORDINATOR) {
-            throw new DEIException(ErrorMessage.UNAUTHORIZED);
-        }
-        
-        DefenseWorkflow defense = defenseService.scheduleDefense(thesisId, defenseDate);
+        DefenseWorkflow defense = defenseService.scheduleDefense(thesisId, defenseDate, durationMinutes, room, role);
         return ResponseEntity.ok(defenseService.toDto(defense));
     }
 
+    /**
+     * Schedule many defenses at once (Coordinator action).
+     * Reports the outcome of each defense; a defense overlapping another one of its jury or room fails.
+     */
+    @PostMapping("/bulk/schedule")
+    public ResponseEntity<BulkTransitionResultDto> bulkScheduleDefenses(
+            @RequestBody List<DefenseScheduleDto> schedules,
+            @RequestParam Person.PersonType role) {
+
+        return ResponseEntity.ok(defenseService.bulkScheduleDefenses(schedules, role));
+    }
+
+    /**
+     * Grade statistics of a period (e.g. 2025/2026-1; every period without it), overall or
+     * by=PRESIDENT or by=TEACHER, optionally only for personId
+     */
+    @GetMapping("/grades/statistics")
+    public ResponseEntity<List<GradeStatisticsDto>> getGradeStatistics(
+            @RequestParam(required = false) String period,
+            @RequestParam(defaultValue = "OVERALL") GradeStatistics.Breakdown by,
+            @RequestParam(required = false) Long personId) {
+
+        return ResponseEntity.ok(gradeStatistics.find(period, by, personId));
+    }
+
+    /**
+     * Propose a schedule for all the UNSCHEDULED defenses (Coordinator action), without applying it
+     */
+    @PostMapping("/plan")
+    public ResponseEntity<DefensePlanDto> planDefenses(
+            @RequestBody DefensePlanRequestDto request,
+            @RequestParam Person.PersonType role) {
+
+        return ResponseEntity.ok(defensePlanner.plan(request, role));
+    }
+
+    /**
+     * Apply a plan from /plan in one batch (Coordinator action). Defenses that were scheduled
+     * or whose slot was taken in the meantime fail, the others are scheduled.
+     */
+    @PostMapping("/plan/commit")
+    public ResponseEntity<BulkTransitionResultDto> commitDefensePlan(
+            @RequestBody DefensePlanDto plan,
+            @RequestParam Person.PersonType role) {
+
+        return ResponseEntity.ok(defenseService.bulkScheduleDefenses(plan.getAssignments(), role));
+    }
+
+    /**
+     * Availability of a teacher for defenses, from `from` to `to`
+     */
+    @GetMapping("/availability/{teacherId}")
+    public ResponseEntity<List<TeacherAvailabilityDto>> getTeacherAvailability(
+            @PathVariable Long teacherId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        return ResponseEntity.ok(availabilityService.findAvailability(teacherId, from, to));
+    }
+
+    /**
+     * Replace the availability of a teacher on the given days
+     */
+    @PutMapping("/availability/{teacherId}")
+    public ResponseEntity<List<TeacherAvailabilityDto>> setTeacherAvailability(
+            @PathVariable Long teacherId,
+            @RequestBody List<TeacherAvailabilityDto> days,
+            @RequestParam Person.PersonType role) {
+
+        return ResponseEntity.ok(availabilityService.setAvailability(teacherId, days, role));
+    }
+
     /**
      * Manually set defense to UNDER_REVIEW (for testing or bypassing automatic update)
      */
@@ -87,11 +211,7 @@ public class DefenseWorkflowController {
             @PathVariable Long id,
             @RequestParam Person.PersonType role) {
         
-        if (role != Person.PersonType.COORDINATOR) {
-            throw new DEIException(ErrorMessage.UNAUTHORIZED);
-        }
-        
-        DefenseWorkflow defense = defenseService.setUnderReview(id);
+        DefenseWorkflow defense = transitionRetry.run(() -> defenseService.setUnderReview(id, role));
         return ResponseEntity.ok(defenseService.toDto(defense));
     }
 
@@ -104,14 +224,22 @@ public class DefenseWorkflowController {
             @RequestParam BigDecimal grade,
             @RequestParam Person.PersonType role) {
         
-        if (role != Person.PersonType.COORDINATOR) {
-            throw new DEIException(ErrorMessage.UNAUTHORIZED);
-        }
-        
-        DefenseWorkflow defense = defenseService.assignGradeAndSubmit(id, grade);
+        DefenseWorkflow defense = transitionRetry.run(() -> defenseService.assignGradeAndSubmit(id, grade, role));
         return ResponseEntity.ok(defenseService.toDto(defense));
     }
 
+    /**
+     * Grade many defenses and submit them to Fenix at once (Coordinator action).
+     * Reports the outcome of each defense.
+     */
+    @PostMapping("/bulk/grade")
+    public ResponseEntity<BulkTransitionResultDto> bulkAssignGradesAndSubmit(
+            @RequestBody List<GradeAssignmentDto> assignments,
+            @RequestParam Person.PersonType role) {
+        
+        return ResponseEntity.ok(defenseService.bulkAssignGradesAndSubmit(assignments, role));
+    }
+
     /**
      * Revert to previous state (role-based)
      */
@@ -126,7 +254,7 @@ public class DefenseWorkflowController {
 
     /**
      * Update defense statuses (trigger automatic transition from SCHEDULED to UNDER_REVIEW)
-     * This would typically be called by a scheduled task, but can be exposed as an endpoint for testing
+     * DefenseStatusScheduler does this when a defense date is reached; the endpoint forces it now
      */
     @PostMapping("/update-statuses")
     public ResponseEntity<Void> updateDefenseStatuses(@RequestParam Person.PersonType role) {
@@ -155,27 +283,12 @@ public class DefenseWorkflowController {
     public ResponseEntity<DefenseWorkflowDto> updateDefenseSchedule(
             @PathVariable Long id,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime defenseDate,
+            @RequestParam(required = false) Integer durationMinutes,
+            @RequestParam(required = false) String room,
             @RequestParam Person.PersonType role) {
         
-        if (role != Person.PersonType.COORDINATOR) {
-            throw new DEIException(ErrorMessage.UNAUTHORIZED);
-        }
-        
-        DefenseWorkflow defense = defenseService.findById(id);
-        
-        // Verify this is an UNSCHEDULED defense
-        if (defense.getStatus() != DefenseStatus.UNSCHEDULED) {
-            throw new DEIException(ErrorMessage.INVALID_DEFENSE_STATE, 
-                    "Only UNSCHEDULED defenses can be scheduled");
-        }
-        
-        // Update the defense status and date
-        defense.setStatus(DefenseStatus.DEFENSE_SCHEDULED);
-        defense.setDefenseDate(defenseDate);
-        
-        // Save the updated defense
-        defense = defenseRepository.save(defense);
-        
+        DefenseWorkflow defense = transitionRetry.run(
+                () -> defenseService.updateDefenseSchedule(id, defenseDate, durationMinutes, room, role));
         return ResponseEntity.ok(defenseService.toDto(defense));
     }
 }
\ No newline at end of file
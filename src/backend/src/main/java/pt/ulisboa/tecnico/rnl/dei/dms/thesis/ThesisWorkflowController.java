@@ -1,26 +1,44 @@
 package pt.ulisboa.tecnico.rnl.dei.dms.thesis.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pt.ulisboa.tecnico.rnl.dei.dms.documents.dto.StoredDocument;
+import pt.ulisboa.tecnico.rnl.dei.dms.documents.service.DocumentDownloads;
+import pt.ulisboa.tecnico.rnl.dei.dms.documents.service.DocumentStore;
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.history.service.WorkflowHistoryService;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.repository.PersonRepository;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.BulkTransitionResultDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.JuryPresidentAssignmentDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.JurySuggestionDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.ThesisDetailDto;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.ThesisWorkflowDto;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.ThesisSubmissionDto;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.ThesisWorkflowService;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.TransitionRetry;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.*;
 import org.springframework.util.StringUtils;
+import pt.ulisboa.tecnico.rnl.dei.dms.pagination.CursorPage;
+import pt.ulisboa.tecnico.rnl.dei.dms.versioning.DataVersions;
+import pt.ulisboa.tecnico.rnl.dei.dms.versioning.DataVersions.DataTable;
 
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/thesis")
@@ -34,13 +52,79 @@ public class ThesisWorkflowController {
 
     @Autowired
     private ThesisWorkflowRepository thesisRepository; 
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private TransitionRetry transitionRetry;
+
+    @Autowired
+    private WorkflowHistoryService historyService;
+
+    @Autowired
+    private DocumentStore documentStore;
+
+    @Autowired
+    private DocumentDownloads documentDownloads;
+
     /**
-     * Get all thesis workflows
+     * Get thesis workflows (answers 304 if If-None-Match is still current).
+     * Without sort, cursor or limit the whole table is returned. Otherwise one page is returned,
+     * sorted by "id" or "submissionDate", and the token for the next page is in X-Next-Cursor.
      */
     @GetMapping
-    public ResponseEntity<List<ThesisWorkflowDto>> getAllTheses() {
+    public ResponseEntity<List<ThesisWorkflowDto>> getAllTheses(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        // The DTOs embed student details, so people changes also change the payload
+        String etag = dataVersions.etag("theses", DataTable.THESIS, DataTable.PEOPLE);
+        if (dataVersions.isNotModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        if (sort != null || cursor != null || limit != null) {
+            CursorPage<ThesisWorkflow> page = thesisService.findPage(sort, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+            if (page.nextCursor() != null) {
+                response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(thesisService.toDtoList(page.items()));
+        }
+
         List<ThesisWorkflow> theses = thesisService.findAll();
-        return ResponseEntity.ok(thesisService.toDtoList(theses));
+        return ResponseEntity.ok().eTag(etag).body(thesisService.toDtoList(theses));
+    }
+
+    /**
+     * Suggest jury members: the teachers on the fewest juries whose defense is not graded yet.
+     * Teachers already picked can be left out with exclude.
+     */
+    @GetMapping("/jury/suggestions")
+    public ResponseEntity<List<JurySuggestionDto>> suggestJuryMembers(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) List<Long> exclude) {
+        return ResponseEntity.ok(thesisService.suggestJuryMembers(limit, exclude));
+    }
+
+    /**
+     * Search theses by title, best matches first. Words match regardless of accents, case and
+     * plural, and also as the start of longer words ("sist distrib" finds "Sistemas Distribuídos").
+     * The token for the next page is in X-Next-Cursor.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<ThesisWorkflowDto>> searchTheses(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<ThesisWorkflow> page = thesisService.search(q, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(thesisService.toDtoList(page.items()));
     }
 
     /**
@@ -58,19 +142,19 @@ public class ThesisWorkflowController {
     }
 
     /**
-     * Submit jury proposal (Student action)
+     * Submit jury proposal (Student action).
+     * The response lists the existing theses with a near-identical title in similarTheses.
      */
     @PostMapping("/submit")
     public ResponseEntity<ThesisWorkflowDto> submitJuryProposal(
             @RequestParam Long studentId,
             @RequestBody ThesisSubmissionDto request) {
         
-        ThesisWorkflow thesis = thesisService.submitJuryProposal(
+        return ResponseEntity.ok(thesisService.submitJuryProposal(
             studentId, 
             request.getJuryMemberIds(), 
             request.getTitle()
-        );
-        return ResponseEntity.ok(thesisService.toDto(thesis));
+        ));
     }
 
     /**
@@ -81,11 +165,7 @@ public class ThesisWorkflowController {
             @PathVariable Long id,
             @RequestParam Person.PersonType role) {
         
-        if (role != Person.PersonType.SC) {
-            throw new DEIException(ErrorMessage.UNAUTHORIZED);
-        }
-        
-        ThesisWorkflow thesis = thesisService.approveByScientificCommittee(id);
+        ThesisWorkflow thesis = transitionRetry.run(() -> thesisService.approveByScientificCommittee(id, role));
         return ResponseEntity.ok(thesisService.toDto(thesis));
     }
 
@@ -98,28 +178,54 @@ public class ThesisWorkflowController {
             @RequestParam Long presidentId,
             @RequestParam Person.PersonType role) {
         
-        if (role != Person.PersonType.COORDINATOR) {
-            throw new DEIException(ErrorMessage.UNAUTHORIZED);
-        }
-        
-        ThesisWorkflow thesis = thesisService.assignJuryPresident(id, presidentId);
+        ThesisWorkflow thesis = transitionRetry.run(() -> thesisService.assignJuryPresident(id, presidentId, role));
+        return ResponseEntity.ok(thesisService.toDto(thesis));
+    }
+
+    /**
+     * Upload the signed document, as the "file" part of a multipart request (Coordinator action).
+     * The status is checked before the file is stored, and the file is stored before the transition,
+     * so the thesis then points at the stored object.
+     */
+    @PostMapping(value = "/{id}/document", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ThesisWorkflowDto> uploadSignedDocumentFile(
+            @PathVariable Long id,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam Person.PersonType role) {
+
+        thesisService.checkSignedDocumentUpload(id, role);
+        StoredDocument document = documentStore.store(file);
+        ThesisWorkflow thesis = transitionRetry.run(() -> thesisService.uploadSignedDocument(id, document.key(), role));
         return ResponseEntity.ok(thesisService.toDto(thesis));
     }
 
     /**
-     * Upload signed document (Coordinator action)
+     * Download the signed document (supports Range, answers 304 if If-None-Match is still current)
+     */
+    @GetMapping("/{id}/document")
+    public void downloadSignedDocument(@PathVariable Long id, HttpServletRequest request,
+                                       HttpServletResponse response) throws IOException {
+        String documentPath = thesisService.findById(id).getDocumentPath();
+        Path file = documentStore.find(documentPath)
+                .orElseThrow(() -> new DEIException(ErrorMessage.DOCUMENT_NOT_FOUND, String.valueOf(documentPath)));
+        documentDownloads.send(file, documentPath.substring(DocumentStore.KEY_PREFIX.length()),
+                "thesis-" + id + ".pdf", request, response);
+    }
+
+    /**
+     * Record the signed document by the key of a document already in the store, without
+     * sending the file (Coordinator action)
      */
     @PostMapping("/{id}/document")
     public ResponseEntity<ThesisWorkflowDto> uploadSignedDocument(
             @PathVariable Long id,
             @RequestParam String documentPath,
             @RequestParam Person.PersonType role) {
-        
-        if (role != Person.PersonType.COORDINATOR) {
-            throw new DEIException(ErrorMessage.UNAUTHORIZED);
+
+        if (documentStore.find(documentPath).isEmpty()) {
+            throw new DEIException(ErrorMessage.DOCUMENT_NOT_FOUND, documentPath);
         }
-        
-        ThesisWorkflow thesis = thesisService.uploadSignedDocument(id, documentPath);
+        ThesisWorkflow thesis = transitionRetry.run(() -> thesisService.uploadSignedDocument(id, documentPath, role));
         return ResponseEntity.ok(thesisService.toDto(thesis));
     }
 
@@ -131,14 +237,43 @@ public class ThesisWorkflowController {
             @PathVariable Long id,
             @RequestParam Person.PersonType role) {
         
-        if (role != Person.PersonType.STAFF) {
-            throw new DEIException(ErrorMessage.UNAUTHORIZED);
-        }
-        
-        ThesisWorkflow thesis = thesisService.submitToFenix(id);
+        ThesisWorkflow thesis = transitionRetry.run(() -> thesisService.submitToFenix(id, role));
         return ResponseEntity.ok(thesisService.toDto(thesis));
     }
 
+    /**
+     * Approve many proposals at once (SC action). Reports the outcome of each thesis.
+     */
+    @PostMapping("/bulk/approve")
+    public ResponseEntity<BulkTransitionResultDto> bulkApproveByScientificCommittee(
+            @RequestBody List<Long> thesisIds,
+            @RequestParam Person.PersonType role) {
+        
+        return ResponseEntity.ok(thesisService.bulkApproveByScientificCommittee(thesisIds, role));
+    }
+
+    /**
+     * Assign the jury president of many theses at once (Coordinator action)
+     */
+    @PostMapping("/bulk/president")
+    public ResponseEntity<BulkTransitionResultDto> bulkAssignJuryPresidents(
+            @RequestBody List<JuryPresidentAssignmentDto> assignments,
+            @RequestParam Person.PersonType role) {
+        
+        return ResponseEntity.ok(thesisService.bulkAssignJuryPresidents(assignments, role));
+    }
+
+    /**
+     * Submit many theses to Fenix at once (Staff action)
+     */
+    @PostMapping("/bulk/fenix")
+    public ResponseEntity<BulkTransitionResultDto> bulkSubmitToFenix(
+            @RequestBody List<Long> thesisIds,
+            @RequestParam Person.PersonType role) {
+        
+        return ResponseEntity.ok(thesisService.bulkSubmitToFenix(thesisIds, role));
+    }
+
     /**
      * Revert to previous state (role-based)
      */
@@ -170,65 +305,29 @@ public class ThesisWorkflowController {
             @RequestParam Person.PersonType role,
             @RequestBody(required = false) Map<String, String> payload) {
         
-        if (role != Person.PersonType.SC) {
-            throw new DEIException(ErrorMessage.UNAUTHORIZED);
-        }
-        
         // Extract comments if provided
         String comments = payload != null ? payload.get("comments") : null;
         
-        thesisService.rejectThesisProposal(id, comments);
+        thesisService.rejectThesisProposal(id, comments, role);
         return ResponseEntity.ok().build(); // Return 200 OK with no content
     }
 
+    /**
+     * Every transition of a thesis and of its defense, oldest first, as newline-delimited JSON.
+     * Also available for rejected (deleted) theses.
+     */
+    @GetMapping(value = "/{id}/history", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> getThesisHistory(@PathVariable Long id) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(historyService.streamThesisHistory(id));
+    }
+
+    /**
+     * Get thesis details, including the student and jury members
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getThesisById(@PathVariable Long id) {
-        ThesisWorkflow thesis = thesisService.findById(id);
-        
-        // Create a detailed response map
-        Map<String, Object> response = new HashMap<>(toDto(thesis));
-        
-        // Fetch and add student details
-        if (thesis.getStudent() != null) {
-            Person student = personRepository.findById(thesis.getStudent().getId())
-                .orElseThrow(() -> new DEIException(ErrorMessage.PERSON_NOT_FOUND));
-            
-            Map<String, Object> studentDetails = new HashMap<>();
-            studentDetails.put("id", student.getId());
-            studentDetails.put("name", student.getName());
-            studentDetails.put("istId", student.getIstId());
-            studentDetails.put("email", student.getEmail());
-            
-            response.put("student", studentDetails);
-        }
-        
-        // Fetch and add jury members
-        List<Map<String, Object>> juryMembers = thesis.getJuryMemberIdsList().stream()
-            .map(memberId -> personRepository.findById(memberId)
-                .map(member -> {
-                    Map<String, Object> memberDetails = new HashMap<>();
-                    memberDetails.put("id", member.getId());
-                    memberDetails.put("name", member.getName());
-                    memberDetails.put("email", member.getEmail());
-                    return memberDetails;
-                })
-                .orElse(null))
-            .filter(Objects::nonNull)
-            .collect(Collectors.toList());
-        
-        response.put("juryMembers", juryMembers);
-        
-        return ResponseEntity.ok(response);
-    }
-    
-    // Helper method to convert thesis to basic DTO
-    private Map<String, Object> toDto(ThesisWorkflow thesis) {
-        Map<String, Object> dto = new HashMap<>();
-        dto.put("id", thesis.getId());
-        dto.put("title", thesis.getTitle());
-        dto.put("status", thesis.getStatus());
-        dto.put("submissionDate", thesis.getSubmissionDate());
-        dto.put("studentId", thesis.getStudent() != null ? thesis.getStudent().getId() : null);
-        dto.put("juryMemberIds", thesis.getJuryMemberIdsList());
-        return dto;
-    }}
\ No newline at end of file
+    public ResponseEntity<ThesisDetailDto> getThesisById(@PathVariable Long id) {
+        return ResponseEntity.ok(thesisService.getThesisDetail(id));
+    }
+}
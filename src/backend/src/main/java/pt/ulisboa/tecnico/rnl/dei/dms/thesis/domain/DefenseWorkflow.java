@@ -2,6 +2,8 @@ package pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.repository.PersonRepository;
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.*;
@@ -15,7 +17,12 @@ import java.math.BigDecimal;
 
 @Data
 @Entity
-@Table(name = "defense_workflows")
+@Table(name = "defense_workflows", indexes = {
+    @Index(name = "idx_defense_status_student", columnList = "status, student_id"),
+    @Index(name = "idx_defense_student_id", columnList = "student_id"),
+    @Index(name = "idx_defense_date", columnList = "defense_date, id"),
+    @Index(name = "idx_defense_status_date", columnList = "status, defense_date")
+})
 public class DefenseWorkflow {
     
     public enum DefenseStatus {
@@ -49,16 +56,23 @@ public class DefenseWorkflow {
         }
     }
     
+    // Pooled sequence: Hibernate reserves ids in blocks of 50, so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "defense_workflows_seq")
+    @SequenceGenerator(name = "defense_workflows_seq", sequenceName = "defense_workflows_seq", allocationSize = 50)
     private Long id;
     
-    @ManyToOne
+    // Associations are lazy; repository methods that need them fetch them explicitly
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Person student;
     
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "thesis_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private ThesisWorkflow thesis;
     
     @Column(name = "status", nullable = false)
@@ -67,9 +81,21 @@ public class DefenseWorkflow {
     
     @Column(name = "defense_date", nullable = true)
     private LocalDateTime defenseDate;
+
+    // Set together with the date
+    @Column(name = "duration_minutes")
+    private Integer durationMinutes;
+
+    @Column(name = "room", length = 50)
+    private String room;
     
     @Column(name = "grade", precision = 4, scale = 2)
     private BigDecimal grade;
+
+    // Optimistic locking: concurrent transitions of the same defense cannot overwrite each other
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
     
     public DefenseWorkflow() {
     }
@@ -106,7 +132,7 @@ public class DefenseWorkflow {
             }
             
             // Ensure student matches thesis student
-            if (this.student != null && !this.student.equals(this.thesis.getStudent())) {
+            if (this.student != null && !this.student.getId().equals(this.thesis.getStudent().getId())) {
                 throw new DEIException(ErrorMessage.VALIDATION_ERROR, 
                     "Student must match the thesis student");
             } else if (this.student == null) {
@@ -0,0 +1,79 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * The slots of one day in which a teacher can sit on a defense jury, as a bitset: bit i is the
+ * SLOT_MINUTES slot starting SLOT_MINUTES * i after DAY_START. A day without a row is a day the
+ * teacher is not available (see DefensePlanner for teachers without any rows).
+ */
+@Data
+@Entity
+@IdClass(TeacherAvailability.Key.class)
+@Table(name = "teacher_availability")
+public class TeacherAvailability {
+
+    public static final LocalTime DAY_START = LocalTime.of(8, 0);
+
+    public static final int SLOT_MINUTES = 30;
+
+    // 08:00 to 20:00
+    public static final int SLOTS_PER_DAY = 24;
+
+    public static final long ALL_SLOTS = (1L << SLOTS_PER_DAY) - 1;
+
+    @Id
+    @Column(name = "teacher_id")
+    private Long teacherId;
+
+    @Id
+    @Column(name = "available_day")
+    private LocalDate day;
+
+    @Column(name = "slots", nullable = false)
+    private long slots;
+
+    public TeacherAvailability() {
+    }
+
+    public TeacherAvailability(Long teacherId, LocalDate day, long slots) {
+        this.teacherId = teacherId;
+        this.day = day;
+        this.slots = slots;
+    }
+
+    /**
+     * The slot starting at time, or -1 if time is not the start of a slot
+     */
+    public static int slotOf(LocalTime time) {
+        int minutes = (time.toSecondOfDay() - DAY_START.toSecondOfDay()) / 60;
+        if (time.getSecond() != 0 || time.getNano() != 0 || minutes < 0 || minutes % SLOT_MINUTES != 0
+                || minutes / SLOT_MINUTES >= SLOTS_PER_DAY) {
+            return -1;
+        }
+        return minutes / SLOT_MINUTES;
+    }
+
+    public static LocalTime startOf(int slot) {
+        return DAY_START.plusMinutes((long) slot * SLOT_MINUTES);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private Long teacherId;
+        private LocalDate day;
+    }
+}
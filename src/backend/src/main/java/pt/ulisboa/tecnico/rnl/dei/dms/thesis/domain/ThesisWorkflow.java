@@ -2,7 +2,9 @@ package pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain;
 
 import jakarta.persistence.*;
 import lombok.Data;
-import org.hibernate.annotations.Type;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.repository.PersonRepository;
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.*;
@@ -11,13 +13,18 @@ import pt.ulisboa.tecnico.rnl.dei.dms.thesis.converter.ThesisStatusConverter;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Data
 @Entity
-@Table(name = "thesis_workflows")
+@Table(name = "thesis_workflows", indexes = {
+    @Index(name = "idx_thesis_status_student", columnList = "status, student_id"),
+    @Index(name = "idx_thesis_student_id", columnList = "student_id"),
+    @Index(name = "idx_thesis_submission_date", columnList = "submission_date, id")
+})
 public class ThesisWorkflow {
     
     public enum ThesisStatus {
@@ -52,12 +59,17 @@ public class ThesisWorkflow {
         }
     }
     
+    // Pooled sequence: Hibernate reserves ids in blocks of 50, so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "thesis_workflows_seq")
+    @SequenceGenerator(name = "thesis_workflows_seq", sequenceName = "thesis_workflows_seq", allocationSize = 50)
     private Long id;
     
-    @ManyToOne
+    // Associations are lazy; repository methods that need them fetch them explicitly
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Person student;
     
     @Column(name = "status", nullable = false)
@@ -67,11 +79,22 @@ public class ThesisWorkflow {
     @Column(name = "submission_date", nullable = false)
     private LocalDateTime submissionDate;
     
-    @Column(name = "jury_member_ids", columnDefinition = "text[]")
-    private String[] juryMemberIds;
+    // Jury membership lives in its own table, indexed by person so that
+    // "which theses is teacher X on" is an index lookup. The table keeps no position,
+    // so members are always in id order, not in the order they were proposed.
+    @ElementCollection
+    @CollectionTable(name = "thesis_jury_members",
+        joinColumns = @JoinColumn(name = "thesis_id"),
+        indexes = @Index(name = "idx_jury_member_person", columnList = "person_id, thesis_id"))
+    @Column(name = "person_id", nullable = false)
+    @OrderBy
+    @BatchSize(size = 50)
+    private Set<Long> juryMemberIds = new LinkedHashSet<>();
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "jury_president_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Person juryPresident;
     
     @Column(name = "document_path")
@@ -79,6 +102,11 @@ public class ThesisWorkflow {
     
     @Column(name = "title", nullable = false, length = 255)
     private String title;
+
+    // Optimistic locking: concurrent transitions of the same thesis cannot overwrite each other
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
     
     public ThesisWorkflow() {
     }
@@ -88,9 +116,7 @@ public class ThesisWorkflow {
         this.status = status;
         this.submissionDate = submissionDate;
         this.title = title;
-        this.juryMemberIds = juryMemberIds.stream()
-            .map(String::valueOf)
-            .toArray(String[]::new);
+        this.juryMemberIds = new LinkedHashSet<>(new TreeSet<>(juryMemberIds));
     }
     
     public ThesisWorkflow(ThesisWorkflowDto dto, PersonRepository personRepository) {
@@ -106,11 +132,9 @@ public class ThesisWorkflow {
                     "Student with ID " + dto.getStudentId() + " not found"));
         }
         
-        // Handle jury member IDs as a text array
-        if (dto.getJuryMemberIds() != null && !dto.getJuryMemberIds().isEmpty()) {
-            this.juryMemberIds = dto.getJuryMemberIds().stream()
-                .map(String::valueOf)
-                .toArray(String[]::new);
+        // Handle jury member IDs
+        if (dto.getJuryMemberIds() != null) {
+            this.juryMemberIds = new LinkedHashSet<>(new TreeSet<>(dto.getJuryMemberIds()));
         }
         
         // Handle the Jury President reference
@@ -129,8 +153,6 @@ public class ThesisWorkflow {
         if (this.juryMemberIds == null) {
             return new ArrayList<>();
         }
-        return Arrays.stream(this.juryMemberIds)
-            .map(Long::parseLong)
-            .collect(Collectors.toList());
+        return new ArrayList<>(this.juryMemberIds);
     }
 }
\ No newline at end of file
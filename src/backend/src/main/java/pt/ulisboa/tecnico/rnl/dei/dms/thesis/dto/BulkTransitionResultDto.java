@@ -0,0 +1,30 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk transition: one entry per requested id, in request order
+ */
+public record BulkTransitionResultDto(int succeeded, int failed, List<Outcome> results) {
+
+    public static BulkTransitionResultDto of(List<Outcome> results) {
+        int succeeded = (int) results.stream().filter(Outcome::success).count();
+        return new BulkTransitionResultDto(succeeded, results.size() - succeeded, results);
+    }
+
+    /**
+     * status is the new status on success; code and message describe the failure otherwise
+     */
+    public record Outcome(Long id, boolean success, String status, Integer code, String message) {
+
+        public static Outcome succeeded(Long id, Enum<?> status) {
+            return new Outcome(id, true, status.name(), null, null);
+        }
+
+        public static Outcome failed(Long id, ErrorMessage error, String value) {
+            return new Outcome(id, false, null, error.getCode(), String.format(error.getLabel(), value));
+        }
+    }
+}
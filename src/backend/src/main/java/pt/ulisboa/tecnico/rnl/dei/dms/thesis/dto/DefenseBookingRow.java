@@ -0,0 +1,11 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * When and where a defense takes place, with one member of its jury (null without jury members)
+ * and the jury president (null if not assigned), for the defense calendar
+ */
+public record DefenseBookingRow(Long defenseId, Long studentId, LocalDateTime defenseDate, Integer durationMinutes,
+                                String room, Long juryPresidentId, Long juryMemberId) {
+}
@@ -0,0 +1,22 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A proposed schedule for the UNSCHEDULED defenses, not yet applied. unplacedDefenseIds are the
+ * defenses that fit nowhere in the window. maxDailyLoad is the most defenses any teacher has on
+ * one day, counting the ones already scheduled; plansExplored is how many plans were tried.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DefensePlanDto {
+    private List<DefenseScheduleDto> assignments;
+    private List<Long> unplacedDefenseIds;
+    private int maxDailyLoad;
+    private long plansExplored;
+}
@@ -0,0 +1,24 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * What to plan the UNSCHEDULED defenses with: the weekdays from `from` to `to`, the rooms
+ * (none means the defenses get no room), the duration of each defense (optional) and how long
+ * the planner may search, in milliseconds (optional)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DefensePlanRequestDto {
+    private LocalDate from;
+    private LocalDate to;
+    private List<String> rooms;
+    private Integer durationMinutes;
+    private Long timeBudgetMillis;
+}
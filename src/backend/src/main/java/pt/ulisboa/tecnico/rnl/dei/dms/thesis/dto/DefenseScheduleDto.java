@@ -0,0 +1,20 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Date, duration (minutes, optional) and room (optional) to schedule a defense with
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DefenseScheduleDto {
+    private Long defenseId;
+    private LocalDateTime defenseDate;
+    private Integer durationMinutes;
+    private String room;
+}
@@ -0,0 +1,9 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A scheduled defense as seen by the defense status scheduler
+ */
+public record DefenseScheduleRow(Long defenseId, LocalDateTime defenseDate) {
+}
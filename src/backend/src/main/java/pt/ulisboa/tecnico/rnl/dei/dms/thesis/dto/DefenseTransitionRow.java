@@ -0,0 +1,9 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+
+/**
+ * What a bulk defense transition needs to validate a defense
+ */
+public record DefenseTransitionRow(Long defenseId, Long studentId, DefenseStatus status) {
+}
@@ -12,6 +12,8 @@ public class DefenseWorkflowDto {
     private Long thesisId;
     private String status;
     private LocalDateTime defenseDate;
+    private Integer durationMinutes;
+    private String room;
     private BigDecimal grade;
     
     // Default constructor for deserialization
@@ -32,6 +34,8 @@ public class DefenseWorkflowDto {
         
         this.status = defenseWorkflow.getStatus().name();
         this.defenseDate = defenseWorkflow.getDefenseDate();
+        this.durationMinutes = defenseWorkflow.getDurationMinutes();
+        this.room = defenseWorkflow.getRoom();
         this.grade = defenseWorkflow.getGrade();
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeAssignmentDto {
+    private Long defenseId;
+    private BigDecimal grade;
+}
@@ -0,0 +1,11 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A graded defense with one of its jury members (null without any), for the grade statistics
+ */
+public record GradeRow(Long defenseId, Long studentId, LocalDateTime defenseDate, BigDecimal grade,
+                       Long juryPresidentId, Long juryMemberId) {
+}
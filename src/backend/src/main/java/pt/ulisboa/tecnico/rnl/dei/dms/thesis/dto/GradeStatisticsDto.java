@@ -0,0 +1,26 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Grades of the defenses of a period (e.g. "2025/2026-1"), all of them or those of one teacher
+ * (personId). histogram[i] counts the grades from i / 2 up to i / 2 + 0.5 (the last one holds 20);
+ * percentiles are keyed by "p10" to "p90". mean, variance and percentiles are null without grades.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeStatisticsDto {
+    private String period;
+    private Long personId;
+    private long count;
+    private Double mean;
+    private Double variance;
+    private int[] histogram;
+    private Map<String, BigDecimal> percentiles;
+}
@@ -0,0 +1,13 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JuryPresidentAssignmentDto {
+    private Long thesisId;
+    private Long presidentId;
+}
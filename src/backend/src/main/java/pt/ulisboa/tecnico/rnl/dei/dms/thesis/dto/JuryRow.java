@@ -0,0 +1,9 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+
+/**
+ * One jury member of a thesis, with the status of its defense (null without a defense)
+ */
+public record JuryRow(Long thesisId, Long studentId, Long juryMemberId, DefenseStatus defenseStatus) {
+}
@@ -0,0 +1,17 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A teacher suggested for a jury, with the number of active theses they are already a jury member of
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JurySuggestionDto {
+    private Long teacherId;
+    private String name;
+    private int activeJuries;
+}
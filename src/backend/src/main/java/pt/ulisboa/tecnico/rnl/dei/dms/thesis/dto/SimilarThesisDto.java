@@ -0,0 +1,18 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An existing thesis whose title is close to the one of another, with the similarity
+ * of the two titles (from 0 to 1)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarThesisDto {
+    private Long thesisId;
+    private String title;
+    private double similarity;
+}
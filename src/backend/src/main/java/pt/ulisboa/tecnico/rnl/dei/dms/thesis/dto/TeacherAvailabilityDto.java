@@ -0,0 +1,21 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * The starts of the half-hour slots of a day in which a teacher is available for defenses
+ * (from 08:00 to 19:30); an empty list means the teacher is not available that day
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeacherAvailabilityDto {
+    private LocalDate day;
+    private List<LocalTime> slots;
+}
@@ -0,0 +1,47 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Thesis detail view (GET /api/thesis/{id}) with the student and jury members inlined
+ */
+public record ThesisDetailDto(
+    Long id,
+    String title,
+    ThesisStatus status,
+    LocalDateTime submissionDate,
+    Long studentId,
+    List<Long> juryMemberIds,
+    Long juryPresidentId,
+    StudentSummary student,
+    List<JuryMemberSummary> juryMembers
+) {
+    public record StudentSummary(Long id, String name, String istId, String email) {
+        public StudentSummary(Person student) {
+            this(student.getId(), student.getName(), student.getIstId(), student.getEmail());
+        }
+    }
+
+    public record JuryMemberSummary(Long id, String name, String email) {
+        public JuryMemberSummary(Person member) {
+            this(member.getId(), member.getName(), member.getEmail());
+        }
+    }
+
+    public ThesisDetailDto(ThesisWorkflow thesis, List<Person> juryMembers) {
+        this(thesis.getId(),
+             thesis.getTitle(),
+             thesis.getStatus(),
+             thesis.getSubmissionDate(),
+             thesis.getStudent() != null ? thesis.getStudent().getId() : null,
+             thesis.getJuryMemberIdsList(),
+             thesis.getJuryPresident() != null ? thesis.getJuryPresident().getId() : null,
+             thesis.getStudent() != null ? new StudentSummary(thesis.getStudent()) : null,
+             juryMembers.stream().map(JuryMemberSummary::new).toList());
+    }
+}
@@ -0,0 +1,7 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+/**
+ * Title of a thesis, for the title search index
+ */
+public record ThesisTitleRow(Long thesisId, Long studentId, String title) {
+}
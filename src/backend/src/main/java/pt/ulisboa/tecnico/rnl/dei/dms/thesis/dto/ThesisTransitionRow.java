@@ -0,0 +1,11 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
+
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
+
+/**
+ * What a bulk thesis transition needs to validate a thesis: one row per jury member
+ * (juryMemberId is null for a thesis without jury), defenseId is null without a defense
+ */
+public record ThesisTransitionRow(Long thesisId, Long studentId, ThesisStatus status,
+                                  Long defenseId, Long juryMemberId) {
+}
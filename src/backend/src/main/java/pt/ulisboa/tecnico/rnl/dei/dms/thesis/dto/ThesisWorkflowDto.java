@@ -1,5 +1,6 @@
 package pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -29,6 +30,10 @@ public class ThesisWorkflowDto {
     private PersonDto student;
     private List<PersonDto> juryMembers;
 
+    // Only set when a proposal is submitted: existing theses with a near-identical title
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<SimilarThesisDto> similarTheses;
+
     // Constructor to convert from ThesisWorkflow entity
     public ThesisWorkflowDto(ThesisWorkflow thesisWorkflow) {
         this.id = thesisWorkflow.getId();
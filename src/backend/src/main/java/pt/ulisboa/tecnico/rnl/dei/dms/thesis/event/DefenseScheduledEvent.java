@@ -0,0 +1,9 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by DefenseWorkflowService when a defense gets a date, next to its WorkflowTransitionEvent.
+ */
+public record DefenseScheduledEvent(Long defenseId, LocalDateTime defenseDate) {
+}
@@ -0,0 +1,32 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.event;
+
+/**
+ * Published by the workflow services whenever a thesis or defense changes status.
+ * Listeners should use @TransactionalEventListener so they only see committed transitions.
+ *
+ * Statuses are enum names (as in the DTOs). oldStatus is null when the workflow was
+ * just created and newStatus is null when it was deleted (e.g. a rejected proposal).
+ */
+public record WorkflowTransitionEvent(
+    WorkflowType workflowType,
+    Long workflowId,
+    Long studentId,
+    String oldStatus,
+    String newStatus
+) {
+    public enum WorkflowType {
+        THESIS, DEFENSE
+    }
+
+    public static WorkflowTransitionEvent thesis(Long thesisId, Long studentId, Enum<?> oldStatus, Enum<?> newStatus) {
+        return new WorkflowTransitionEvent(WorkflowType.THESIS, thesisId, studentId, name(oldStatus), name(newStatus));
+    }
+
+    public static WorkflowTransitionEvent defense(Long defenseId, Long studentId, Enum<?> oldStatus, Enum<?> newStatus) {
+        return new WorkflowTransitionEvent(WorkflowType.DEFENSE, defenseId, studentId, name(oldStatus), name(newStatus));
+    }
+
+    private static String name(Enum<?> status) {
+        return status != null ? status.name() : null;
+    }
+}
@@ -1,13 +1,22 @@
 package pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseBookingRow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseScheduleRow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseTransitionRow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.GradeRow;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +31,9 @@ public interface DefenseWorkflowRepository extends JpaRepository<DefenseWorkflow
     // Find by thesis
     Optional<DefenseWorkflow> findByThesis(ThesisWorkflow thesis);
     
+    // Find the defenses of many theses
+    List<DefenseWorkflow> findByThesisIdIn(Collection<Long> thesisIds);
+
     // Find all by status
     List<DefenseWorkflow> findByStatus(DefenseStatus status);
     
@@ -34,4 +46,78 @@ public interface DefenseWorkflowRepository extends JpaRepository<DefenseWorkflow
     
     // Find defenses between two statuses (for filtering)
     List<DefenseWorkflow> findByStatusIn(List<DefenseStatus> statuses);
-}
\ No newline at end of file
+
+    // Keyset pagination by id
+    @Query("SELECT d FROM DefenseWorkflow d WHERE d.id > :afterId ORDER BY d.id")
+    List<DefenseWorkflow> findPageById(@Param("afterId") long afterId, Pageable pageable);
+
+    // Keyset pagination by defense date (ties broken by id), backed by idx_defense_date.
+    // Scheduled defenses come first, then the ones without a date ordered by id.
+    @Query("SELECT d FROM DefenseWorkflow d WHERE d.defenseDate IS NOT NULL ORDER BY d.defenseDate, d.id")
+    List<DefenseWorkflow> findFirstPageByDefenseDate(Pageable pageable);
+
+    @Query("SELECT d FROM DefenseWorkflow d WHERE d.defenseDate IS NOT NULL " +
+           "AND (d.defenseDate, d.id) > (:after, :afterId) ORDER BY d.defenseDate, d.id")
+    List<DefenseWorkflow> findPageByDefenseDate(@Param("after") LocalDateTime after,
+                                                @Param("afterId") long afterId,
+                                                Pageable pageable);
+
+    @Query("SELECT d FROM DefenseWorkflow d WHERE d.defenseDate IS NULL AND d.id > :afterId ORDER BY d.id")
+    List<DefenseWorkflow> findUndatedPageById(@Param("afterId") long afterId, Pageable pageable);
+
+    // Status of many defenses at once, used to validate bulk transitions
+    @Query("SELECT new pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseTransitionRow(d.id, d.student.id, d.status) " +
+           "FROM DefenseWorkflow d WHERE d.id IN :ids")
+    List<DefenseTransitionRow> findTransitionRows(@Param("ids") Collection<Long> ids);
+
+    // Defenses in a status whose date has been reached
+    @Query("SELECT new pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseTransitionRow(d.id, d.student.id, d.status) " +
+           "FROM DefenseWorkflow d WHERE d.status = :status AND d.defenseDate <= :now")
+    List<DefenseTransitionRow> findDueRows(@Param("status") DefenseStatus status, @Param("now") LocalDateTime now);
+
+    // Dates of the defenses in a status, used to rebuild the defense status scheduler
+    @Query("SELECT new pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseScheduleRow(d.id, d.defenseDate) " +
+           "FROM DefenseWorkflow d WHERE d.status = :status AND d.defenseDate IS NOT NULL")
+    List<DefenseScheduleRow> findScheduleRows(@Param("status") DefenseStatus status);
+
+    // Date, room and jury of the dated defenses in some statuses, for the defense calendar
+    @Query("SELECT new pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseBookingRow(" +
+           "d.id, d.student.id, d.defenseDate, d.durationMinutes, d.room, p.id, j) " +
+           "FROM DefenseWorkflow d JOIN d.thesis t LEFT JOIN t.juryPresident p LEFT JOIN t.juryMemberIds j " +
+           "WHERE d.status IN :statuses AND d.defenseDate IS NOT NULL")
+    List<DefenseBookingRow> findBookingRows(@Param("statuses") Collection<DefenseStatus> statuses);
+
+    @Query("SELECT new pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseBookingRow(" +
+           "d.id, d.student.id, d.defenseDate, d.durationMinutes, d.room, p.id, j) " +
+           "FROM DefenseWorkflow d JOIN d.thesis t LEFT JOIN t.juryPresident p LEFT JOIN t.juryMemberIds j " +
+           "WHERE d.id IN :ids")
+    List<DefenseBookingRow> findBookingRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Jury of the defenses in a status, dated or not (the planner places the undated ones)
+    @Query("SELECT new pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseBookingRow(" +
+           "d.id, d.student.id, d.defenseDate, d.durationMinutes, d.room, p.id, j) " +
+           "FROM DefenseWorkflow d JOIN d.thesis t LEFT JOIN t.juryPresident p LEFT JOIN t.juryMemberIds j " +
+           "WHERE d.status = :status ORDER BY d.id")
+    List<DefenseBookingRow> findBookingRowsByStatus(@Param("status") DefenseStatus status);
+
+    // Graded defenses with their jury, for the grade statistics
+    @Query("SELECT new pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.GradeRow(" +
+           "d.id, d.student.id, d.defenseDate, d.grade, p.id, j) " +
+           "FROM DefenseWorkflow d JOIN d.thesis t LEFT JOIN t.juryPresident p LEFT JOIN t.juryMemberIds j " +
+           "WHERE d.status = :status AND d.grade IS NOT NULL")
+    List<GradeRow> findGradeRows(@Param("status") DefenseStatus status);
+
+    @Query("SELECT new pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.GradeRow(" +
+           "d.id, d.student.id, d.defenseDate, d.grade, p.id, j) " +
+           "FROM DefenseWorkflow d JOIN d.thesis t LEFT JOIN t.juryPresident p LEFT JOIN t.juryMemberIds j " +
+           "WHERE d.id = :id AND d.status = :status AND d.grade IS NOT NULL")
+    List<GradeRow> findGradeRowsById(@Param("id") Long id, @Param("status") DefenseStatus status);
+
+    // Set-based status change, guarded by the current status
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE DefenseWorkflow d SET d.status = :to, d.version = d.version + 1 " +
+           "WHERE d.id IN :ids AND d.status = :from")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("from") DefenseStatus from,
+                     @Param("to") DefenseStatus to);
+}
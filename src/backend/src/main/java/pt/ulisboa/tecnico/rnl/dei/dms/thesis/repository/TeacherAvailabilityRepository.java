@@ -0,0 +1,17 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.TeacherAvailability;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TeacherAvailabilityRepository extends JpaRepository<TeacherAvailability, TeacherAvailability.Key> {
+
+    List<TeacherAvailability> findByTeacherIdAndDayBetweenOrderByDay(Long teacherId, LocalDate from, LocalDate to);
+
+    List<TeacherAvailability> findByTeacherIdInAndDayBetween(Collection<Long> teacherIds, LocalDate from, LocalDate to);
+}
@@ -1,29 +1,51 @@
 package pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.JuryRow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.ThesisTitleRow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.ThesisTransitionRow;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ThesisWorkflowRepository extends JpaRepository<ThesisWorkflow, Long> {
+    // The thesis DTO embeds the student, so the reads behind it fetch the student in the same query
+    @Override
+    @EntityGraph(attributePaths = "student")
+    List<ThesisWorkflow> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "student")
+    Optional<ThesisWorkflow> findById(Long id);
+
     // Find by student
     Optional<ThesisWorkflow> findByStudent(Person student);
     
     // Find all by student
     List<ThesisWorkflow> findAllByStudent(Person student);
     
+    // Find by id together with the student and jury president (detail view)
+    @Query("SELECT t FROM ThesisWorkflow t JOIN FETCH t.student LEFT JOIN FETCH t.juryPresident WHERE t.id = :id")
+    Optional<ThesisWorkflow> findDetailedById(@Param("id") Long id);
+
     // Find all by status
+    @EntityGraph(attributePaths = "student")
     List<ThesisWorkflow> findByStatus(ThesisStatus status);
     
-    // Find all by jury member using native query
-    @Query(value = "SELECT * FROM thesis_workflows t WHERE :juryMemberId = ANY(t.jury_member_ids)", nativeQuery = true)
+    // Find all by jury member (index lookup on thesis_jury_members)
+    @EntityGraph(attributePaths = "student")
+    @Query("SELECT t FROM ThesisWorkflow t JOIN t.juryMemberIds j WHERE j = :juryMemberId")
     List<ThesisWorkflow> findByJuryMembersContaining(@Param("juryMemberId") Long juryMemberId);
     
     // Find all by jury president
@@ -33,5 +55,53 @@ public interface ThesisWorkflowRepository extends JpaRepository<ThesisWorkflow,
     long countByStatus(ThesisStatus status);
     
     // Find theses between two statuses (for filtering)
+    @EntityGraph(attributePaths = "student")
     List<ThesisWorkflow> findByStatusIn(List<ThesisStatus> statuses);
-}
\ No newline at end of file
+
+    // Keyset pagination by id
+    @EntityGraph(attributePaths = "student")
+    @Query("SELECT t FROM ThesisWorkflow t WHERE t.id > :afterId ORDER BY t.id")
+    List<ThesisWorkflow> findPageById(@Param("afterId") long afterId, Pageable pageable);
+
+    // Keyset pagination by submission date (ties broken by id), backed by idx_thesis_submission_date
+    @EntityGraph(attributePaths = "student")
+    @Query("SELECT t FROM ThesisWorkflow t ORDER BY t.submissionDate, t.id")
+    List<ThesisWorkflow> findFirstPageBySubmissionDate(Pageable pageable);
+
+    @EntityGraph(attributePaths = "student")
+    @Query("SELECT t FROM ThesisWorkflow t WHERE (t.submissionDate, t.id) > (:after, :afterId) " +
+           "ORDER BY t.submissionDate, t.id")
+    List<ThesisWorkflow> findPageBySubmissionDate(@Param("after") LocalDateTime after,
+                                                  @Param("afterId") long afterId,
+                                                  Pageable pageable);
+
+    // Status, defense and jury of many theses at once, used to validate bulk transitions
+    @Query("SELECT new pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.ThesisTransitionRow(" +
+           "t.id, t.student.id, t.status, d.id, j) " +
+           "FROM ThesisWorkflow t LEFT JOIN t.juryMemberIds j LEFT JOIN DefenseWorkflow d ON d.thesis = t " +
+           "WHERE t.id IN :ids")
+    List<ThesisTransitionRow> findTransitionRows(@Param("ids") Collection<Long> ids);
+
+    // Jury members of every thesis, for the jury workload index
+    @Query("SELECT new pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.JuryRow(t.id, t.student.id, j, d.status) " +
+           "FROM ThesisWorkflow t JOIN t.juryMemberIds j LEFT JOIN DefenseWorkflow d ON d.thesis = t")
+    List<JuryRow> findJuryRows();
+
+    @Query("SELECT new pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.JuryRow(t.id, t.student.id, j, d.status) " +
+           "FROM ThesisWorkflow t JOIN t.juryMemberIds j LEFT JOIN DefenseWorkflow d ON d.thesis = t " +
+           "WHERE t.id = :id")
+    List<JuryRow> findJuryRowsByThesisId(@Param("id") Long id);
+
+    @Query("SELECT t FROM ThesisWorkflow t JOIN FETCH t.student LEFT JOIN FETCH t.juryPresident " +
+           "WHERE t.id IN :ids ORDER BY t.id")
+    List<ThesisWorkflow> findDetailedByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Titles of every thesis, for the title search index
+    @Query("SELECT new pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.ThesisTitleRow(t.id, t.student.id, t.title) " +
+           "FROM ThesisWorkflow t")
+    List<ThesisTitleRow> findTitleRows();
+
+    @Query("SELECT new pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.ThesisTitleRow(t.id, t.student.id, t.title) " +
+           "FROM ThesisWorkflow t WHERE t.id = :id")
+    Optional<ThesisTitleRow> findTitleRowById(@Param("id") Long id);
+}
@@ -0,0 +1,51 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Limits and helpers shared by the bulk transitions of the thesis and defense services
+ */
+final class BulkTransitions {
+
+    static final int MAX_SIZE = 500;
+
+    static final int JDBC_BATCH_SIZE = 100;
+
+    private BulkTransitions() {
+    }
+
+    static void checkSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR, "Bulk request must not be empty");
+        }
+        if (items.size() > MAX_SIZE) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR,
+                    "Bulk request cannot have more than " + MAX_SIZE + " items");
+        }
+    }
+
+    /**
+     * Whether a row of a JDBC batch was updated. Drivers may report SUCCESS_NO_INFO instead of a count.
+     */
+    static boolean applied(int updateCount) {
+        return updateCount > 0 || updateCount == Statement.SUCCESS_NO_INFO;
+    }
+
+    static int[] flatten(int[][] batchCounts) {
+        int total = 0;
+        for (int[] batch : batchCounts) {
+            total += batch.length;
+        }
+        int[] counts = new int[total];
+        int next = 0;
+        for (int[] batch : batchCounts) {
+            System.arraycopy(batch, 0, counts, next, batch.length);
+            next += batch.length;
+        }
+        return counts;
+    }
+}
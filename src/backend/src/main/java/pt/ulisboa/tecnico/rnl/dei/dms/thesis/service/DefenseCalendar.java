@@ -0,0 +1,342 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pt.ulisboa.tecnico.rnl.dei.dms.collections.LongObjectHashMap;
+import pt.ulisboa.tecnico.rnl.dei.dms.readmodel.InMemoryIndex;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseBookingRow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.DefenseWorkflowRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory calendar of the scheduled defenses (and the ones under review), per teacher
+ * (jury members and president) and per room, to reject a defense that would overlap another one
+ * of the same teacher or in the same room.
+ *
+ * Each teacher and room has its defenses sorted by start, and remembers its longest defense:
+ * the only defenses that can overlap [start, end) are the ones starting in
+ * (start - longest, end), found with a range lookup instead of a scan of defense_workflows.
+ *
+ * Services reserve a defense in the transaction that schedules it: the check and the booking
+ * happen under one lock, so two concurrent requests cannot both take the same slot, and the
+ * booking is dropped if the transaction rolls back.
+ */
+@Component
+public class DefenseCalendar extends InMemoryIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefenseCalendar.class);
+
+    public static final int DEFAULT_DURATION_MINUTES = 90;
+
+    private static final Set<DefenseStatus> BOOKED = EnumSet.of(DefenseStatus.DEFENSE_SCHEDULED, DefenseStatus.UNDER_REVIEW);
+
+    @Autowired
+    private DefenseWorkflowRepository defenseRepository;
+
+    private final LongObjectHashMap<Booking> bookings = new LongObjectHashMap<>();
+
+    private final LongObjectHashMap<Schedule> teachers = new LongObjectHashMap<>();
+
+    // Keyed by the room in upper case
+    private final Map<String, Schedule> rooms = new HashMap<>();
+
+    /**
+     * A defense taking a room (null if none was given) and its jury from start, for durationMinutes
+     */
+    public record Booking(long defenseId, long studentId, LocalDateTime start, int durationMinutes,
+                          String room, long[] teacherIds) {
+
+        long startMinute() {
+            return start.toEpochSecond(ZoneOffset.UTC) / 60;
+        }
+
+        long endMinute() {
+            return startMinute() + durationMinutes;
+        }
+    }
+
+    /**
+     * A defense already booked at an overlapping time, and what the two have in common:
+     * a teacher (teacherId) or the room (teacherId null)
+     */
+    public record Conflict(long defenseId, Long teacherId, String room) {
+
+        public String describe() {
+            return teacherId != null
+                    ? "teacher " + teacherId + " is in defense " + defenseId + " at that time"
+                    : "room " + room + " is taken by defense " + defenseId + " at that time";
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public synchronized void reload() {
+        bookings.clear();
+        teachers.clear();
+        rooms.clear();
+        for (Booking booking : toBookings(defenseRepository.findBookingRows(BOOKED))) {
+            add(booking);
+        }
+        logger.debug("Defense calendar loaded {} defenses, {} teachers and {} rooms",
+                bookings.size(), teachers.size(), rooms.size());
+    }
+
+    /**
+     * Conflicts of booking with the booked defenses other than itself; empty if it can be booked
+     */
+    public synchronized List<Conflict> conflicts(Booking booking) {
+        List<Conflict> conflicts = new ArrayList<>();
+        long start = booking.startMinute();
+        long end = booking.endMinute();
+        for (long teacherId : booking.teacherIds()) {
+            Schedule schedule = teachers.get(teacherId);
+            if (schedule != null) {
+                schedule.overlapping(start, end, booking.defenseId(),
+                        other -> conflicts.add(new Conflict(other, teacherId, null)));
+            }
+        }
+        if (booking.room() != null) {
+            Schedule schedule = rooms.get(roomKey(booking.room()));
+            if (schedule != null) {
+                schedule.overlapping(start, end, booking.defenseId(),
+                        other -> conflicts.add(new Conflict(other, null, booking.room())));
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Check the bookings in order, and book the ones without conflicts (a booking also conflicts
+     * with the earlier ones of the same batch). The bookings are part of the current transaction:
+     * they are dropped again if it rolls back. Returns the conflicts of each booking, in order;
+     * an empty list means it was booked.
+     */
+    public synchronized List<List<Conflict>> reserve(List<Booking> batch) {
+        List<List<Conflict>> conflicts = new ArrayList<>(batch.size());
+        List<Booking> reserved = new ArrayList<>();
+        for (Booking booking : batch) {
+            List<Conflict> found = conflicts(booking);
+            conflicts.add(found);
+            if (found.isEmpty()) {
+                remove(booking.defenseId());
+                add(booking);
+                reserved.add(booking);
+            }
+        }
+        if (!reserved.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(reserved);
+                    }
+                }
+            });
+        }
+        return conflicts;
+    }
+
+    /**
+     * The booked defenses starting from `from` (inclusive) to `to` (exclusive)
+     */
+    public synchronized List<Booking> bookedBetween(LocalDateTime from, LocalDateTime to) {
+        List<Booking> found = new ArrayList<>();
+        bookings.forEachValue(booking -> {
+            if (!booking.start().isBefore(from) && booking.start().isBefore(to)) {
+                found.add(booking);
+            }
+        });
+        return found;
+    }
+
+    public synchronized boolean isBooked(long defenseId) {
+        return bookings.containsKey(defenseId);
+    }
+
+    /**
+     * Drop a defense from the calendar, e.g. one that was reserved but could not be scheduled
+     */
+    public synchronized void remove(long defenseId) {
+        Booking booking = bookings.remove(defenseId);
+        if (booking == null) {
+            return;
+        }
+        long start = booking.startMinute();
+        for (long teacherId : booking.teacherIds()) {
+            Schedule schedule = teachers.get(teacherId);
+            if (schedule != null && schedule.remove(start, defenseId) && schedule.isEmpty()) {
+                teachers.remove(teacherId);
+            }
+        }
+        if (booking.room() != null) {
+            String key = roomKey(booking.room());
+            Schedule schedule = rooms.get(key);
+            if (schedule != null && schedule.remove(start, defenseId) && schedule.isEmpty()) {
+                rooms.remove(key);
+            }
+        }
+    }
+
+    // Scheduled defenses are reserved by the service; this covers the ones that come back from grading
+    @TransactionalEventListener(condition = "#event.workflowType().name() == 'DEFENSE' and " +
+            "(#event.newStatus() == 'DEFENSE_SCHEDULED' and #event.oldStatus() != 'UNDER_REVIEW' or " +
+            "#event.newStatus() == 'UNDER_REVIEW' and #event.oldStatus() == 'SUBMITTED_TO_FENIX')")
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onDefenseBooked(WorkflowTransitionEvent event) {
+        if (isBooked(event.workflowId())) {
+            return;
+        }
+        List<Booking> loaded = toBookings(defenseRepository.findBookingRowsByIdIn(List.of(event.workflowId())));
+        synchronized (this) {
+            loaded.forEach(booking -> {
+                remove(booking.defenseId());
+                add(booking);
+            });
+        }
+    }
+
+    @TransactionalEventListener(condition = "#event.workflowType().name() == 'DEFENSE' and " +
+            "(#event.newStatus() == null or #event.newStatus() == 'UNSCHEDULED' or #event.newStatus() == 'SUBMITTED_TO_FENIX')")
+    public void onDefenseReleased(WorkflowTransitionEvent event) {
+        remove(event.workflowId());
+    }
+
+    @Override
+    protected synchronized void personDeleted(long personId) {
+        teachers.remove(personId);
+        List<Long> defenses = new ArrayList<>();
+        bookings.forEachValue(booking -> {
+            if (booking.studentId() == personId) {
+                defenses.add(booking.defenseId());
+            }
+        });
+        defenses.forEach(this::remove);
+    }
+
+    private synchronized void release(List<Booking> reserved) {
+        for (Booking booking : reserved) {
+            // Unless something else replaced it in the meantime
+            if (bookings.get(booking.defenseId()) == booking) {
+                remove(booking.defenseId());
+            }
+        }
+    }
+
+    private void add(Booking booking) {
+        bookings.put(booking.defenseId(), booking);
+        long start = booking.startMinute();
+        long end = booking.endMinute();
+        for (long teacherId : booking.teacherIds()) {
+            Schedule schedule = teachers.get(teacherId);
+            if (schedule == null) {
+                schedule = new Schedule();
+                teachers.put(teacherId, schedule);
+            }
+            schedule.add(start, end, booking.defenseId());
+        }
+        if (booking.room() != null) {
+            rooms.computeIfAbsent(roomKey(booking.room()), key -> new Schedule()).add(start, end, booking.defenseId());
+        }
+    }
+
+    /**
+     * Bookings from rows with one jury member each
+     */
+    static List<Booking> toBookings(Collection<DefenseBookingRow> rows) {
+        Map<Long, List<DefenseBookingRow>> byDefense = new LinkedHashMap<>();
+        for (DefenseBookingRow row : rows) {
+            byDefense.computeIfAbsent(row.defenseId(), id -> new ArrayList<>()).add(row);
+        }
+        List<Booking> bookings = new ArrayList<>(byDefense.size());
+        for (List<DefenseBookingRow> defenseRows : byDefense.values()) {
+            DefenseBookingRow first = defenseRows.get(0);
+            if (first.defenseDate() == null) {
+                continue;
+            }
+            bookings.add(new Booking(first.defenseId(), first.studentId(), first.defenseDate(),
+                    first.durationMinutes() != null ? first.durationMinutes() : DEFAULT_DURATION_MINUTES,
+                    first.room(), teachersOf(defenseRows)));
+        }
+        return bookings;
+    }
+
+    /**
+     * The distinct jury members and president in rows of one defense
+     */
+    static long[] teachersOf(List<DefenseBookingRow> rows) {
+        return rows.stream()
+                .flatMap(row -> Stream.of(row.juryMemberId(), row.juryPresidentId()))
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .distinct()
+                .toArray();
+    }
+
+    private static String roomKey(String room) {
+        return room.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Defenses of one teacher or room, sorted by start
+     */
+    private static final class Schedule {
+
+        private static final Comparator<long[]> ORDER =
+                Comparator.<long[]>comparingLong(slot -> slot[0]).thenComparingLong(slot -> slot[2]);
+
+        // {start, end, defenseId}
+        private final NavigableSet<long[]> slots = new TreeSet<>(ORDER);
+
+        // Longest defense ever added (not lowered on removal, which only widens the lookup)
+        private long longest;
+
+        void add(long start, long end, long defenseId) {
+            slots.add(new long[] {start, end, defenseId});
+            longest = Math.max(longest, end - start);
+        }
+
+        boolean remove(long start, long defenseId) {
+            return slots.remove(new long[] {start, 0, defenseId});
+        }
+
+        boolean isEmpty() {
+            return slots.isEmpty();
+        }
+
+        void overlapping(long start, long end, long excludedId, LongConsumer consumer) {
+            long[] from = {start - longest, 0, Long.MAX_VALUE};
+            long[] to = {end, 0, Long.MIN_VALUE};
+            for (long[] slot : slots.subSet(from, false, to, false)) {
+                if (slot[1] > start && slot[2] != excludedId) {
+                    consumer.accept(slot[2]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,651 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.ulisboa.tecnico.rnl.dei.dms.collections.LongObjectHashMap;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.TeacherAvailability;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseBookingRow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefensePlanDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefensePlanRequestDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseScheduleDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.DefenseWorkflowRepository;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.TeacherAvailabilityRepository;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.DefenseCalendar.Booking;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow.DefenseAction;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow.WorkflowStateMachine;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Proposes dates and rooms for all the UNSCHEDULED defenses in a window of weekdays, so that no
+ * teacher (jury member or president) or room has two defenses at once, every teacher is available
+ * (see TeacherAvailability) for the whole defense, and the busiest teacher-day has as few defenses
+ * as possible. Teachers who gave no availability at all in the window count as always available.
+ * The defenses already in the calendar are kept and count towards the load of their teachers.
+ *
+ * Days are SLOTS_PER_DAY bitsets of half-hour slots, per teacher and per room, so checking a
+ * placement is a few AND operations. One search worker per core repeats a randomized greedy
+ * placement (hardest defenses first, each in the slot that least raises its jury's load that day)
+ * followed by moving defenses to better slots, until the time budget runs out; the best plan of
+ * all the workers wins. The plan is only a preview: it is applied with the bulk schedule, which
+ * checks it again against the calendar.
+ */
+@Service
+public class DefensePlanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefensePlanner.class);
+
+    private static final long DEFAULT_TIME_BUDGET_MILLIS = 2_000;
+
+    private static final long MAX_TIME_BUDGET_MILLIS = 30_000;
+
+    private static final int MAX_WINDOW_DAYS = 92;
+
+    private static final int MAX_ROOMS = 100;
+
+    // Local search passes after each greedy placement
+    private static final int MAX_PASSES = 10;
+
+    private static final int WORKERS = Runtime.getRuntime().availableProcessors();
+
+    @Autowired
+    private DefenseWorkflowRepository defenseRepository;
+
+    @Autowired
+    private TeacherAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private DefenseCalendar defenseCalendar;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger threads = new AtomicInteger();
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(WORKERS, runnable -> {
+        Thread thread = new Thread(runnable, "defense-planner-" + threads.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Plan the UNSCHEDULED defenses (Coordinator action); nothing is changed. At most one bulk
+     * request of defenses is planned, oldest first; the others are left unplaced.
+     */
+    public DefensePlanDto plan(DefensePlanRequestDto request, Person.PersonType role) {
+        if (!WorkflowStateMachine.DEFENSE.allows(DefenseAction.SCHEDULE, role)) {
+            throw new DEIException(ErrorMessage.UNAUTHORIZED, role + " cannot " + DefenseAction.SCHEDULE.name());
+        }
+        List<LocalDate> days = days(request.getFrom(), request.getTo());
+        List<String> rooms = rooms(request.getRooms());
+        int durationMinutes = DefenseWorkflowService.durationOrDefault(request.getDurationMinutes());
+        String invalid = DefenseWorkflowService.scheduleError(days.get(0).atTime(TeacherAvailability.DAY_START),
+                durationMinutes, null);
+        if (invalid != null) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR, invalid);
+        }
+        long budgetMillis = request.getTimeBudgetMillis() != null ? request.getTimeBudgetMillis() : DEFAULT_TIME_BUDGET_MILLIS;
+        if (budgetMillis <= 0 || budgetMillis > MAX_TIME_BUDGET_MILLIS) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR,
+                    "Time budget must be between 1 and " + MAX_TIME_BUDGET_MILLIS + " milliseconds");
+        }
+
+        // The search may take the whole budget, so it runs after the read transaction has ended
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        Loaded loaded = transaction.execute(status -> load(days, rooms, durationMinutes));
+        List<Long> defenseIds = loaded.defenseIds();
+        List<Long> unplaced = loaded.unplaced();
+        if (defenseIds.isEmpty()) {
+            return new DefensePlanDto(List.of(), unplaced, 0, 0);
+        }
+        long started = System.nanoTime();
+        Plan best = search(loaded.problem(), budgetMillis);
+        logger.debug("Planned {} defenses over {} days in {} ms ({} plans explored)", defenseIds.size(), days.size(),
+                (System.nanoTime() - started) / 1_000_000, best.explored);
+
+        List<DefenseScheduleDto> assignments = new ArrayList<>();
+        for (int i = 0; i < defenseIds.size(); i++) {
+            if (best.day[i] < 0) {
+                unplaced.add(defenseIds.get(i));
+            } else {
+                LocalDateTime start = days.get(best.day[i]).atTime(TeacherAvailability.startOf(best.start[i]));
+                assignments.add(new DefenseScheduleDto(defenseIds.get(i), start, durationMinutes,
+                        best.room[i] >= 0 ? rooms.get(best.room[i]) : null));
+            }
+        }
+        assignments.sort(Comparator.comparing(DefenseScheduleDto::getDefenseDate)
+                .thenComparing(DefenseScheduleDto::getDefenseId));
+        return new DefensePlanDto(assignments, unplaced, best.maxLoad, best.explored);
+    }
+
+    /**
+     * The defenses to plan (at most one bulk request, the others unplaced) and their problem
+     */
+    private Loaded load(List<LocalDate> days, List<String> rooms, int durationMinutes) {
+        Map<Long, List<DefenseBookingRow>> juries = new LinkedHashMap<>();
+        for (DefenseBookingRow row : defenseRepository.findBookingRowsByStatus(DefenseStatus.UNSCHEDULED)) {
+            juries.computeIfAbsent(row.defenseId(), id -> new ArrayList<>()).add(row);
+        }
+        List<Long> defenseIds = new ArrayList<>(juries.keySet());
+        List<Long> unplaced = new ArrayList<>();
+        if (defenseIds.size() > BulkTransitions.MAX_SIZE) {
+            unplaced.addAll(defenseIds.subList(BulkTransitions.MAX_SIZE, defenseIds.size()));
+            defenseIds = new ArrayList<>(defenseIds.subList(0, BulkTransitions.MAX_SIZE));
+        }
+        if (defenseIds.isEmpty()) {
+            return new Loaded(defenseIds, unplaced, null);
+        }
+        long[][] teachers = new long[defenseIds.size()][];
+        for (int i = 0; i < teachers.length; i++) {
+            teachers[i] = DefenseCalendar.teachersOf(juries.get(defenseIds.get(i)));
+        }
+        return new Loaded(defenseIds, unplaced, problem(days, rooms, durationMinutes, teachers));
+    }
+
+    /**
+     * The weekdays of the window, from tomorrow on
+     */
+    private static List<LocalDate> days(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR, "The window needs a start and an end after it");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_WINDOW_DAYS) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR, "The window cannot be longer than " + MAX_WINDOW_DAYS + " days");
+        }
+        List<LocalDate> days = new ArrayList<>();
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        for (LocalDate day = from.isBefore(tomorrow) ? tomorrow : from; !day.isAfter(to); day = day.plusDays(1)) {
+            if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                days.add(day);
+            }
+        }
+        if (days.isEmpty()) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR, "The window has no weekdays after today");
+        }
+        return days;
+    }
+
+    /**
+     * The distinct rooms, trimmed and compared ignoring case
+     */
+    private static List<String> rooms(List<String> requested) {
+        Map<String, String> rooms = new LinkedHashMap<>();
+        for (String room : requested != null ? requested : List.<String>of()) {
+            String normalized = DefenseWorkflowService.normalizeRoom(room);
+            if (normalized == null) {
+                continue;
+            }
+            String invalid = DefenseWorkflowService.scheduleError(LocalDateTime.MAX, null, normalized);
+            if (invalid != null) {
+                throw new DEIException(ErrorMessage.VALIDATION_ERROR, invalid);
+            }
+            rooms.putIfAbsent(normalized.toUpperCase(Locale.ROOT), normalized);
+        }
+        if (rooms.size() > MAX_ROOMS) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR, "Cannot plan with more than " + MAX_ROOMS + " rooms");
+        }
+        return new ArrayList<>(rooms.values());
+    }
+
+    private Problem problem(List<LocalDate> days, List<String> rooms, int durationMinutes, long[][] defenseTeachers) {
+        LongObjectHashMap<Integer> teacherIndexes = new LongObjectHashMap<>();
+        List<Long> teacherIds = new ArrayList<>();
+        int[][] juries = new int[defenseTeachers.length][];
+        for (int i = 0; i < defenseTeachers.length; i++) {
+            juries[i] = new int[defenseTeachers[i].length];
+            for (int j = 0; j < defenseTeachers[i].length; j++) {
+                juries[i][j] = teacherIndex(teacherIndexes, teacherIds, defenseTeachers[i][j]);
+            }
+        }
+        Map<LocalDate, Integer> dayIndexes = new HashMap<>();
+        for (int d = 0; d < days.size(); d++) {
+            dayIndexes.put(days.get(d), d);
+        }
+        Map<String, Integer> roomIndexes = new HashMap<>();
+        for (int r = 0; r < rooms.size(); r++) {
+            roomIndexes.put(rooms.get(r).toUpperCase(Locale.ROOT), r);
+        }
+
+        int dayCount = days.size();
+        int length = (durationMinutes + TeacherAvailability.SLOT_MINUTES - 1) / TeacherAvailability.SLOT_MINUTES;
+        Problem problem = new Problem(juries, dayCount, teacherIds.size(), rooms.size(), length);
+
+        // Teachers who gave some availability are only available then
+        Arrays.fill(problem.available, TeacherAvailability.ALL_SLOTS);
+        Set<Integer> declared = new HashSet<>();
+        if (!teacherIds.isEmpty()) {
+            for (TeacherAvailability availability : availabilityRepository.findByTeacherIdInAndDayBetween(
+                    teacherIds, days.get(0), days.get(dayCount - 1))) {
+                int t = teacherIndexes.get(availability.getTeacherId());
+                if (declared.add(t)) {
+                    Arrays.fill(problem.available, t * dayCount, (t + 1) * dayCount, 0L);
+                }
+                Integer d = dayIndexes.get(availability.getDay());
+                if (d != null) {
+                    problem.available[t * dayCount + d] = availability.getSlots() & TeacherAvailability.ALL_SLOTS;
+                }
+            }
+        }
+
+        // The defenses already booked keep their slots, and count towards the daily load
+        for (Booking booking : defenseCalendar.bookedBetween(days.get(0).atStartOfDay(),
+                days.get(dayCount - 1).plusDays(1).atStartOfDay())) {
+            Integer d = dayIndexes.get(booking.start().toLocalDate());
+            if (d == null) {
+                continue;
+            }
+            long mask = slotsOverlapping(booking);
+            for (long teacherId : booking.teacherIds()) {
+                Integer t = teacherIndexes.get(teacherId);
+                if (t != null) {
+                    problem.busy[t * dayCount + d] |= mask;
+                    problem.load[t * dayCount + d]++;
+                }
+            }
+            Integer r = booking.room() != null ? roomIndexes.get(booking.room().toUpperCase(Locale.ROOT)) : null;
+            if (r != null) {
+                problem.roomBusy[r * dayCount + d] |= mask;
+            }
+        }
+        return problem;
+    }
+
+    private static int teacherIndex(LongObjectHashMap<Integer> indexes, List<Long> ids, long teacherId) {
+        Integer index = indexes.get(teacherId);
+        if (index == null) {
+            index = ids.size();
+            indexes.put(teacherId, index);
+            ids.add(teacherId);
+        }
+        return index;
+    }
+
+    private static long slotsOverlapping(Booking booking) {
+        long start = ChronoUnit.MINUTES.between(booking.start().toLocalDate().atTime(TeacherAvailability.DAY_START),
+                booking.start());
+        long end = start + booking.durationMinutes();
+        long first = Math.max(0, Math.floorDiv(start, TeacherAvailability.SLOT_MINUTES));
+        long last = Math.min(TeacherAvailability.SLOTS_PER_DAY,
+                Math.floorDiv(end + TeacherAvailability.SLOT_MINUTES - 1, TeacherAvailability.SLOT_MINUTES));
+        return first < last ? ((1L << (last - first)) - 1) << first : 0L;
+    }
+
+    private Plan search(Problem problem, long budgetMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        List<Search> searches = new ArrayList<>(WORKERS);
+        for (int w = 0; w < WORKERS; w++) {
+            searches.add(new Search(problem, w, deadline));
+        }
+        Plan best = null;
+        long explored = 0;
+        try {
+            // Workers stop by themselves at the deadline; the timeout only guards against a stuck one
+            for (Future<Plan> future : workers.invokeAll(searches, budgetMillis + 5_000, TimeUnit.MILLISECONDS)) {
+                try {
+                    Plan plan = future.get();
+                    explored += plan.explored;
+                    if (best == null || plan.compareTo(best) < 0) {
+                        best = plan;
+                    }
+                } catch (CancellationException | ExecutionException e) {
+                    logger.warn("Defense planner worker failed", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (best == null) {
+            throw new DEIException(ErrorMessage.INTERNAL_ERROR, "Defense planner found no plan");
+        }
+        best.explored = explored;
+        return best;
+    }
+
+    // problem is null when there is nothing to plan
+    private record Loaded(List<Long> defenseIds, List<Long> unplaced, Problem problem) {
+    }
+
+    /**
+     * What the workers share, read-only: the jury (teacher indexes) of each defense, and per
+     * teacher-day (t * days + d) or room-day the available slots, the taken slots and the load
+     */
+    static final class Problem {
+
+        final int[][] juries;
+        final int days;
+        final int teachers;
+        final int rooms;
+        final int length;
+        final long[] available;
+        final long[] busy;
+        final int[] load;
+        final long[] roomBusy;
+
+        Problem(int[][] juries, int days, int teachers, int rooms, int length) {
+            this.juries = juries;
+            this.days = days;
+            this.teachers = teachers;
+            this.rooms = rooms;
+            this.length = length;
+            this.available = new long[teachers * days];
+            this.busy = new long[teachers * days];
+            this.load = new int[teachers * days];
+            this.roomBusy = new long[rooms * days];
+        }
+    }
+
+    /**
+     * Day, start slot and room (-1 if none) of each defense; day -1 if it was not placed.
+     * Plans compare by unplaced defenses, then busiest teacher-day, then the sum of the squared loads.
+     */
+    static final class Plan implements Comparable<Plan> {
+
+        final int[] day;
+        final int[] start;
+        final int[] room;
+        int unplaced;
+        int maxLoad;
+        long squaredLoad;
+        long explored;
+
+        Plan(int defenses) {
+            day = new int[defenses];
+            start = new int[defenses];
+            room = new int[defenses];
+            Arrays.fill(day, -1);
+            Arrays.fill(room, -1);
+        }
+
+        @Override
+        public int compareTo(Plan other) {
+            int compared = Integer.compare(unplaced, other.unplaced);
+            if (compared == 0) {
+                compared = Integer.compare(maxLoad, other.maxLoad);
+            }
+            return compared != 0 ? compared : Long.compare(squaredLoad, other.squaredLoad);
+        }
+    }
+
+    /**
+     * One worker: greedy placements and local search from its own random seed, until the deadline
+     */
+    static final class Search implements Callable<Plan> {
+
+        private final Problem problem;
+        private final SplittableRandom random;
+        private final boolean deterministicFirst;
+        private final long deadline;
+        private final long[] busy;
+        private final int[] load;
+        private final long[] roomBusy;
+        private final long lengthMask;
+
+        // The best placement found by best(), and its cost
+        private int bestDay;
+        private int bestStart;
+        private int bestRoom;
+        private int bestPeak;
+        private int bestTotal;
+
+        Search(Problem problem, int worker, long deadline) {
+            this.problem = problem;
+            this.random = new SplittableRandom(0x9e3779b97f4a7c15L * (worker + 1));
+            this.deterministicFirst = worker == 0;
+            this.deadline = deadline;
+            this.busy = new long[problem.busy.length];
+            this.load = new int[problem.load.length];
+            this.roomBusy = new long[problem.roomBusy.length];
+            this.lengthMask = (1L << problem.length) - 1;
+        }
+
+        @Override
+        public Plan call() {
+            Plan best = null;
+            long explored = 0;
+            // At least one plan, even when the budget is already spent
+            do {
+                boolean randomized = !(deterministicFirst && explored == 0);
+                Plan plan = greedy(randomized);
+                improve(plan);
+                score(plan);
+                explored++;
+                if (best == null || plan.compareTo(best) < 0) {
+                    best = plan;
+                }
+            } while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted());
+            best.explored = explored;
+            return best;
+        }
+
+        private Plan greedy(boolean randomized) {
+            System.arraycopy(problem.busy, 0, busy, 0, busy.length);
+            System.arraycopy(problem.load, 0, load, 0, load.length);
+            System.arraycopy(problem.roomBusy, 0, roomBusy, 0, roomBusy.length);
+            int defenses = problem.juries.length;
+            Plan plan = new Plan(defenses);
+            // Largest juries first, as they have the fewest common free slots
+            double[] keys = new double[defenses];
+            Integer[] order = new Integer[defenses];
+            for (int i = 0; i < defenses; i++) {
+                order[i] = i;
+                keys[i] = problem.juries[i].length + (randomized ? random.nextDouble() * 2 : 0);
+            }
+            Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> -keys[i]).thenComparingInt(i -> i));
+            for (int i : order) {
+                if (best(i, randomized)) {
+                    place(plan, i, bestDay, bestStart, bestRoom);
+                }
+            }
+            return plan;
+        }
+
+        /**
+         * Move defenses (and place the unplaced ones) where they raise their jury's load the least,
+         * until a pass changes nothing
+         */
+        private void improve(Plan plan) {
+            int defenses = problem.juries.length;
+            int[] order = new int[defenses];
+            for (int i = 0; i < defenses; i++) {
+                order[i] = i;
+            }
+            for (int pass = 0; pass < MAX_PASSES && System.nanoTime() < deadline; pass++) {
+                shuffle(order);
+                boolean moved = false;
+                for (int i : order) {
+                    int day = plan.day[i];
+                    if (day < 0) {
+                        if (best(i, true)) {
+                            place(plan, i, bestDay, bestStart, bestRoom);
+                            moved = true;
+                        }
+                        continue;
+                    }
+                    int start = plan.start[i];
+                    int room = plan.room[i];
+                    unplace(plan, i);
+                    int peak = peak(i, day);
+                    int total = total(i, day);
+                    if (best(i, true) && (bestPeak < peak || bestPeak == peak && bestTotal < total)) {
+                        place(plan, i, bestDay, bestStart, bestRoom);
+                        moved = true;
+                    } else {
+                        place(plan, i, day, start, room);
+                    }
+                }
+                if (!moved) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Find the free slot and room for defense i with the lowest (peak, total) jury load that day,
+         * breaking ties at random if randomized (or taking the earliest)
+         */
+        private boolean best(int i, boolean randomized) {
+            int[] jury = problem.juries[i];
+            int days = problem.days;
+            int ties = 0;
+            bestDay = -1;
+            for (int d = 0; d < days; d++) {
+                long free = TeacherAvailability.ALL_SLOTS;
+                for (int t : jury) {
+                    free &= problem.available[t * days + d] & ~busy[t * days + d];
+                }
+                if (free == 0) {
+                    continue;
+                }
+                int peak = peak(i, d);
+                int total = total(i, d);
+                if (bestDay >= 0 && (peak > bestPeak || peak == bestPeak && total > bestTotal)) {
+                    continue;
+                }
+                for (int s = 0; s + problem.length <= TeacherAvailability.SLOTS_PER_DAY; s++) {
+                    long mask = lengthMask << s;
+                    if ((free & mask) != mask) {
+                        continue;
+                    }
+                    int room = freeRoom(d, mask);
+                    if (room == -2) {
+                        continue;
+                    }
+                    if (bestDay < 0 || peak < bestPeak || peak == bestPeak && total < bestTotal) {
+                        ties = 1;
+                    } else if (!randomized || random.nextInt(++ties) != 0) {
+                        // Equal cost: keep each tie with probability 1 / ties
+                        continue;
+                    }
+                    bestDay = d;
+                    bestStart = s;
+                    bestRoom = room;
+                    bestPeak = peak;
+                    bestTotal = total;
+                }
+            }
+            return bestDay >= 0;
+        }
+
+        // Load of the busiest jury member on day d with defense i
+        private int peak(int i, int d) {
+            int peak = 0;
+            for (int t : problem.juries[i]) {
+                peak = Math.max(peak, load[t * problem.days + d] + 1);
+            }
+            return peak;
+        }
+
+        private int total(int i, int d) {
+            int total = 0;
+            for (int t : problem.juries[i]) {
+                total += load[t * problem.days + d];
+            }
+            return total;
+        }
+
+        // A room free for mask on day d, -1 if rooms are not planned, -2 if all are taken
+        private int freeRoom(int d, long mask) {
+            if (problem.rooms == 0) {
+                return -1;
+            }
+            for (int r = 0; r < problem.rooms; r++) {
+                if ((roomBusy[r * problem.days + d] & mask) == 0) {
+                    return r;
+                }
+            }
+            return -2;
+        }
+
+        private void place(Plan plan, int i, int day, int start, int room) {
+            long mask = lengthMask << start;
+            for (int t : problem.juries[i]) {
+                busy[t * problem.days + day] |= mask;
+                load[t * problem.days + day]++;
+            }
+            if (room >= 0) {
+                roomBusy[room * problem.days + day] |= mask;
+            }
+            plan.day[i] = day;
+            plan.start[i] = start;
+            plan.room[i] = room;
+        }
+
+        private void unplace(Plan plan, int i) {
+            int day = plan.day[i];
+            long mask = lengthMask << plan.start[i];
+            for (int t : problem.juries[i]) {
+                busy[t * problem.days + day] &= ~mask;
+                load[t * problem.days + day]--;
+            }
+            if (plan.room[i] >= 0) {
+                roomBusy[plan.room[i] * problem.days + day] &= ~mask;
+            }
+            plan.day[i] = -1;
+            plan.room[i] = -1;
+        }
+
+        private void score(Plan plan) {
+            int unplaced = 0;
+            for (int day : plan.day) {
+                if (day < 0) {
+                    unplaced++;
+                }
+            }
+            int maxLoad = 0;
+            long squaredLoad = 0;
+            for (int l : load) {
+                maxLoad = Math.max(maxLoad, l);
+                squaredLoad += (long) l * l;
+            }
+            plan.unplaced = unplaced;
+            plan.maxLoad = maxLoad;
+            plan.squaredLoad = squaredLoad;
+        }
+
+        private void shuffle(int[] values) {
+            for (int i = values.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int value = values[i];
+                values[i] = values[j];
+                values[j] = value;
+            }
+        }
+    }
+}
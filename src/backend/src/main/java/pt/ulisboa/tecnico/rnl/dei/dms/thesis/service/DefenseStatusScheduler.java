@@ -0,0 +1,173 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseScheduleRow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.DefenseScheduledEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.DefenseWorkflowRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Moves defenses from DEFENSE_SCHEDULED to UNDER_REVIEW when their date passes.
+ *
+ * The dates of the scheduled defenses are kept in time order and a single timer is armed
+ * for the earliest one, so the table is never polled. Each tick runs the set-based update in
+ * DefenseWorkflowService for every defense that is due. The queue is loaded from the database
+ * on startup and follows the schedule and transition events afterwards.
+ */
+@Component
+public class DefenseStatusScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefenseStatusScheduler.class);
+
+    // Wait before trying again after a failed tick
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+
+    @Autowired
+    private DefenseWorkflowService defenseService;
+
+    @Autowired
+    private DefenseWorkflowRepository defenseRepository;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    private final TreeMap<LocalDateTime, Set<Long>> upcoming = new TreeMap<>();
+
+    private final Map<Long, LocalDateTime> dueDates = new HashMap<>();
+
+    private ScheduledFuture<?> nextTick;
+
+    private LocalDateTime nextTickAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Rebuild the queue from the scheduled defenses in the database
+     */
+    public synchronized void reload() {
+        upcoming.clear();
+        dueDates.clear();
+        for (DefenseScheduleRow row : defenseRepository.findScheduleRows(DefenseStatus.DEFENSE_SCHEDULED)) {
+            add(row.defenseId(), row.defenseDate());
+        }
+        logger.debug("Defense status scheduler loaded {} scheduled defenses", dueDates.size());
+        arm();
+    }
+
+    @TransactionalEventListener
+    public synchronized void onDefenseScheduled(DefenseScheduledEvent event) {
+        remove(event.defenseId());
+        add(event.defenseId(), event.defenseDate());
+        arm();
+    }
+
+    @TransactionalEventListener
+    public synchronized void onWorkflowTransition(WorkflowTransitionEvent event) {
+        if (event.workflowType() == WorkflowTransitionEvent.WorkflowType.DEFENSE
+                && DefenseStatus.DEFENSE_SCHEDULED.name().equals(event.oldStatus())) {
+            remove(event.workflowId());
+            arm();
+        }
+    }
+
+    /**
+     * When the next tick will run, or null if no defense is waiting
+     */
+    public synchronized LocalDateTime getNextTick() {
+        return nextTickAt;
+    }
+
+    public synchronized int getQueuedDefenseCount() {
+        return dueDates.size();
+    }
+
+    private void tick() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            int updated = defenseService.updateDefenseStatuses();
+            logger.debug("Defense status scheduler moved {} defenses to UNDER_REVIEW", updated);
+        } catch (RuntimeException e) {
+            logger.error("Defense status update failed, retrying in {}", RETRY_DELAY, e);
+            synchronized (this) {
+                schedule(now.plus(RETRY_DELAY));
+            }
+            return;
+        }
+
+        synchronized (this) {
+            // The transition events already removed what was updated; drop anything else that is due
+            while (!upcoming.isEmpty() && !upcoming.firstKey().isAfter(now)) {
+                upcoming.pollFirstEntry().getValue().forEach(dueDates::remove);
+            }
+            nextTick = null;
+            nextTickAt = null;
+            arm();
+        }
+    }
+
+    private void add(Long defenseId, LocalDateTime defenseDate) {
+        if (defenseId == null || defenseDate == null) {
+            return;
+        }
+        dueDates.put(defenseId, defenseDate);
+        upcoming.computeIfAbsent(defenseDate, date -> new HashSet<>()).add(defenseId);
+    }
+
+    private void remove(Long defenseId) {
+        LocalDateTime defenseDate = dueDates.remove(defenseId);
+        if (defenseDate != null) {
+            Set<Long> ids = upcoming.get(defenseDate);
+            ids.remove(defenseId);
+            if (ids.isEmpty()) {
+                upcoming.remove(defenseDate);
+            }
+        }
+    }
+
+    /**
+     * Make sure the timer fires at the earliest queued date
+     */
+    private void arm() {
+        if (upcoming.isEmpty()) {
+            if (nextTick != null) {
+                nextTick.cancel(false);
+                nextTick = null;
+                nextTickAt = null;
+            }
+            return;
+        }
+        LocalDateTime earliest = upcoming.firstKey();
+        if (nextTickAt == null || earliest.isBefore(nextTickAt)) {
+            schedule(earliest);
+        }
+    }
+
+    private void schedule(LocalDateTime at) {
+        if (nextTick != null) {
+            nextTick.cancel(false);
+        }
+        nextTickAt = at;
+        nextTick = taskScheduler.schedule(this::tick, at.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -1,10 +1,15 @@
 package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.pagination.Cursor;
+import pt.ulisboa.tecnico.rnl.dei.dms.pagination.CursorPage;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
@@ -12,11 +17,34 @@ import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.DefenseWorkflowRepository;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.ThesisWorkflowRepository;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.converter.DefenseStatusConverter;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.BulkTransitionResultDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.BulkTransitionResultDto.Outcome;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseBookingRow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseScheduleDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseTransitionRow;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseWorkflowDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.GradeAssignmentDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.DefenseScheduledEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.DefenseCalendar.Booking;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.DefenseCalendar.Conflict;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow.DefenseAction;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow.Transition;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow.WorkflowStateMachine;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -29,6 +57,37 @@ public class DefenseWorkflowService {
     @Autowired
     private ThesisWorkflowRepository thesisRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private WorkflowStateMachine stateMachine;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DefenseCalendar defenseCalendar;
+
+    // The application moves scheduled defenses to review once their date is reached
+    private static final Transition<DefenseStatus, DefenseAction> DUE_REVIEW =
+            WorkflowStateMachine.DEFENSE.check(DefenseStatus.DEFENSE_SCHEDULED, DefenseAction.START_REVIEW, null);
+
+    private static final String UPDATE_GRADE_SQL =
+            "UPDATE defense_workflows SET status = ?, grade = ?, version = version + 1 WHERE id = ? AND status = ?";
+
+    private static final BigDecimal MAX_GRADE = new BigDecimal("20");
+
+    private static final String UPDATE_SCHEDULE_SQL =
+            "UPDATE defense_workflows SET status = ?, defense_date = ?, duration_minutes = ?, room = ?, " +
+            "version = version + 1 WHERE id = ? AND status = ?";
+
+    private static final int MIN_DURATION_MINUTES = 15;
+
+    private static final int MAX_DURATION_MINUTES = 480;
+
+    private static final int MAX_ROOM_LENGTH = 50;
+
     /**
      * Find all defense workflows
      */
@@ -36,6 +95,43 @@ public class DefenseWorkflowService {
         return defenseRepository.findAll();
     }
 
+    /**
+     * Find defense workflows one page at a time, sorted by "id" (default) or "defenseDate".
+     * By defense date, scheduled defenses come first and the ones without a date follow by id.
+     */
+    public CursorPage<DefenseWorkflow> findPage(String sort, String cursorToken, Integer limit) {
+        String sortKey = sort != null ? sort : "id";
+        int size = Cursor.pageSize(limit);
+        Cursor cursor = cursorToken != null ? Cursor.decode(cursorToken, sortKey) : null;
+        PageRequest page = PageRequest.of(0, size + 1);
+
+        switch (sortKey) {
+            case "id":
+                return CursorPage.of(
+                        defenseRepository.findPageById(cursor != null ? cursor.id() : 0L, page),
+                        size, d -> new Cursor(sortKey, null, d.getId()));
+            case "defenseDate":
+                List<DefenseWorkflow> rows = new ArrayList<>();
+                boolean inUndatedPart = cursor != null && cursor.value() == null;
+
+                if (!inUndatedPart) {
+                    rows.addAll(cursor == null
+                            ? defenseRepository.findFirstPageByDefenseDate(page)
+                            : defenseRepository.findPageByDefenseDate(
+                                    LocalDateTime.parse(cursor.value()), cursor.id(), page));
+                }
+                if (rows.size() <= size) {
+                    long afterId = inUndatedPart ? cursor.id() : 0L;
+                    rows.addAll(defenseRepository.findUndatedPageById(
+                            afterId, PageRequest.of(0, size + 1 - rows.size())));
+                }
+                return CursorPage.of(rows, size, d -> new Cursor(sortKey,
+                        d.getDefenseDate() != null ? d.getDefenseDate().toString() : null, d.getId()));
+            default:
+                throw new DEIException(ErrorMessage.VALIDATION_ERROR, "Unsupported sort: " + sortKey);
+        }
+    }
+
     /**
      * Find defense workflow by ID
      */
@@ -66,10 +162,15 @@ public class DefenseWorkflowService {
     }
 
     /**
-     * Schedule a defense (Coordinator action)
+     * Schedule a defense (Coordinator action). durationMinutes defaults to DEFAULT_DURATION_MINUTES
+     * and room is optional. Fails if a jury member, the president or the room has another defense then.
      */
     @Transactional
-    public DefenseWorkflow scheduleDefense(Long thesisId, LocalDateTime defenseDate) {
+    public DefenseWorkflow scheduleDefense(Long thesisId, LocalDateTime defenseDate, Integer durationMinutes,
+                                           String room, Person.PersonType role) {
+        Transition<DefenseStatus, DefenseAction> transition =
+                WorkflowStateMachine.DEFENSE.check(null, DefenseAction.SCHEDULE, role);
+
         // Validate thesis exists
         ThesisWorkflow thesis = thesisRepository.findById(thesisId)
                 .orElseThrow(() -> new DEIException(ErrorMessage.THESIS_NOT_FOUND, thesisId.toString()));
@@ -80,11 +181,7 @@ public class DefenseWorkflowService {
                     "Thesis workflow must be completed before scheduling defense");
         }
         
-        // Validate defense date is in the future
-        if (defenseDate.isBefore(LocalDateTime.now())) {
-            throw new DEIException(ErrorMessage.VALIDATION_ERROR, 
-                    "Defense date must be in the future");
-        }
+        checkSchedule(defenseDate, durationMinutes, room);
         
         // Check if defense already exists for this thesis
         if (defenseRepository.findByThesis(thesis).isPresent()) {
@@ -97,48 +194,273 @@ public class DefenseWorkflowService {
         defense.setStudent(thesis.getStudent());
         defense.setThesis(thesis);
         defense.setDefenseDate(defenseDate);
-        defense.setStatus(DefenseStatus.DEFENSE_SCHEDULED);
-        
-        return defenseRepository.save(defense);
+        defense.setDurationMinutes(durationOrDefault(durationMinutes));
+        defense.setRoom(normalizeRoom(room));
+
+        Map<String, Object> payload = schedulePayload(defense);
+        payload.put("thesisId", thesisId);
+        defense = apply(defense, transition, payload);
+
+        List<Long> teacherIds = new ArrayList<>(thesis.getJuryMemberIdsList());
+        if (thesis.getJuryPresident() != null) {
+            teacherIds.add(thesis.getJuryPresident().getId());
+        }
+        reserve(new Booking(defense.getId(), defense.getStudent().getId(), defenseDate, defense.getDurationMinutes(),
+                defense.getRoom(), teacherIds.stream().mapToLong(Long::longValue).distinct().toArray()));
+        eventPublisher.publishEvent(new DefenseScheduledEvent(defense.getId(), defenseDate));
+        return defense;
     }
 
     /**
-     * Update defenses to UNDER_REVIEW when defense date has passed
-     * This would typically be called by a scheduled task
+     * Set the date, duration and room of an existing UNSCHEDULED defense (Coordinator action),
+     * unless a jury member, the president or the room has another defense then
      */
     @Transactional
-    public void updateDefenseStatuses() {
-        List<DefenseWorkflow> scheduledDefenses = defenseRepository.findByDefenseDateBeforeAndStatus(
-                LocalDateTime.now(), DefenseStatus.DEFENSE_SCHEDULED);
+    public DefenseWorkflow updateDefenseSchedule(Long defenseId, LocalDateTime defenseDate, Integer durationMinutes,
+                                                 String room, Person.PersonType role) {
+        DefenseWorkflow defense = findById(defenseId);
         
-        for (DefenseWorkflow defense : scheduledDefenses) {
-            defense.setStatus(DefenseStatus.UNDER_REVIEW);
-            defenseRepository.save(defense);
+        // Only UNSCHEDULED defenses can be scheduled
+        Transition<DefenseStatus, DefenseAction> transition =
+                WorkflowStateMachine.DEFENSE.check(defense.getStatus(), DefenseAction.SCHEDULE, role);
+        checkSchedule(defenseDate, durationMinutes, room);
+
+        reserve(new Booking(defenseId, defense.getStudent().getId(), defenseDate, durationOrDefault(durationMinutes),
+                normalizeRoom(room), DefenseCalendar.teachersOf(defenseRepository.findBookingRowsByIdIn(List.of(defenseId)))));
+        defense.setDefenseDate(defenseDate);
+        defense.setDurationMinutes(durationOrDefault(durationMinutes));
+        defense.setRoom(normalizeRoom(room));
+
+        defense = apply(defense, transition, schedulePayload(defense));
+        eventPublisher.publishEvent(new DefenseScheduledEvent(defense.getId(), defenseDate));
+        return defense;
+    }
+
+    /**
+     * Schedule many UNSCHEDULED defenses at once (Coordinator action). Reports the outcome of each one.
+     * The defenses and their juries are read with one query, the whole batch is checked against the
+     * defense calendar (and against itself) in one pass, and the defenses are updated with batched statements.
+     */
+    @Transactional
+    public BulkTransitionResultDto bulkScheduleDefenses(List<DefenseScheduleDto> schedules, Person.PersonType role) {
+        BulkTransitions.checkSize(schedules);
+        if (!WorkflowStateMachine.DEFENSE.allows(DefenseAction.SCHEDULE, role)) {
+            throw new DEIException(ErrorMessage.UNAUTHORIZED, role + " cannot " + DefenseAction.SCHEDULE.name());
+        }
+        Set<Long> ids = new HashSet<>();
+        schedules.forEach(s -> ids.add(s.getDefenseId()));
+        ids.remove(null);
+        Map<Long, DefenseTransitionRow> rows = ids.isEmpty() ? Map.of()
+                : defenseRepository.findTransitionRows(ids).stream()
+                        .collect(Collectors.toMap(DefenseTransitionRow::defenseId, Function.identity()));
+        Map<Long, List<DefenseBookingRow>> juries = ids.isEmpty() ? Map.of()
+                : defenseRepository.findBookingRowsByIdIn(ids).stream()
+                        .collect(Collectors.groupingBy(DefenseBookingRow::defenseId));
+
+        Outcome[] outcomes = new Outcome[schedules.size()];
+        List<Integer> checked = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
+        List<Transition<DefenseStatus, DefenseAction>> transitions =
+                new ArrayList<>(Collections.nCopies(schedules.size(), null));
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < schedules.size(); i++) {
+            DefenseScheduleDto schedule = schedules.get(i);
+            Long id = schedule.getDefenseId();
+            DefenseTransitionRow row = rows.get(id);
+            Transition<DefenseStatus, DefenseAction> transition =
+                    row != null ? WorkflowStateMachine.DEFENSE.find(row.status(), DefenseAction.SCHEDULE, role) : null;
+            String invalid = scheduleError(schedule.getDefenseDate(), schedule.getDurationMinutes(), schedule.getRoom());
+            if (row == null) {
+                outcomes[i] = Outcome.failed(id, ErrorMessage.DEFENSE_NOT_FOUND, String.valueOf(id));
+            } else if (!seen.add(id)) {
+                outcomes[i] = Outcome.failed(id, ErrorMessage.VALIDATION_ERROR, "Duplicate defense id in request");
+            } else if (transition == null) {
+                outcomes[i] = Outcome.failed(id, WorkflowStateMachine.DEFENSE.rejection(row.status(), DefenseAction.SCHEDULE),
+                        WorkflowStateMachine.DEFENSE.reason(row.status(), DefenseAction.SCHEDULE, role));
+            } else if (invalid != null) {
+                outcomes[i] = Outcome.failed(id, ErrorMessage.VALIDATION_ERROR, invalid);
+            } else {
+                checked.add(i);
+                transitions.set(i, transition);
+                bookings.add(new Booking(id, row.studentId(), schedule.getDefenseDate(),
+                        durationOrDefault(schedule.getDurationMinutes()), normalizeRoom(schedule.getRoom()),
+                        DefenseCalendar.teachersOf(juries.getOrDefault(id, List.of()))));
+            }
+        }
+
+        List<List<Conflict>> conflicts = defenseCalendar.reserve(bookings);
+        List<Integer> valid = new ArrayList<>();
+        Map<Integer, Booking> reserved = new HashMap<>();
+        for (int i = 0; i < checked.size(); i++) {
+            int index = checked.get(i);
+            if (conflicts.get(i).isEmpty()) {
+                valid.add(index);
+                reserved.put(index, bookings.get(i));
+            } else {
+                outcomes[index] = Outcome.failed(schedules.get(index).getDefenseId(),
+                        ErrorMessage.DEFENSE_SCHEDULE_CONFLICT, conflicts.get(i).get(0).describe());
+            }
+        }
+
+        DefenseStatusConverter converter = new DefenseStatusConverter();
+        int[] counts = BulkTransitions.flatten(jdbcTemplate.batchUpdate(UPDATE_SCHEDULE_SQL, valid,
+                BulkTransitions.JDBC_BATCH_SIZE, (ps, index) -> {
+                    Transition<DefenseStatus, DefenseAction> transition = transitions.get(index);
+                    Booking booking = reserved.get(index);
+                    ps.setString(1, converter.convertToDatabaseColumn(transition.to()));
+                    ps.setTimestamp(2, Timestamp.valueOf(booking.start()));
+                    ps.setInt(3, booking.durationMinutes());
+                    if (booking.room() != null) {
+                        ps.setString(4, booking.room());
+                    } else {
+                        ps.setNull(4, Types.VARCHAR);
+                    }
+                    ps.setLong(5, booking.defenseId());
+                    ps.setString(6, converter.convertToDatabaseColumn(transition.from()));
+                }));
+
+        for (int i = 0; i < valid.size(); i++) {
+            int index = valid.get(i);
+            Booking booking = reserved.get(index);
+            Transition<DefenseStatus, DefenseAction> transition = transitions.get(index);
+            if (BulkTransitions.applied(counts[i])) {
+                outcomes[index] = Outcome.succeeded(booking.defenseId(), transition.to());
+                Map<String, Object> payload = new LinkedHashMap<>();
+                payload.put("defenseDate", booking.start().toString());
+                payload.put("durationMinutes", booking.durationMinutes());
+                if (booking.room() != null) {
+                    payload.put("room", booking.room());
+                }
+                stateMachine.fired(transition, booking.defenseId(), booking.studentId(), payload);
+                eventPublisher.publishEvent(new DefenseScheduledEvent(booking.defenseId(), booking.start()));
+            } else {
+                // The defense changed status after it was validated
+                defenseCalendar.remove(booking.defenseId());
+                outcomes[index] = Outcome.failed(booking.defenseId(), ErrorMessage.INVALID_WORKFLOW_STATE,
+                        "Defense is no longer in " + transition.from().name() + " state");
+            }
+        }
+
+        return BulkTransitionResultDto.of(List.of(outcomes));
+    }
+
+    /**
+     * Update defenses to UNDER_REVIEW when defense date has passed, with one set-based UPDATE.
+     * Called by DefenseStatusScheduler when a defense date is reached. Returns how many defenses moved.
+     */
+    @Transactional
+    public int updateDefenseStatuses() {
+        List<DefenseTransitionRow> due = defenseRepository.findDueRows(DUE_REVIEW.from(), LocalDateTime.now());
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = due.stream().map(DefenseTransitionRow::defenseId).toList();
+        int updated = defenseRepository.updateStatus(ids, DUE_REVIEW.from(), DUE_REVIEW.to());
+        if (updated != due.size()) {
+            // Some defenses changed status in the meantime; only announce the ones this update moved
+            Set<Long> moved = defenseRepository.findTransitionRows(ids).stream()
+                    .filter(row -> row.status() == DUE_REVIEW.to())
+                    .map(DefenseTransitionRow::defenseId)
+                    .collect(Collectors.toSet());
+            due = due.stream().filter(row -> moved.contains(row.defenseId())).toList();
+        }
+
+        for (DefenseTransitionRow row : due) {
+            stateMachine.fired(DUE_REVIEW, row.defenseId(), row.studentId());
         }
+        return due.size();
     }
 
     /**
      * Assign grade and submit to Fenix (Coordinator action)
      */
     @Transactional
-    public DefenseWorkflow assignGradeAndSubmit(Long defenseId, BigDecimal grade) {
+    public DefenseWorkflow assignGradeAndSubmit(Long defenseId, BigDecimal grade, Person.PersonType role) {
         DefenseWorkflow defense = findById(defenseId);
-        
-        // Validate current status
-        if (defense.getStatus() != DefenseStatus.UNDER_REVIEW) {
-            throw new DEIException(ErrorMessage.INVALID_WORKFLOW_STATE, 
-                    "Defense is not in UNDER_REVIEW state");
-        }
+        Transition<DefenseStatus, DefenseAction> transition =
+                WorkflowStateMachine.DEFENSE.check(defense.getStatus(), DefenseAction.GRADE, role);
         
         // Validate grade is between 0 and 20
-        if (grade.compareTo(BigDecimal.ZERO) < 0 || grade.compareTo(new BigDecimal("20")) > 0) {
+        if (grade.compareTo(BigDecimal.ZERO) < 0 || grade.compareTo(MAX_GRADE) > 0) {
             throw new DEIException(ErrorMessage.VALIDATION_ERROR, 
                     "Grade must be between 0 and 20");
         }
         
         defense.setGrade(grade);
-        defense.setStatus(DefenseStatus.SUBMITTED_TO_FENIX);
-        return defenseRepository.save(defense);
+        return apply(defense, transition, Map.of("grade", grade));
+    }
+
+    /**
+     * Grade many defenses and submit them to Fenix at once (Coordinator action).
+     * All defenses are validated with one query and updated with batched statements.
+     */
+    @Transactional
+    public BulkTransitionResultDto bulkAssignGradesAndSubmit(List<GradeAssignmentDto> assignments,
+                                                             Person.PersonType role) {
+        BulkTransitions.checkSize(assignments);
+        if (!WorkflowStateMachine.DEFENSE.allows(DefenseAction.GRADE, role)) {
+            throw new DEIException(ErrorMessage.UNAUTHORIZED, role + " cannot " + DefenseAction.GRADE.name());
+        }
+        Set<Long> ids = new HashSet<>();
+        assignments.forEach(a -> ids.add(a.getDefenseId()));
+        ids.remove(null);
+        Map<Long, DefenseTransitionRow> rows = ids.isEmpty() ? Map.of()
+                : defenseRepository.findTransitionRows(ids).stream()
+                        .collect(Collectors.toMap(DefenseTransitionRow::defenseId, Function.identity()));
+
+        Outcome[] outcomes = new Outcome[assignments.size()];
+        List<Integer> valid = new ArrayList<>();
+        List<Transition<DefenseStatus, DefenseAction>> transitions =
+                new ArrayList<>(Collections.nCopies(assignments.size(), null));
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < assignments.size(); i++) {
+            Long id = assignments.get(i).getDefenseId();
+            BigDecimal grade = assignments.get(i).getGrade();
+            DefenseTransitionRow row = rows.get(id);
+            Transition<DefenseStatus, DefenseAction> transition =
+                    row != null ? WorkflowStateMachine.DEFENSE.find(row.status(), DefenseAction.GRADE, role) : null;
+            if (row == null) {
+                outcomes[i] = Outcome.failed(id, ErrorMessage.DEFENSE_NOT_FOUND, String.valueOf(id));
+            } else if (!seen.add(id)) {
+                outcomes[i] = Outcome.failed(id, ErrorMessage.VALIDATION_ERROR, "Duplicate defense id in request");
+            } else if (transition == null) {
+                outcomes[i] = Outcome.failed(id, WorkflowStateMachine.DEFENSE.rejection(row.status(), DefenseAction.GRADE),
+                        WorkflowStateMachine.DEFENSE.reason(row.status(), DefenseAction.GRADE, role));
+            } else if (grade == null || grade.compareTo(BigDecimal.ZERO) < 0 || grade.compareTo(MAX_GRADE) > 0) {
+                outcomes[i] = Outcome.failed(id, ErrorMessage.VALIDATION_ERROR, "Grade must be between 0 and 20");
+            } else {
+                valid.add(i);
+                transitions.set(i, transition);
+            }
+        }
+
+        DefenseStatusConverter converter = new DefenseStatusConverter();
+        int[] counts = BulkTransitions.flatten(jdbcTemplate.batchUpdate(UPDATE_GRADE_SQL, valid,
+                BulkTransitions.JDBC_BATCH_SIZE, (ps, index) -> {
+                    Transition<DefenseStatus, DefenseAction> transition = transitions.get(index);
+                    ps.setString(1, converter.convertToDatabaseColumn(transition.to()));
+                    ps.setBigDecimal(2, assignments.get(index).getGrade());
+                    ps.setLong(3, assignments.get(index).getDefenseId());
+                    ps.setString(4, converter.convertToDatabaseColumn(transition.from()));
+                }));
+
+        for (int i = 0; i < valid.size(); i++) {
+            int index = valid.get(i);
+            Long id = assignments.get(index).getDefenseId();
+            Transition<DefenseStatus, DefenseAction> transition = transitions.get(index);
+            if (BulkTransitions.applied(counts[i])) {
+                outcomes[index] = Outcome.succeeded(id, transition.to());
+                stateMachine.fired(transition, id, rows.get(id).studentId(),
+                        Map.of("grade", assignments.get(index).getGrade()));
+            } else {
+                // The defense changed status after it was validated
+                outcomes[index] = Outcome.failed(id, ErrorMessage.INVALID_WORKFLOW_STATE,
+                        "Defense is no longer in " + transition.from().name() + " state");
+            }
+        }
+
+        return BulkTransitionResultDto.of(List.of(outcomes));
     }
 
     /**
@@ -147,37 +469,7 @@ public class DefenseWorkflowService {
     @Transactional
     public DefenseWorkflow revertToPreviousState(Long defenseId, Person.PersonType role) {
         DefenseWorkflow defense = findById(defenseId);
-        
-        // Determine previous state based on current state
-        DefenseStatus currentStatus = defense.getStatus();
-        DefenseStatus previousStatus;
-        
-        switch (currentStatus) {
-            case SUBMITTED_TO_FENIX:
-                // Only COORDINATOR can revert from SUBMITTED_TO_FENIX
-                if (role != Person.PersonType.COORDINATOR) {
-                    throw new DEIException(ErrorMessage.UNAUTHORIZED, 
-                            "Only coordinators can revert from SUBMITTED_TO_FENIX status");
-                }
-                previousStatus = DefenseStatus.UNDER_REVIEW;
-                break;
-                
-            case UNDER_REVIEW:
-                // Only COORDINATOR can revert from UNDER_REVIEW
-                if (role != Person.PersonType.COORDINATOR) {
-                    throw new DEIException(ErrorMessage.UNAUTHORIZED, 
-                            "Only coordinators can revert from UNDER_REVIEW status");
-                }
-                previousStatus = DefenseStatus.DEFENSE_SCHEDULED;
-                break;
-                
-            default:
-                throw new DEIException(ErrorMessage.INVALID_WORKFLOW_STATE, 
-                        "Cannot revert from DEFENSE_SCHEDULED state");
-        }
-        
-        defense.setStatus(previousStatus);
-        return defenseRepository.save(defense);
+        return apply(defense, WorkflowStateMachine.DEFENSE.check(defense.getStatus(), DefenseAction.REVERT, role));
     }
     
     /**
@@ -185,18 +477,77 @@ public class DefenseWorkflowService {
      * This can be used for testing or to bypass the automatic update
      */
     @Transactional
-    public DefenseWorkflow setUnderReview(Long defenseId) {
+    public DefenseWorkflow setUnderReview(Long defenseId, Person.PersonType role) {
         DefenseWorkflow defense = findById(defenseId);
-        
-        if (defense.getStatus() != DefenseStatus.DEFENSE_SCHEDULED) {
-            throw new DEIException(ErrorMessage.INVALID_WORKFLOW_STATE, 
-                    "Defense is not in DEFENSE_SCHEDULED state");
-        }
-        
-        defense.setStatus(DefenseStatus.UNDER_REVIEW);
-        return defenseRepository.save(defense);
+        return apply(defense, WorkflowStateMachine.DEFENSE.check(defense.getStatus(), DefenseAction.START_REVIEW, role));
     }
     
+    private static void checkSchedule(LocalDateTime defenseDate, Integer durationMinutes, String room) {
+        String error = scheduleError(defenseDate, durationMinutes, room);
+        if (error != null) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR, error);
+        }
+    }
+
+    /**
+     * Why a defense cannot be scheduled with these values, or null if it can
+     */
+    static String scheduleError(LocalDateTime defenseDate, Integer durationMinutes, String room) {
+        if (defenseDate == null || defenseDate.isBefore(LocalDateTime.now())) {
+            return "Defense date must be in the future";
+        }
+        if (durationMinutes != null && (durationMinutes < MIN_DURATION_MINUTES || durationMinutes > MAX_DURATION_MINUTES)) {
+            return "Defense duration must be between " + MIN_DURATION_MINUTES + " and " + MAX_DURATION_MINUTES + " minutes";
+        }
+        if (room != null && room.trim().length() > MAX_ROOM_LENGTH) {
+            return "Room cannot be longer than " + MAX_ROOM_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    static int durationOrDefault(Integer durationMinutes) {
+        return durationMinutes != null ? durationMinutes : DefenseCalendar.DEFAULT_DURATION_MINUTES;
+    }
+
+    static String normalizeRoom(String room) {
+        return room != null && !room.isBlank() ? room.trim() : null;
+    }
+
+    private static Map<String, Object> schedulePayload(DefenseWorkflow defense) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("defenseDate", defense.getDefenseDate().toString());
+        payload.put("durationMinutes", defense.getDurationMinutes());
+        if (defense.getRoom() != null) {
+            payload.put("room", defense.getRoom());
+        }
+        return payload;
+    }
+
+    /**
+     * Book a defense in the calendar, failing if it overlaps another defense of its jury or room
+     */
+    private void reserve(Booking booking) {
+        List<Conflict> conflicts = defenseCalendar.reserve(List.of(booking)).get(0);
+        if (!conflicts.isEmpty()) {
+            throw new DEIException(ErrorMessage.DEFENSE_SCHEDULE_CONFLICT, conflicts.get(0).describe());
+        }
+    }
+
+    /**
+     * Move a defense along a transition that was already checked, and report it
+     */
+    private DefenseWorkflow apply(DefenseWorkflow defense, Transition<DefenseStatus, DefenseAction> transition) {
+        return apply(defense, transition, Map.of());
+    }
+
+    private DefenseWorkflow apply(DefenseWorkflow defense, Transition<DefenseStatus, DefenseAction> transition,
+                                  Map<String, ?> payload) {
+        defense.setStatus(transition.to());
+        defense = defenseRepository.save(defense);
+        stateMachine.fired(transition, defense.getId(), defense.getStudent().getId(), payload);
+        return defense;
+    }
+
     /**
      * Convert entity to DTO
      */
@@ -0,0 +1,347 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pt.ulisboa.tecnico.rnl.dei.dms.collections.LongObjectHashMap;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.readmodel.InMemoryIndex;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.GradeRow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.GradeStatisticsDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.DefenseWorkflowRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory statistics of the defense grades per period, overall and per jury president and per
+ * teacher (jury members and president), so reading them never scans defense_workflows.
+ *
+ * A defense counts once it is graded (SUBMITTED_TO_FENIX), in the period of its defense date:
+ * semester 1 of an academic year runs from September to February, semester 2 from March to August.
+ * Grades are kept in hundredths, and each statistic keeps exact sums (mean and variance), the
+ * 0.5 histogram and the count of each distinct grade (percentiles), all of which a revert
+ * subtracts again.
+ */
+@Component
+public class GradeStatistics extends InMemoryIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(GradeStatistics.class);
+
+    private static final int MAX_GRADE = 2000;
+
+    // Grades per bucket, in hundredths
+    private static final int BUCKET_WIDTH = 50;
+
+    private static final int BUCKETS = MAX_GRADE / BUCKET_WIDTH + 1;
+
+    private static final int[] PERCENTILES = {10, 25, 50, 75, 90};
+
+    private static final Pattern PERIOD = Pattern.compile("(\\d{4})/(\\d{4})-([12])");
+
+    public enum Breakdown {
+        OVERALL, PRESIDENT, TEACHER
+    }
+
+    @Autowired
+    private DefenseWorkflowRepository defenseRepository;
+
+    private final LongObjectHashMap<Grade> grades = new LongObjectHashMap<>();
+
+    private final LongObjectHashMap<Grade> gradesByStudent = new LongObjectHashMap<>();
+
+    private final NavigableMap<Integer, Period> periods = new TreeMap<>();
+
+    @Override
+    @Transactional(readOnly = true)
+    public synchronized void reload() {
+        grades.clear();
+        gradesByStudent.clear();
+        periods.clear();
+        toGrades(defenseRepository.findGradeRows(DefenseStatus.SUBMITTED_TO_FENIX)).forEach(this::add);
+        logger.debug("Grade statistics loaded {} grades over {} periods", grades.size(), periods.size());
+    }
+
+    /**
+     * The statistics of a period (all periods if null), overall or per president or teacher
+     * (only personId's if given), sorted by period and person
+     */
+    public synchronized List<GradeStatisticsDto> find(String period, Breakdown breakdown, Long personId) {
+        Collection<Period> selected;
+        if (period == null) {
+            selected = periods.values();
+        } else {
+            Period found = periods.get(parsePeriod(period));
+            selected = found != null ? List.of(found) : List.of();
+        }
+        List<GradeStatisticsDto> statistics = new ArrayList<>();
+        for (Period p : selected) {
+            if (breakdown == Breakdown.OVERALL) {
+                statistics.add(p.all.toDto(p.label, null));
+                continue;
+            }
+            LongObjectHashMap<Stats> byPerson = breakdown == Breakdown.PRESIDENT ? p.presidents : p.teachers;
+            List<Stats> people = new ArrayList<>();
+            if (personId != null) {
+                Stats stats = byPerson.get(personId);
+                if (stats != null) {
+                    people.add(stats);
+                }
+            } else {
+                byPerson.forEachValue(people::add);
+                people.sort(Comparator.comparingLong(stats -> stats.personId));
+            }
+            people.forEach(stats -> statistics.add(stats.toDto(p.label, stats.personId)));
+        }
+        return statistics;
+    }
+
+    @TransactionalEventListener(condition = "#event.workflowType().name() == 'DEFENSE' and " +
+            "#event.newStatus() == 'SUBMITTED_TO_FENIX'")
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onDefenseGraded(WorkflowTransitionEvent event) {
+        List<Grade> loaded = toGrades(defenseRepository.findGradeRowsById(event.workflowId(), DefenseStatus.SUBMITTED_TO_FENIX));
+        synchronized (this) {
+            remove(event.workflowId());
+            loaded.forEach(this::add);
+        }
+    }
+
+    // Reverting a grade takes it out again, as does deleting the defense
+    @TransactionalEventListener(condition = "#event.workflowType().name() == 'DEFENSE' and " +
+            "(#event.oldStatus() == 'SUBMITTED_TO_FENIX' or #event.newStatus() == null)")
+    public synchronized void onDefenseUngraded(WorkflowTransitionEvent event) {
+        remove(event.workflowId());
+    }
+
+    // The grades of a deleted teacher's juries stay in the overall statistics
+    @Override
+    protected synchronized void personDeleted(long personId) {
+        Grade graded = gradesByStudent.get(personId);
+        if (graded != null) {
+            remove(graded.defenseId);
+        }
+        for (Period period : periods.values()) {
+            period.presidents.remove(personId);
+            period.teachers.remove(personId);
+        }
+        grades.forEachValue(grade -> grade.leave(personId));
+    }
+
+    private void add(Grade grade) {
+        grades.put(grade.defenseId, grade);
+        gradesByStudent.put(grade.studentId, grade);
+        Period period = periods.computeIfAbsent(grade.period, Period::new);
+        apply(period, grade, 1);
+    }
+
+    private void remove(long defenseId) {
+        Grade grade = grades.remove(defenseId);
+        if (grade == null) {
+            return;
+        }
+        gradesByStudent.remove(grade.studentId);
+        Period period = periods.get(grade.period);
+        apply(period, grade, -1);
+        if (period.all.count == 0) {
+            periods.remove(grade.period);
+        }
+    }
+
+    private static void apply(Period period, Grade grade, int sign) {
+        period.all.add(grade.hundredths, sign);
+        if (grade.presidentId != null) {
+            statsOf(period.presidents, grade.presidentId).add(grade.hundredths, sign);
+            dropIfEmpty(period.presidents, grade.presidentId);
+        }
+        for (long teacherId : grade.teacherIds) {
+            statsOf(period.teachers, teacherId).add(grade.hundredths, sign);
+            dropIfEmpty(period.teachers, teacherId);
+        }
+    }
+
+    private static Stats statsOf(LongObjectHashMap<Stats> byPerson, long personId) {
+        Stats stats = byPerson.get(personId);
+        if (stats == null) {
+            stats = new Stats(personId);
+            byPerson.put(personId, stats);
+        }
+        return stats;
+    }
+
+    private static void dropIfEmpty(LongObjectHashMap<Stats> byPerson, long personId) {
+        if (byPerson.get(personId).count == 0) {
+            byPerson.remove(personId);
+        }
+    }
+
+    /**
+     * Grades from rows with one jury member each; defenses without a date have no period and are left out
+     */
+    private static List<Grade> toGrades(List<GradeRow> rows) {
+        Map<Long, List<GradeRow>> byDefense = new LinkedHashMap<>();
+        for (GradeRow row : rows) {
+            byDefense.computeIfAbsent(row.defenseId(), id -> new ArrayList<>()).add(row);
+        }
+        List<Grade> grades = new ArrayList<>(byDefense.size());
+        for (List<GradeRow> defenseRows : byDefense.values()) {
+            GradeRow first = defenseRows.get(0);
+            if (first.defenseDate() == null) {
+                continue;
+            }
+            long[] teacherIds = defenseRows.stream()
+                    .flatMap(row -> Stream.of(row.juryMemberId(), row.juryPresidentId()))
+                    .filter(Objects::nonNull)
+                    .mapToLong(Long::longValue)
+                    .distinct()
+                    .toArray();
+            int hundredths = first.grade().movePointRight(2).intValue();
+            grades.add(new Grade(first.defenseId(), first.studentId(), periodOf(first.defenseDate()),
+                    Math.max(0, Math.min(MAX_GRADE, hundredths)), first.juryPresidentId(), teacherIds));
+        }
+        return grades;
+    }
+
+    /**
+     * Twice the first year of the academic year, plus the semester minus one
+     */
+    static int periodOf(LocalDateTime date) {
+        int month = date.getMonthValue();
+        int academicYear = month >= 9 ? date.getYear() : date.getYear() - 1;
+        int semester = month >= 9 || month <= 2 ? 1 : 2;
+        return academicYear * 2 + semester - 1;
+    }
+
+    static String label(int period) {
+        int year = period / 2;
+        return year + "/" + (year + 1) + "-" + (period % 2 + 1);
+    }
+
+    private static int parsePeriod(String period) {
+        Matcher matcher = PERIOD.matcher(period.trim());
+        if (!matcher.matches() || Integer.parseInt(matcher.group(2)) != Integer.parseInt(matcher.group(1)) + 1) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR, "Period must look like 2025/2026-1, not " + period);
+        }
+        return Integer.parseInt(matcher.group(1)) * 2 + Integer.parseInt(matcher.group(3)) - 1;
+    }
+
+    /**
+     * A graded defense: its grade in hundredths and who was on its jury
+     */
+    private static final class Grade {
+
+        final long defenseId;
+        final long studentId;
+        final int period;
+        final int hundredths;
+        Long presidentId;
+        long[] teacherIds;
+
+        Grade(long defenseId, long studentId, int period, int hundredths, Long presidentId, long[] teacherIds) {
+            this.defenseId = defenseId;
+            this.studentId = studentId;
+            this.period = period;
+            this.hundredths = hundredths;
+            this.presidentId = presidentId;
+            this.teacherIds = teacherIds;
+        }
+
+        void leave(long personId) {
+            if (presidentId != null && presidentId == personId) {
+                presidentId = null;
+            }
+            for (long teacherId : teacherIds) {
+                if (teacherId == personId) {
+                    teacherIds = Arrays.stream(teacherIds).filter(id -> id != personId).toArray();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Period {
+
+        final String label;
+        final Stats all = new Stats(0);
+        final LongObjectHashMap<Stats> presidents = new LongObjectHashMap<>();
+        final LongObjectHashMap<Stats> teachers = new LongObjectHashMap<>();
+
+        Period(int period) {
+            this.label = label(period);
+        }
+    }
+
+    /**
+     * Count, exact sums and distribution of a set of grades in hundredths
+     */
+    private static final class Stats {
+
+        final long personId;
+        long count;
+        long sum;
+        long sumOfSquares;
+        final int[] histogram = new int[BUCKETS];
+        // How many times each distinct grade occurs
+        final NavigableMap<Integer, Integer> counts = new TreeMap<>();
+
+        Stats(long personId) {
+            this.personId = personId;
+        }
+
+        void add(int grade, int sign) {
+            count += sign;
+            sum += (long) sign * grade;
+            sumOfSquares += (long) sign * grade * grade;
+            histogram[grade / BUCKET_WIDTH] += sign;
+            counts.merge(grade, sign, (a, b) -> a + b == 0 ? null : a + b);
+        }
+
+        GradeStatisticsDto toDto(String period, Long personId) {
+            if (count == 0) {
+                return new GradeStatisticsDto(period, personId, 0, null, null, histogram.clone(), null);
+            }
+            double mean = (double) sum / count;
+            // Population variance, from exact integer sums
+            double variance = Math.max(0, (sumOfSquares - (double) sum * sum / count) / count);
+            Map<String, BigDecimal> percentiles = new LinkedHashMap<>();
+            for (int percentile : PERCENTILES) {
+                percentiles.put("p" + percentile, BigDecimal.valueOf(percentile(percentile), 2));
+            }
+            return new GradeStatisticsDto(period, personId, count, mean / 100, variance / 10_000,
+                    histogram.clone(), percentiles);
+        }
+
+        // Nearest rank: the smallest grade with at least percentile% of the grades at or below it
+        private int percentile(int percentile) {
+            long rank = Math.max(1, (count * percentile + 99) / 100);
+            long seen = 0;
+            for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+                seen += entry.getValue();
+                if (seen >= rank) {
+                    return entry.getKey();
+                }
+            }
+            return counts.lastKey();
+        }
+    }
+}
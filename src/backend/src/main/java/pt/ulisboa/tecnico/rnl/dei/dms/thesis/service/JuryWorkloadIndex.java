@@ -0,0 +1,318 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pt.ulisboa.tecnico.rnl.dei.dms.collections.LongObjectHashMap;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.repository.PersonRepository;
+import pt.ulisboa.tecnico.rnl.dei.dms.readmodel.InMemoryIndex;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.JuryRow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.JurySuggestionDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.ThesisWorkflowRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * In-memory reverse index from each teacher to the active theses they are a jury member of.
+ *
+ * A thesis is active from its submission until its defense is graded. Teachers are also kept
+ * in lists by their number of active theses, so the least-loaded ones are found by walking
+ * the lists from zero instead of sorting. Maps are keyed by primitive ids.
+ */
+@Component
+public class JuryWorkloadIndex extends InMemoryIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(JuryWorkloadIndex.class);
+
+    private static final String GRADED = DefenseStatus.SUBMITTED_TO_FENIX.name();
+
+    @Autowired
+    private ThesisWorkflowRepository thesisRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    private final LongObjectHashMap<Teacher> teachers = new LongObjectHashMap<>();
+
+    private final LongObjectHashMap<Jury> juries = new LongObjectHashMap<>();
+
+    private final LongObjectHashMap<Jury> juriesByStudent = new LongObjectHashMap<>();
+
+    // loads[n] is the first of the teachers with n active theses
+    private Teacher[] loads = new Teacher[8];
+
+    @Override
+    @Transactional(readOnly = true)
+    public synchronized void reload() {
+        teachers.clear();
+        juries.clear();
+        juriesByStudent.clear();
+        Arrays.fill(loads, null);
+
+        for (Person teacher : personRepository.findByType(Person.PersonType.TEACHER)) {
+            addTeacher(teacher.getId(), teacher.getName());
+        }
+        for (JuryRow row : thesisRepository.findJuryRows()) {
+            juryOf(row).addMember(row.juryMemberId());
+        }
+        juries.forEachValue(jury -> {
+            if (jury.active) {
+                attach(jury);
+            }
+        });
+        logger.debug("Jury workload index loaded {} teachers and {} juries", teachers.size(), juries.size());
+    }
+
+    /**
+     * The active theses of a teacher, in no particular order
+     */
+    public synchronized long[] getActiveTheses(long teacherId) {
+        Teacher teacher = teachers.get(teacherId);
+        return teacher != null ? Arrays.copyOf(teacher.theses, teacher.load) : new long[0];
+    }
+
+    public synchronized int getLoad(long teacherId) {
+        Teacher teacher = teachers.get(teacherId);
+        return teacher != null ? teacher.load : 0;
+    }
+
+    /**
+     * Up to limit teachers with the fewest active theses, leaving out the excluded ids
+     * (e.g. the ones the student already picked)
+     */
+    public synchronized List<JurySuggestionDto> suggest(int limit, long[] excluded) {
+        List<JurySuggestionDto> suggestions = new ArrayList<>(limit);
+        for (int load = 0; load < loads.length && suggestions.size() < limit; load++) {
+            for (Teacher teacher = loads[load]; teacher != null && suggestions.size() < limit; teacher = teacher.next) {
+                if (!contains(excluded, teacher.id)) {
+                    suggestions.add(new JurySuggestionDto(teacher.id, teacher.name, load));
+                }
+            }
+        }
+        return suggestions;
+    }
+
+    // Only a new thesis needs its jury read from the database
+    @TransactionalEventListener(condition = "#event.workflowType().name() == 'THESIS' and #event.oldStatus() == null")
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public synchronized void onThesisSubmitted(WorkflowTransitionEvent event) {
+        removeJury(event.workflowId());
+        for (JuryRow row : thesisRepository.findJuryRowsByThesisId(event.workflowId())) {
+            juryOf(row).addMember(row.juryMemberId());
+        }
+        Jury jury = juries.get(event.workflowId());
+        if (jury != null && jury.active) {
+            attach(jury);
+        }
+    }
+
+    @TransactionalEventListener(condition = "#event.workflowType().name() == 'DEFENSE' or #event.newStatus() == null")
+    public synchronized void onWorkflowTransition(WorkflowTransitionEvent event) {
+        if (event.workflowType() == WorkflowTransitionEvent.WorkflowType.THESIS) {
+            removeJury(event.workflowId());
+            return;
+        }
+
+        // A thesis stops being active once its defense is graded, and is active again if that is reverted
+        Jury jury = juriesByStudent.get(event.studentId());
+        if (jury != null) {
+            setActive(jury, !GRADED.equals(event.newStatus()));
+        }
+    }
+
+    @Override
+    protected synchronized void personChanged(long personId) {
+        Person person = personRepository.findById(personId).orElse(null);
+        if (person != null && person.getType() == Person.PersonType.TEACHER) {
+            Teacher teacher = teachers.get(personId);
+            if (teacher != null) {
+                teacher.name = person.getName();
+            } else {
+                addTeacher(personId, person.getName());
+            }
+            return;
+        }
+        // No longer a teacher
+        Teacher teacher = teachers.remove(personId);
+        if (teacher != null) {
+            unlink(teacher);
+        }
+    }
+
+    @Override
+    protected synchronized void personDeleted(long personId) {
+        Teacher teacher = teachers.remove(personId);
+        if (teacher != null) {
+            unlink(teacher);
+            juries.forEachValue(jury -> jury.removeMember(personId));
+        }
+        Jury jury = juriesByStudent.get(personId);
+        if (jury != null) {
+            removeJury(jury.thesisId);
+        }
+    }
+
+    private Jury juryOf(JuryRow row) {
+        Jury jury = juries.get(row.thesisId());
+        if (jury == null) {
+            jury = new Jury(row.thesisId(), row.studentId(), row.defenseStatus() != DefenseStatus.SUBMITTED_TO_FENIX);
+            juries.put(jury.thesisId, jury);
+            juriesByStudent.put(jury.studentId, jury);
+        }
+        return jury;
+    }
+
+    private void removeJury(long thesisId) {
+        Jury jury = juries.remove(thesisId);
+        if (jury != null) {
+            juriesByStudent.remove(jury.studentId);
+            if (jury.active) {
+                detach(jury);
+            }
+        }
+    }
+
+    private void setActive(Jury jury, boolean active) {
+        if (jury.active == active) {
+            return;
+        }
+        jury.active = active;
+        if (active) {
+            attach(jury);
+        } else {
+            detach(jury);
+        }
+    }
+
+    private void attach(Jury jury) {
+        for (int i = 0; i < jury.size; i++) {
+            Teacher teacher = teachers.get(jury.members[i]);
+            if (teacher != null) {
+                unlink(teacher);
+                teacher.addThesis(jury.thesisId);
+                link(teacher);
+            }
+        }
+    }
+
+    private void detach(Jury jury) {
+        for (int i = 0; i < jury.size; i++) {
+            Teacher teacher = teachers.get(jury.members[i]);
+            if (teacher != null && teacher.removeThesis(jury.thesisId)) {
+                unlink(teacher);
+                link(teacher);
+            }
+        }
+    }
+
+    private void addTeacher(long id, String name) {
+        Teacher teacher = new Teacher(id, name);
+        teachers.put(id, teacher);
+        link(teacher);
+    }
+
+    private void link(Teacher teacher) {
+        if (teacher.load >= loads.length) {
+            loads = Arrays.copyOf(loads, Math.max(loads.length * 2, teacher.load + 1));
+        }
+        Teacher first = loads[teacher.load];
+        teacher.previous = null;
+        teacher.next = first;
+        if (first != null) {
+            first.previous = teacher;
+        }
+        loads[teacher.load] = teacher;
+    }
+
+    private void unlink(Teacher teacher) {
+        if (teacher.previous != null) {
+            teacher.previous.next = teacher.next;
+        } else if (loads[teacher.load] == teacher) {
+            loads[teacher.load] = teacher.next;
+        }
+        if (teacher.next != null) {
+            teacher.next.previous = teacher.previous;
+        }
+        teacher.previous = null;
+        teacher.next = null;
+    }
+
+    private static boolean contains(long[] ids, long id) {
+        for (long candidate : ids) {
+            if (candidate == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Teacher {
+        private final long id;
+        private String name;
+        private long[] theses = new long[4];
+        private int load;
+        private Teacher previous;
+        private Teacher next;
+
+        Teacher(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        void addThesis(long thesisId) {
+            if (load == theses.length) {
+                theses = Arrays.copyOf(theses, load * 2);
+            }
+            theses[load++] = thesisId;
+        }
+
+        boolean removeThesis(long thesisId) {
+            for (int i = 0; i < load; i++) {
+                if (theses[i] == thesisId) {
+                    theses[i] = theses[--load];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Jury {
+        private final long thesisId;
+        private final long studentId;
+        private long[] members = new long[5];
+        private int size;
+        private boolean active;
+
+        Jury(long thesisId, long studentId, boolean active) {
+            this.thesisId = thesisId;
+            this.studentId = studentId;
+            this.active = active;
+        }
+
+        void addMember(long teacherId) {
+            if (size == members.length) {
+                members = Arrays.copyOf(members, size * 2);
+            }
+            members[size++] = teacherId;
+        }
+
+        void removeMember(long teacherId) {
+            for (int i = 0; i < size; i++) {
+                if (members[i] == teacherId) {
+                    members[i] = members[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.repository.PersonRepository;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.TeacherAvailability;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.TeacherAvailabilityDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.TeacherAvailabilityRepository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class TeacherAvailabilityService {
+
+    private static final Set<Person.PersonType> EDITORS =
+            Set.of(Person.PersonType.TEACHER, Person.PersonType.COORDINATOR, Person.PersonType.STAFF);
+
+    @Autowired
+    private TeacherAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    /**
+     * The days from `from` to `to` for which the teacher gave their availability
+     */
+    @Transactional(readOnly = true)
+    public List<TeacherAvailabilityDto> findAvailability(Long teacherId, LocalDate from, LocalDate to) {
+        findTeacher(teacherId);
+        return availabilityRepository.findByTeacherIdAndDayBetweenOrderByDay(teacherId, from, to).stream()
+                .map(TeacherAvailabilityService::toDto)
+                .toList();
+    }
+
+    /**
+     * Replace the availability of a teacher on the given days (the teacher, a coordinator or staff)
+     */
+    @Transactional
+    public List<TeacherAvailabilityDto> setAvailability(Long teacherId, List<TeacherAvailabilityDto> days,
+                                                        Person.PersonType role) {
+        if (!EDITORS.contains(role)) {
+            throw new DEIException(ErrorMessage.UNAUTHORIZED, role + " cannot set teacher availability");
+        }
+        findTeacher(teacherId);
+        Set<LocalDate> seen = new HashSet<>();
+        List<TeacherAvailability> availability = new ArrayList<>(days.size());
+        for (TeacherAvailabilityDto day : days) {
+            if (day.getDay() == null || !seen.add(day.getDay())) {
+                throw new DEIException(ErrorMessage.VALIDATION_ERROR, "Each day must be given once");
+            }
+            availability.add(new TeacherAvailability(teacherId, day.getDay(), toSlots(day.getSlots())));
+        }
+        return availabilityRepository.saveAll(availability).stream()
+                .map(TeacherAvailabilityService::toDto)
+                .toList();
+    }
+
+    private Person findTeacher(Long teacherId) {
+        Person teacher = personRepository.findById(teacherId)
+                .orElseThrow(() -> new DEIException(ErrorMessage.PERSON_NOT_FOUND, String.valueOf(teacherId)));
+        if (teacher.getType() != Person.PersonType.TEACHER) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR, "Person " + teacherId + " is not a teacher");
+        }
+        return teacher;
+    }
+
+    private static long toSlots(List<LocalTime> starts) {
+        long slots = 0;
+        for (LocalTime start : starts != null ? starts : List.<LocalTime>of()) {
+            int slot = TeacherAvailability.slotOf(start);
+            if (slot < 0) {
+                throw new DEIException(ErrorMessage.VALIDATION_ERROR, "Not the start of a slot: " + start);
+            }
+            slots |= 1L << slot;
+        }
+        return slots;
+    }
+
+    private static TeacherAvailabilityDto toDto(TeacherAvailability availability) {
+        List<LocalTime> starts = new ArrayList<>(Long.bitCount(availability.getSlots()));
+        for (long slots = availability.getSlots(); slots != 0; slots &= slots - 1) {
+            starts.add(TeacherAvailability.startOf(Long.numberOfTrailingZeros(slots)));
+        }
+        return new TeacherAvailabilityDto(availability.getDay(), starts);
+    }
+}
@@ -0,0 +1,458 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pt.ulisboa.tecnico.rnl.dei.dms.collections.LongObjectHashMap;
+import pt.ulisboa.tecnico.rnl.dei.dms.readmodel.InMemoryIndex;
+import pt.ulisboa.tecnico.rnl.dei.dms.search.MinHashIndex;
+import pt.ulisboa.tecnico.rnl.dei.dms.search.TextAnalyzer;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.ThesisTitleRow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.ThesisWorkflowRepository;
+import pt.ulisboa.tecnico.rnl.dei.dms.versioning.DataVersions.DataTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over thesis titles.
+ *
+ * Every thesis gets a dense document number; each term (see TextAnalyzer) maps to the sorted
+ * document numbers whose title contains it. Terms are kept sorted, so a query word also matches
+ * every term it is a prefix of ("distrib" finds "distribuidos") with a range scan. The documents
+ * matching all the query words are found by intersecting the lists, smallest first, and ranked
+ * with BM25; only the requested page is selected, with a bounded heap.
+ *
+ * A removed thesis only gets its document number marked as deleted; the lists are rebuilt once
+ * deleted documents outnumber the live ones. Searches share a read lock, changes take the write lock.
+ *
+ * Titles are also kept in a MinHashIndex, to find the near-duplicates of a new title.
+ */
+@Component
+public class ThesisSearchIndex extends InMemoryIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThesisSearchIndex.class);
+
+    // BM25 parameters (term frequency is taken as 1: titles seldom repeat a word)
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // A word matching a longer term counts less than an exact match
+    private static final float PREFIX_WEIGHT = 0.8f;
+
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    // Terms a single word can expand to, so a two-letter prefix stays cheap
+    private static final int MAX_EXPANSIONS = 1000;
+
+    private static final int MIN_DOCUMENTS_TO_COMPACT = 1024;
+
+    // Best first: higher score, then lower thesis id
+    private static final Comparator<Hit> RANKING =
+            Comparator.comparingDouble((Hit hit) -> -hit.score()).thenComparingLong(Hit::thesisId);
+
+    @Autowired
+    private ThesisWorkflowRepository thesisRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+
+    private final LongObjectHashMap<Integer> documents = new LongObjectHashMap<>();
+
+    private final BitSet deleted = new BitSet();
+
+    private final MinHashIndex similarTitles = new MinHashIndex();
+
+    private long[] thesisIds = new long[1024];
+
+    private long[] studentIds = new long[1024];
+
+    private String[] titles = new String[1024];
+
+    private int[] lengths = new int[1024];
+
+    private int documentCount;
+
+    private int liveCount;
+
+    private long totalLength;
+
+    /**
+     * A matching thesis and its relevance to the query
+     */
+    public record Hit(long thesisId, float score) {
+    }
+
+    /**
+     * A thesis with a title similar to another, and how similar (Jaccard similarity of their trigrams)
+     */
+    public record Similar(long thesisId, String title, double similarity) {
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void reload() {
+        List<ThesisTitleRow> rows = thesisRepository.findTitleRows();
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (ThesisTitleRow row : rows) {
+                add(row.thesisId(), row.studentId(), row.title());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.debug("Thesis search index loaded {} titles and {} terms", rows.size(), terms.size());
+    }
+
+    /**
+     * Add a thesis, or replace its title
+     */
+    public void put(long thesisId, long studentId, String title) {
+        lock.writeLock().lock();
+        try {
+            delete(thesisId);
+            add(thesisId, studentId, title);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long thesisId) {
+        lock.writeLock().lock();
+        try {
+            delete(thesisId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit theses whose title matches every word of query, best first, starting after the
+     * hit (afterScore, afterId) of a previous page (afterScore is +infinity for the first page)
+     */
+    public List<Hit> search(String query, float afterScore, long afterId, int limit) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.words(query)));
+        words.removeIf(TextAnalyzer::isStopword);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Matches> perWord = new ArrayList<>(words.size());
+            for (String word : words) {
+                Matches matches = match(word);
+                if (matches.size == 0) {
+                    return List.of();
+                }
+                perWord.add(matches);
+            }
+            perWord.sort(Comparator.comparingInt(matches -> matches.size));
+            Matches result = perWord.get(0);
+            for (int i = 1; i < perWord.size() && result.size > 0; i++) {
+                result = result.intersect(perWord.get(i));
+            }
+            return top(result, afterScore, afterId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit theses, other than excludedId, whose title has a similarity of at least threshold
+     * with title, most similar first
+     */
+    public List<Similar> similar(String title, long excludedId, double threshold, int limit) {
+        long[] shingles = MinHashIndex.shingles(title);
+        List<Similar> similar = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Set<Integer> seen = new HashSet<>();
+            similarTitles.candidates(shingles, document -> {
+                if (deleted.get(document) || thesisIds[document] == excludedId || !seen.add(document)) {
+                    return;
+                }
+                double similarity = MinHashIndex.jaccard(shingles, MinHashIndex.shingles(titles[document]));
+                if (similarity >= threshold) {
+                    similar.add(new Similar(thesisIds[document], titles[document], similarity));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        similar.sort(Comparator.comparingDouble((Similar s) -> -s.similarity()).thenComparingLong(Similar::thesisId));
+        return similar.size() > limit ? similar.subList(0, limit) : similar;
+    }
+
+    // A new thesis is the only change to a title
+    @TransactionalEventListener(condition = "#event.workflowType().name() == 'THESIS' and #event.oldStatus() == null")
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onThesisSubmitted(WorkflowTransitionEvent event) {
+        thesisRepository.findTitleRowById(event.workflowId())
+                .ifPresent(row -> put(row.thesisId(), row.studentId(), row.title()));
+    }
+
+    @TransactionalEventListener(condition = "#event.workflowType().name() == 'THESIS' and #event.newStatus() == null")
+    public void onThesisDeleted(WorkflowTransitionEvent event) {
+        remove(event.workflowId());
+    }
+
+    @Override
+    protected boolean reloadsAfterImport(DataTable table) {
+        return table == DataTable.THESIS;
+    }
+
+    @Override
+    protected void personDeleted(long studentId) {
+        lock.writeLock().lock();
+        try {
+            // Collected first: deleting may compact and renumber the documents
+            List<Long> theses = new ArrayList<>(1);
+            for (int document = deleted.nextClearBit(0); document < documentCount;
+                 document = deleted.nextClearBit(document + 1)) {
+                if (studentIds[document] == studentId) {
+                    theses.add(thesisIds[document]);
+                }
+            }
+            theses.forEach(this::delete);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Documents containing word, or a term word is a prefix of, with the best score of each
+     */
+    private Matches match(String word) {
+        float averageLength = liveCount > 0 ? (float) totalLength / liveCount : 1f;
+        String stem = TextAnalyzer.stem(word);
+        Postings exact = terms.get(stem);
+
+        // (document << 32 | score bits), sorted by document to keep the best score of each
+        long[] entries = new long[exact != null ? exact.live : 16];
+        int count = 0;
+        if (exact != null) {
+            entries = collect(exact, 1f, averageLength, entries, count);
+            count += exact.live;
+        }
+        if (word.length() >= MIN_PREFIX_LENGTH) {
+            int expansions = 0;
+            for (Map.Entry<String, Postings> term : terms.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+                Postings postings = term.getValue();
+                if (postings == exact) {
+                    continue;
+                }
+                if (++expansions > MAX_EXPANSIONS) {
+                    break;
+                }
+                entries = collect(postings, PREFIX_WEIGHT, averageLength, entries, count);
+                count += postings.live;
+            }
+        }
+
+        if (exact == null || count > exact.live) {
+            Arrays.sort(entries, 0, count);
+        }
+        Matches matches = new Matches(count);
+        for (int i = 0; i < count; i++) {
+            int document = (int) (entries[i] >>> 32);
+            float score = Float.intBitsToFloat((int) entries[i]);
+            if (matches.size > 0 && matches.documents[matches.size - 1] == document) {
+                matches.scores[matches.size - 1] = Math.max(matches.scores[matches.size - 1], score);
+            } else {
+                matches.add(document, score);
+            }
+        }
+        return matches;
+    }
+
+    private long[] collect(Postings postings, float weight, float averageLength, long[] entries, int count) {
+        if (count + postings.live > entries.length) {
+            entries = Arrays.copyOf(entries, Math.max(entries.length * 2, count + postings.live));
+        }
+        // BM25 idf over the live documents
+        float idf = (float) Math.log(1 + (liveCount - postings.live + 0.5) / (postings.live + 0.5));
+        for (int i = 0; i < postings.size; i++) {
+            int document = postings.documents[i];
+            if (deleted.get(document)) {
+                continue;
+            }
+            float norm = (K1 + 1) / (1 + K1 * (1 - B + B * lengths[document] / averageLength));
+            float score = weight * idf * norm;
+            entries[count++] = (long) document << 32 | (Float.floatToIntBits(score) & 0xffffffffL);
+        }
+        return entries;
+    }
+
+    private List<Hit> top(Matches matches, float afterScore, long afterId, int limit) {
+        // Worst of the best hits so far at the head
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (int i = 0; i < matches.size; i++) {
+            float score = matches.scores[i];
+            long thesisId = thesisIds[matches.documents[i]];
+            if (score > afterScore || score == afterScore && thesisId <= afterId) {
+                continue;
+            }
+            if (best.size() == limit) {
+                Hit worst = best.peek();
+                if (score < worst.score() || score == worst.score() && thesisId > worst.thesisId()) {
+                    continue;
+                }
+                best.poll();
+            }
+            best.add(new Hit(thesisId, score));
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(RANKING);
+        return hits;
+    }
+
+    private void add(long thesisId, long studentId, String title) {
+        if (documentCount == thesisIds.length) {
+            int capacity = documentCount * 2;
+            thesisIds = Arrays.copyOf(thesisIds, capacity);
+            studentIds = Arrays.copyOf(studentIds, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        int document = documentCount++;
+        LinkedHashSet<String> documentTerms = new LinkedHashSet<>(TextAnalyzer.terms(title));
+        for (String term : documentTerms) {
+            terms.computeIfAbsent(term, t -> new Postings()).add(document);
+        }
+        thesisIds[document] = thesisId;
+        studentIds[document] = studentId;
+        titles[document] = title;
+        lengths[document] = documentTerms.size();
+        documents.put(thesisId, document);
+        similarTitles.add(document, MinHashIndex.shingles(title));
+        liveCount++;
+        totalLength += documentTerms.size();
+    }
+
+    private void delete(long thesisId) {
+        Integer document = documents.remove(thesisId);
+        if (document == null) {
+            return;
+        }
+        deleted.set(document);
+        for (String term : new LinkedHashSet<>(TextAnalyzer.terms(titles[document]))) {
+            Postings postings = terms.get(term);
+            if (postings != null && --postings.live == 0) {
+                // So prefixes no longer expand to it
+                terms.remove(term);
+            }
+        }
+        titles[document] = null;
+        liveCount--;
+        totalLength -= lengths[document];
+
+        if (documentCount >= MIN_DOCUMENTS_TO_COMPACT && documentCount - liveCount > liveCount) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        List<ThesisTitleRow> live = new ArrayList<>(liveCount);
+        for (int document = deleted.nextClearBit(0); document < documentCount;
+             document = deleted.nextClearBit(document + 1)) {
+            live.add(new ThesisTitleRow(thesisIds[document], studentIds[document], titles[document]));
+        }
+        clear();
+        for (ThesisTitleRow row : live) {
+            add(row.thesisId(), row.studentId(), row.title());
+        }
+    }
+
+    private void clear() {
+        terms.clear();
+        documents.clear();
+        deleted.clear();
+        similarTitles.clear();
+        Arrays.fill(titles, 0, documentCount, null);
+        documentCount = 0;
+        liveCount = 0;
+        totalLength = 0;
+    }
+
+    /**
+     * Documents containing a term, in increasing order, deleted ones included
+     */
+    private static final class Postings {
+        private int[] documents = new int[4];
+        private int size;
+        private int live;
+
+        void add(int document) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            documents[size++] = document;
+            live++;
+        }
+    }
+
+    /**
+     * Documents matching part of a query, in increasing order, with their scores
+     */
+    private static final class Matches {
+        private final int[] documents;
+        private final float[] scores;
+        private int size;
+
+        Matches(int capacity) {
+            documents = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        void add(int document, float score) {
+            documents[size] = document;
+            scores[size++] = score;
+        }
+
+        /**
+         * Documents in both, with the sum of their scores
+         */
+        Matches intersect(Matches other) {
+            Matches both = new Matches(Math.min(size, other.size));
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (documents[i] < other.documents[j]) {
+                    i++;
+                } else if (documents[i] > other.documents[j]) {
+                    j++;
+                } else {
+                    both.add(documents[i], scores[i++] + other.scores[j++]);
+                }
+            }
+            return both;
+        }
+    }
+}
@@ -1,26 +1,53 @@
 package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
 import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.ids.EntityIds;
+import pt.ulisboa.tecnico.rnl.dei.dms.pagination.Cursor;
+import pt.ulisboa.tecnico.rnl.dei.dms.pagination.CursorPage;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
 import pt.ulisboa.tecnico.rnl.dei.dms.person.repository.PersonRepository;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.ThesisWorkflowRepository;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.BulkTransitionResultDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.BulkTransitionResultDto.Outcome;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.JuryPresidentAssignmentDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.JurySuggestionDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.SimilarThesisDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.ThesisDetailDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.ThesisTransitionRow;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.ThesisWorkflowDto;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.DefenseWorkflowRepository;
 import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.converter.DefenseStatusConverter;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow.DefenseAction;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow.ThesisAction;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow.Transition;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow.WorkflowStateMachine;
 
 
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.Optional;
 
@@ -40,6 +67,47 @@ public class ThesisWorkflowService {
     @Autowired
     private DefenseWorkflowRepository defenseRepository;
 
+    @Autowired
+    private WorkflowStateMachine stateMachine;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JuryWorkloadIndex juryWorkloadIndex;
+
+    @Autowired
+    private EntityIds entityIds;
+
+    @Autowired
+    private ThesisSearchIndex searchIndex;
+
+    private static final Transition<DefenseStatus, DefenseAction> DEFENSE_CREATION =
+            WorkflowStateMachine.DEFENSE.check(null, DefenseAction.CREATE, null);
+
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE thesis_workflows SET status = ?, version = version + 1 WHERE id = ? AND status = ?";
+
+    private static final String UPDATE_PRESIDENT_SQL =
+            "UPDATE thesis_workflows SET status = ?, jury_president_id = ?, version = version + 1 " +
+            "WHERE id = ? AND status = ?";
+
+    private static final String INSERT_DEFENSE_SQL =
+            "INSERT INTO defense_workflows (id, student_id, thesis_id, status, version) VALUES (?, ?, ?, ?, 0)";
+
+    private static final int DEFAULT_SUGGESTIONS = 5;
+
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private static final int MAX_SEARCH_QUERY_LENGTH = 200;
+
+    private static final String RELEVANCE = "relevance";
+
+    // Trigram similarity from which two titles are flagged as near-duplicates
+    private static final double SIMILAR_TITLE_THRESHOLD = 0.7;
+
+    private static final int MAX_SIMILAR_THESES = 5;
+
 
     /**
      * Find all thesis workflows
@@ -48,6 +116,101 @@ public class ThesisWorkflowService {
         return thesisRepository.findAll();
     }
 
+    /**
+     * Suggest the teachers with the fewest active juries, leaving out the given ones
+     */
+    public List<JurySuggestionDto> suggestJuryMembers(Integer limit, List<Long> excluded) {
+        int size = limit != null ? limit : DEFAULT_SUGGESTIONS;
+        if (size < 1 || size > MAX_SUGGESTIONS) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR,
+                    "limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        long[] excludedIds = excluded != null
+                ? excluded.stream().filter(Objects::nonNull).mapToLong(Long::longValue).toArray()
+                : new long[0];
+        return juryWorkloadIndex.suggest(size, excludedIds);
+    }
+
+    /**
+     * Find thesis workflows one page at a time, sorted by "id" (default) or "submissionDate"
+     */
+    public CursorPage<ThesisWorkflow> findPage(String sort, String cursorToken, Integer limit) {
+        String sortKey = sort != null ? sort : "id";
+        int size = Cursor.pageSize(limit);
+        Cursor cursor = cursorToken != null ? Cursor.decode(cursorToken, sortKey) : null;
+        PageRequest page = PageRequest.of(0, size + 1);
+
+        switch (sortKey) {
+            case "id":
+                return CursorPage.of(
+                        thesisRepository.findPageById(cursor != null ? cursor.id() : 0L, page),
+                        size, t -> new Cursor(sortKey, null, t.getId()));
+            case "submissionDate":
+                List<ThesisWorkflow> rows = cursor == null
+                        ? thesisRepository.findFirstPageBySubmissionDate(page)
+                        : thesisRepository.findPageBySubmissionDate(
+                                LocalDateTime.parse(cursor.value()), cursor.id(), page);
+                return CursorPage.of(rows, size,
+                        t -> new Cursor(sortKey, t.getSubmissionDate().toString(), t.getId()));
+            default:
+                throw new DEIException(ErrorMessage.VALIDATION_ERROR, "Unsupported sort: " + sortKey);
+        }
+    }
+
+    /**
+     * Search theses by title, best matches first, one page at a time
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ThesisWorkflow> search(String query, String cursorToken, Integer limit) {
+        if (!StringUtils.hasText(query) || query.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new DEIException(ErrorMessage.VALIDATION_ERROR,
+                    "q must have between 1 and " + MAX_SEARCH_QUERY_LENGTH + " characters");
+        }
+        int size = Cursor.pageSize(limit);
+        float afterScore = Float.POSITIVE_INFINITY;
+        long afterId = 0L;
+        if (cursorToken != null) {
+            Cursor cursor = Cursor.decode(cursorToken, RELEVANCE);
+            try {
+                afterScore = Float.parseFloat(Objects.requireNonNull(cursor.value()));
+            } catch (NumberFormatException | NullPointerException e) {
+                throw new DEIException(ErrorMessage.VALIDATION_ERROR, "invalid cursor");
+            }
+            afterId = cursor.id();
+        }
+
+        List<ThesisSearchIndex.Hit> hits = searchIndex.search(query, afterScore, afterId, size + 1);
+        String nextCursor = null;
+        if (hits.size() > size) {
+            hits = hits.subList(0, size);
+            ThesisSearchIndex.Hit last = hits.get(size - 1);
+            nextCursor = new Cursor(RELEVANCE, Float.toString(last.score()), last.thesisId()).encode();
+        }
+        if (hits.isEmpty()) {
+            return new CursorPage<>(List.of(), nextCursor);
+        }
+
+        // Fetched in id order, listed in rank order
+        Map<Long, ThesisWorkflow> theses = thesisRepository.findDetailedByIdIn(
+                        hits.stream().map(ThesisSearchIndex.Hit::thesisId).toList()).stream()
+                .collect(Collectors.toMap(ThesisWorkflow::getId, Function.identity()));
+        List<ThesisWorkflow> items = hits.stream()
+                .map(hit -> theses.get(hit.thesisId()))
+                .filter(Objects::nonNull)
+                .toList();
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    /**
+     * Other theses whose title is nearly the same as title
+     */
+    public List<SimilarThesisDto> findSimilarTheses(long thesisId, String title) {
+        return searchIndex.similar(title, thesisId, SIMILAR_TITLE_THRESHOLD, MAX_SIMILAR_THESES)
+                .stream()
+                .map(similar -> new SimilarThesisDto(similar.thesisId(), similar.title(), similar.similarity()))
+                .toList();
+    }
+
     /**
      * Find thesis workflow by ID
      */
@@ -56,6 +219,30 @@ public class ThesisWorkflowService {
                 .orElseThrow(() -> new DEIException(ErrorMessage.THESIS_NOT_FOUND, id.toString()));
     }
 
+    /**
+     * Thesis detail view: one query for the thesis with its student and president,
+     * plus one IN query for the jury members
+     */
+    @Transactional(readOnly = true)
+    public ThesisDetailDto getThesisDetail(Long id) {
+        ThesisWorkflow thesis = thesisRepository.findDetailedById(id)
+                .orElseThrow(() -> new DEIException(ErrorMessage.THESIS_NOT_FOUND, id.toString()));
+        return new ThesisDetailDto(thesis, findJuryMembers(thesis));
+    }
+
+    /**
+     * Load the jury members of a thesis in a single query, in jury order (by id)
+     */
+    private List<Person> findJuryMembers(ThesisWorkflow thesis) {
+        List<Long> juryMemberIds = thesis.getJuryMemberIdsList();
+        Map<Long, Person> members = personRepository.findAllById(juryMemberIds).stream()
+                .collect(Collectors.toMap(Person::getId, Function.identity()));
+        return juryMemberIds.stream()
+                .map(members::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Find thesis workflows by status
      */
@@ -64,10 +251,11 @@ public class ThesisWorkflowService {
     }
 
     /**
-     * Submit a new thesis jury proposal (Student action)
+     * Submit a new thesis jury proposal (Student action).
+     * The result lists the existing theses with a near-identical title in similarTheses.
      */
     @Transactional
-    public ThesisWorkflow submitJuryProposal(Long studentId, List<Long> juryMemberIds, String title) {
+    public ThesisWorkflowDto submitJuryProposal(Long studentId, List<Long> juryMemberIds, String title) {
         // Validate input parameters
         if (studentId == null) {
             throw new DEIException(ErrorMessage.VALIDATION_ERROR, "Student ID cannot be null");
@@ -95,6 +283,8 @@ public class ThesisWorkflowService {
         if (student.getType() != Person.PersonType.STUDENT) {
             throw new DEIException(ErrorMessage.INVALID_PERSON_TYPE, "Not a student");
         }
+        Transition<ThesisStatus, ThesisAction> transition =
+            WorkflowStateMachine.THESIS.check(null, ThesisAction.SUBMIT, student.getType());
 
         // Check if student already has a thesis
         if (thesisRepository.findByStudent(student).isPresent()) {
@@ -120,44 +310,38 @@ public class ThesisWorkflowService {
         // Create new thesis workflow
         ThesisWorkflow thesis = new ThesisWorkflow(
             student, 
-            ThesisStatus.PROPOSAL_SUBMITTED, 
+            transition.to(), 
             LocalDateTime.now(), 
             title, 
             juryMemberIds
         );
 
-        return thesisRepository.save(thesis);
+        thesis = thesisRepository.save(thesis);
+        stateMachine.fired(transition, thesis.getId(), studentId,
+                Map.of("title", thesis.getTitle(), "juryMemberIds", thesis.getJuryMemberIdsList()));
+
+        ThesisWorkflowDto dto = toDto(thesis);
+        dto.setSimilarTheses(findSimilarTheses(thesis.getId(), thesis.getTitle()));
+        return dto;
     }
 
     /**
      * Approve by Scientific Committee (SC action)
      */
     @Transactional
-    public ThesisWorkflow approveByScientificCommittee(Long thesisId) {
+    public ThesisWorkflow approveByScientificCommittee(Long thesisId, Person.PersonType role) {
         ThesisWorkflow thesis = findById(thesisId);
-        
-        // Validate current status
-        if (thesis.getStatus() != ThesisStatus.PROPOSAL_SUBMITTED) {
-            throw new DEIException(ErrorMessage.INVALID_WORKFLOW_STATE, 
-                    "Thesis is not in PROPOSAL_SUBMITTED state");
-        }
-        
-        thesis.setStatus(ThesisStatus.APPROVED_BY_SC);
-        return thesisRepository.save(thesis);
+        return apply(thesis, WorkflowStateMachine.THESIS.check(thesis.getStatus(), ThesisAction.APPROVE, role));
     }
 
     /**
      * Coordinator assigns jury president (Coordinator action)
      */
     @Transactional
-    public ThesisWorkflow assignJuryPresident(Long thesisId, Long presidentId) {
+    public ThesisWorkflow assignJuryPresident(Long thesisId, Long presidentId, Person.PersonType role) {
         ThesisWorkflow thesis = findById(thesisId);
-        
-        // Validate current status
-        if (thesis.getStatus() != ThesisStatus.APPROVED_BY_SC) {
-            throw new DEIException(ErrorMessage.INVALID_WORKFLOW_STATE, 
-                    "Thesis is not in APPROVED_BY_SC state");
-        }
+        Transition<ThesisStatus, ThesisAction> transition =
+                WorkflowStateMachine.THESIS.check(thesis.getStatus(), ThesisAction.ASSIGN_PRESIDENT, role);
         
         // Validate president exists
         Person president = personRepository.findById(presidentId)
@@ -171,41 +355,35 @@ public class ThesisWorkflowService {
         }
         
         thesis.setJuryPresident(president);
-        thesis.setStatus(ThesisStatus.JURY_PRESIDENT_ASSIGNED);
-        return thesisRepository.save(thesis);
+        return apply(thesis, transition, Map.of("presidentId", presidentId));
+    }
+
+    /**
+     * Reject an upload of the signed document before the file is stored, if the thesis
+     * is not waiting for it or the role cannot upload it
+     */
+    @Transactional(readOnly = true)
+    public void checkSignedDocumentUpload(Long thesisId, Person.PersonType role) {
+        WorkflowStateMachine.THESIS.check(findById(thesisId).getStatus(), ThesisAction.UPLOAD_DOCUMENT, role);
     }
 
     /**
      * Coordinator uploads signed document (Coordinator action)
      */
     @Transactional
-    public ThesisWorkflow uploadSignedDocument(Long thesisId, String documentPath) {
+    public ThesisWorkflow uploadSignedDocument(Long thesisId, String documentPath, Person.PersonType role) {
         ThesisWorkflow thesis = findById(thesisId);
-        
-        // Validate current status
-        if (thesis.getStatus() != ThesisStatus.JURY_PRESIDENT_ASSIGNED) {
-            throw new DEIException(ErrorMessage.INVALID_WORKFLOW_STATE, 
-                    "Thesis is not in JURY_PRESIDENT_ASSIGNED state");
-        }
+        Transition<ThesisStatus, ThesisAction> transition =
+                WorkflowStateMachine.THESIS.check(thesis.getStatus(), ThesisAction.UPLOAD_DOCUMENT, role);
         
         thesis.setDocumentPath(documentPath);
-        thesis.setStatus(ThesisStatus.DOCUMENT_SIGNED);
-        return thesisRepository.save(thesis);
+        return apply(thesis, transition, Collections.singletonMap("documentPath", documentPath));
     }
 
     @Transactional
-    public ThesisWorkflow submitToFenix(Long thesisId) {
+    public ThesisWorkflow submitToFenix(Long thesisId, Person.PersonType role) {
         ThesisWorkflow thesis = findById(thesisId);
-        
-        // Validate current status
-        if (thesis.getStatus() != ThesisStatus.DOCUMENT_SIGNED) {
-            throw new DEIException(ErrorMessage.INVALID_WORKFLOW_STATE, 
-                    "Thesis is not in DOCUMENT_SIGNED state");
-        }
-        
-        // Update thesis status
-        thesis.setStatus(ThesisStatus.SUBMITTED_TO_FENIX);
-        thesis = thesisRepository.save(thesis);
+        thesis = apply(thesis, WorkflowStateMachine.THESIS.check(thesis.getStatus(), ThesisAction.SUBMIT_TO_FENIX, role));
         
         // Check if defense workflow already exists
         Optional<DefenseWorkflow> existingDefense = defenseRepository.findByThesis(thesis);
@@ -216,11 +394,13 @@ public class ThesisWorkflowService {
             defense.setStudent(thesis.getStudent());
             defense.setThesis(thesis);
             // Explicitly set to null to indicate it's not yet scheduled
-            defense.setStatus(DefenseStatus.UNSCHEDULED);
+            defense.setStatus(DEFENSE_CREATION.to());
             defense.setDefenseDate(null);
             defense.setGrade(null);
             
-            defenseRepository.save(defense);
+            defense = defenseRepository.save(defense);
+            stateMachine.fired(DEFENSE_CREATION, defense.getId(), thesis.getStudent().getId(),
+                    Map.of("thesisId", thesis.getId()));
         }
         
         return thesis;
@@ -231,55 +411,211 @@ public class ThesisWorkflowService {
     @Transactional
     public ThesisWorkflow revertToPreviousState(Long thesisId, Person.PersonType role) {
         ThesisWorkflow thesis = findById(thesisId);
-        
-        // Determine previous state based on current state
-        ThesisStatus currentStatus = thesis.getStatus();
-        ThesisStatus previousStatus;
-        
-        switch (currentStatus) {
-            case SUBMITTED_TO_FENIX:
-                // Only STAFF can revert from SUBMITTED_TO_FENIX
-                if (role != Person.PersonType.STAFF) {
-                    throw new DEIException(ErrorMessage.UNAUTHORIZED, 
-                            "Only staff can revert from SUBMITTED_TO_FENIX status");
-                }
-                previousStatus = ThesisStatus.DOCUMENT_SIGNED;
-                break;
-                
-            case DOCUMENT_SIGNED:
-                // Only COORDINATOR can revert from DOCUMENT_SIGNED
-                if (role != Person.PersonType.COORDINATOR) {
-                    throw new DEIException(ErrorMessage.UNAUTHORIZED, 
-                            "Only coordinators can revert from DOCUMENT_SIGNED status");
+        return apply(thesis, WorkflowStateMachine.THESIS.check(thesis.getStatus(), ThesisAction.REVERT, role));
+    }
+
+    /**
+     * Approve many proposals at once (SC action)
+     */
+    @Transactional
+    public BulkTransitionResultDto bulkApproveByScientificCommittee(List<Long> thesisIds, Person.PersonType role) {
+        BulkTransitions.checkSize(thesisIds);
+        requireRole(ThesisAction.APPROVE, role);
+        Map<Long, ThesisState> states = findTransitionStates(thesisIds);
+        Outcome[] outcomes = new Outcome[thesisIds.size()];
+        List<Integer> valid = validate(thesisIds, states, ThesisAction.APPROVE, role, outcomes);
+
+        int[] counts = updateStatuses(thesisIds, states, valid);
+        completeTransitions(thesisIds, states, valid, counts, outcomes);
+        return BulkTransitionResultDto.of(List.of(outcomes));
+    }
+
+    /**
+     * Assign the jury president of many theses at once (Coordinator action)
+     */
+    @Transactional
+    public BulkTransitionResultDto bulkAssignJuryPresidents(List<JuryPresidentAssignmentDto> assignments,
+                                                            Person.PersonType role) {
+        BulkTransitions.checkSize(assignments);
+        requireRole(ThesisAction.ASSIGN_PRESIDENT, role);
+        List<Long> thesisIds = assignments.stream().map(JuryPresidentAssignmentDto::getThesisId).toList();
+        Map<Long, ThesisState> states = findTransitionStates(thesisIds);
+        Outcome[] outcomes = new Outcome[thesisIds.size()];
+        List<Integer> valid = new ArrayList<>();
+
+        for (Integer index : validate(thesisIds, states, ThesisAction.ASSIGN_PRESIDENT, role, outcomes)) {
+            Long presidentId = assignments.get(index).getPresidentId();
+            // Jury members reference existing people, so membership also proves the president exists
+            if (presidentId == null || !states.get(thesisIds.get(index)).juryMemberIds.contains(presidentId)) {
+                outcomes[index] = Outcome.failed(thesisIds.get(index), ErrorMessage.VALIDATION_ERROR,
+                        "Jury president must be a jury member");
+            } else {
+                states.get(thesisIds.get(index)).payload = Map.of("presidentId", presidentId);
+                valid.add(index);
+            }
+        }
+
+        int[] counts = BulkTransitions.flatten(jdbcTemplate.batchUpdate(UPDATE_PRESIDENT_SQL, valid,
+                BulkTransitions.JDBC_BATCH_SIZE, (ps, index) -> {
+                    Transition<ThesisStatus, ThesisAction> transition = states.get(thesisIds.get(index)).transition;
+                    ps.setString(1, transition.to().getDatabaseValue());
+                    ps.setLong(2, assignments.get(index).getPresidentId());
+                    ps.setLong(3, thesisIds.get(index));
+                    ps.setString(4, transition.from().getDatabaseValue());
+                }));
+
+        completeTransitions(thesisIds, states, valid, counts, outcomes);
+        return BulkTransitionResultDto.of(List.of(outcomes));
+    }
+
+    /**
+     * Submit many theses to Fenix at once, creating their UNSCHEDULED defenses (Staff action)
+     */
+    @Transactional
+    public BulkTransitionResultDto bulkSubmitToFenix(List<Long> thesisIds, Person.PersonType role) {
+        BulkTransitions.checkSize(thesisIds);
+        requireRole(ThesisAction.SUBMIT_TO_FENIX, role);
+        Map<Long, ThesisState> states = findTransitionStates(thesisIds);
+        Outcome[] outcomes = new Outcome[thesisIds.size()];
+        List<Integer> valid = validate(thesisIds, states, ThesisAction.SUBMIT_TO_FENIX, role, outcomes);
+
+        int[] counts = updateStatuses(thesisIds, states, valid);
+        List<Long> submitted = completeTransitions(thesisIds, states, valid, counts, outcomes);
+
+        List<Long> withoutDefense = submitted.stream()
+                .filter(id -> states.get(id).defenseId == null)
+                .toList();
+        if (!withoutDefense.isEmpty()) {
+            String status = new DefenseStatusConverter().convertToDatabaseColumn(DEFENSE_CREATION.to());
+            long[] defenseIds = entityIds.next(DefenseWorkflow.class, withoutDefense.size());
+            jdbcTemplate.batchUpdate(INSERT_DEFENSE_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Long thesisId = withoutDefense.get(i);
+                    ps.setLong(1, defenseIds[i]);
+                    ps.setLong(2, states.get(thesisId).studentId);
+                    ps.setLong(3, thesisId);
+                    ps.setString(4, status);
                 }
-                previousStatus = ThesisStatus.JURY_PRESIDENT_ASSIGNED;
-                break;
-                
-            case JURY_PRESIDENT_ASSIGNED:
-                // Only COORDINATOR can revert from JURY_PRESIDENT_ASSIGNED
-                if (role != Person.PersonType.COORDINATOR) {
-                    throw new DEIException(ErrorMessage.UNAUTHORIZED, 
-                            "Only coordinators can revert from JURY_PRESIDENT_ASSIGNED status");
+
+                @Override
+                public int getBatchSize() {
+                    return withoutDefense.size();
                 }
-                previousStatus = ThesisStatus.APPROVED_BY_SC;
-                break;
-                
-            case APPROVED_BY_SC:
-                // Only SC can revert from APPROVED_BY_SC
-                if (role != Person.PersonType.SC) {
-                    throw new DEIException(ErrorMessage.UNAUTHORIZED, 
-                            "Only scientific committee can revert from APPROVED_BY_SC status");
+            });
+            for (int i = 0; i < withoutDefense.size(); i++) {
+                Long thesisId = withoutDefense.get(i);
+                stateMachine.fired(DEFENSE_CREATION, defenseIds[i], states.get(thesisId).studentId,
+                        Map.of("thesisId", thesisId));
+            }
+        }
+
+        return BulkTransitionResultDto.of(List.of(outcomes));
+    }
+
+    private static void requireRole(ThesisAction action, Person.PersonType role) {
+        if (!WorkflowStateMachine.THESIS.allows(action, role)) {
+            throw new DEIException(ErrorMessage.UNAUTHORIZED, role + " cannot " + action.name());
+        }
+    }
+
+    /**
+     * Load what the bulk transitions validate, for all the theses in a single query
+     */
+    private Map<Long, ThesisState> findTransitionStates(List<Long> thesisIds) {
+        Set<Long> ids = new HashSet<>(thesisIds);
+        ids.remove(null);
+        Map<Long, ThesisState> states = new HashMap<>();
+        if (ids.isEmpty()) {
+            return states;
+        }
+        for (ThesisTransitionRow row : thesisRepository.findTransitionRows(ids)) {
+            ThesisState state = states.computeIfAbsent(row.thesisId(),
+                    id -> new ThesisState(row.studentId(), row.status(), row.defenseId()));
+            if (row.juryMemberId() != null) {
+                state.juryMemberIds.add(row.juryMemberId());
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Look up the transition of every thesis, record a failure for the ones that cannot make it and
+     * return the indexes of the others. An id repeated in the request is only applied once.
+     */
+    private List<Integer> validate(List<Long> thesisIds, Map<Long, ThesisState> states, ThesisAction action,
+                                   Person.PersonType role, Outcome[] outcomes) {
+        List<Integer> valid = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < thesisIds.size(); i++) {
+            Long id = thesisIds.get(i);
+            ThesisState state = states.get(id);
+            if (id == null || state == null) {
+                outcomes[i] = Outcome.failed(id, ErrorMessage.THESIS_NOT_FOUND, String.valueOf(id));
+            } else if (!seen.add(id)) {
+                outcomes[i] = Outcome.failed(id, ErrorMessage.VALIDATION_ERROR, "Duplicate thesis id in request");
+            } else {
+                state.transition = WorkflowStateMachine.THESIS.find(state.status, action, role);
+                if (state.transition == null) {
+                    outcomes[i] = Outcome.failed(id, WorkflowStateMachine.THESIS.rejection(state.status, action),
+                            WorkflowStateMachine.THESIS.reason(state.status, action, role));
+                } else {
+                    valid.add(i);
                 }
-                previousStatus = ThesisStatus.PROPOSAL_SUBMITTED;
-                break;
-                
-            default:
-                throw new DEIException(ErrorMessage.INVALID_WORKFLOW_STATE, 
-                        "Cannot revert from PROPOSAL_SUBMITTED state");
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Apply the status change of the valid theses with batched updates guarded by their current status
+     */
+    private int[] updateStatuses(List<Long> thesisIds, Map<Long, ThesisState> states, List<Integer> valid) {
+        return BulkTransitions.flatten(jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, valid,
+                BulkTransitions.JDBC_BATCH_SIZE, (ps, index) -> {
+                    Transition<ThesisStatus, ThesisAction> transition = states.get(thesisIds.get(index)).transition;
+                    ps.setString(1, transition.to().getDatabaseValue());
+                    ps.setLong(2, thesisIds.get(index));
+                    ps.setString(3, transition.from().getDatabaseValue());
+                }));
+    }
+
+    /**
+     * Turn the batch update counts into outcomes and report the transitions that were applied.
+     * A row that was not updated changed status after it was validated.
+     */
+    private List<Long> completeTransitions(List<Long> thesisIds, Map<Long, ThesisState> states, List<Integer> valid,
+                                           int[] counts, Outcome[] outcomes) {
+        List<Long> applied = new ArrayList<>();
+        for (int i = 0; i < valid.size(); i++) {
+            int index = valid.get(i);
+            Long id = thesisIds.get(index);
+            ThesisState state = states.get(id);
+            if (BulkTransitions.applied(counts[i])) {
+                outcomes[index] = Outcome.succeeded(id, state.transition.to());
+                applied.add(id);
+                stateMachine.fired(state.transition, id, state.studentId, state.payload);
+            } else {
+                outcomes[index] = Outcome.failed(id, ErrorMessage.INVALID_WORKFLOW_STATE,
+                        "Thesis is no longer in " + state.transition.from().name() + " state");
+            }
+        }
+        return applied;
+    }
+
+    private static final class ThesisState {
+        private final Long studentId;
+        private final ThesisStatus status;
+        private final Long defenseId;
+        private final Set<Long> juryMemberIds = new HashSet<>();
+        private Transition<ThesisStatus, ThesisAction> transition;
+        private Map<String, ?> payload = Map.of();
+
+        ThesisState(Long studentId, ThesisStatus status, Long defenseId) {
+            this.studentId = studentId;
+            this.status = status;
+            this.defenseId = defenseId;
         }
-        
-        thesis.setStatus(previousStatus);
-        return thesisRepository.save(thesis);
     }
 
     // Conversion methods
@@ -298,11 +634,8 @@ public class ThesisWorkflowService {
         PersonDto studentDto = thesis.getStudent() != null ? new PersonDto(thesis.getStudent()) : null;
     
         // Convert jury members to DTO list
-        List<PersonDto> juryMembers = thesis.getJuryMemberIdsList().stream()
-            .map(memberId -> personRepository.findById(memberId)
-                .map(PersonDto::new)
-                .orElse(null))
-            .filter(Objects::nonNull)
+        List<PersonDto> juryMembers = findJuryMembers(thesis).stream()
+            .map(PersonDto::new)
             .collect(Collectors.toList());
     
         // Return a new ThesisWorkflowDto instead of modifying an existing one
@@ -316,7 +649,8 @@ public class ThesisWorkflowService {
             thesis.getDocumentPath(),
             thesis.getTitle(),
             studentDto,  // Pass student DTO
-            juryMembers   // Pass jury members list
+            juryMembers,  // Pass jury members list
+            null
         );
     }
     
@@ -325,17 +659,29 @@ public class ThesisWorkflowService {
      * This will delete the thesis, requiring the student to submit a new proposal
      */
     @Transactional
-    public void rejectThesisProposal(Long thesisId, String comments) {
+    public void rejectThesisProposal(Long thesisId, String comments, Person.PersonType role) {
         ThesisWorkflow thesis = findById(thesisId);
-        
-        // Validate current status
-        if (thesis.getStatus() != ThesisStatus.PROPOSAL_SUBMITTED) {
-            throw new DEIException(ErrorMessage.INVALID_WORKFLOW_STATE, 
-                    "Thesis is not in PROPOSAL_SUBMITTED state");
-        }
+        Transition<ThesisStatus, ThesisAction> transition =
+                WorkflowStateMachine.THESIS.check(thesis.getStatus(), ThesisAction.REJECT, role);
         
         // Delete the thesis
         thesisRepository.delete(thesis);
-        
+        stateMachine.fired(transition, thesis.getId(), thesis.getStudent().getId(),
+                Collections.singletonMap("comments", comments));
+    }
+
+    /**
+     * Move a thesis along a transition that was already checked, and report it
+     */
+    private ThesisWorkflow apply(ThesisWorkflow thesis, Transition<ThesisStatus, ThesisAction> transition) {
+        return apply(thesis, transition, Map.of());
+    }
+
+    private ThesisWorkflow apply(ThesisWorkflow thesis, Transition<ThesisStatus, ThesisAction> transition,
+                                 Map<String, ?> payload) {
+        thesis.setStatus(transition.to());
+        thesis = thesisRepository.save(thesis);
+        stateMachine.fired(transition, thesis.getId(), thesis.getStudent().getId(), payload);
+        return thesis;
     }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs a transition again when it lost an optimistic locking race.
+ *
+ * Only for transitions that are safe to repeat: each attempt runs in its own transaction and
+ * checks the current status again, so a transition that another request already applied fails
+ * with the usual workflow error instead of being applied twice. Reverts are not retried.
+ * Must be called outside of a transaction.
+ */
+@Component
+public class TransitionRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransitionRetry.class);
+
+    static final int MAX_ATTEMPTS = 3;
+
+    private final AtomicLong retries = new AtomicLong();
+
+    public <T> T run(Supplier<T> transition) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transition.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                retries.incrementAndGet();
+                logger.debug("Transition lost an optimistic locking race, attempt {}", attempt);
+                backOff(attempt);
+            }
+        }
+    }
+
+    /**
+     * How many attempts were repeated since startup
+     */
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    // A few random milliseconds, so the requests that collided do not collide again
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow;
+
+/**
+ * What can be done to a defense workflow
+ */
+public enum DefenseAction {
+    CREATE,
+    SCHEDULE,
+    START_REVIEW,
+    GRADE,
+    REVERT
+}
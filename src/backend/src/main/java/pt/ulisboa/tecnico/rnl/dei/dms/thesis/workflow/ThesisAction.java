@@ -0,0 +1,14 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow;
+
+/**
+ * What can be done to a thesis workflow
+ */
+public enum ThesisAction {
+    SUBMIT,
+    APPROVE,
+    REJECT,
+    ASSIGN_PRESIDENT,
+    UPLOAD_DOCUMENT,
+    SUBMIT_TO_FENIX,
+    REVERT
+}
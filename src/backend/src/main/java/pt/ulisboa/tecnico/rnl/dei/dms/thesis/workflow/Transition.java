@@ -0,0 +1,19 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow;
+
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent.WorkflowType;
+
+/**
+ * One entry of a transition table. from is null when the action creates the workflow, to is null
+ * when it deletes it and role is null when the application itself acts (e.g. the defense scheduler).
+ * index identifies the transition within its table, for metrics.
+ */
+public record Transition<S extends Enum<S>, A extends Enum<A>>(
+    WorkflowType workflowType,
+    int index,
+    S from,
+    A action,
+    Person.PersonType role,
+    S to
+) {
+}
@@ -0,0 +1,155 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow;
+
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent.WorkflowType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transition rules of one workflow, precomputed into arrays indexed by status, action and role,
+ * so checking a transition is an allocation-free lookup.
+ *
+ * Row 0 holds the actions that create a workflow (no current status), the other rows are the
+ * status ordinals shifted by one. The last role column is the application itself (null role).
+ */
+public final class TransitionTable<S extends Enum<S>, A extends Enum<A>> {
+
+    private static final int ROLES = Person.PersonType.values().length + 1;
+
+    private final WorkflowType workflowType;
+
+    private final Transition<S, A>[][][] transitions;
+
+    // Whether an action is possible from a status, for any role
+    private final boolean[][] possible;
+
+    // Whether a role can perform an action, from any status
+    private final boolean[][] permitted;
+
+    private final List<Transition<S, A>> all;
+
+    private TransitionTable(WorkflowType workflowType, int statuses, int actions, List<Transition<S, A>> all) {
+        this.workflowType = workflowType;
+        this.all = List.copyOf(all);
+
+        // Generic arrays cannot be created; only Transition<S, A> is ever stored in this one
+        @SuppressWarnings("unchecked")
+        Transition<S, A>[][][] table = (Transition<S, A>[][][]) new Transition<?, ?>[statuses + 1][actions][ROLES];
+        this.transitions = table;
+        this.possible = new boolean[statuses + 1][actions];
+        this.permitted = new boolean[actions][ROLES];
+
+        for (Transition<S, A> transition : all) {
+            int row = row(transition.from());
+            int action = transition.action().ordinal();
+            int role = column(transition.role());
+            if (transitions[row][action][role] != null) {
+                throw new IllegalStateException("Duplicate transition " + transition);
+            }
+            transitions[row][action][role] = transition;
+            possible[row][action] = true;
+            permitted[action][role] = true;
+        }
+    }
+
+    public static <S extends Enum<S>, A extends Enum<A>> Builder<S, A> builder(
+            WorkflowType workflowType, Class<S> statusType, Class<A> actionType) {
+        return new Builder<>(workflowType, statusType.getEnumConstants().length,
+                actionType.getEnumConstants().length);
+    }
+
+    /**
+     * The transition a role triggers with an action from a status, or null if it is not allowed
+     */
+    public Transition<S, A> find(S from, A action, Person.PersonType role) {
+        return transitions[row(from)][action.ordinal()][column(role)];
+    }
+
+    /**
+     * Like find, but throws the error the caller should see when the transition is not allowed
+     */
+    public Transition<S, A> check(S from, A action, Person.PersonType role) {
+        Transition<S, A> transition = find(from, action, role);
+        if (transition == null) {
+            throw new DEIException(rejection(from, action), reason(from, action, role));
+        }
+        return transition;
+    }
+
+    /**
+     * Whether the role may perform the action at all, whatever the status
+     */
+    public boolean allows(A action, Person.PersonType role) {
+        return permitted[action.ordinal()][column(role)];
+    }
+
+    /**
+     * The error of a rejected transition: a wrong status wins over a wrong role
+     */
+    public ErrorMessage rejection(S from, A action) {
+        return possible[row(from)][action.ordinal()] ? ErrorMessage.UNAUTHORIZED : ErrorMessage.INVALID_WORKFLOW_STATE;
+    }
+
+    public String reason(S from, A action, Person.PersonType role) {
+        String workflow = workflowType.name().toLowerCase();
+        String state = from != null ? "a " + workflow + " in " + from.name() + " state" : "a new " + workflow;
+        if (possible[row(from)][action.ordinal()]) {
+            return (role != null ? role.name() : "The application") + " cannot " + action.name() + " " + state;
+        }
+        return "Cannot " + action.name() + " " + state;
+    }
+
+    public WorkflowType getWorkflowType() {
+        return workflowType;
+    }
+
+    public List<Transition<S, A>> getTransitions() {
+        return all;
+    }
+
+    private static int row(Enum<?> status) {
+        return status != null ? status.ordinal() + 1 : 0;
+    }
+
+    private static int column(Person.PersonType role) {
+        return role != null ? role.ordinal() : ROLES - 1;
+    }
+
+    public static final class Builder<S extends Enum<S>, A extends Enum<A>> {
+        private final WorkflowType workflowType;
+        private final int statuses;
+        private final int actions;
+        private final List<Transition<S, A>> transitions = new ArrayList<>();
+
+        private Builder(WorkflowType workflowType, int statuses, int actions) {
+            this.workflowType = workflowType;
+            this.statuses = statuses;
+            this.actions = actions;
+        }
+
+        /**
+         * Allow the roles to perform an action from a status
+         */
+        public Builder<S, A> add(S from, A action, S to, Person.PersonType... roles) {
+            for (Person.PersonType role : roles) {
+                transitions.add(new Transition<>(workflowType, transitions.size(), from, action, role, to));
+            }
+            return this;
+        }
+
+        /**
+         * Allow the application itself (no role) to perform an action from a status
+         */
+        public Builder<S, A> addForApplication(S from, A action, S to) {
+            transitions.add(new Transition<>(workflowType, transitions.size(), from, action, null, to));
+            return this;
+        }
+
+        public TransitionTable<S, A> build() {
+            return new TransitionTable<>(workflowType, statuses, actions, transitions);
+        }
+    }
+}
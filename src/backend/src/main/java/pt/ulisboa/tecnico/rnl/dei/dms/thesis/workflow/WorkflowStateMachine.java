@@ -0,0 +1,124 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.service.FenixOutbox;
+import pt.ulisboa.tecnico.rnl.dei.dms.history.service.WorkflowEventLog;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person.PersonType;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent.WorkflowType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The thesis and defense workflow rules, and the single place where applied transitions are reported.
+ *
+ * Services look transitions up in THESIS and DEFENSE before changing a status and call fired() once
+ * the change is made. fired() appends the transition to the event log, queues the Fenix hand-off
+ * of submissions, publishes the WorkflowTransitionEvent and counts the transition.
+ */
+@Component
+public class WorkflowStateMachine {
+
+    public static final TransitionTable<ThesisStatus, ThesisAction> THESIS =
+            TransitionTable.builder(WorkflowType.THESIS, ThesisStatus.class, ThesisAction.class)
+                    .add(null, ThesisAction.SUBMIT, ThesisStatus.PROPOSAL_SUBMITTED, PersonType.STUDENT)
+                    .add(ThesisStatus.PROPOSAL_SUBMITTED, ThesisAction.APPROVE, ThesisStatus.APPROVED_BY_SC, PersonType.SC)
+                    .add(ThesisStatus.PROPOSAL_SUBMITTED, ThesisAction.REJECT, null, PersonType.SC)
+                    .add(ThesisStatus.APPROVED_BY_SC, ThesisAction.ASSIGN_PRESIDENT,
+                            ThesisStatus.JURY_PRESIDENT_ASSIGNED, PersonType.COORDINATOR)
+                    .add(ThesisStatus.JURY_PRESIDENT_ASSIGNED, ThesisAction.UPLOAD_DOCUMENT,
+                            ThesisStatus.DOCUMENT_SIGNED, PersonType.COORDINATOR)
+                    .add(ThesisStatus.DOCUMENT_SIGNED, ThesisAction.SUBMIT_TO_FENIX,
+                            ThesisStatus.SUBMITTED_TO_FENIX, PersonType.STAFF)
+                    .add(ThesisStatus.APPROVED_BY_SC, ThesisAction.REVERT, ThesisStatus.PROPOSAL_SUBMITTED, PersonType.SC)
+                    .add(ThesisStatus.JURY_PRESIDENT_ASSIGNED, ThesisAction.REVERT,
+                            ThesisStatus.APPROVED_BY_SC, PersonType.COORDINATOR)
+                    .add(ThesisStatus.DOCUMENT_SIGNED, ThesisAction.REVERT,
+                            ThesisStatus.JURY_PRESIDENT_ASSIGNED, PersonType.COORDINATOR)
+                    .add(ThesisStatus.SUBMITTED_TO_FENIX, ThesisAction.REVERT, ThesisStatus.DOCUMENT_SIGNED, PersonType.STAFF)
+                    .build();
+
+    public static final TransitionTable<DefenseStatus, DefenseAction> DEFENSE =
+            TransitionTable.builder(WorkflowType.DEFENSE, DefenseStatus.class, DefenseAction.class)
+                    // Created when the thesis is submitted to Fenix
+                    .addForApplication(null, DefenseAction.CREATE, DefenseStatus.UNSCHEDULED)
+                    .add(null, DefenseAction.SCHEDULE, DefenseStatus.DEFENSE_SCHEDULED, PersonType.COORDINATOR)
+                    .add(DefenseStatus.UNSCHEDULED, DefenseAction.SCHEDULE,
+                            DefenseStatus.DEFENSE_SCHEDULED, PersonType.COORDINATOR)
+                    .add(DefenseStatus.DEFENSE_SCHEDULED, DefenseAction.START_REVIEW,
+                            DefenseStatus.UNDER_REVIEW, PersonType.COORDINATOR)
+                    // When the defense date is reached
+                    .addForApplication(DefenseStatus.DEFENSE_SCHEDULED, DefenseAction.START_REVIEW,
+                            DefenseStatus.UNDER_REVIEW)
+                    .add(DefenseStatus.UNDER_REVIEW, DefenseAction.GRADE,
+                            DefenseStatus.SUBMITTED_TO_FENIX, PersonType.COORDINATOR)
+                    .add(DefenseStatus.UNDER_REVIEW, DefenseAction.REVERT,
+                            DefenseStatus.DEFENSE_SCHEDULED, PersonType.COORDINATOR)
+                    .add(DefenseStatus.SUBMITTED_TO_FENIX, DefenseAction.REVERT,
+                            DefenseStatus.UNDER_REVIEW, PersonType.COORDINATOR)
+                    .build();
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private WorkflowEventLog eventLog;
+
+    @Autowired
+    private FenixOutbox fenixOutbox;
+
+    private final AtomicLongArray thesisCounts = new AtomicLongArray(THESIS.getTransitions().size());
+
+    private final AtomicLongArray defenseCounts = new AtomicLongArray(DEFENSE.getTransitions().size());
+
+    public void fired(Transition<?, ?> transition, Long workflowId, Long studentId) {
+        fired(transition, workflowId, studentId, Map.of());
+    }
+
+    /**
+     * Report a transition that was applied to a workflow: logs it with the data it set
+     * (payload), queues it for Fenix if it submits, publishes its event and counts it
+     */
+    public void fired(Transition<?, ?> transition, Long workflowId, Long studentId, Map<String, ?> payload) {
+        eventLog.append(transition, workflowId, studentId, payload);
+        fenixOutbox.onTransition(transition, workflowId, studentId, payload);
+        (transition.workflowType() == WorkflowType.THESIS ? thesisCounts : defenseCounts)
+                .incrementAndGet(transition.index());
+        eventPublisher.publishEvent(new WorkflowTransitionEvent(transition.workflowType(), workflowId, studentId,
+                name(transition.from()), name(transition.to())));
+    }
+
+    /**
+     * Report a transition applied by a bulk import: logged and counted like fired(), but no
+     * WorkflowTransitionEvent is published; the import publishes a single DataImportedEvent instead
+     */
+    public void imported(Transition<?, ?> transition, Long workflowId, Long studentId, Map<String, ?> payload) {
+        eventLog.append(transition, workflowId, studentId, payload);
+        (transition.workflowType() == WorkflowType.THESIS ? thesisCounts : defenseCounts)
+                .incrementAndGet(transition.index());
+    }
+
+    /**
+     * How many times each transition fired since startup
+     */
+    public List<TransitionCount> getTransitionCounts() {
+        List<TransitionCount> counts = new ArrayList<>();
+        THESIS.getTransitions().forEach(t -> counts.add(new TransitionCount(t, thesisCounts.get(t.index()))));
+        DEFENSE.getTransitions().forEach(t -> counts.add(new TransitionCount(t, defenseCounts.get(t.index()))));
+        return counts;
+    }
+
+    public record TransitionCount(Transition<?, ?> transition, long count) {
+    }
+
+    private static String name(Enum<?> status) {
+        return status != null ? status.name() : null;
+    }
+}
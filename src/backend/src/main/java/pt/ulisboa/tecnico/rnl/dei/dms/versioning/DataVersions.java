@@ -0,0 +1,113 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.versioning;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pt.ulisboa.tecnico.rnl.dei.dms.imports.event.DataImportedEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.event.PersonChangedEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-table change counters used to build strong ETags without loading or serializing anything.
+ *
+ * Counters are bumped when a write is published and again after it commits: the first bump
+ * invalidates tags handed out while the transaction was running, the second one invalidates
+ * tags computed from the data that was visible just before the commit.
+ * A random boot id keeps tags from a previous run from matching after a restart.
+ */
+@Component
+public class DataVersions {
+
+    public enum DataTable {
+        PEOPLE, THESIS, DEFENSE
+    }
+
+    private final String bootId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    private final Map<DataTable, AtomicLong> versions = new EnumMap<>(DataTable.class);
+
+    public DataVersions() {
+        for (DataTable table : DataTable.values()) {
+            versions.put(table, new AtomicLong());
+        }
+    }
+
+    public void bump(DataTable table) {
+        versions.get(table).incrementAndGet();
+    }
+
+    /**
+     * Strong ETag for a resource whose content depends on the given tables
+     */
+    public String etag(String resource, DataTable... tables) {
+        StringBuilder etag = new StringBuilder("\"").append(resource).append('-').append(bootId);
+        for (DataTable table : tables) {
+            etag.append('-').append(versions.get(table).get());
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * Whether an If-None-Match header matches the given ETag
+     */
+    public boolean isNotModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || (tag.startsWith("W/") && tag.substring(2).equals(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @EventListener
+    public void onWorkflowTransitionPublished(WorkflowTransitionEvent event) {
+        bump(event);
+    }
+
+    @TransactionalEventListener
+    public void onWorkflowTransitionCommitted(WorkflowTransitionEvent event) {
+        bump(event);
+    }
+
+    @EventListener
+    public void onPersonChangePublished(PersonChangedEvent event) {
+        bump(event);
+    }
+
+    @TransactionalEventListener
+    public void onPersonChangeCommitted(PersonChangedEvent event) {
+        bump(event);
+    }
+
+    @EventListener
+    public void onDataImportPublished(DataImportedEvent event) {
+        bump(event.table());
+    }
+
+    @TransactionalEventListener
+    public void onDataImportCommitted(DataImportedEvent event) {
+        bump(event.table());
+    }
+
+    private void bump(PersonChangedEvent event) {
+        bump(DataTable.PEOPLE);
+        // Deleting a person cascades to their workflows
+        if (event.deleted()) {
+            bump(DataTable.THESIS);
+            bump(DataTable.DEFENSE);
+        }
+    }
+
+    private void bump(WorkflowTransitionEvent event) {
+        bump(event.workflowType() == WorkflowTransitionEvent.WorkflowType.THESIS ? DataTable.THESIS : DataTable.DEFENSE);
+    }
+}
@@ -0,0 +1,7 @@
+-- Replace the single-column status indexes with (status, student_id) so the dashboard
+-- status filter can find and page through matching students using the index alone.
+CREATE INDEX IF NOT EXISTS idx_thesis_status_student ON thesis_workflows(status, student_id);
+CREATE INDEX IF NOT EXISTS idx_defense_status_student ON defense_workflows(status, student_id);
+
+DROP INDEX IF EXISTS idx_thesis_status;
+DROP INDEX IF EXISTS idx_defense_status;
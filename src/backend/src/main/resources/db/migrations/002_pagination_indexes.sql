@@ -0,0 +1,5 @@
+-- Sort keys of the keyset-paginated list endpoints (id breaks ties),
+-- so deep pages are an index range scan like the first one.
+CREATE INDEX IF NOT EXISTS idx_thesis_submission_date ON thesis_workflows(submission_date, id);
+CREATE INDEX IF NOT EXISTS idx_defense_date ON defense_workflows(defense_date, id);
+CREATE INDEX IF NOT EXISTS idx_people_name ON people(name, id);
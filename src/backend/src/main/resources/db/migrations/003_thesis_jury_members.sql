@@ -0,0 +1,19 @@
+-- Move jury membership from the thesis_workflows.jury_member_ids text[] column
+-- to a join table indexed on both sides.
+CREATE TABLE thesis_jury_members (
+    thesis_id BIGINT NOT NULL REFERENCES thesis_workflows(id) ON DELETE CASCADE,
+    person_id BIGINT NOT NULL REFERENCES people(id) ON DELETE CASCADE,
+    PRIMARY KEY (thesis_id, person_id)
+);
+
+CREATE INDEX idx_jury_member_person ON thesis_jury_members(person_id, thesis_id);
+
+-- Ids of people that no longer exist are dropped, as the application already ignored them
+INSERT INTO thesis_jury_members (thesis_id, person_id)
+SELECT DISTINCT t.id, m.member_id::BIGINT
+FROM thesis_workflows t
+CROSS JOIN LATERAL unnest(t.jury_member_ids) AS m(member_id)
+WHERE m.member_id ~ '^[0-9]+$'
+  AND EXISTS (SELECT 1 FROM people p WHERE p.id = m.member_id::BIGINT);
+
+ALTER TABLE thesis_workflows DROP COLUMN jury_member_ids;
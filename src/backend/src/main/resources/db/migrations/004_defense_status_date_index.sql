@@ -0,0 +1,2 @@
+-- Scheduled defenses whose date has been reached, looked up by the defense status scheduler
+CREATE INDEX IF NOT EXISTS idx_defense_status_date ON defense_workflows(status, defense_date);
@@ -0,0 +1,3 @@
+-- Version columns for optimistic locking of thesis and defense transitions
+ALTER TABLE thesis_workflows ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE defense_workflows ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,35 @@
+-- Append-only log of thesis and defense transitions, and the snapshots replays start from
+CREATE TABLE IF NOT EXISTS workflow_events (
+    id BIGSERIAL PRIMARY KEY,
+    workflow_type VARCHAR(20) NOT NULL,
+    workflow_id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    action VARCHAR(50) NOT NULL,
+    actor_role VARCHAR(50),
+    from_status VARCHAR(50),
+    to_status VARCHAR(50),
+    payload VARCHAR(4000) NOT NULL,
+    occurred_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_event_workflow ON workflow_events(workflow_type, workflow_id, id);
+CREATE INDEX IF NOT EXISTS idx_event_student ON workflow_events(student_id, id);
+CREATE INDEX IF NOT EXISTS idx_event_occurred_at ON workflow_events(occurred_at, id);
+
+CREATE TABLE IF NOT EXISTS workflow_snapshots (
+    id BIGSERIAL PRIMARY KEY,
+    as_of TIMESTAMP NOT NULL,
+    taken_at TIMESTAMP NOT NULL,
+    last_event_id BIGINT NOT NULL,
+    entry_count INTEGER NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_snapshot_as_of ON workflow_snapshots(as_of);
+
+CREATE TABLE IF NOT EXISTS workflow_snapshot_entries (
+    snapshot_id BIGINT NOT NULL REFERENCES workflow_snapshots(id) ON DELETE CASCADE,
+    workflow_type VARCHAR(20) NOT NULL,
+    workflow_id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    data VARCHAR(4000) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_snapshot_entry_workflow ON workflow_snapshot_entries(snapshot_id, workflow_type, workflow_id);
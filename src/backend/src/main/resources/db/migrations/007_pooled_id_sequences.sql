@@ -0,0 +1,20 @@
+-- People and workflows take their ids from pooled sequences (each nextval reserves a block of 50 ids)
+-- instead of identity columns, so that inserts can be batched.
+-- Each sequence continues past the current ids; the old column defaults and sequences are dropped.
+CREATE SEQUENCE IF NOT EXISTS people_seq INCREMENT BY 50;
+SELECT setval('people_seq', COALESCE((SELECT MAX(id) FROM people), 0) + 1);
+ALTER TABLE people ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE people ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS people_id_seq;
+
+CREATE SEQUENCE IF NOT EXISTS thesis_workflows_seq INCREMENT BY 50;
+SELECT setval('thesis_workflows_seq', COALESCE((SELECT MAX(id) FROM thesis_workflows), 0) + 1);
+ALTER TABLE thesis_workflows ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE thesis_workflows ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS thesis_workflows_id_seq;
+
+CREATE SEQUENCE IF NOT EXISTS defense_workflows_seq INCREMENT BY 50;
+SELECT setval('defense_workflows_seq', COALESCE((SELECT MAX(id) FROM defense_workflows), 0) + 1);
+ALTER TABLE defense_workflows ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE defense_workflows ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS defense_workflows_id_seq;
@@ -0,0 +1,18 @@
+-- Transactional outbox for the hand-offs to Fenix (theses and defense grades)
+CREATE SEQUENCE IF NOT EXISTS fenix_outbox_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS fenix_outbox (
+    id BIGINT PRIMARY KEY,
+    workflow_type VARCHAR(20) NOT NULL,
+    workflow_id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    payload VARCHAR(4000) NOT NULL,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('PENDING', 'DELIVERED', 'DEAD', 'CANCELLED')),
+    attempts INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    next_attempt_at TIMESTAMP NOT NULL,
+    delivered_at TIMESTAMP,
+    last_error VARCHAR(1000)
+);
+CREATE INDEX IF NOT EXISTS idx_fenix_outbox_due ON fenix_outbox(status, next_attempt_at, id);
+CREATE INDEX IF NOT EXISTS idx_fenix_outbox_workflow ON fenix_outbox(workflow_type, workflow_id);
@@ -0,0 +1,6 @@
+-- Defenses take a room for some time; the defense calendar checks overlaps per teacher and per room
+ALTER TABLE defense_workflows ADD COLUMN IF NOT EXISTS duration_minutes INTEGER CHECK (duration_minutes > 0);
+ALTER TABLE defense_workflows ADD COLUMN IF NOT EXISTS room VARCHAR(50);
+
+-- Defenses scheduled before durations existed take the default
+UPDATE defense_workflows SET duration_minutes = 90 WHERE defense_date IS NOT NULL AND duration_minutes IS NULL;
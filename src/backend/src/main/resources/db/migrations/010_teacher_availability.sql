@@ -0,0 +1,7 @@
+-- Per-day availability of the teachers, as a bitset of half-hour slots from 08:00, for the defense planner
+CREATE TABLE IF NOT EXISTS teacher_availability (
+    teacher_id BIGINT NOT NULL REFERENCES people(id) ON DELETE CASCADE,
+    available_day DATE NOT NULL,
+    slots BIGINT NOT NULL,
+    PRIMARY KEY (teacher_id, available_day)
+);
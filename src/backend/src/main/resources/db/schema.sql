@@ -1,27 +1,42 @@
 -- Drop tables if they exist
+DROP TABLE IF EXISTS fenix_outbox CASCADE;
+DROP TABLE IF EXISTS workflow_snapshot_entries CASCADE;
+DROP TABLE IF EXISTS workflow_snapshots CASCADE;
+DROP TABLE IF EXISTS workflow_events CASCADE;
 DROP TABLE IF EXISTS defense_workflows CASCADE;
+DROP TABLE IF EXISTS thesis_jury_members CASCADE;
 DROP TABLE IF EXISTS thesis_workflows CASCADE;
 DROP TABLE IF EXISTS people CASCADE;
+DROP SEQUENCE IF EXISTS people_seq;
+DROP SEQUENCE IF EXISTS thesis_workflows_seq;
+DROP SEQUENCE IF EXISTS defense_workflows_seq;
+DROP SEQUENCE IF EXISTS fenix_outbox_seq;
+
+-- Ids come from pooled sequences: each nextval reserves a block of 50 ids, so inserts can be batched
+CREATE SEQUENCE people_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE thesis_workflows_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE defense_workflows_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE fenix_outbox_seq START WITH 1 INCREMENT BY 50;
 
 -- Create people table
 CREATE TABLE people (
-    id BIGSERIAL PRIMARY KEY,  
+    id BIGINT PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     ist_id VARCHAR(50) UNIQUE NOT NULL,
     email VARCHAR(255) UNIQUE NOT NULL,
     type VARCHAR(50) NOT NULL CHECK (type IN ('STUDENT', 'TEACHER', 'STAFF', 'COORDINATOR', 'SC'))
 );
 
--- Create thesis workflows table (stores jury members as an array)
+-- Create thesis workflows table
 CREATE TABLE thesis_workflows (
-    id BIGSERIAL PRIMARY KEY,  
+    id BIGINT PRIMARY KEY,
     student_id BIGINT NOT NULL REFERENCES people(id) ON DELETE CASCADE,  
     title VARCHAR(255) NOT NULL,
     status VARCHAR(50) NOT NULL DEFAULT 'Proposta de Júri Submetida',
     submission_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     document_path VARCHAR(255),
     jury_president_id BIGINT REFERENCES people(id) ON DELETE SET NULL,  -- ✅ President is unique for a thesis
-    jury_member_ids TEXT[],  -- ✅ Store jury member IDs directly as an array
+    version BIGINT NOT NULL DEFAULT 0,  -- Optimistic locking
     CONSTRAINT valid_thesis_status CHECK (status IN (
         'Proposta de Júri Submetida', 
         'Aprovado pelo SC', 
@@ -31,14 +46,24 @@ CREATE TABLE thesis_workflows (
     ))
 );
 
+-- Create thesis jury members table (one row per jury member of a thesis)
+CREATE TABLE thesis_jury_members (
+    thesis_id BIGINT NOT NULL REFERENCES thesis_workflows(id) ON DELETE CASCADE,
+    person_id BIGINT NOT NULL REFERENCES people(id) ON DELETE CASCADE,
+    PRIMARY KEY (thesis_id, person_id)
+);
+
 -- Create defense workflows table with status not nullable
 CREATE TABLE defense_workflows (
-    id BIGSERIAL PRIMARY KEY,  
+    id BIGINT PRIMARY KEY,
     thesis_id BIGINT NOT NULL REFERENCES thesis_workflows(id) ON DELETE CASCADE,  
     student_id BIGINT NOT NULL REFERENCES people(id) ON DELETE CASCADE,  
     status VARCHAR(50) NOT NULL DEFAULT 'Por Agendar',  -- Set NOT NULL with default value
     defense_date TIMESTAMP NULL,      -- Allow NULL defense date
+    duration_minutes INTEGER CHECK (duration_minutes > 0),  -- Set with the date
+    room VARCHAR(50),
     grade NUMERIC(4,2) CHECK (grade >= 0 AND grade <= 20),
+    version BIGINT NOT NULL DEFAULT 0,  -- Optimistic locking
     CONSTRAINT valid_defense_status CHECK (status IN (
         'Defesa Agendada', 
         'Em Revisão', 
@@ -47,8 +72,83 @@ CREATE TABLE defense_workflows (
     ))
 );
 
+-- Append-only log of thesis and defense transitions (no foreign keys: it outlives deleted workflows)
+CREATE TABLE workflow_events (
+    id BIGSERIAL PRIMARY KEY,
+    workflow_type VARCHAR(20) NOT NULL,
+    workflow_id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    action VARCHAR(50) NOT NULL,
+    actor_role VARCHAR(50),            -- NULL when the application made the transition
+    from_status VARCHAR(50),           -- NULL when the workflow was created
+    to_status VARCHAR(50),             -- NULL when the workflow was deleted
+    payload VARCHAR(4000) NOT NULL,    -- JSON object with the data the transition set
+    occurred_at TIMESTAMP NOT NULL
+);
+
+-- State of every workflow as of a point in time, where replays start
+CREATE TABLE workflow_snapshots (
+    id BIGSERIAL PRIMARY KEY,
+    as_of TIMESTAMP NOT NULL,
+    taken_at TIMESTAMP NOT NULL,
+    last_event_id BIGINT NOT NULL,
+    entry_count INTEGER NOT NULL
+);
+
+CREATE TABLE workflow_snapshot_entries (
+    snapshot_id BIGINT NOT NULL REFERENCES workflow_snapshots(id) ON DELETE CASCADE,
+    workflow_type VARCHAR(20) NOT NULL,
+    workflow_id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    data VARCHAR(4000) NOT NULL
+);
+
+-- Hand-offs to Fenix, written with the SUBMITTED_TO_FENIX status change and delivered in the background
+CREATE TABLE fenix_outbox (
+    id BIGINT PRIMARY KEY,
+    workflow_type VARCHAR(20) NOT NULL,
+    workflow_id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    payload VARCHAR(4000) NOT NULL,    -- JSON object with the data the transition set
+    status VARCHAR(20) NOT NULL CHECK (status IN ('PENDING', 'DELIVERED', 'DEAD', 'CANCELLED')),
+    attempts INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    next_attempt_at TIMESTAMP NOT NULL,  -- when a PENDING message is due (pushed forward while in flight)
+    delivered_at TIMESTAMP,
+    last_error VARCHAR(1000)
+);
+
+-- Days on which teachers can sit on defense juries (used by the defense planner)
+CREATE TABLE teacher_availability (
+    teacher_id BIGINT NOT NULL REFERENCES people(id) ON DELETE CASCADE,
+    available_day DATE NOT NULL,
+    slots BIGINT NOT NULL,             -- bit i: the half-hour slot starting 30 * i minutes after 08:00
+    PRIMARY KEY (teacher_id, available_day)
+);
+
 -- Create indexes for better performance
-CREATE INDEX idx_thesis_status ON thesis_workflows(status);
+-- (status, student_id) serves both status lookups and the keyset-paginated dashboard filter
+CREATE INDEX idx_thesis_status_student ON thesis_workflows(status, student_id);
 CREATE INDEX idx_thesis_student_id ON thesis_workflows(student_id);
-CREATE INDEX idx_defense_status ON defense_workflows(status);
-CREATE INDEX idx_defense_student_id ON defense_workflows(student_id);
\ No newline at end of file
+CREATE INDEX idx_jury_member_person ON thesis_jury_members(person_id, thesis_id);
+CREATE INDEX idx_defense_status_student ON defense_workflows(status, student_id);
+CREATE INDEX idx_defense_student_id ON defense_workflows(student_id);
+-- Scheduled defenses whose date has been reached (defense status scheduler)
+CREATE INDEX idx_defense_status_date ON defense_workflows(status, defense_date);
+
+-- Sort keys of the keyset-paginated list endpoints (id breaks ties)
+CREATE INDEX idx_thesis_submission_date ON thesis_workflows(submission_date, id);
+CREATE INDEX idx_defense_date ON defense_workflows(defense_date, id);
+CREATE INDEX idx_people_name ON people(name, id);
+
+-- Workflow history: per-workflow and per-student history, replays by time, snapshot lookups
+CREATE INDEX idx_event_workflow ON workflow_events(workflow_type, workflow_id, id);
+CREATE INDEX idx_event_student ON workflow_events(student_id, id);
+CREATE INDEX idx_event_occurred_at ON workflow_events(occurred_at, id);
+CREATE INDEX idx_snapshot_as_of ON workflow_snapshots(as_of);
+CREATE INDEX idx_snapshot_entry_workflow ON workflow_snapshot_entries(snapshot_id, workflow_type, workflow_id);
+
+-- Fenix outbox: due messages in order, messages of a workflow (cancelled on revert)
+CREATE INDEX idx_fenix_outbox_due ON fenix_outbox(status, next_attempt_at, id);
+CREATE INDEX idx_fenix_outbox_workflow ON fenix_outbox(workflow_type, workflow_id);
@@ -0,0 +1,109 @@
+package pt.ulisboa.tecnico.rnl.dei.dms;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * People, theses and defenses for tests, each person with an ist id and email of its own.
+ *
+ * Inside a test transaction they are rolled back with it. Otherwise each one is committed,
+ * and removeAll() deletes them along with the workflows of their students.
+ */
+@Component
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+public class WorkflowFixtures {
+
+    // Shared by all the tests of a run, so people committed by different tests never clash
+    private static final AtomicInteger NEXT_PERSON = new AtomicInteger();
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> personIds = new ArrayList<>();
+
+    public Person person(Person.PersonType type) {
+        int n = NEXT_PERSON.incrementAndGet();
+        Person person = transactionTemplate.execute(status -> {
+            Person created = new Person("Person " + n, "ist1" + (960000 + n), "fixture" + n + "@tecnico.ulisboa.pt", type);
+            entityManager.persist(created);
+            return created;
+        });
+        personIds.add(person.getId());
+        return person;
+    }
+
+    /**
+     * A thesis of a new student
+     */
+    public ThesisWorkflow thesis(ThesisStatus status, List<Long> juryMemberIds) {
+        return thesis(status, null, juryMemberIds);
+    }
+
+    public ThesisWorkflow thesis(ThesisStatus status, Person president, List<Long> juryMemberIds) {
+        Person student = person(Person.PersonType.STUDENT);
+        return transactionTemplate.execute(s -> newThesis(student, status, president, juryMemberIds));
+    }
+
+    /**
+     * A defense of a new student, whose thesis was submitted to Fenix
+     */
+    public DefenseWorkflow defense(DefenseStatus status, LocalDateTime defenseDate, List<Long> juryMemberIds) {
+        return defense(status, defenseDate, null, juryMemberIds);
+    }
+
+    public DefenseWorkflow defense(DefenseStatus status, LocalDateTime defenseDate, Person president,
+                                   List<Long> juryMemberIds) {
+        Person student = person(Person.PersonType.STUDENT);
+        return transactionTemplate.execute(s -> {
+            ThesisWorkflow thesis = newThesis(student, ThesisStatus.SUBMITTED_TO_FENIX, president, juryMemberIds);
+            DefenseWorkflow defense = new DefenseWorkflow(thesis.getStudent(), thesis, status, defenseDate);
+            entityManager.persist(defense);
+            return defense;
+        });
+    }
+
+    /**
+     * Delete the committed people, with the workflows, events and outbox rows of their students
+     */
+    public void removeAll() {
+        for (Long personId : personIds) {
+            jdbcTemplate.update("DELETE FROM fenix_outbox WHERE student_id = ?", personId);
+            jdbcTemplate.update("DELETE FROM workflow_events WHERE student_id = ?", personId);
+            jdbcTemplate.update("DELETE FROM defense_workflows WHERE student_id = ?", personId);
+            jdbcTemplate.update("DELETE FROM thesis_jury_members WHERE thesis_id IN " +
+                    "(SELECT id FROM thesis_workflows WHERE student_id = ?)", personId);
+            jdbcTemplate.update("DELETE FROM thesis_workflows WHERE student_id = ?", personId);
+        }
+        personIds.forEach(personId -> jdbcTemplate.update("DELETE FROM people WHERE id = ?", personId));
+        personIds.clear();
+    }
+
+    private ThesisWorkflow newThesis(Person student, ThesisStatus status, Person president, List<Long> juryMemberIds) {
+        ThesisWorkflow thesis = new ThesisWorkflow(entityManager.merge(student), status, LocalDateTime.now(),
+                "Thesis " + student.getId(), juryMemberIds);
+        thesis.setJuryPresident(president != null ? entityManager.merge(president) : null);
+        entityManager.persist(thesis);
+        return thesis;
+    }
+}
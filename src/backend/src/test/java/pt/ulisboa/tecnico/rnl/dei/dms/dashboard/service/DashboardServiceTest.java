@@ -0,0 +1,169 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.dashboard.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto.DashboardDTO;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto.StudentWorkflowDTO;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.pagination.CursorPage;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class DashboardServiceTest {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private DashboardReadModel dashboardReadModel;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private int nextIstId = 1;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void readModelLoadQueryCountDoesNotGrowWithStudents() {
+        createStudents(3);
+        long fewStudents = countStatements(dashboardReadModel::reload);
+
+        createStudents(30);
+        long manyStudents = countStatements(dashboardReadModel::reload);
+
+        assertEquals(1, fewStudents);
+        assertEquals(fewStudents, manyStudents);
+    }
+
+    @Test
+    void dashboardIsServedWithoutQueries() {
+        createStudents(4);
+        countStatements(dashboardReadModel::reload);
+
+        assertEquals(0, countStatements(() -> dashboardService.getDashboardForRole(Person.PersonType.COORDINATOR)));
+    }
+
+    @Test
+    void dashboardListsEveryStudentWithWorkflowStatus() {
+        createStudents(4);
+        countStatements(dashboardReadModel::reload);
+
+        DashboardDTO dashboard = dashboardService.getDashboardForRole(Person.PersonType.STUDENT);
+        Collection<StudentWorkflowDTO> students = dashboard.getStudents();
+
+        assertEquals(4, students.size());
+        assertEquals(2, students.stream().filter(s -> s.getThesisStatus() != null).count());
+        assertEquals(1, students.stream()
+                .filter(s -> DefenseWorkflow.DefenseStatus.UNSCHEDULED.name().equals(s.getDefenseStatus()))
+                .count());
+        assertEquals(1, dashboardService.filterStudentsByWorkflowStatus("defense", "unscheduled").size());
+        assertThrows(DEIException.class, () -> dashboardService.filterStudentsByWorkflowStatus("thesys", "approved_by_sc"));
+    }
+
+    @Test
+    void filterCombinesStatusesAndPaginates() {
+        createStudents(8);
+        entityManager.flush();
+
+        CursorPage<StudentWorkflowDTO> withThesis = dashboardService.filterStudentsByWorkflowStatus(
+                List.of(ThesisWorkflow.ThesisStatus.SUBMITTED_TO_FENIX, ThesisWorkflow.ThesisStatus.DOCUMENT_SIGNED),
+                null, null, null);
+        assertEquals(4, withThesis.items().size());
+        assertNull(withThesis.nextCursor());
+
+        CursorPage<StudentWorkflowDTO> firstPage = dashboardService.filterStudentsByWorkflowStatus(
+                List.of(ThesisWorkflow.ThesisStatus.SUBMITTED_TO_FENIX), null, null, 3);
+        CursorPage<StudentWorkflowDTO> secondPage = dashboardService.filterStudentsByWorkflowStatus(
+                List.of(ThesisWorkflow.ThesisStatus.SUBMITTED_TO_FENIX), null, firstPage.nextCursor(), 3);
+        assertEquals(withThesis.items().subList(0, 3), firstPage.items());
+        assertEquals(withThesis.items().subList(3, 4), secondPage.items());
+        assertNull(secondPage.nextCursor());
+
+        CursorPage<StudentWorkflowDTO> withBoth = dashboardService.filterStudentsByWorkflowStatus(
+                List.of(ThesisWorkflow.ThesisStatus.SUBMITTED_TO_FENIX),
+                List.of(DefenseWorkflow.DefenseStatus.UNSCHEDULED), null, null);
+        assertEquals(2, withBoth.items().size());
+    }
+
+    @Test
+    void transitionsUpdateActionQueues() {
+        createStudents(1);
+        countStatements(dashboardReadModel::reload);
+        DashboardDTO coordinator = dashboardService.getDashboardForRole(Person.PersonType.COORDINATOR);
+        StudentWorkflowDTO student = coordinator.getStudents().iterator().next();
+
+        dashboardReadModel.onWorkflowTransition(WorkflowTransitionEvent.defense(student.getDefenseId(),
+                student.getStudentId(), DefenseWorkflow.DefenseStatus.UNSCHEDULED,
+                DefenseWorkflow.DefenseStatus.UNDER_REVIEW));
+
+        // The dashboard is updated in place
+        assertSame(coordinator, dashboardService.getDashboardForRole(Person.PersonType.COORDINATOR));
+        assertEquals(List.of(student.getDefenseId()), List.copyOf(coordinator.getDefensesNeedingAction()));
+        assertEquals("UNDER_REVIEW", coordinator.getStudents().iterator().next().getDefenseStatus());
+
+        // The database still has the defense UNSCHEDULED
+        assertFalse(dashboardReadModel.reconcile());
+        assertTrue(dashboardService.getDashboardForRole(Person.PersonType.COORDINATOR)
+                .getDefensesNeedingAction().isEmpty());
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Every other student gets a thesis, every fourth one also gets a defense
+    private void createStudents(int count) {
+        for (int i = 0; i < count; i++) {
+            int n = nextIstId++;
+            Person student = new Person("Student " + n, "ist1" + (900000 + n),
+                    "student" + n + "@tecnico.ulisboa.pt", Person.PersonType.STUDENT);
+            entityManager.persist(student);
+
+            if (i % 2 == 0) {
+                ThesisWorkflow thesis = new ThesisWorkflow(student, ThesisWorkflow.ThesisStatus.SUBMITTED_TO_FENIX,
+                        LocalDateTime.now(), "Thesis " + n, List.of());
+                entityManager.persist(thesis);
+
+                if (i % 4 == 0) {
+                    entityManager.persist(new DefenseWorkflow(student, thesis,
+                            DefenseWorkflow.DefenseStatus.UNSCHEDULED, null));
+                }
+            }
+        }
+    }
+}
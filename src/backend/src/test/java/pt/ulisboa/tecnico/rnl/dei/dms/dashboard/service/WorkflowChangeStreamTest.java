@@ -0,0 +1,134 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.dashboard.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Transitions are fed to the stream directly, for a student id no other test uses
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class WorkflowChangeStreamTest {
+
+    private static final long STUDENT_ID = 990_001L;
+
+    private static final Pattern ID = Pattern.compile("^id:(.+)$", Pattern.MULTILINE);
+
+    @Autowired
+    private WorkflowChangeStream workflowChangeStream;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void resumesFromLastEventIdAndResetsForIdsItCannotResume() throws Exception {
+        MockHttpServletResponse live = open(null);
+        workflowChangeStream.onWorkflowTransition(transition(1L, null, "PROPOSAL_SUBMITTED"));
+        workflowChangeStream.onWorkflowTransition(transition(1L, "PROPOSAL_SUBMITTED", "APPROVED_BY_SC"));
+        workflowChangeStream.onWorkflowTransition(transition(2L, null, "PROPOSAL_SUBMITTED"));
+        List<String> ids = awaitIds(live, 3);
+        String first = ids.get(0);
+        String last = ids.get(2);
+
+        // Resuming after the first event replays the two after it, without a reset
+        String resumed = await(open(first), content -> ID.matcher(content).results().count() == 2);
+        assertFalse(resumed.contains("event:reset"));
+        assertTrue(resumed.contains("\"newStatus\":\"APPROVED_BY_SC\""));
+        assertEquals(List.of(ids.get(1), last), ids(resumed));
+
+        // Up to date: nothing to send
+        workflowChangeStream.onWorkflowTransition(transition(3L, null, "PROPOSAL_SUBMITTED"));
+        MockHttpServletResponse upToDate = open(awaitIds(live, 4).get(3));
+        Thread.sleep(200);
+        assertEquals("", upToDate.getContentAsString());
+
+        // An id of an earlier boot, even a number this boot has already passed, only gets a reset
+        String bootId = last.substring(0, last.lastIndexOf('-'));
+        String otherBoot = await(open("0-1"), content -> content.contains("event:reset"));
+        assertEquals(1, ID.matcher(otherBoot).results().count());
+        assertTrue(await(open("500"), content -> content.contains("event:reset")).contains("event:reset"));
+        assertTrue(await(open(bootId + "-999999"), content -> content.contains("event:reset"))
+                .contains("event:reset"));
+    }
+
+    @Test
+    void subscribingWhileAChangeIsQueuedGetsEachChangeOnceInOrder() throws Exception {
+        MockHttpServletResponse live = open(null);
+        workflowChangeStream.onWorkflowTransition(transition(10L, null, "PROPOSAL_SUBMITTED"));
+        String first = awaitIds(live, 1).get(0);
+
+        // Hold the sender thread, so the next changes are still queued when the client subscribes
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService sender = (ExecutorService) ReflectionTestUtils.getField(workflowChangeStream, "sender");
+        sender.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        workflowChangeStream.onWorkflowTransition(transition(10L, "PROPOSAL_SUBMITTED", "APPROVED_BY_SC"));
+        workflowChangeStream.onWorkflowTransition(transition(11L, null, "PROPOSAL_SUBMITTED"));
+        MockHttpServletResponse resumed = open(first);
+        release.countDown();
+
+        List<String> ids = awaitIds(live, 3);
+        await(resumed, content -> ID.matcher(content).results().count() >= 2);
+        Thread.sleep(200);
+        assertEquals(ids.subList(1, 3), ids(resumed.getContentAsString()));
+    }
+
+    private MockHttpServletResponse open(String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/dashboard/stream")
+                .param("role", "STUDENT")
+                .param("studentId", String.valueOf(STUDENT_ID));
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    private static WorkflowTransitionEvent transition(Long thesisId, String oldStatus, String newStatus) {
+        return new WorkflowTransitionEvent(WorkflowTransitionEvent.WorkflowType.THESIS, thesisId, STUDENT_ID,
+                oldStatus, newStatus);
+    }
+
+    private static List<String> awaitIds(MockHttpServletResponse response, int count) throws Exception {
+        String content = await(response, c -> ID.matcher(c).results().count() >= count);
+        return ids(content);
+    }
+
+    private static List<String> ids(String content) {
+        return ID.matcher(content).results().map(match -> match.group(1)).toList();
+    }
+
+    // Events are written by the stream's sender thread
+    private static String await(MockHttpServletResponse response, Predicate<String> done) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = response.getContentAsString();
+        while (!done.test(content) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = response.getContentAsString();
+        }
+        assertTrue(done.test(content), content);
+        return content;
+    }
+}
@@ -0,0 +1,107 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.documents.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import pt.ulisboa.tecnico.rnl.dei.dms.documents.dto.StoredDocument;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Same storage path as DocumentStoreTest, so both share the application context
+@SpringBootTest(properties = "documents.storage-path=target/test-documents")
+class DocumentDownloadsTest {
+
+    private static final byte[] CONTENT = "%PDF-1.7 signed document".getBytes(StandardCharsets.US_ASCII);
+
+    @Autowired
+    private DocumentStore documentStore;
+
+    @Autowired
+    private DocumentDownloads documentDownloads;
+
+    private StoredDocument document;
+
+    private Path file;
+
+    @BeforeEach
+    void storeDocument() {
+        document = documentStore.store(new ByteArrayInputStream(CONTENT));
+        file = documentStore.find(document.key()).orElseThrow();
+    }
+
+    @Test
+    void servesWholeFileRangesAndConditionalRequests() throws IOException {
+        MockHttpServletResponse full = send(new MockHttpServletRequest("GET", "/"));
+        assertEquals(200, full.getStatus());
+        assertArrayEquals(CONTENT, full.getContentAsByteArray());
+        assertEquals("\"" + document.sha256() + "\"", full.getHeader(HttpHeaders.ETAG));
+        assertEquals("application/pdf", full.getContentType());
+
+        MockHttpServletRequest range = new MockHttpServletRequest("GET", "/");
+        range.addHeader(HttpHeaders.RANGE, "bytes=9-14");
+        MockHttpServletResponse partial = send(range);
+        assertEquals(206, partial.getStatus());
+        assertEquals("signed", partial.getContentAsString());
+        assertEquals("bytes 9-14/" + CONTENT.length, partial.getHeader(HttpHeaders.CONTENT_RANGE));
+
+        MockHttpServletRequest suffix = new MockHttpServletRequest("GET", "/");
+        suffix.addHeader(HttpHeaders.RANGE, "bytes=-8");
+        assertEquals("document", send(suffix).getContentAsString());
+
+        MockHttpServletRequest outside = new MockHttpServletRequest("GET", "/");
+        outside.addHeader(HttpHeaders.RANGE, "bytes=1000-");
+        MockHttpServletResponse unsatisfiable = send(outside);
+        assertEquals(416, unsatisfiable.getStatus());
+        assertEquals("bytes */" + CONTENT.length, unsatisfiable.getHeader(HttpHeaders.CONTENT_RANGE));
+
+        // A stale If-Range gets the whole (new) document instead of a piece of it
+        MockHttpServletRequest stale = new MockHttpServletRequest("GET", "/");
+        stale.addHeader(HttpHeaders.RANGE, "bytes=9-14");
+        stale.addHeader(HttpHeaders.IF_RANGE, "\"another-version\"");
+        assertEquals(200, send(stale).getStatus());
+
+        MockHttpServletRequest cached = new MockHttpServletRequest("GET", "/");
+        cached.addHeader(HttpHeaders.IF_NONE_MATCH, full.getHeader(HttpHeaders.ETAG));
+        MockHttpServletResponse notModified = send(cached);
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+    }
+
+    @Test
+    void handsTheFileToSendfileWhenTheConnectorSupportsIt() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setAttribute(DocumentDownloads.SENDFILE_SUPPORTED, Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=9-");
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(file.toAbsolutePath().toString(), request.getAttribute(DocumentDownloads.SENDFILE_FILENAME));
+        assertEquals(9L, request.getAttribute(DocumentDownloads.SENDFILE_START));
+        assertEquals((long) CONTENT.length, request.getAttribute(DocumentDownloads.SENDFILE_END));
+        assertEquals(CONTENT.length - 9, response.getContentLengthLong());
+
+        MockHttpServletRequest head = new MockHttpServletRequest("HEAD", "/");
+        head.setAttribute(DocumentDownloads.SENDFILE_SUPPORTED, Boolean.TRUE);
+        send(head);
+        assertNull(head.getAttribute(DocumentDownloads.SENDFILE_FILENAME));
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        documentDownloads.send(file, document.sha256(), "thesis-1.pdf", request, response);
+        return response;
+    }
+}
@@ -0,0 +1,130 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.documents.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.FileSystemUtils;
+import pt.ulisboa.tecnico.rnl.dei.dms.documents.dto.StoredDocument;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "documents.storage-path=target/test-documents")
+class DocumentStoreTest {
+
+    private static final long SCANNED_PDF_SIZE = 50L * 1024 * 1024;
+
+    @Autowired
+    private DocumentStore documentStore;
+
+    @BeforeEach
+    void removeObjects() throws IOException {
+        FileSystemUtils.deleteRecursively(Path.of("target/test-documents/objects"));
+    }
+
+    @Test
+    void largeUploadIsStreamedAndDeduplicated() throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        StoredDocument stored = documentStore.store(new FakePdf(SCANNED_PDF_SIZE, 1));
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        assertEquals(SCANNED_PDF_SIZE, stored.size());
+        assertFalse(stored.deduplicated());
+        assertEquals("sha256:" + stored.sha256(), stored.key());
+        Path file = documentStore.find(stored.key()).orElseThrow();
+        assertEquals(SCANNED_PDF_SIZE, Files.size(file));
+        // The 50 MB never go through the heap
+        assertTrue(allocated < 4 * 1024 * 1024, "allocated " + allocated + " bytes");
+
+        StoredDocument again = documentStore.store(new FakePdf(SCANNED_PDF_SIZE, 1));
+        assertTrue(again.deduplicated());
+        assertEquals(stored.key(), again.key());
+
+        StoredDocument other = documentStore.store(new FakePdf(1024, 2));
+        assertNotEquals(stored.key(), other.key());
+        try (var objects = Files.walk(Path.of("target/test-documents/objects"))) {
+            assertEquals(2, objects.filter(Files::isRegularFile).count());
+        }
+        try (var incoming = Files.list(Path.of("target/test-documents/incoming"))) {
+            assertEquals(0, incoming.count());
+        }
+    }
+
+    @Test
+    void uploadedPartIsMovedIntoTheStore() throws IOException {
+        byte[] content = new FakePdf(1024, 3).readAllBytes();
+        StoredDocument stored = documentStore.store(new MockMultipartFile("file", content));
+
+        assertFalse(stored.deduplicated());
+        assertEquals(1024, Files.size(documentStore.find(stored.key()).orElseThrow()));
+        assertEquals(stored.key(), documentStore.store(new ByteArrayInputStream(content)).key());
+        try (var incoming = Files.list(Path.of("target/test-documents/incoming"))) {
+            assertEquals(0, incoming.count());
+        }
+        assertThrows(DEIException.class, () -> documentStore.store(new MockMultipartFile("file", new byte[] {'%'})));
+    }
+
+    @Test
+    void rejectsWhatIsNotAPdf() {
+        DEIException exception = assertThrows(DEIException.class, () -> documentStore.store(
+                new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8))));
+        assertEquals(ErrorMessage.INVALID_DOCUMENT, exception.getErrorMessage());
+        assertTrue(documentStore.find("signed_document.pdf").isEmpty());
+    }
+
+    /**
+     * A PDF header followed by generated bytes, produced without allocating
+     */
+    private static class FakePdf extends InputStream {
+
+        private static final byte[] HEADER = "%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII);
+
+        private final long size;
+
+        private final int seed;
+
+        private long position;
+
+        FakePdf(long size, int seed) {
+            this.size = size;
+            this.seed = seed;
+        }
+
+        @Override
+        public int read() {
+            return position < size ? byteAt(position++) : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position >= size) {
+                return -1;
+            }
+            int n = (int) Math.min(length, size - position);
+            for (int i = 0; i < n; i++) {
+                buffer[offset + i] = (byte) byteAt(position++);
+            }
+            return n;
+        }
+
+        private int byteAt(long index) {
+            return index < HEADER.length ? HEADER[(int) index] : (int) ((index * 31 + seed) & 0xff);
+        }
+    }
+}
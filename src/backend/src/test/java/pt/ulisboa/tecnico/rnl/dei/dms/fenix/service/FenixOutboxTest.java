@@ -0,0 +1,157 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.fenix.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.service.DashboardReadModel;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.client.FenixSubmission;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.client.StubFenixClient;
+import pt.ulisboa.tecnico.rnl.dei.dms.fenix.dto.FenixOutboxMetricsDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.JuryWorkloadIndex;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.ThesisWorkflowService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Submissions commit (the outbox is written on commit), so the data is removed afterwards.
+ * The scheduled dispatcher may run during a test; assertions only rely on what ends up in the table.
+ */
+@SpringBootTest
+class FenixOutboxTest {
+
+    private static final String STATUS_SQL =
+            "SELECT status FROM fenix_outbox WHERE workflow_type = 'THESIS' AND workflow_id = ?";
+
+    @Autowired
+    private ThesisWorkflowService thesisService;
+
+    @Autowired
+    private FenixDispatcher dispatcher;
+
+    @Autowired
+    private FenixOutboxService outboxService;
+
+    @Autowired
+    private StubFenixClient fenixClient;
+
+    @Autowired
+    private DashboardReadModel dashboardReadModel;
+
+    @Autowired
+    private JuryWorkloadIndex juryWorkloadIndex;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long studentId;
+
+    private Long thesisId;
+
+    @BeforeEach
+    void createThesis() {
+        fenixClient.reset();
+        ThesisWorkflow thesis = transactionTemplate.execute(status -> {
+            Person student = new Person("Outbox Student", "ist1950001", "outbox.student@tecnico.ulisboa.pt",
+                    Person.PersonType.STUDENT);
+            entityManager.persist(student);
+            ThesisWorkflow workflow = new ThesisWorkflow(student, ThesisStatus.DOCUMENT_SIGNED, LocalDateTime.now(),
+                    "Outbox thesis", List.of());
+            entityManager.persist(workflow);
+            return workflow;
+        });
+        thesisId = thesis.getId();
+        studentId = thesis.getStudent().getId();
+    }
+
+    @AfterEach
+    void removeData() {
+        fenixClient.reset();
+        jdbcTemplate.update("DELETE FROM fenix_outbox WHERE student_id = ?", studentId);
+        jdbcTemplate.update("DELETE FROM workflow_events WHERE student_id = ?", studentId);
+        jdbcTemplate.update("DELETE FROM defense_workflows WHERE student_id = ?", studentId);
+        jdbcTemplate.update("DELETE FROM thesis_workflows WHERE student_id = ?", studentId);
+        jdbcTemplate.update("DELETE FROM people WHERE id = ?", studentId);
+        dashboardReadModel.reload();
+        juryWorkloadIndex.reload();
+    }
+
+    @Test
+    void submissionIsQueuedAndDelivered() {
+        thesisService.submitToFenix(thesisId, Person.PersonType.STAFF);
+        assertEquals(List.of("PENDING"), jdbcTemplate.queryForList(STATUS_SQL, String.class, thesisId));
+
+        dispatcher.dispatch();
+
+        assertEquals(List.of("DELIVERED"), jdbcTemplate.queryForList(STATUS_SQL, String.class, thesisId));
+        List<FenixSubmission> delivered = fenixClient.getDelivered();
+        assertEquals(1, delivered.size());
+        assertEquals("ist1950001", delivered.get(0).studentIstId());
+        assertTrue(outboxService.getMetrics().getLatencyCount() >= 1);
+
+        // Reverting after delivery leaves the delivered message alone; submitting again queues a new one
+        thesisService.revertToPreviousState(thesisId, Person.PersonType.STAFF);
+        thesisService.submitToFenix(thesisId, Person.PersonType.STAFF);
+        assertEquals(List.of("DELIVERED", "PENDING"), jdbcTemplate.queryForList(STATUS_SQL + " ORDER BY id",
+                String.class, thesisId));
+
+        // A revert cancels what was not delivered yet
+        thesisService.revertToPreviousState(thesisId, Person.PersonType.STAFF);
+        assertEquals(List.of("DELIVERED", "CANCELLED"), jdbcTemplate.queryForList(STATUS_SQL + " ORDER BY id",
+                String.class, thesisId));
+    }
+
+    @Test
+    void refusedSubmissionBacksOffThenDeadLettersAndCanBeRequeued() {
+        fenixClient.setRefused(thesisId, true);
+        thesisService.submitToFenix(thesisId, Person.PersonType.STAFF);
+
+        dispatcher.dispatch();
+        LocalDateTime nextAttempt = jdbcTemplate.queryForObject(
+                "SELECT next_attempt_at FROM fenix_outbox WHERE workflow_id = ?", LocalDateTime.class, thesisId);
+        assertTrue(nextAttempt.isAfter(LocalDateTime.now()));
+
+        // Make the message due again until it runs out of attempts
+        for (int i = 0; i < FenixDispatcher.MAX_ATTEMPTS && "PENDING".equals(status()); i++) {
+            jdbcTemplate.update("UPDATE fenix_outbox SET next_attempt_at = ? WHERE workflow_id = ?",
+                    LocalDateTime.now().minusSeconds(1), thesisId);
+            dispatcher.dispatch();
+        }
+        assertEquals("DEAD", status());
+        assertEquals(FenixDispatcher.MAX_ATTEMPTS, jdbcTemplate.queryForObject(
+                "SELECT attempts FROM fenix_outbox WHERE workflow_id = ?", Integer.class, thesisId));
+
+        FenixOutboxMetricsDto metrics = outboxService.getMetrics();
+        assertTrue(metrics.getDead() >= 1);
+        assertTrue(metrics.getDeadLettered() >= 1);
+        Long messageId = outboxService.getDeadLetters(null).stream()
+                .filter(m -> m.getWorkflowId().equals(thesisId))
+                .findFirst().orElseThrow().getId();
+
+        fenixClient.setRefused(thesisId, false);
+        outboxService.requeue(messageId);
+        dispatcher.dispatch();
+        assertEquals("DELIVERED", status());
+    }
+
+    private String status() {
+        return jdbcTemplate.queryForObject(STATUS_SQL, String.class, thesisId);
+    }
+}
@@ -0,0 +1,170 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.history.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.ulisboa.tecnico.rnl.dei.dms.WorkflowFixtures;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.service.DashboardReadModel;
+import pt.ulisboa.tecnico.rnl.dei.dms.history.domain.WorkflowSnapshot;
+import pt.ulisboa.tecnico.rnl.dei.dms.history.dto.WorkflowStateDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.ThesisWorkflowService;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The transitions commit here (events are written on commit), so the data is removed afterwards
+ */
+@SpringBootTest
+class WorkflowHistoryServiceTest {
+
+    @Autowired
+    private WorkflowHistoryService historyService;
+
+    @Autowired
+    private ThesisWorkflowService thesisService;
+
+    @Autowired
+    private DashboardReadModel dashboardReadModel;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WorkflowFixtures fixtures;
+
+    private final List<Long> snapshotIds = new ArrayList<>();
+
+    @AfterEach
+    void removeData() {
+        for (Long snapshotId : snapshotIds) {
+            jdbcTemplate.update("DELETE FROM workflow_snapshot_entries WHERE snapshot_id = ?", snapshotId);
+            jdbcTemplate.update("DELETE FROM workflow_snapshots WHERE id = ?", snapshotId);
+        }
+        fixtures.removeAll();
+        dashboardReadModel.reload();
+    }
+
+    @Test
+    void replaysThesisToAnyPointInTimeAcrossSnapshots() throws Exception {
+        Person student = fixtures.person(Person.PersonType.STUDENT);
+        Person teacher = fixtures.person(Person.PersonType.TEACHER);
+
+        Long id = thesisService.submitJuryProposal(student.getId(), List.of(teacher.getId()), "History").getId();
+        LocalDateTime submitted = LocalDateTime.now();
+        thesisService.approveByScientificCommittee(id, Person.PersonType.SC);
+        thesisService.assignJuryPresident(id, teacher.getId(), Person.PersonType.COORDINATOR);
+        LocalDateTime presidentAssigned = LocalDateTime.now();
+
+        snapshotIds.add(historyService.takeSnapshot().getId());
+        thesisService.revertToPreviousState(id, Person.PersonType.COORDINATOR);
+
+        WorkflowStateDto atSubmission = historyService.replayThesis(id, submitted).get(0);
+        assertEquals("PROPOSAL_SUBMITTED", atSubmission.getStatus());
+        assertEquals("History", atSubmission.getData().get("title"));
+
+        // Before the snapshot: replayed from the events alone
+        WorkflowStateDto withPresident = historyService.replayThesis(id, presidentAssigned).get(0);
+        assertEquals("JURY_PRESIDENT_ASSIGNED", withPresident.getStatus());
+        assertEquals(teacher.getId(), ((Number) withPresident.getData().get("presidentId")).longValue());
+
+        // After it: the snapshot plus the revert
+        assertEquals("APPROVED_BY_SC", historyService.replayThesis(id, LocalDateTime.now()).get(0).getStatus());
+        assertTrue(historyService.replayAll(LocalDateTime.now()).stream()
+                .anyMatch(s -> s.getWorkflowId().equals(id) && "APPROVED_BY_SC".equals(s.getStatus())));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        historyService.streamThesisHistory(id).writeTo(out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).trim().split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].contains("\"action\":\"SUBMIT\"") && lines[0].contains("\"actorRole\":\"STUDENT\""));
+        assertTrue(lines[3].contains("\"action\":\"REVERT\"") && lines[3].contains("\"toStatus\":\"APPROVED_BY_SC\""));
+    }
+
+    @Test
+    void rejectedThesisKeepsItsHistory() throws Exception {
+        Person student = fixtures.person(Person.PersonType.STUDENT);
+        Person teacher = fixtures.person(Person.PersonType.TEACHER);
+
+        Long id = thesisService.submitJuryProposal(student.getId(), List.of(teacher.getId()), "Rejected").getId();
+        LocalDateTime submitted = LocalDateTime.now();
+        thesisService.rejectThesisProposal(id, "Jury too small", Person.PersonType.SC);
+
+        assertEquals(1, historyService.replayThesis(id, submitted).size());
+        assertTrue(historyService.replayThesis(id, LocalDateTime.now()).isEmpty());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        historyService.streamThesisHistory(id).writeTo(out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).trim().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains("\"comments\":\"Jury too small\""));
+    }
+
+    @Test
+    void snapshotLeavesOutEventsOfTransactionsStillOpen() throws Exception {
+        Person student = fixtures.person(Person.PersonType.STUDENT);
+        Person teacher = fixtures.person(Person.PersonType.TEACHER);
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch snapshotTaken = new CountDownLatch(1);
+        AtomicLong writtenId = new AtomicLong();
+
+        // The event is written before commit, and the commit is held until the snapshot is taken
+        CompletableFuture<Long> open = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            Long id = thesisService.submitJuryProposal(student.getId(), List.of(teacher.getId()), "Slow").getId();
+            // Registered after the event log's buffer, so it runs once the event is written
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    writtenId.set(jdbcTemplate.queryForObject("SELECT MAX(id) FROM workflow_events", Long.class));
+                    written.countDown();
+                    await(snapshotTaken);
+                }
+            });
+            return id;
+        }));
+        assertTrue(written.await(10, TimeUnit.SECONDS));
+        try {
+            WorkflowSnapshot snapshot = historyService.takeSnapshot();
+            snapshotIds.add(snapshot.getId());
+            assertTrue(snapshot.getLastEventId() < writtenId.get());
+        } finally {
+            snapshotTaken.countDown();
+        }
+        Long id = open.get(10, TimeUnit.SECONDS);
+
+        // Committed after the snapshot, yet part of any later replay
+        assertEquals("PROPOSAL_SUBMITTED", historyService.replayThesis(id, LocalDateTime.now()).get(0).getStatus());
+        WorkflowSnapshot next = historyService.takeSnapshot();
+        snapshotIds.add(next.getId());
+        assertTrue(historyService.replayAll(LocalDateTime.now()).stream()
+                .anyMatch(s -> s.getWorkflowId().equals(id) && "PROPOSAL_SUBMITTED".equals(s.getStatus())));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
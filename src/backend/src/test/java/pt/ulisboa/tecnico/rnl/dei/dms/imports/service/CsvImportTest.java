@@ -0,0 +1,127 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.imports.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.service.DashboardReadModel;
+import pt.ulisboa.tecnico.rnl.dei.dms.imports.dto.ImportReportDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.JuryWorkloadIndex;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Imports commit (derived state is reloaded on commit), so the imported rows are removed afterwards
+ */
+@SpringBootTest
+class CsvImportTest {
+
+    private static final String STUDENTS = "SELECT id FROM people WHERE ist_id LIKE 'ist18%'";
+
+    @Autowired
+    private PersonImportService personImportService;
+
+    @Autowired
+    private ThesisImportService thesisImportService;
+
+    @Autowired
+    private DashboardReadModel dashboardReadModel;
+
+    @Autowired
+    private JuryWorkloadIndex juryWorkloadIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void removeData() {
+        jdbcTemplate.update("DELETE FROM workflow_events WHERE student_id IN (" + STUDENTS + ")");
+        jdbcTemplate.update("DELETE FROM thesis_jury_members WHERE thesis_id IN " +
+                "(SELECT id FROM thesis_workflows WHERE student_id IN (" + STUDENTS + "))");
+        jdbcTemplate.update("DELETE FROM thesis_workflows WHERE student_id IN (" + STUDENTS + ")");
+        jdbcTemplate.update("DELETE FROM people WHERE ist_id LIKE 'ist18%'");
+        dashboardReadModel.reload();
+        juryWorkloadIndex.reload();
+    }
+
+    @Test
+    void importsPeopleAndReportsBadLines() {
+        ImportReportDto report = personImportService.importPeople(csv(
+                "type,name,istId,email\r\n" +
+                "student,\"Silva, Ana\",ist1800001,ana@tecnico.ulisboa.pt\r\n" +
+                "TEACHER,Rui,ist1800002,rui@tecnico.ulisboa.pt\r\n" +
+                "\r\n" +
+                "STUDENT,Bad email,ist1800003,bad@example.com\r\n" +
+                "STUDENT,Same id,ist1800001,other@tecnico.ulisboa.pt\r\n" +
+                "ROBOT,Robot,ist1800004,robot@tecnico.ulisboa.pt\r\n"));
+
+        assertEquals(2, report.imported());
+        assertEquals(3, report.failed());
+        assertEquals(List.of(5L, 6L, 7L), report.errors().stream().map(ImportReportDto.LineError::line).toList());
+        assertEquals("Silva, Ana", jdbcTemplate.queryForObject(
+                "SELECT name FROM people WHERE ist_id = 'ist1800001'", String.class));
+
+        // Already in the database now
+        ImportReportDto again = personImportService.importPeople(csv(
+                "name,istId,email,type\nRui,ist1800009,rui@tecnico.ulisboa.pt,TEACHER\n"));
+        assertEquals(0, again.imported());
+        assertEquals(1, again.failed());
+    }
+
+    @Test
+    void importsManyPeopleAndTheirJuryProposals() {
+        int students = 5000;
+        StringBuilder people = new StringBuilder("name,istId,email,type\n");
+        people.append("Teacher,ist1800000,teacher.import@tecnico.ulisboa.pt,TEACHER\n");
+        for (int i = 1; i <= students; i++) {
+            people.append("Student ").append(i).append(",ist18").append(10000 + i)
+                    .append(",student.import").append(i).append("@tecnico.ulisboa.pt,STUDENT\n");
+        }
+        assertEquals(students + 1, personImportService.importPeople(csv(people.toString())).imported());
+
+        StringBuilder proposals = new StringBuilder("studentIstId,title,juryIstIds\n");
+        for (int i = 1; i <= students; i++) {
+            proposals.append("ist18").append(10000 + i).append(",Imported thesis ").append(i).append(",ist1800000\n");
+        }
+        proposals.append("ist1810001,Second thesis,ist1800000\n");
+        proposals.append("ist1800000,Teacher thesis,ist1800000\n");
+        proposals.append("ist1810002,Unknown jury,ist1800000;ist1899999\n");
+
+        ImportReportDto report = thesisImportService.importJuryProposals(csv(proposals.toString()));
+        assertEquals(students, report.imported());
+        assertEquals(3, report.failed());
+
+        Long teacherId = jdbcTemplate.queryForObject("SELECT id FROM people WHERE ist_id = 'ist1800000'", Long.class);
+        assertEquals(students, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM thesis_jury_members WHERE person_id = ?", Integer.class, teacherId));
+        assertEquals(students, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM workflow_events WHERE action = 'SUBMIT' AND student_id IN (" + STUDENTS + ")",
+                Integer.class));
+
+        // Derived state was reloaded when the import committed
+        assertEquals(students, juryWorkloadIndex.getLoad(teacherId));
+        assertTrue(dashboardReadModel.getDashboard(Person.PersonType.SC).getThesesNeedingAction().size() >= students);
+        assertFalse(report.errorsTruncated());
+
+        // Titles already stored are flagged, as on submission
+        personImportService.importPeople(csv("name,istId,email,type\nLate,ist1819999,late.import@tecnico.ulisboa.pt,STUDENT\n"));
+        ImportReportDto late = thesisImportService.importJuryProposals(csv(
+                "studentIstId,title,juryIstIds\nist1819999,Imported thesis 42,ist1800000\n"));
+        assertEquals(1, late.imported());
+        assertEquals(2L, late.similarTitles().get(0).line());
+        assertEquals("Imported thesis 42", late.similarTitles().get(0).similarTheses().get(0).getTitle());
+    }
+
+    private static InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,52 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.person.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import pt.ulisboa.tecnico.rnl.dei.dms.pagination.CursorPage;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.dto.PersonDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.repository.PersonRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@Transactional
+class PersonServiceTest {
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Test
+    void peoplePagesByNameCoverEveryoneOnce() {
+        // Duplicate names make sure ties are broken by id
+        for (int i = 0; i < 7; i++) {
+            personRepository.save(new Person("Teacher " + (i % 3), "ist1" + (800000 + i),
+                    "teacher" + i + "@tecnico.ulisboa.pt", Person.PersonType.TEACHER));
+        }
+
+        List<PersonDto> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<PersonDto> page = personService.getPeoplePage("name", cursor, 3);
+            seen.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        List<PersonDto> expected = personRepository.findAll().stream()
+                .sorted((a, b) -> a.getName().equals(b.getName())
+                        ? a.getId().compareTo(b.getId()) : a.getName().compareTo(b.getName()))
+                .map(PersonDto::new)
+                .toList();
+        assertEquals(expected, seen);
+        assertNull(personService.getPeoplePage("name", null, 200).nextCursor());
+    }
+}
@@ -0,0 +1,124 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import pt.ulisboa.tecnico.rnl.dei.dms.WorkflowFixtures;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.BulkTransitionResultDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.GradeAssignmentDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.JuryPresidentAssignmentDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.DefenseWorkflowRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+class BulkTransitionTest {
+
+    @Autowired
+    private ThesisWorkflowService thesisService;
+
+    @Autowired
+    private DefenseWorkflowService defenseService;
+
+    @Autowired
+    private DefenseWorkflowRepository defenseRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private WorkflowFixtures fixtures;
+
+    @Test
+    void bulkApproveReportsEachId() {
+        ThesisWorkflow first = fixtures.thesis(ThesisStatus.PROPOSAL_SUBMITTED, List.of());
+        ThesisWorkflow second = fixtures.thesis(ThesisStatus.PROPOSAL_SUBMITTED, List.of());
+        ThesisWorkflow approved = fixtures.thesis(ThesisStatus.APPROVED_BY_SC, List.of());
+        entityManager.flush();
+
+        BulkTransitionResultDto result = thesisService.bulkApproveByScientificCommittee(
+                List.of(first.getId(), approved.getId(), -1L, second.getId(), first.getId()), Person.PersonType.SC);
+
+        assertEquals(2, result.succeeded());
+        assertEquals(3, result.failed());
+        List<BulkTransitionResultDto.Outcome> outcomes = result.results();
+        assertTrue(outcomes.get(0).success());
+        assertEquals("APPROVED_BY_SC", outcomes.get(0).status());
+        assertEquals(ErrorMessage.INVALID_WORKFLOW_STATE.getCode(), outcomes.get(1).code());
+        assertEquals(ErrorMessage.THESIS_NOT_FOUND.getCode(), outcomes.get(2).code());
+        assertTrue(outcomes.get(3).success());
+        assertEquals(ErrorMessage.VALIDATION_ERROR.getCode(), outcomes.get(4).code());
+
+        entityManager.clear();
+        assertEquals(ThesisStatus.APPROVED_BY_SC, thesisService.findById(first.getId()).getStatus());
+        assertEquals(ThesisStatus.APPROVED_BY_SC, thesisService.findById(second.getId()).getStatus());
+    }
+
+    @Test
+    void bulkPresidentMustBeJuryMember() {
+        Person teacher = fixtures.person(Person.PersonType.TEACHER);
+        Person other = fixtures.person(Person.PersonType.TEACHER);
+        ThesisWorkflow first = fixtures.thesis(ThesisStatus.APPROVED_BY_SC, List.of(teacher.getId(), other.getId()));
+        ThesisWorkflow second = fixtures.thesis(ThesisStatus.APPROVED_BY_SC, List.of(teacher.getId()));
+        entityManager.flush();
+
+        BulkTransitionResultDto result = thesisService.bulkAssignJuryPresidents(List.of(
+                new JuryPresidentAssignmentDto(first.getId(), other.getId()),
+                new JuryPresidentAssignmentDto(second.getId(), other.getId())), Person.PersonType.COORDINATOR);
+
+        assertTrue(result.results().get(0).success());
+        assertFalse(result.results().get(1).success());
+
+        entityManager.clear();
+        ThesisWorkflow updated = thesisService.findById(first.getId());
+        assertEquals(ThesisStatus.JURY_PRESIDENT_ASSIGNED, updated.getStatus());
+        assertEquals(other.getId(), updated.getJuryPresident().getId());
+    }
+
+    @Test
+    void bulkFenixCreatesDefensesAndBulkGradeSubmitsThem() {
+        List<Long> thesisIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            thesisIds.add(fixtures.thesis(ThesisStatus.DOCUMENT_SIGNED, List.of()).getId());
+        }
+        entityManager.flush();
+
+        assertEquals(3, thesisService.bulkSubmitToFenix(thesisIds, Person.PersonType.STAFF).succeeded());
+
+        entityManager.clear();
+        List<DefenseWorkflow> defenses = defenseRepository.findByThesisIdIn(thesisIds);
+        assertEquals(3, defenses.size());
+        assertTrue(defenses.stream().allMatch(d -> d.getStatus() == DefenseStatus.UNSCHEDULED));
+
+        DefenseWorkflow underReview = defenses.get(0);
+        underReview.setStatus(DefenseStatus.UNDER_REVIEW);
+        entityManager.flush();
+
+        BulkTransitionResultDto result = defenseService.bulkAssignGradesAndSubmit(List.of(
+                new GradeAssignmentDto(underReview.getId(), new BigDecimal("17.5")),
+                new GradeAssignmentDto(defenses.get(1).getId(), new BigDecimal("15"))), Person.PersonType.COORDINATOR);
+
+        assertEquals(1, result.succeeded());
+        assertEquals(ErrorMessage.INVALID_WORKFLOW_STATE.getCode(), result.results().get(1).code());
+
+        entityManager.clear();
+        DefenseWorkflow graded = defenseService.findById(underReview.getId());
+        assertEquals(DefenseStatus.SUBMITTED_TO_FENIX, graded.getStatus());
+        assertEquals(0, new BigDecimal("17.5").compareTo(graded.getGrade()));
+    }
+}
@@ -0,0 +1,93 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import pt.ulisboa.tecnico.rnl.dei.dms.WorkflowFixtures;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.BulkTransitionResultDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseScheduleDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reservations made here are dropped from the calendar when the test transaction rolls back
+ */
+@SpringBootTest
+@Transactional
+class DefenseCalendarTest {
+
+    @Autowired
+    private DefenseWorkflowService defenseService;
+
+    @Autowired
+    private DefenseCalendar defenseCalendar;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private WorkflowFixtures fixtures;
+
+    @Test
+    void rejectsOverlappingDefensesOfTheSameTeacherOrRoom() {
+        Person first = fixtures.person(Person.PersonType.TEACHER);
+        Person second = fixtures.person(Person.PersonType.TEACHER);
+        DefenseWorkflow morning = fixtures.defense(DefenseStatus.UNSCHEDULED, null, List.of(first.getId()));
+        DefenseWorkflow shared = fixtures.defense(DefenseStatus.UNSCHEDULED, null, List.of(first.getId(), second.getId()));
+        DefenseWorkflow secondOnly = fixtures.defense(DefenseStatus.UNSCHEDULED, null, List.of(second.getId()));
+        DefenseWorkflow noJury = fixtures.defense(DefenseStatus.UNSCHEDULED, null, List.of());
+        entityManager.flush();
+        LocalDateTime ten = LocalDateTime.now().plusDays(10).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+        DefenseWorkflow scheduled = defenseService.updateDefenseSchedule(morning.getId(), ten, 60, "0.19",
+                Person.PersonType.COORDINATOR);
+        assertEquals(DefenseStatus.DEFENSE_SCHEDULED, scheduled.getStatus());
+        assertEquals(60, scheduled.getDurationMinutes());
+        assertTrue(defenseCalendar.isBooked(morning.getId()));
+
+        DEIException conflict = assertThrows(DEIException.class, () -> defenseService.updateDefenseSchedule(
+                shared.getId(), ten.plusMinutes(30), null, null, Person.PersonType.COORDINATOR));
+        assertEquals(ErrorMessage.DEFENSE_SCHEDULE_CONFLICT, conflict.getErrorMessage());
+
+        BulkTransitionResultDto result = defenseService.bulkScheduleDefenses(List.of(
+                // Starts when the first teacher's morning defense ends
+                new DefenseScheduleDto(shared.getId(), ten.plusMinutes(60), null, null),
+                // Overlaps the defense above, earlier in the same batch
+                new DefenseScheduleDto(secondOnly.getId(), ten.plusMinutes(120), 30, null),
+                // Same room, written differently
+                new DefenseScheduleDto(noJury.getId(), ten.plusMinutes(15), 30, " 0.19 "),
+                new DefenseScheduleDto(noJury.getId(), ten.minusDays(30), null, null)), Person.PersonType.COORDINATOR);
+
+        List<BulkTransitionResultDto.Outcome> outcomes = result.results();
+        assertTrue(outcomes.get(0).success());
+        assertEquals(ErrorMessage.DEFENSE_SCHEDULE_CONFLICT.getCode(), outcomes.get(1).code());
+        assertEquals(ErrorMessage.DEFENSE_SCHEDULE_CONFLICT.getCode(), outcomes.get(2).code());
+        assertEquals(ErrorMessage.VALIDATION_ERROR.getCode(), outcomes.get(3).code());
+        assertTrue(defenseCalendar.isBooked(shared.getId()));
+        assertFalse(defenseCalendar.isBooked(secondOnly.getId()));
+
+        // Free again once the defense before it ends
+        assertTrue(defenseService.bulkScheduleDefenses(List.of(
+                new DefenseScheduleDto(secondOnly.getId(), ten.plusMinutes(150), 30, "0.19")),
+                Person.PersonType.COORDINATOR).results().get(0).success());
+
+        entityManager.clear();
+        DefenseWorkflow stored = defenseService.findById(secondOnly.getId());
+        assertEquals(DefenseStatus.DEFENSE_SCHEDULED, stored.getStatus());
+        assertEquals(ten.plusMinutes(150), stored.getDefenseDate());
+        assertEquals("0.19", stored.getRoom());
+    }
+}
@@ -0,0 +1,121 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import pt.ulisboa.tecnico.rnl.dei.dms.WorkflowFixtures;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.BulkTransitionResultDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefensePlanDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefensePlanRequestDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.DefenseScheduleDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.TeacherAvailabilityDto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+class DefensePlannerTest {
+
+    @Autowired
+    private DefensePlanner defensePlanner;
+
+    @Autowired
+    private TeacherAvailabilityService availabilityService;
+
+    @Autowired
+    private DefenseWorkflowService defenseService;
+
+    @Autowired
+    private DefenseCalendar defenseCalendar;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private WorkflowFixtures fixtures;
+
+    @Test
+    void plansWithinAvailabilityWithoutOverlapsAndSpreadsTheLoad() {
+        Person busy = fixtures.person(Person.PersonType.TEACHER);
+        Person second = fixtures.person(Person.PersonType.TEACHER);
+        Person third = fixtures.person(Person.PersonType.TEACHER);
+        Person spread = fixtures.person(Person.PersonType.TEACHER);
+        List<DefenseWorkflow> defenses = List.of(
+                fixtures.defense(DefenseStatus.UNSCHEDULED, null, List.of(busy.getId(), second.getId())),
+                fixtures.defense(DefenseStatus.UNSCHEDULED, null, List.of(busy.getId())),
+                fixtures.defense(DefenseStatus.UNSCHEDULED, null, List.of(busy.getId(), third.getId())),
+                fixtures.defense(DefenseStatus.UNSCHEDULED, null, List.of(second.getId(), third.getId())),
+                fixtures.defense(DefenseStatus.UNSCHEDULED, null, List.of(spread.getId())),
+                fixtures.defense(DefenseStatus.UNSCHEDULED, null, List.of(spread.getId())));
+        Set<Long> ids = defenses.stream().map(DefenseWorkflow::getId).collect(Collectors.toSet());
+
+        LocalDate monday = LocalDate.now().plusDays(1).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        LocalDate tuesday = monday.plusDays(1);
+        // Two 90 minute defenses fit in each of these
+        availabilityService.setAvailability(busy.getId(), List.of(
+                new TeacherAvailabilityDto(monday, slots(LocalTime.of(9, 0), 6)),
+                new TeacherAvailabilityDto(tuesday, slots(LocalTime.of(14, 0), 6))), Person.PersonType.TEACHER);
+        entityManager.flush();
+
+        DefensePlanDto plan = defensePlanner.plan(new DefensePlanRequestDto(monday, tuesday, List.of("0.19", " 0.19 "),
+                90, 300L), Person.PersonType.COORDINATOR);
+
+        List<DefenseScheduleDto> ours = plan.getAssignments().stream()
+                .filter(assignment -> ids.contains(assignment.getDefenseId()))
+                .toList();
+        assertEquals(defenses.size(), ours.size());
+        assertTrue(plan.getPlansExplored() > 0);
+        for (int i = 0; i < ours.size(); i++) {
+            DefenseScheduleDto a = ours.get(i);
+            assertEquals("0.19", a.getRoom());
+            assertEquals(90, a.getDurationMinutes());
+            // One room: no two defenses overlap
+            for (int j = i + 1; j < ours.size(); j++) {
+                DefenseScheduleDto b = ours.get(j);
+                assertFalse(a.getDefenseDate().isBefore(b.getDefenseDate().plusMinutes(90))
+                        && b.getDefenseDate().isBefore(a.getDefenseDate().plusMinutes(90)), a + " overlaps " + b);
+            }
+        }
+        Map<Long, DefenseScheduleDto> byDefense = new HashMap<>();
+        ours.forEach(assignment -> byDefense.put(assignment.getDefenseId(), assignment));
+        for (DefenseWorkflow defense : defenses.subList(0, 3)) {
+            LocalDateTime start = byDefense.get(defense.getId()).getDefenseDate();
+            LocalTime from = start.toLocalDate().equals(monday) ? LocalTime.of(9, 0) : LocalTime.of(14, 0);
+            assertFalse(start.toLocalTime().isBefore(from) || start.toLocalTime().plusMinutes(90).isAfter(from.plusHours(3)),
+                    "outside availability: " + start);
+        }
+        // The two defenses of the same teacher go to different days
+        assertFalse(byDefense.get(defenses.get(4).getId()).getDefenseDate().toLocalDate()
+                .equals(byDefense.get(defenses.get(5).getId()).getDefenseDate().toLocalDate()));
+
+        // Committing the preview schedules all of them
+        BulkTransitionResultDto result = defenseService.bulkScheduleDefenses(ours, Person.PersonType.COORDINATOR);
+        assertTrue(result.results().stream().allMatch(BulkTransitionResultDto.Outcome::success));
+        ids.forEach(id -> assertTrue(defenseCalendar.isBooked(id)));
+        entityManager.clear();
+        assertEquals(DefenseStatus.DEFENSE_SCHEDULED, defenseService.findById(defenses.get(0).getId()).getStatus());
+    }
+
+    private static List<LocalTime> slots(LocalTime from, int count) {
+        return IntStream.range(0, count).mapToObj(i -> from.plusMinutes(30L * i)).toList();
+    }
+}
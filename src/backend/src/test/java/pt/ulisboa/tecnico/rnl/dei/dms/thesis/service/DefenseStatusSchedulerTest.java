@@ -0,0 +1,89 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.DefenseScheduledEvent;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.event.WorkflowTransitionEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest
+@Transactional
+class DefenseStatusSchedulerTest {
+
+    @Autowired
+    private DefenseWorkflowService defenseService;
+
+    @Autowired
+    private DefenseStatusScheduler scheduler;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private int nextIstId = 1;
+
+    @Test
+    void updateMovesOnlyDueScheduledDefenses() {
+        LocalDateTime now = LocalDateTime.now();
+        DefenseWorkflow overdue = createDefense(DefenseStatus.DEFENSE_SCHEDULED, now.minusHours(2));
+        DefenseWorkflow justDue = createDefense(DefenseStatus.DEFENSE_SCHEDULED, now.minusSeconds(1));
+        DefenseWorkflow upcoming = createDefense(DefenseStatus.DEFENSE_SCHEDULED, now.plusDays(1));
+        DefenseWorkflow reviewed = createDefense(DefenseStatus.UNDER_REVIEW, now.minusDays(1));
+        entityManager.flush();
+
+        assertEquals(2, defenseService.updateDefenseStatuses());
+
+        assertEquals(DefenseStatus.UNDER_REVIEW, defenseService.findById(overdue.getId()).getStatus());
+        assertEquals(DefenseStatus.UNDER_REVIEW, defenseService.findById(justDue.getId()).getStatus());
+        assertEquals(DefenseStatus.DEFENSE_SCHEDULED, defenseService.findById(upcoming.getId()).getStatus());
+        assertEquals(DefenseStatus.UNDER_REVIEW, defenseService.findById(reviewed.getId()).getStatus());
+        assertEquals(0, defenseService.updateDefenseStatuses());
+    }
+
+    @Test
+    void timerFollowsTheEarliestScheduledDefense() {
+        // Far in the future so the timer never fires during the test
+        LocalDateTime later = LocalDateTime.now().plusYears(50);
+        LocalDateTime sooner = later.minusDays(1);
+        int queued = scheduler.getQueuedDefenseCount();
+
+        scheduler.onDefenseScheduled(new DefenseScheduledEvent(-1L, later));
+        scheduler.onDefenseScheduled(new DefenseScheduledEvent(-2L, sooner));
+        assertEquals(queued + 2, scheduler.getQueuedDefenseCount());
+        assertFalse(scheduler.getNextTick().isAfter(sooner));
+
+        // Rescheduling replaces the previous date
+        scheduler.onDefenseScheduled(new DefenseScheduledEvent(-2L, later));
+        assertEquals(queued + 2, scheduler.getQueuedDefenseCount());
+
+        for (Long id : List.of(-1L, -2L)) {
+            scheduler.onWorkflowTransition(WorkflowTransitionEvent.defense(id, -1L,
+                    DefenseStatus.DEFENSE_SCHEDULED, DefenseStatus.UNDER_REVIEW));
+        }
+        assertEquals(queued, scheduler.getQueuedDefenseCount());
+    }
+
+    private DefenseWorkflow createDefense(DefenseStatus status, LocalDateTime defenseDate) {
+        int n = nextIstId++;
+        Person student = new Person("Student " + n, "ist1" + (600000 + n),
+                "defense" + n + "@tecnico.ulisboa.pt", Person.PersonType.STUDENT);
+        entityManager.persist(student);
+        ThesisWorkflow thesis = new ThesisWorkflow(student, ThesisWorkflow.ThesisStatus.SUBMITTED_TO_FENIX,
+                LocalDateTime.now(), "Thesis " + n, List.of());
+        entityManager.persist(thesis);
+        DefenseWorkflow defense = new DefenseWorkflow(student, thesis, status, defenseDate);
+        entityManager.persist(defense);
+        return defense;
+    }
+}
@@ -0,0 +1,113 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import pt.ulisboa.tecnico.rnl.dei.dms.WorkflowFixtures;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.service.DashboardReadModel;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.GradeStatisticsDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.service.GradeStatistics.Breakdown;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The statistics follow committed grades, so the data here is committed and removed afterwards.
+ * Defenses are dated in a period no other test uses.
+ */
+@SpringBootTest
+class GradeStatisticsTest {
+
+    private static final String PERIOD = "2001/2002-1";
+
+    @Autowired
+    private GradeStatistics gradeStatistics;
+
+    @Autowired
+    private DefenseWorkflowService defenseService;
+
+    @Autowired
+    private DashboardReadModel dashboardReadModel;
+
+    @Autowired
+    private JuryWorkloadIndex juryWorkloadIndex;
+
+    @Autowired
+    private DefenseCalendar defenseCalendar;
+
+    @Autowired
+    private WorkflowFixtures fixtures;
+
+    @AfterEach
+    void removeData() {
+        fixtures.removeAll();
+        dashboardReadModel.reload();
+        juryWorkloadIndex.reload();
+        defenseCalendar.reload();
+        gradeStatistics.reload();
+    }
+
+    @Test
+    void followsGradesAndRevertsPerPeriodPresidentAndTeacher() {
+        Person president = fixtures.person(Person.PersonType.TEACHER);
+        Person member = fixtures.person(Person.PersonType.TEACHER);
+        long first = gradedDefense(president, List.of(member.getId()));
+        long second = gradedDefense(president, List.of());
+        long third = gradedDefense(null, List.of(member.getId()));
+
+        defenseService.assignGradeAndSubmit(first, new BigDecimal("12.00"), Person.PersonType.COORDINATOR);
+        defenseService.assignGradeAndSubmit(second, new BigDecimal("15.50"), Person.PersonType.COORDINATOR);
+        defenseService.assignGradeAndSubmit(third, new BigDecimal("17.25"), Person.PersonType.COORDINATOR);
+
+        GradeStatisticsDto overall = only(gradeStatistics.find(PERIOD, Breakdown.OVERALL, null));
+        assertEquals(3, overall.getCount());
+        assertEquals((12 + 15.5 + 17.25) / 3, overall.getMean(), 1e-9);
+        double mean = overall.getMean();
+        double variance = (Math.pow(12 - mean, 2) + Math.pow(15.5 - mean, 2) + Math.pow(17.25 - mean, 2)) / 3;
+        assertEquals(variance, overall.getVariance(), 1e-9);
+        assertEquals(41, overall.getHistogram().length);
+        assertEquals(1, overall.getHistogram()[24]);
+        assertEquals(1, overall.getHistogram()[31]);
+        assertEquals(1, overall.getHistogram()[34]);
+        assertEquals(new BigDecimal("12.00"), overall.getPercentiles().get("p10"));
+        assertEquals(new BigDecimal("15.50"), overall.getPercentiles().get("p50"));
+        assertEquals(new BigDecimal("17.25"), overall.getPercentiles().get("p90"));
+
+        // The president also counts as a teacher of their defenses
+        assertEquals(2, only(gradeStatistics.find(PERIOD, Breakdown.PRESIDENT, president.getId())).getCount());
+        assertEquals(2, only(gradeStatistics.find(PERIOD, Breakdown.TEACHER, president.getId())).getCount());
+        GradeStatisticsDto memberStats = only(gradeStatistics.find(PERIOD, Breakdown.TEACHER, member.getId()));
+        assertEquals(2, memberStats.getCount());
+        assertEquals((12 + 17.25) / 2, memberStats.getMean(), 1e-9);
+        assertEquals(List.of(president.getId(), member.getId()), gradeStatistics.find(PERIOD, Breakdown.TEACHER, null)
+                .stream().map(GradeStatisticsDto::getPersonId).toList());
+
+        // A reverted grade is taken out, and the statistics agree with a full reload
+        defenseService.revertToPreviousState(first, Person.PersonType.COORDINATOR);
+        overall = only(gradeStatistics.find(PERIOD, Breakdown.OVERALL, null));
+        assertEquals(2, overall.getCount());
+        assertEquals(0, overall.getHistogram()[24]);
+        assertEquals(1, only(gradeStatistics.find(PERIOD, Breakdown.PRESIDENT, president.getId())).getCount());
+        gradeStatistics.reload();
+        assertEquals(overall, only(gradeStatistics.find(PERIOD, Breakdown.OVERALL, null)));
+
+        assertTrue(gradeStatistics.find("2002/2003-2", Breakdown.OVERALL, null).isEmpty());
+    }
+
+    private static GradeStatisticsDto only(List<GradeStatisticsDto> statistics) {
+        assertEquals(1, statistics.size());
+        return statistics.get(0);
+    }
+
+    private long gradedDefense(Person president, List<Long> juryMemberIds) {
+        return fixtures.defense(DefenseStatus.UNDER_REVIEW, LocalDateTime.of(2001, 10, 15, 14, 0), president,
+                juryMemberIds).getId();
+    }
+}
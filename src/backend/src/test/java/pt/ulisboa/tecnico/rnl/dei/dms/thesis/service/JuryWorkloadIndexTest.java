@@ -0,0 +1,104 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.dto.TeacherDashboardDTO;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.service.DashboardReadModel;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.service.DashboardService;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.dto.PersonDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.service.PersonService;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.JurySuggestionDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * The index follows committed changes, so the data here is committed and removed afterwards
+ */
+@SpringBootTest
+class JuryWorkloadIndexTest {
+
+    @Autowired
+    private JuryWorkloadIndex juryWorkloadIndex;
+
+    @Autowired
+    private ThesisWorkflowService thesisService;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private DashboardReadModel dashboardReadModel;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> personIds = new ArrayList<>();
+
+    @AfterEach
+    void removeData() {
+        for (Long personId : personIds) {
+            jdbcTemplate.update("DELETE FROM workflow_events WHERE student_id = ?", personId);
+            jdbcTemplate.update("DELETE FROM thesis_jury_members WHERE thesis_id IN " +
+                    "(SELECT id FROM thesis_workflows WHERE student_id = ?)", personId);
+            jdbcTemplate.update("DELETE FROM thesis_workflows WHERE student_id = ?", personId);
+        }
+        personIds.forEach(personService::deletePerson);
+        dashboardReadModel.reload();
+    }
+
+    @Test
+    void suggestsLeastLoadedTeachersAndFollowsJuryChanges() {
+        long busy = createPerson("TEACHER");
+        long someWork = createPerson("TEACHER");
+        long free = createPerson("TEACHER");
+        long first = createPerson("STUDENT");
+        long second = createPerson("STUDENT");
+
+        Long firstThesis = thesisService.submitJuryProposal(first, List.of(busy, someWork), "Workload one").getId();
+        Long secondThesis = thesisService.submitJuryProposal(second, List.of(busy), "Workload two").getId();
+
+        assertEquals(List.of(free, someWork, busy), ours(juryWorkloadIndex.suggest(50, new long[0])));
+        assertEquals(List.of(someWork, busy), ours(juryWorkloadIndex.suggest(50, new long[] {free})));
+
+        TeacherDashboardDTO dashboard = dashboardService.getTeacherDashboard(busy);
+        assertEquals(2, dashboard.getActiveJuries());
+        assertEquals(List.of(firstThesis, secondThesis), dashboard.getTheses().stream().map(t -> t.getId()).toList());
+
+        // A rejected proposal no longer counts, and the index agrees with a full reload
+        thesisService.rejectThesisProposal(secondThesis, null, Person.PersonType.SC);
+        assertEquals(1, juryWorkloadIndex.getLoad(busy));
+        assertArrayEquals(new long[] {firstThesis}, juryWorkloadIndex.getActiveTheses(busy));
+        juryWorkloadIndex.reload();
+        assertEquals(1, juryWorkloadIndex.getLoad(busy));
+        assertEquals(free, ours(juryWorkloadIndex.suggest(50, new long[0])).get(0));
+
+        // A deleted teacher is not suggested anymore
+        personService.deletePerson(free);
+        assertFalse(ours(juryWorkloadIndex.suggest(50, new long[0])).contains(free));
+        personIds.remove(Long.valueOf(free));
+    }
+
+    private List<Long> ours(List<JurySuggestionDto> suggestions) {
+        return suggestions.stream().map(JurySuggestionDto::getTeacherId).filter(personIds::contains).toList();
+    }
+
+    private long createPerson(String type) {
+        int n = personIds.size() + 1;
+        PersonDto person = personService.createPerson(new PersonDto(0, "Workload " + n, "ist1" + (700000 + n),
+                "workload" + n + "@tecnico.ulisboa.pt", type));
+        personIds.add(person.id());
+        return person.id();
+    }
+}
@@ -0,0 +1,192 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.service.DashboardReadModel;
+import pt.ulisboa.tecnico.rnl.dei.dms.pagination.CursorPage;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.dto.PersonDto;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.service.PersonService;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.dto.ThesisWorkflowDto;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The index follows committed changes, so the data here is committed and removed afterwards
+ */
+@SpringBootTest
+class ThesisSearchIndexTest {
+
+    private static final String[] WORDS = {
+            "sistemas", "distribuídos", "redes", "neuronais", "aprendizagem", "automática", "segurança",
+            "informática", "visão", "computacional", "gestão", "dados", "aplicações", "móveis", "análise",
+            "desempenho", "compiladores", "otimização", "interfaces", "jogos", "robótica", "energia",
+            "blockchain", "privacidade", "cloud", "edge", "language", "models", "graphs", "quantum"};
+
+    @Autowired
+    private ThesisSearchIndex searchIndex;
+
+    @Autowired
+    private ThesisWorkflowService thesisService;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private DashboardReadModel dashboardReadModel;
+
+    @Autowired
+    private JuryWorkloadIndex juryWorkloadIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> personIds = new ArrayList<>();
+
+    @AfterEach
+    void removeData() {
+        for (Long personId : personIds) {
+            jdbcTemplate.update("DELETE FROM workflow_events WHERE student_id = ?", personId);
+            jdbcTemplate.update("DELETE FROM thesis_jury_members WHERE thesis_id IN " +
+                    "(SELECT id FROM thesis_workflows WHERE student_id = ?)", personId);
+            jdbcTemplate.update("DELETE FROM thesis_workflows WHERE student_id = ?", personId);
+        }
+        personIds.forEach(personService::deletePerson);
+        dashboardReadModel.reload();
+        juryWorkloadIndex.reload();
+        searchIndex.reload();
+    }
+
+    @Test
+    void findsTitlesRegardlessOfAccentsPluralAndPrefixes() {
+        long teacher = createPerson("TEACHER");
+        long shortTitle = submit(teacher, "Quasicristais em Redes Neuronais");
+        long longTitle = submit(teacher, "Simulação de Quasicristais com Redes Neuronais Profundas para Aplicações Móveis");
+        long other = submit(teacher, "Gestão de Quasicristal");
+
+        // The shorter title is the better match
+        assertEquals(List.of(shortTitle, longTitle), ids(thesisService.search("quasicristal rede neuronal", null, null)));
+        assertEquals(List.of(longTitle), ids(thesisService.search("APLICACAO movel", null, null)));
+        assertTrue(ids(thesisService.search("gestao", null, null)).contains(other));
+        assertEquals(List.of(longTitle), ids(thesisService.search("simul quasicr prof", null, null)));
+        assertEquals(Set.of(shortTitle, longTitle, other), Set.copyOf(ids(thesisService.search("quasicrist", null, null))));
+
+        // Keyset paging walks the same ranking
+        CursorPage<ThesisWorkflow> first = thesisService.search("quasicrist", null, 2);
+        assertNotNull(first.nextCursor());
+        CursorPage<ThesisWorkflow> second = thesisService.search("quasicrist", first.nextCursor(), 2);
+        assertNull(second.nextCursor());
+        List<Long> paged = new ArrayList<>(ids(first));
+        paged.addAll(ids(second));
+        assertEquals(ids(thesisService.search("quasicrist", null, null)), paged);
+
+        // A rejected proposal is deleted, and no longer found
+        thesisService.rejectThesisProposal(other, null, Person.PersonType.SC);
+        assertEquals(List.of(shortTitle, longTitle), ids(thesisService.search("quasicrist", null, null)));
+    }
+
+    @Test
+    void answersQuicklyOverManyTitles() {
+        ThesisSearchIndex index = new ThesisSearchIndex();
+        Random random = new Random(42);
+        int titles = 300_000;
+        for (int i = 1; i <= titles; i++) {
+            StringBuilder title = new StringBuilder();
+            for (int w = 3 + random.nextInt(6); w > 0; w--) {
+                title.append(WORDS[random.nextInt(WORDS.length)]).append(" de ");
+            }
+            index.put(i, i, title.toString());
+        }
+        assertEquals(titles, index.size());
+
+        String[] queries = {"sistemas distrib", "redes neuronais visao", "seguranca informatica cloud", "gest dados", "qu"};
+        for (String query : queries) {
+            index.search(query, Float.POSITIVE_INFINITY, 0, 51);
+        }
+        long start = System.nanoTime();
+        int rounds = 20;
+        for (int round = 0; round < rounds; round++) {
+            for (String query : queries) {
+                List<ThesisSearchIndex.Hit> hits = index.search(query, Float.POSITIVE_INFINITY, 0, 51);
+                assertEquals(51, hits.size());
+                assertEquals(hits.size(), new HashSet<>(hits).size());
+            }
+        }
+        long averageMicros = (System.nanoTime() - start) / 1000 / (rounds * queries.length);
+        // Very broad queries match most of the titles; selective ones take far less
+        assertTrue(averageMicros < 100_000, "average query took " + averageMicros + " us");
+    }
+
+    @Test
+    void flagsNearDuplicateTitlesWithoutScanningThemAll() {
+        long teacher = createPerson("TEACHER");
+        long original = submit(teacher, "Deteção de Anomalias em Tráfego de Redes Veiculares");
+        ThesisWorkflowDto resubmission = thesisService.submitJuryProposal(createPerson("STUDENT"), List.of(teacher),
+                "Detecção de anomalias no tráfego das redes veiculares");
+        assertEquals(List.of(original), resubmission.getSimilarTheses().stream()
+                .map(similar -> similar.getThesisId()).toList());
+
+        ThesisSearchIndex index = new ThesisSearchIndex();
+        Random random = new Random(7);
+        String[] vocabulary = new String[5000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int c = 5 + random.nextInt(6); c > 0; c--) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            vocabulary[i] = word.toString();
+        }
+        List<String> titles = new ArrayList<>();
+        for (int i = 1; i <= 200_000; i++) {
+            StringBuilder title = new StringBuilder();
+            for (int w = 5 + random.nextInt(4); w > 0; w--) {
+                title.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+            }
+            titles.add(title.toString());
+            index.put(i, i, title.toString());
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            // One typo away from an existing title
+            String title = titles.get(random.nextInt(titles.size()));
+            int typo = random.nextInt(title.length() - 1);
+            String changed = title.substring(0, typo) + (title.charAt(typo) == ' ' ? ' ' : 'x') + title.substring(typo + 1);
+            List<ThesisSearchIndex.Similar> similar = index.similar(changed, 0, 0.7, 5);
+            assertTrue(similar.stream().anyMatch(s -> s.title().equals(title)), changed);
+        }
+        long averageMicros = (System.nanoTime() - start) / 1000 / 1000;
+        assertTrue(averageMicros < 5_000, "average lookup took " + averageMicros + " us");
+        assertTrue(index.similar("completely unrelated words here", 0, 0.7, 5).isEmpty());
+    }
+
+    private long submit(long teacher, String title) {
+        long student = createPerson("STUDENT");
+        return thesisService.submitJuryProposal(student, List.of(teacher), title).getId();
+    }
+
+    private List<Long> ids(CursorPage<ThesisWorkflow> page) {
+        return page.items().stream().map(ThesisWorkflow::getId).toList();
+    }
+
+    private long createPerson(String type) {
+        int n = personIds.size() + 1;
+        PersonDto person = personService.createPerson(new PersonDto(0, "Search " + n, "ist1" + (710000 + n),
+                "search" + n + "@tecnico.ulisboa.pt", type));
+        personIds.add(person.id());
+        return person.id();
+    }
+}
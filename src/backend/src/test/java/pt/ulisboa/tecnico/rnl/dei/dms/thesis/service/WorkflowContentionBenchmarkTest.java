@@ -0,0 +1,234 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import pt.ulisboa.tecnico.rnl.dei.dms.WorkflowFixtures;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.service.DashboardReadModel;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.DefenseWorkflowRepository;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.repository.ThesisWorkflowRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress harness for concurrent transitions on a few hot workflows.
+ *
+ * Threads move the same theses (and defenses) forwards and back at random. Forward transitions
+ * go through TransitionRetry; reverts do not. Every committed transition bumps the version once,
+ * so a workflow whose version differs from its number of successful transitions lost an update.
+ * Throughput, conflict rate and lost updates are logged. Unlike the other tests this one
+ * commits, so it removes its data afterwards.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class WorkflowContentionBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowContentionBenchmarkTest.class);
+
+    private static final int THREADS = 8;
+
+    private static final int OPERATIONS_PER_THREAD = 150;
+
+    private static final int WORKFLOWS = 4;
+
+    @Autowired
+    private ThesisWorkflowService thesisService;
+
+    @Autowired
+    private DefenseWorkflowService defenseService;
+
+    @Autowired
+    private TransitionRetry transitionRetry;
+
+    @Autowired
+    private ThesisWorkflowRepository thesisRepository;
+
+    @Autowired
+    private DefenseWorkflowRepository defenseRepository;
+
+    @Autowired
+    private DashboardReadModel dashboardReadModel;
+
+    @Autowired
+    private WorkflowFixtures fixtures;
+
+    @AfterEach
+    void removeData() {
+        fixtures.removeAll();
+        dashboardReadModel.reload();
+    }
+
+    @Test
+    void concurrentThesisTransitionsNeverLoseUpdates() throws InterruptedException {
+        Person teacher = fixtures.person(Person.PersonType.TEACHER);
+        List<Long> thesisIds = new ArrayList<>();
+        for (int i = 0; i < WORKFLOWS; i++) {
+            thesisIds.add(fixtures.thesis(ThesisStatus.APPROVED_BY_SC, List.of(teacher.getId())).getId());
+        }
+
+        Report report = hammer("thesis president/revert", thesisIds,
+                id -> transitionRetry.run(() -> thesisService.assignJuryPresident(id, teacher.getId(), Person.PersonType.COORDINATOR)),
+                id -> thesisService.revertToPreviousState(id, Person.PersonType.COORDINATOR));
+
+        for (Long id : thesisIds) {
+            ThesisWorkflow thesis = thesisRepository.findById(id).orElseThrow();
+            report.checkVersion(id, thesis.getVersion());
+            report.checkStatus(id, thesis.getStatus() == ThesisStatus.JURY_PRESIDENT_ASSIGNED);
+        }
+        report.log();
+        assertEquals(0, report.lostUpdates.get());
+        assertTrue(report.succeeded() > 0);
+    }
+
+    @Test
+    void concurrentDefenseTransitionsNeverLoseUpdates() throws InterruptedException {
+        List<Long> defenseIds = new ArrayList<>();
+        for (int i = 0; i < WORKFLOWS; i++) {
+            defenseIds.add(fixtures.defense(DefenseStatus.DEFENSE_SCHEDULED, LocalDateTime.now().plusYears(1),
+                    List.of()).getId());
+        }
+
+        Report report = hammer("defense review/revert", defenseIds,
+                id -> transitionRetry.run(() -> defenseService.setUnderReview(id, Person.PersonType.COORDINATOR)),
+                id -> defenseService.revertToPreviousState(id, Person.PersonType.COORDINATOR));
+
+        for (Long id : defenseIds) {
+            DefenseWorkflow defense = defenseRepository.findById(id).orElseThrow();
+            report.checkVersion(id, defense.getVersion());
+            report.checkStatus(id, defense.getStatus() == DefenseStatus.UNDER_REVIEW);
+        }
+        report.log();
+        assertEquals(0, report.lostUpdates.get());
+        assertTrue(report.succeeded() > 0);
+    }
+
+    private Report hammer(String name, List<Long> ids, Transition forward, Transition back)
+            throws InterruptedException {
+        Report report = new Report(name, transitionRetry.getRetryCount());
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < THREADS; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    Long id = ids.get(random.nextInt(ids.size()));
+                    boolean forwards = random.nextBoolean();
+                    try {
+                        (forwards ? forward : back).apply(id);
+                        report.recordSuccess(id, forwards);
+                    } catch (OptimisticLockingFailureException e) {
+                        report.conflicts.incrementAndGet();
+                    } catch (DEIException e) {
+                        // Not in the right status for this transition
+                        report.rejected.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+        report.elapsedNanos = System.nanoTime() - startedAt;
+        report.retries = transitionRetry.getRetryCount() - report.retriesBefore;
+        return report;
+    }
+
+    @FunctionalInterface
+    private interface Transition {
+        void apply(Long id);
+    }
+
+    private static final class Report {
+        private final String name;
+        private final long retriesBefore;
+        private final Map<Long, AtomicInteger> forwards = new ConcurrentHashMap<>();
+        private final Map<Long, AtomicInteger> backs = new ConcurrentHashMap<>();
+        private final AtomicLong conflicts = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong lostUpdates = new AtomicLong();
+        private long retries;
+        private long elapsedNanos;
+
+        Report(String name, long retriesBefore) {
+            this.name = name;
+            this.retriesBefore = retriesBefore;
+        }
+
+        void recordSuccess(Long id, boolean forward) {
+            (forward ? forwards : backs).computeIfAbsent(id, k -> new AtomicInteger()).incrementAndGet();
+        }
+
+        long succeeded() {
+            return count(forwards) + count(backs);
+        }
+
+        void checkVersion(Long id, Long version) {
+            int transitions = count(forwards, id) + count(backs, id);
+            if (version != transitions) {
+                lostUpdates.addAndGet(Math.abs(transitions - version));
+            }
+        }
+
+        // Starting from the earlier status, the workflow is ahead iff it went forwards once more than back
+        void checkStatus(Long id, boolean ahead) {
+            int difference = count(forwards, id) - count(backs, id);
+            if (difference != (ahead ? 1 : 0)) {
+                lostUpdates.incrementAndGet();
+            }
+        }
+
+        void log() {
+            long attempts = THREADS * (long) OPERATIONS_PER_THREAD;
+            double seconds = elapsedNanos / 1e9;
+            logger.info("{}: {} threads, {} operations on {} workflows in {}s ({} ops/s)",
+                    name, THREADS, attempts, WORKFLOWS, String.format("%.2f", seconds),
+                    Math.round(attempts / seconds));
+            logger.info("{}: succeeded {}, rejected {}, conflicts {} ({}%), retries {}, lost updates {}",
+                    name, succeeded(), rejected.get(), conflicts.get(),
+                    String.format("%.1f", 100.0 * conflicts.get() / attempts), retries, lostUpdates.get());
+        }
+
+        private static int count(Map<Long, AtomicInteger> counts, Long id) {
+            AtomicInteger count = counts.get(id);
+            return count != null ? count.get() : 0;
+        }
+
+        private static long count(Map<Long, AtomicInteger> counts) {
+            return counts.values().stream().mapToLong(AtomicInteger::get).sum();
+        }
+    }
+}
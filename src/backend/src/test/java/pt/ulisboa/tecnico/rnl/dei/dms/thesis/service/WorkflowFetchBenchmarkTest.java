@@ -0,0 +1,123 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import pt.ulisboa.tecnico.rnl.dei.dms.dashboard.service.DashboardReadModel;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Queries issued and entities loaded by the list endpoints and the dashboard.
+ * The numbers are logged so they can be compared between mappings.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class WorkflowFetchBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowFetchBenchmarkTest.class);
+
+    private static final int STUDENTS = 60;
+
+    @Autowired
+    private ThesisWorkflowService thesisService;
+
+    @Autowired
+    private DefenseWorkflowService defenseService;
+
+    @Autowired
+    private DashboardReadModel dashboardReadModel;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        createWorkflows();
+    }
+
+    @Test
+    void listEndpointsLoadOnlyWhatTheyReturn() {
+        Measurement thesisList = measure("GET /api/thesis",
+                () -> thesisService.toDtoList(thesisService.findAll()));
+        Measurement thesisPage = measure("GET /api/thesis?limit=50",
+                () -> thesisService.toDtoList(thesisService.findPage(null, null, 50).items()));
+        Measurement defenseList = measure("GET /api/defense",
+                () -> defenseService.toDtoList(defenseService.findAll()));
+        Measurement defensePage = measure("GET /api/defense?limit=50",
+                () -> defenseService.toDtoList(defenseService.findPage(null, null, 50).items()));
+        Measurement dashboard = measure("dashboard reload", dashboardReadModel::reload);
+
+        // Theses with their students in one query, jury ids batch-loaded 50 theses at a time
+        assertEquals(1 + 2, thesisList.statements());
+        assertEquals(2 * STUDENTS, thesisList.entities());
+        assertEquals(STUDENTS, thesisList.collections());
+        assertEquals(1 + 1, thesisPage.statements());
+        // Defenses only need the ids of their student and thesis
+        assertEquals(1, defenseList.statements());
+        assertEquals(STUDENTS / 2, defenseList.entities());
+        assertEquals(1, defensePage.statements());
+        assertEquals(1, dashboard.statements());
+    }
+
+    private Measurement measure(String name, Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        Measurement measurement = new Measurement(statistics.getPrepareStatementCount(),
+                statistics.getEntityLoadCount(), statistics.getCollectionLoadCount());
+        logger.info("{}: {} statements, {} entities, {} collections",
+                name, measurement.statements(), measurement.entities(), measurement.collections());
+        return measurement;
+    }
+
+    // Every student has a thesis with a president and two jury members, every other one a defense
+    private void createWorkflows() {
+        Person first = new Person("Teacher A", "ist1800001", "teacher.a@tecnico.ulisboa.pt", Person.PersonType.TEACHER);
+        Person second = new Person("Teacher B", "ist1800002", "teacher.b@tecnico.ulisboa.pt", Person.PersonType.TEACHER);
+        entityManager.persist(first);
+        entityManager.persist(second);
+
+        for (int i = 0; i < STUDENTS; i++) {
+            Person student = new Person("Student " + i, "ist1" + (900000 + i),
+                    "student" + i + "@tecnico.ulisboa.pt", Person.PersonType.STUDENT);
+            entityManager.persist(student);
+
+            ThesisWorkflow thesis = new ThesisWorkflow(student, ThesisWorkflow.ThesisStatus.SUBMITTED_TO_FENIX,
+                    LocalDateTime.now().minusDays(i), "Thesis " + i, List.of(first.getId(), second.getId()));
+            thesis.setJuryPresident(first);
+            entityManager.persist(thesis);
+
+            if (i % 2 == 0) {
+                entityManager.persist(new DefenseWorkflow(student, thesis,
+                        DefenseWorkflow.DefenseStatus.UNSCHEDULED, null));
+            }
+        }
+    }
+
+    private record Measurement(long statements, long entities, long collections) {
+    }
+}
@@ -0,0 +1,141 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.service;
+
+import jakarta.persistence.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Inserting 10k thesis workflows with IDENTITY ids (as before) and with pooled sequence ids (as now).
+ * With IDENTITY every insert is its own statement, since Hibernate needs the generated key back;
+ * with the pooled sequence the inserts go out in JDBC batches. Times and statement counts are logged.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+@Tag("benchmark")
+class WorkflowInsertBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowInsertBenchmarkTest.class);
+
+    private static final int WORKFLOWS = 10_000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long studentId;
+
+    @AfterEach
+    void removeData() {
+        jdbcTemplate.update("DELETE FROM identity_thesis_workflows");
+        jdbcTemplate.update("DELETE FROM thesis_workflows WHERE student_id = ?", studentId);
+        jdbcTemplate.update("DELETE FROM people WHERE id = ?", studentId);
+    }
+
+    @Test
+    void pooledSequenceBatchesInserts() {
+        Person student = transactionTemplate.execute(status -> {
+            Person person = new Person("Insert Benchmark", "ist1900001", "insert.benchmark@tecnico.ulisboa.pt",
+                    Person.PersonType.STUDENT);
+            entityManager.persist(person);
+            return person;
+        });
+        studentId = student.getId();
+        LocalDateTime now = LocalDateTime.now();
+
+        Measurement identity = measure("IDENTITY", s -> new IdentityThesisWorkflow(s, now, "Benchmark"));
+        Measurement pooled = measure("pooled sequence",
+                s -> new ThesisWorkflow(s, ThesisStatus.PROPOSAL_SUBMITTED, now, "Benchmark", List.of()));
+
+        assertEquals(WORKFLOWS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM thesis_workflows WHERE student_id = ?", Integer.class, studentId));
+        assertTrue(identity.statements() >= WORKFLOWS);
+        // One statement per batch of 50 inserts, plus one sequence call per 50 ids
+        assertTrue(pooled.statements() <= 2 * WORKFLOWS / 50 + 10, "statements: " + pooled.statements());
+    }
+
+    private Measurement measure(String label, Function<Person, Object> workflow) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Person student = entityManager.getReference(Person.class, studentId);
+            for (int i = 0; i < WORKFLOWS; i++) {
+                entityManager.persist(workflow.apply(student));
+            }
+        });
+
+        Measurement measurement = new Measurement((System.nanoTime() - start) / 1_000_000,
+                statistics.getPrepareStatementCount());
+        logger.info("{}: {} inserts in {} ms, {} statements",
+                label, WORKFLOWS, measurement.millis(), measurement.statements());
+        return measurement;
+    }
+
+    private record Measurement(long millis, long statements) {
+    }
+
+    /**
+     * Same columns as thesis_workflows, with the id mapping ThesisWorkflow had before
+     */
+    @Entity
+    @Table(name = "identity_thesis_workflows")
+    static class IdentityThesisWorkflow {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @ManyToOne(fetch = FetchType.LAZY)
+        @JoinColumn(name = "student_id", nullable = false)
+        private Person student;
+
+        @Column(name = "status", nullable = false)
+        private String status = ThesisStatus.PROPOSAL_SUBMITTED.getDatabaseValue();
+
+        @Column(name = "submission_date", nullable = false)
+        private LocalDateTime submissionDate;
+
+        @Column(name = "title", nullable = false)
+        private String title;
+
+        protected IdentityThesisWorkflow() {
+        }
+
+        IdentityThesisWorkflow(Person student, LocalDateTime submissionDate, String title) {
+            this.student = student;
+            this.submissionDate = submissionDate;
+            this.title = title;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package pt.ulisboa.tecnico.rnl.dei.dms.thesis.workflow;
+
+import org.junit.jupiter.api.Test;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.DEIException;
+import pt.ulisboa.tecnico.rnl.dei.dms.exceptions.ErrorMessage;
+import pt.ulisboa.tecnico.rnl.dei.dms.person.domain.Person.PersonType;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.DefenseWorkflow.DefenseStatus;
+import pt.ulisboa.tecnico.rnl.dei.dms.thesis.domain.ThesisWorkflow.ThesisStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkflowStateMachineTest {
+
+    @Test
+    void transitionsAreKeyedByStatusActionAndRole() {
+        assertEquals(ThesisStatus.APPROVED_BY_SC, WorkflowStateMachine.THESIS
+                .find(ThesisStatus.PROPOSAL_SUBMITTED, ThesisAction.APPROVE, PersonType.SC).to());
+        assertNull(WorkflowStateMachine.THESIS
+                .find(ThesisStatus.PROPOSAL_SUBMITTED, ThesisAction.APPROVE, PersonType.STAFF));
+
+        // Each role reverts its own step
+        assertEquals(ThesisStatus.DOCUMENT_SIGNED, WorkflowStateMachine.THESIS
+                .find(ThesisStatus.SUBMITTED_TO_FENIX, ThesisAction.REVERT, PersonType.STAFF).to());
+        assertNull(WorkflowStateMachine.THESIS
+                .find(ThesisStatus.SUBMITTED_TO_FENIX, ThesisAction.REVERT, PersonType.COORDINATOR));
+
+        // Only the application starts the review of a defense without a role
+        assertEquals(DefenseStatus.UNDER_REVIEW, WorkflowStateMachine.DEFENSE
+                .find(DefenseStatus.DEFENSE_SCHEDULED, DefenseAction.START_REVIEW, null).to());
+        assertTrue(WorkflowStateMachine.DEFENSE.allows(DefenseAction.CREATE, null));
+        assertFalse(WorkflowStateMachine.DEFENSE.allows(DefenseAction.CREATE, PersonType.COORDINATOR));
+    }
+
+    @Test
+    void rejectionsTellWrongStatusFromWrongRole() {
+        DEIException wrongRole = assertThrows(DEIException.class, () -> WorkflowStateMachine.THESIS
+                .check(ThesisStatus.PROPOSAL_SUBMITTED, ThesisAction.APPROVE, PersonType.STUDENT));
+        assertEquals(ErrorMessage.UNAUTHORIZED, wrongRole.getErrorMessage());
+
+        DEIException wrongStatus = assertThrows(DEIException.class, () -> WorkflowStateMachine.THESIS
+                .check(ThesisStatus.DOCUMENT_SIGNED, ThesisAction.APPROVE, PersonType.SC));
+        assertEquals(ErrorMessage.INVALID_WORKFLOW_STATE, wrongStatus.getErrorMessage());
+    }
+}